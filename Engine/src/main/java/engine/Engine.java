@@ -1,14 +1,20 @@
 package engine;
 
 import engine.gl.vertex.DrawMode;
+import engine.util.FixedStep;
+import engine.util.FramePacer;
+import engine.util.JobSystem;
 import engine.util.Logger;
 import engine.util.ThreadExecutor;
+import engine.util.TripleBuffer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Vector2i;
 import org.joml.Vector2ic;
 import org.lwjgl.glfw.GLFW;
 
 import static engine.Renderer.*;
+import static org.lwjgl.glfw.GLFW.glfwPollEvents;
 import static org.lwjgl.glfw.GLFW.glfwWaitEvents;
 
 public abstract class Engine
@@ -22,11 +28,36 @@ public abstract class Engine
     private static final Thread mainThread   = Thread.currentThread();
     private static final Thread renderThread = new Thread(Engine::renderThread, "render");
     
-    private static boolean shouldMainThreadRun   = false;
-    private static boolean shouldRenderThreadRun = false;
+    private static volatile boolean shouldMainThreadRun   = false;
+    private static volatile boolean shouldRenderThreadRun = false;
+    
+    private static TripleBuffer<?> snapshots = null;
+    
+    /**
+     * The longest time the render thread waits for a snapshot before
+     * checking whether the engine was stopped.
+     */
+    private static final long PIPELINE_WAIT = 10_000_000L;
     
     public static final ThreadExecutor executor = new ThreadExecutor(Engine.mainThread);
     
+    /**
+     * The number of job worker threads started with the engine.
+     */
+    public static int JOB_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    
+    private static JobSystem jobs;
+    
+    /**
+     * @return The job system for spreading work over all cores. Handles of
+     * jobs created during update or draw are reused once it returns.
+     */
+    public static @NotNull JobSystem jobs()
+    {
+        if (Engine.jobs == null) throw new IllegalStateException("Engine is not running.");
+        return Engine.jobs;
+    }
+    
     protected static void start(@NotNull Engine instance)
     {
         try
@@ -48,6 +79,7 @@ public abstract class Engine
         {
             destroyEngine();
             
+            Logger.reportSuppressed();
             Engine.LOGGER.info("Finished");
             
             Engine.instance = null;
@@ -59,21 +91,58 @@ public abstract class Engine
         Engine.shouldRenderThreadRun = false;
     }
     
+    /**
+     * @return {@code true} if update runs on its own thread.
+     */
+    public static boolean pipelined()
+    {
+        return Engine.snapshots != null;
+    }
+    
+    /**
+     * Runs update on a separate "update" thread so that simulation and
+     * drawing overlap. Must be called before the render thread starts, for
+     * example from the constructor or {@link #setup()}.
+     * <p>
+     * Update writes everything draw needs into {@link TripleBuffer#back()}.
+     * The engine publishes it after each update, and acquires the newest
+     * one on the render thread before each draw, where it is read through
+     * {@link TripleBuffer#front()}. Draw therefore shows the state of the
+     * last finished update, and should not read game state or {@link IO}
+     * events directly. Drawing waits for the first update. Without a draw
+     * frequency target, each snapshot is drawn once and the render thread
+     * sleeps until the next one. The draw alpha is always {@code 1.0} in
+     * this mode.
+     *
+     * @param snapshots The buffer to hand frames over with, or {@code null}
+     *                  to run update and draw on the render thread.
+     */
+    public static void pipelined(@Nullable TripleBuffer<?> snapshots)
+    {
+        if (Engine.renderThread.isAlive()) throw new IllegalStateException("Cannot change pipelining while the engine is running.");
+        
+        Engine.snapshots = snapshots;
+    }
+    
     private static void setupEngine()
     {
         Engine.shouldMainThreadRun   = true;
         Engine.shouldRenderThreadRun = true;
         
         Engine.executor.onTaskReceived = GLFW::glfwPostEmptyEvent;
+        Engine.executor.maxNanos       = 4_000_000L;
         
         Engine.start = System.nanoTime();
         
+        Engine.jobs = new JobSystem(Engine.JOB_WORKERS);
+        
         IO.setup(Engine.instance.size, "Engine - " + Engine.instance.name);
         
-        Renderer.setup();
+        Renderer.setup(Engine.instance.size.x(), Engine.instance.size.y());
         
         Engine.LOGGER.debug("Instance Setup");
         Engine.instance.setup();
+        Engine.jobs.endFrame();
         
         IO.windowUnmakeCurrent();
     }
@@ -84,7 +153,15 @@ public abstract class Engine
         
         while (Engine.shouldMainThreadRun)
         {
-            glfwWaitEvents();
+            // Tasks left over from the last budget must not wait for the next event
+            if (Engine.executor.hasTasks())
+            {
+                glfwPollEvents();
+            }
+            else
+            {
+                glfwWaitEvents();
+            }
             
             Engine.executor.processQueue();
             
@@ -108,40 +185,120 @@ public abstract class Engine
         Renderer.destroy();
         
         IO.destroy();
+        
+        if (Engine.jobs != null)
+        {
+            try
+            {
+                Engine.jobs.shutdown();
+            }
+            catch (InterruptedException e)
+            {
+                Engine.LOGGER.warning("Interrupted while stopping job workers");
+            }
+            Engine.jobs = null;
+        }
     }
     
     private static void renderThread()
     {
         long currentTime = Engine.nanoseconds();
         
+        Engine.updatePacer.reset(currentTime);
+        Engine.drawPacer.reset(currentTime);
+        
         Engine.updateTimeLast = currentTime;
-        Engine.drawTimeLast   = currentTime;
+        Engine.fixedTime      = currentTime;
+        
+        Thread updateThread = null;
         
         try
         {
             IO.windowMakeCurrent();
             
+            TripleBuffer<?> snapshots = Engine.snapshots;
+            boolean         acquired  = false;
+            if (snapshots != null)
+            {
+                updateThread = new Thread(Engine::updateThread, "update");
+                updateThread.start();
+            }
+            
             while (Engine.shouldRenderThreadRun)
             {
-                currentTime            = Engine.nanoseconds();
-                Engine.updateTimeDelta = currentTime - Engine.updateTimeLast;
-                if (Engine.updateTimeDelta >= Engine.updateFreqInv)
+                currentTime = Engine.nanoseconds();
+                if (snapshots == null && Engine.updatePacer.due(currentTime)) updateFrame(currentTime);
+                
+                currentTime = Engine.nanoseconds();
+                boolean fresh = snapshots != null && snapshots.acquire();
+                if (fresh) acquired = true;
+                
+                // Without a draw target, a snapshot is only drawn once
+                boolean ready = snapshots == null || acquired && (fresh || Engine.drawPacer.period() > 0L);
+                if (Engine.drawPacer.due(currentTime) && ready)
                 {
-                    Engine.updateTimeLast = currentTime;
+                    Engine.drawTimeDelta = Engine.drawPacer.advance(currentTime);
+                    
+                    double alpha = snapshots == null && Engine.fixedUpdate && Engine.updatePacer.period() > 0L ? Engine.fixedStep.alpha(currentTime - Engine.updateTimeLast) : 1.0;
                     
-                    updateRenderThread(Engine.updateFrame++, currentTime, Engine.updateTimeDelta);
+                    drawRenderThread(Engine.drawFrame++, currentTime, Engine.drawTimeDelta, alpha);
+                    
+                    Engine.jobs.endFrame();
                 }
                 
-                currentTime          = Engine.nanoseconds();
-                Engine.drawTimeDelta = currentTime - Engine.drawTimeLast;
-                if (Engine.drawTimeDelta >= Engine.drawFreqInv)
+                if (snapshots != null && (!acquired || Engine.drawPacer.period() <= 0L))
+                {
+                    // Nothing to draw until the update thread publishes
+                    snapshots.await(Engine.PIPELINE_WAIT);
+                }
+                else
                 {
-                    Engine.drawTimeLast = currentTime;
+                    // Wait for whichever frame is due first, using its policy
+                    FramePacer next = snapshots == null && Engine.updatePacer.deadline() <= Engine.drawPacer.deadline() ? Engine.updatePacer : Engine.drawPacer;
+                    next.sleep(next.deadline() - Engine.nanoseconds());
+                }
+            }
+        }
+        catch (Throwable e)
+        {
+            Engine.LOGGER.severe(e);
+        }
+        finally
+        {
+            Engine.shouldMainThreadRun   = false;
+            Engine.shouldRenderThreadRun = false;
+            
+            if (updateThread != null)
+            {
+                try
+                {
+                    updateThread.join();
+                }
+                catch (InterruptedException e)
+                {
+                    Engine.LOGGER.warning("Interrupted while waiting for update thread");
+                }
+            }
+            
+            IO.windowUnmakeCurrent();
+        }
+    }
+    
+    private static void updateThread()
+    {
+        try
+        {
+            while (Engine.shouldRenderThreadRun)
+            {
+                long currentTime = Engine.nanoseconds();
+                if (Engine.updatePacer.due(currentTime))
+                {
+                    updateFrame(currentTime);
                     
-                    drawRenderThread(Engine.drawFrame++, currentTime, Engine.drawTimeDelta);
+                    Engine.snapshots.publish();
                 }
                 
-                Thread.yield();
+                Engine.updatePacer.sleep(Engine.updatePacer.deadline() - Engine.nanoseconds());
             }
         }
         catch (Throwable e)
@@ -150,10 +307,35 @@ public abstract class Engine
         }
         finally
         {
-            Engine.shouldMainThreadRun = false;
+            stop();
+        }
+    }
+    
+    private static void updateFrame(long currentTime)
+    {
+        Engine.updateTimeDelta = Engine.updatePacer.advance(currentTime);
+        Engine.updateTimeLast  = currentTime;
+        
+        long step = Engine.updatePacer.period();
+        if (Engine.fixedUpdate && step > 0L)
+        {
+            for (int i = 0, n = Engine.fixedStep.advance(Engine.updateTimeDelta, step); i < n; i++)
+            {
+                Engine.fixedTime += step;
+                
+                updateRenderThread(Engine.updateFrame++, Engine.fixedTime, step);
+            }
+        }
+        else
+        {
+            // Start from here when fixed steps are turned on
+            Engine.fixedTime = currentTime;
+            Engine.fixedStep.reset();
             
-            IO.windowUnmakeCurrent();
+            updateRenderThread(Engine.updateFrame++, currentTime, Engine.updateTimeDelta);
         }
+        
+        Engine.jobs.endFrame();
     }
     
     private static void updateRenderThread(int frame, long time, long deltaTime)
@@ -168,7 +350,7 @@ public abstract class Engine
         if (IO.windowOnClose().fired() && !IO.windowOnClose().consumed()) stop();
     }
     
-    private static void drawRenderThread(int frame, long time, long deltaTime)
+    private static void drawRenderThread(int frame, long time, long deltaTime, double alpha)
     {
         double timeD      = time / 1_000_000_000D;
         double deltaTimeD = deltaTime / 1_000_000_000D;
@@ -203,28 +385,33 @@ public abstract class Engine
         
         drawVertexEnd();
         
-        Engine.instance.draw(frame, timeD, deltaTimeD);
+        Engine.instance.draw(frame, timeD, deltaTimeD, alpha);
         
-        drawVertices();
+        drawEndFrame();
         
         IO.windowSwap();
+        
+        readPoll();
     }
     
     // -------------------- Time -------------------- //
     
     private static long start;
     
+    private static final FramePacer updatePacer = new FramePacer();
+    private static final FramePacer drawPacer   = new FramePacer();
+    
+    private static final FixedStep fixedStep = new FixedStep();
+    
     private static int  updateFrame     = 0;
-    private static int  updateFreq      = 0;
-    private static long updateFreqInv   = 0L;
     private static long updateTimeDelta = 0L;
     private static long updateTimeLast  = 0L;
     
+    private static boolean fixedUpdate = false;
+    private static long    fixedTime   = 0L;
+    
     private static int  drawFrame     = 0;
-    private static int  drawFreq      = 0;
-    private static long drawFreqInv   = 0L;
     private static long drawTimeDelta = 0L;
-    private static long drawTimeLast  = 0L;
     
     public static double seconds()
     {
@@ -248,24 +435,111 @@ public abstract class Engine
     
     public static int updateFrequencyTarget()
     {
-        return Engine.updateFreq;
+        return Engine.updatePacer.frequency();
     }
     
     public static void updateFrequencyTarget(int frequency)
     {
-        Engine.updateFreq    = Math.max(0, frequency);
-        Engine.updateFreqInv = frequency > 0 ? 1_000_000_000L / (long) frequency : 0L;
+        Engine.updatePacer.frequency(frequency);
+    }
+    
+    /**
+     * Sets the update frequency and how the render thread waits for it.
+     */
+    public static void updateFrequencyTarget(int frequency, @NotNull FramePacer.Policy policy)
+    {
+        Engine.updatePacer.frequency(frequency);
+        Engine.updatePacer.policy(policy);
+    }
+    
+    public static @NotNull FramePacer.Policy updatePolicy()
+    {
+        return Engine.updatePacer.policy();
+    }
+    
+    /**
+     * @return The number of update frames skipped because the render thread
+     * fell more than a whole frame behind.
+     */
+    public static long updateFramesMissed()
+    {
+        return Engine.updatePacer.missed();
+    }
+    
+    /**
+     * @return {@code true} if updates run in fixed steps.
+     */
+    public static boolean updateFixed()
+    {
+        return Engine.fixedUpdate;
+    }
+    
+    /**
+     * Runs updates in fixed steps of one update period instead of passing
+     * the measured frame time. When the render thread falls behind, up to
+     * {@link #updateMaxSteps()} steps run back to back to catch up, and
+     * draw receives how far it is between the last two steps. Has no effect
+     * while the update frequency target is {@code 0}.
+     */
+    public static void updateFixed(boolean fixed)
+    {
+        Engine.fixedUpdate = fixed;
+    }
+    
+    /**
+     * @return The maximum number of fixed steps run to catch up in a single
+     * frame.
+     */
+    public static int updateMaxSteps()
+    {
+        return Engine.fixedStep.maxSteps();
+    }
+    
+    public static void updateMaxSteps(int maxSteps)
+    {
+        Engine.fixedStep.maxSteps(maxSteps);
+    }
+    
+    /**
+     * @return The number of fixed steps dropped because more than
+     * {@link #updateMaxSteps()} were needed to catch up.
+     */
+    public static long updateStepsDropped()
+    {
+        return Engine.fixedStep.dropped();
     }
     
     public static int drawFrequencyTarget()
     {
-        return Engine.drawFreq;
+        return Engine.drawPacer.frequency();
     }
     
     public static void drawFrequencyTarget(int frequency)
     {
-        Engine.drawFreq    = Math.max(0, frequency);
-        Engine.drawFreqInv = frequency > 0 ? 1_000_000_000L / (long) frequency : 0L;
+        Engine.drawPacer.frequency(frequency);
+    }
+    
+    /**
+     * Sets the draw frequency and how the render thread waits for it.
+     */
+    public static void drawFrequencyTarget(int frequency, @NotNull FramePacer.Policy policy)
+    {
+        Engine.drawPacer.frequency(frequency);
+        Engine.drawPacer.policy(policy);
+    }
+    
+    public static @NotNull FramePacer.Policy drawPolicy()
+    {
+        return Engine.drawPacer.policy();
+    }
+    
+    /**
+     * @return The number of draw frames skipped because the render thread
+     * fell more than a whole frame behind.
+     */
+    public static long drawFramesMissed()
+    {
+        return Engine.drawPacer.missed();
     }
     
     // -------------------- Instance -------------------- //
@@ -306,5 +580,18 @@ public abstract class Engine
     
     protected abstract void draw(int frame, double time, double deltaTime);
     
+    /**
+     * Called instead of {@link #draw(int, double, double)} so that games
+     * using {@link #updateFixed(boolean) fixed updates} can interpolate
+     * between the last two steps.
+     *
+     * @param alpha How far the current time is between the last update and
+     *              the next, or {@code 1.0} when updates are not fixed.
+     */
+    protected void draw(int frame, double time, double deltaTime, double alpha)
+    {
+        draw(frame, time, deltaTime);
+    }
+    
     protected abstract void destroy();
 }
@@ -0,0 +1,552 @@
+package engine;
+
+import engine.color.ColorBuffer;
+import engine.color.ColorFormat;
+import engine.util.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.lwjgl.stb.STBImageWrite.*;
+
+/**
+ * Records the back buffer to disk without stalling the render thread.
+ * <p>
+ * {@link #capture()} is called on the render thread after drawing a frame.
+ * It starts an asynchronous read into a pooled ColorBuffer, and the finished
+ * read is handed through a bounded queue to a fixed set of encoder threads.
+ * When every pooled buffer is in use the frame is dropped and counted
+ * instead of waiting, so a slow disk never slows the game down.
+ */
+public class FrameCapture
+{
+    private static final Logger LOGGER = Logger.getLogger();
+    
+    private static final byte[] FRAME_MARKER = "FRAME\n".getBytes(StandardCharsets.US_ASCII);
+    
+    // -------------------- Creation -------------------- //
+    
+    private static final Builder BUILDER = new Builder();
+    
+    public static Builder builder(int width, int height)
+    {
+        return FrameCapture.BUILDER.reset(width, height);
+    }
+    
+    // -------------------- Instance -------------------- //
+    
+    public final int    width, height;
+    public final Format format;
+    
+    private final Path     path;
+    private final int      poolSize;
+    private final Thread[] encoders;
+    
+    private final BlockingQueue<Frame>               queue;
+    private final ConcurrentLinkedQueue<ColorBuffer> pool = new ConcurrentLinkedQueue<>();
+    private       int                                allocated;
+    
+    private final FileChannel            stream;
+    private final int                    frameBytes;
+    private final Map<Long, ByteBuffer>  pending = new HashMap<>();
+    private final ArrayDeque<ByteBuffer> spare   = new ArrayDeque<>();
+    private       long                   nextWrite;
+    
+    private long nextFrame;
+    
+    private final AtomicLong captured = new AtomicLong();
+    private final AtomicLong dropped  = new AtomicLong();
+    private final AtomicLong written  = new AtomicLong();
+    private final AtomicLong failed   = new AtomicLong();
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger running;
+    private final AtomicBoolean finishing = new AtomicBoolean();
+    private volatile boolean    stopped;
+    
+    private final CompletableFuture<FrameCapture> done = new CompletableFuture<>();
+    
+    private FrameCapture(int width, int height, Format format, Path path, int frameRate, int encoderCount, int poolSize) throws IOException
+    {
+        this.width     = width;
+        this.height    = height;
+        this.format    = format;
+        this.path      = path;
+        this.poolSize  = poolSize;
+        
+        // Every buffer is either being read, queued or encoded, so the queue can never overflow
+        this.queue = new ArrayBlockingQueue<>(poolSize + encoderCount);
+        
+        this.frameBytes = switch (format)
+                {
+                    case Y4M -> FrameCapture.FRAME_MARKER.length + width * height * 3;
+                    default -> width * height * 4;
+                };
+        
+        if (format.stream)
+        {
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            this.stream = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            if (format == Format.Y4M)
+            {
+                String header = String.format("YUV4MPEG2 W%d H%d F%d:1 Ip A1:1 C444\n", width, height, frameRate);
+                this.stream.write(ByteBuffer.wrap(header.getBytes(StandardCharsets.US_ASCII)));
+            }
+        }
+        else
+        {
+            Files.createDirectories(path);
+            this.stream = null;
+        }
+        
+        this.running  = new AtomicInteger(encoderCount);
+        this.encoders = new Thread[encoderCount];
+        for (int i = 0; i < encoderCount; i++)
+        {
+            this.encoders[i] = new Thread(this::encodeLoop, "FrameCapture-" + i);
+            this.encoders[i].setDaemon(true);
+            this.encoders[i].start();
+        }
+        
+        FrameCapture.LOGGER.debug("Started %s", this);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "FrameCapture{" + this.width + "x" + this.height + ' ' + this.format + " path=" + this.path + '}';
+    }
+    
+    /**
+     * @return The number of frames that were accepted by {@link #capture()}.
+     */
+    public long captured()
+    {
+        return this.captured.get();
+    }
+    
+    /**
+     * @return The number of frames that were dropped because every buffer
+     * was still being read or encoded.
+     */
+    public long dropped()
+    {
+        return this.dropped.get();
+    }
+    
+    /**
+     * @return The number of frames that have been written to disk.
+     */
+    public long written()
+    {
+        return this.written.get();
+    }
+    
+    /**
+     * @return The number of frames that could not be read or written.
+     */
+    public long failed()
+    {
+        return this.failed.get();
+    }
+    
+    /**
+     * @return The number of frames that are read, queued or being encoded.
+     */
+    public int backlog()
+    {
+        return this.inFlight.get() + this.queue.size();
+    }
+    
+    /**
+     * Captures the back buffer. Must be called on the render thread before
+     * the buffers are swapped.
+     *
+     * @return {@code false} if the frame was dropped.
+     */
+    public boolean capture()
+    {
+        return capture(buffer -> Renderer.readBackBufferAsync(0, 0, this.width, this.height, buffer));
+    }
+    
+    /**
+     * Captures a frame that is filled in by the read. Reads may finish in
+     * any order and on any thread.
+     */
+    boolean capture(@NotNull Function<ColorBuffer, CompletableFuture<?>> read)
+    {
+        if (this.stopped) return false;
+        
+        ColorBuffer data = this.pool.poll();
+        if (data == null)
+        {
+            if (this.allocated >= this.poolSize)
+            {
+                this.dropped.incrementAndGet();
+                return false;
+            }
+            this.allocated++;
+            data = ColorBuffer.malloc(ColorFormat.RGBA, this.width * this.height);
+        }
+        
+        long index = this.nextFrame++;
+        this.captured.incrementAndGet();
+        this.inFlight.incrementAndGet();
+        
+        ColorBuffer buffer = data;
+        read.apply(buffer).whenComplete((result, error) -> {
+            if (error != null)
+            {
+                FrameCapture.LOGGER.warning("Could not read frame %s: %s", index, error);
+                this.failed.incrementAndGet();
+            }
+            this.queue.add(new Frame(index, buffer, error == null));
+            if (this.inFlight.decrementAndGet() == 0 && this.stopped) finish();
+        });
+        return true;
+    }
+    
+    /**
+     * Stops accepting frames. Frames that were already captured are still
+     * written.
+     *
+     * @return A future that completes once the last frame is on disk. It
+     * must not be waited on by the render thread, which finishes the
+     * outstanding reads.
+     */
+    public @NotNull CompletableFuture<FrameCapture> stop()
+    {
+        if (!this.stopped)
+        {
+            this.stopped = true;
+            if (this.inFlight.get() == 0) finish();
+        }
+        return this.done;
+    }
+    
+    private void finish()
+    {
+        if (!this.finishing.compareAndSet(false, true)) return;
+        
+        for (int i = 0; i < this.encoders.length; i++) this.queue.add(Frame.END);
+    }
+    
+    private void encodeLoop()
+    {
+        // Streamed frames are encoded into the same buffer every time
+        ByteBuffer scratch = this.stream != null ? ByteBuffer.allocateDirect(this.frameBytes) : null;
+        try
+        {
+            while (true)
+            {
+                Frame frame = this.queue.take();
+                if (frame == Frame.END) break;
+                
+                try
+                {
+                    encode(frame, scratch);
+                }
+                catch (Throwable e)
+                {
+                    FrameCapture.LOGGER.severe("Could not write frame %s", frame.index);
+                    FrameCapture.LOGGER.severe(e);
+                    this.failed.incrementAndGet();
+                }
+                finally
+                {
+                    this.pool.add(frame.data);
+                }
+            }
+        }
+        catch (InterruptedException ignored)
+        {
+            Thread.currentThread().interrupt();
+        }
+        
+        if (this.running.decrementAndGet() == 0) close();
+    }
+    
+    private void encode(@NotNull Frame frame, ByteBuffer scratch) throws IOException
+    {
+        if (!frame.valid)
+        {
+            if (this.stream != null) writeOrdered(frame.index, null);
+            return;
+        }
+        
+        if (this.stream != null)
+        {
+            ByteBuffer buffer;
+            try
+            {
+                buffer = encodeStream(frame, scratch);
+            }
+            catch (Throwable e)
+            {
+                // Keep the stream in order even though this frame is missing
+                writeOrdered(frame.index, null);
+                throw e;
+            }
+            writeOrdered(frame.index, buffer);
+            return;
+        }
+        
+        int pixels = this.width * this.height;
+        switch (this.format)
+        {
+            case PNG, BMP, TGA ->
+            {
+                String     file   = this.path.resolve(String.format("frame_%06d%s", frame.index, this.format.extension)).toString();
+                ByteBuffer buffer = MemoryUtil.memByteBuffer(frame.data.address(), pixels * 4);
+                boolean success = switch (this.format)
+                        {
+                            case BMP -> stbi_write_bmp(file, this.width, this.height, 4, buffer);
+                            case TGA -> stbi_write_tga(file, this.width, this.height, 4, buffer);
+                            default -> stbi_write_png(file, this.width, this.height, 4, buffer, this.width * 4);
+                        };
+                if (!success) throw new IOException("Could not write " + file);
+                this.written.incrementAndGet();
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + this.format);
+        }
+    }
+    
+    private @NotNull ByteBuffer encodeStream(@NotNull Frame frame, @NotNull ByteBuffer buffer)
+    {
+        int pixels = this.width * this.height;
+        buffer.clear();
+        return switch (this.format)
+                {
+                    case RGBA ->
+                    {
+                        MemoryUtil.memCopy(frame.data.address(), MemoryUtil.memAddress(buffer), pixels * 4L);
+                        yield buffer;
+                    }
+                    case Y4M ->
+                    {
+                        buffer.put(FrameCapture.FRAME_MARKER);
+                        
+                        // BT.601 studio range, one plane at a time
+                        int  y       = FrameCapture.FRAME_MARKER.length, u = y + pixels, v = u + pixels;
+                        long address = frame.data.address();
+                        for (int i = 0; i < pixels; i++, address += 4)
+                        {
+                            int color = MemoryUtil.memGetInt(address);
+                            int r     = color & 0xFF, g = color >>> 8 & 0xFF, b = color >>> 16 & 0xFF;
+                            
+                            buffer.put(y + i, (byte) (((66 * r + 129 * g + 25 * b + 128) >> 8) + 16));
+                            buffer.put(u + i, (byte) (((-38 * r - 74 * g + 112 * b + 128) >> 8) + 128));
+                            buffer.put(v + i, (byte) (((112 * r - 94 * g - 18 * b + 128) >> 8) + 128));
+                        }
+                        yield buffer.clear();
+                    }
+                    default -> throw new IllegalStateException("Unexpected value: " + this.format);
+                };
+    }
+    
+    /**
+     * Writes encoded frames to the stream in capture order. A frame that
+     * finishes early is copied into a spare buffer and waits until the
+     * frames before it have been written, since the encoder reuses its
+     * buffer for the next frame.
+     *
+     * @param data The encoded frame, or {@code null} to skip the frame.
+     */
+    private void writeOrdered(long index, ByteBuffer data) throws IOException
+    {
+        synchronized (this.pending)
+        {
+            if (index != this.nextWrite)
+            {
+                ByteBuffer copy = null;
+                if (data != null)
+                {
+                    copy = this.spare.poll();
+                    if (copy == null) copy = ByteBuffer.allocateDirect(this.frameBytes);
+                    copy.clear();
+                    copy.put(data).flip();
+                }
+                this.pending.put(index, copy);
+                return;
+            }
+            
+            this.nextWrite++;
+            if (data != null) write(data);
+            while (this.pending.containsKey(this.nextWrite))
+            {
+                ByteBuffer buffer = this.pending.remove(this.nextWrite++);
+                if (buffer == null) continue;
+                
+                write(buffer);
+                this.spare.add(buffer);
+            }
+        }
+    }
+    
+    private void write(@NotNull ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining()) this.stream.write(buffer);
+        this.written.incrementAndGet();
+    }
+    
+    private void close()
+    {
+        try
+        {
+            if (this.stream != null) this.stream.close();
+        }
+        catch (IOException e)
+        {
+            FrameCapture.LOGGER.severe("Could not close %s", this.path);
+            FrameCapture.LOGGER.severe(e);
+        }
+        
+        ColorBuffer buffer;
+        while ((buffer = this.pool.poll()) != null) buffer.free();
+        
+        FrameCapture.LOGGER.debug("Stopped %s: captured=%s dropped=%s written=%s failed=%s", this, captured(), dropped(), written(), failed());
+        
+        this.done.complete(this);
+    }
+    
+    // -------------------- Sub-Classes -------------------- //
+    
+    public enum Format
+    {
+        /**
+         * A numbered sequence of PNG files in a directory.
+         */
+        PNG(".png", false),
+        /**
+         * A numbered sequence of BMP files in a directory.
+         */
+        BMP(".bmp", false),
+        /**
+         * A numbered sequence of TGA files in a directory.
+         */
+        TGA(".tga", false),
+        /**
+         * A single YUV4MPEG2 stream with 4:4:4 chroma.
+         */
+        Y4M(".y4m", true),
+        /**
+         * A single stream of headerless RGBA frames.
+         */
+        RGBA(".rgba", true),
+        ;
+        
+        public final String  extension;
+        public final boolean stream;
+        
+        Format(String extension, boolean stream)
+        {
+            this.extension = extension;
+            this.stream    = stream;
+        }
+    }
+    
+    private record Frame(long index, ColorBuffer data, boolean valid)
+    {
+        private static final Frame END = new Frame(-1, null, false);
+    }
+    
+    public static final class Builder
+    {
+        private int width, height;
+        
+        private Format format;
+        private Path   path;
+        private int    frameRate;
+        private int    encoders;
+        private int    poolSize;
+        
+        private Builder reset(int width, int height)
+        {
+            this.width  = width;
+            this.height = height;
+            
+            this.format    = Format.PNG;
+            this.path      = Path.of("capture");
+            this.frameRate = 60;
+            this.encoders  = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            this.poolSize  = 0;
+            
+            return this;
+        }
+        
+        /**
+         * @throws IOException if the output could not be created.
+         */
+        public @NotNull FrameCapture build() throws IOException
+        {
+            if (this.width <= 0 || this.height <= 0) throw new IllegalArgumentException("Invalid size: " + this.width + "x" + this.height);
+            
+            // Enough to keep every encoder busy while the next frames are being read
+            int poolSize = this.poolSize > 0 ? this.poolSize : 2 * this.encoders + 3;
+            return new FrameCapture(this.width, this.height, this.format, this.path, this.frameRate, this.encoders, poolSize);
+        }
+        
+        /**
+         * @param path A directory for image sequences, or a file for streams.
+         */
+        public @NotNull Builder output(@NotNull Format format, @NotNull Path path)
+        {
+            this.format = format;
+            this.path   = path;
+            
+            return this;
+        }
+        
+        /**
+         * Frame rate written to the Y4M header.
+         */
+        public @NotNull Builder frameRate(int frameRate)
+        {
+            if (frameRate <= 0) throw new IllegalArgumentException("Invalid frame rate: " + frameRate);
+            
+            this.frameRate = frameRate;
+            
+            return this;
+        }
+        
+        public @NotNull Builder encoders(int encoders)
+        {
+            if (encoders <= 0) throw new IllegalArgumentException("Invalid encoder count: " + encoders);
+            
+            this.encoders = encoders;
+            
+            return this;
+        }
+        
+        /**
+         * The number of frames that can be read or encoded at once before
+         * frames are dropped.
+         */
+        public @NotNull Builder poolSize(int poolSize)
+        {
+            if (poolSize <= 0) throw new IllegalArgumentException("Invalid pool size: " + poolSize);
+            
+            this.poolSize = poolSize;
+            
+            return this;
+        }
+    }
+}
@@ -620,7 +620,7 @@ public class IO
     {
         IO.LOGGER.trace("Setting Window Title: '%s'", title);
         
-        Engine.executor.submit(() -> glfwSetWindowTitle(IO.WINDOW_HANDLE, title));
+        Engine.executor.execute(() -> glfwSetWindowTitle(IO.WINDOW_HANDLE, title));
     }
     
     public static @Nullable String clipboard()
@@ -640,14 +640,14 @@ public class IO
     {
         IO.LOGGER.trace("Setting Window Clipboard: '%s'", string);
         
-        Engine.executor.submit(() -> glfwSetClipboardString(IO.WINDOW_HANDLE, string));
+        Engine.executor.execute(() -> glfwSetClipboardString(IO.WINDOW_HANDLE, string));
     }
     
     public static void clipboard(@NotNull CharSequence string)
     {
         IO.LOGGER.trace("Setting Window Clipboard: '%s'", string);
         
-        Engine.executor.submit(() -> glfwSetClipboardString(IO.WINDOW_HANDLE, string));
+        Engine.executor.execute(() -> glfwSetClipboardString(IO.WINDOW_HANDLE, string));
     }
     
     // -------------------- Window Callbacks -------------------- //
@@ -871,7 +871,7 @@ public class IO
     {
         IO.LOGGER.trace("Setting property 'mouseShow'");
         
-        Engine.executor.submit(() -> {
+        Engine.executor.execute(() -> {
             if (glfwGetInputMode(IO.WINDOW_HANDLE, GLFW_CURSOR) == GLFW_CURSOR_DISABLED)
             {
                 IO.MOUSE_POS.set(IO.WINDOW_SIZE).mul(0.5);
@@ -898,7 +898,7 @@ public class IO
     {
         IO.LOGGER.trace("Setting property 'mouseHide'");
         
-        Engine.executor.submit(() -> glfwSetInputMode(IO.WINDOW_HANDLE, GLFW_CURSOR, GLFW_CURSOR_HIDDEN));
+        Engine.executor.execute(() -> glfwSetInputMode(IO.WINDOW_HANDLE, GLFW_CURSOR, GLFW_CURSOR_HIDDEN));
     }
     
     public static boolean mouseIsCaptured()
@@ -919,7 +919,7 @@ public class IO
     {
         IO.LOGGER.trace("Setting property 'mouseCapture'");
         
-        Engine.executor.submit(() -> {
+        Engine.executor.execute(() -> {
             IO.MOUSE_POS.set(IO.WINDOW_SIZE).mul(0.5);
             glfwSetCursorPos(IO.WINDOW_HANDLE, IO.MOUSE_POS.x, IO.MOUSE_POS.y);
             glfwSetInputMode(IO.WINDOW_HANDLE, GLFW_CURSOR, GLFW_CURSOR_DISABLED);
@@ -951,7 +951,7 @@ public class IO
     {
         IO.LOGGER.trace("Setting property 'mouseRawInput':", rawInput);
         
-        Engine.executor.submit(() -> {
+        Engine.executor.execute(() -> {
             if (!glfwRawMouseMotionSupported())
             {
                 IO.LOGGER.warning("Raw Mouse Input is not support on", Platform.get());
@@ -979,7 +979,7 @@ public class IO
     {
         IO.LOGGER.trace("Setting property 'mouseSticky':", sticky);
         
-        Engine.executor.submit(() -> glfwSetInputMode(IO.WINDOW_HANDLE, GLFW_STICKY_MOUSE_BUTTONS, sticky ? GLFW_TRUE : GLFW_FALSE));
+        Engine.executor.execute(() -> glfwSetInputMode(IO.WINDOW_HANDLE, GLFW_STICKY_MOUSE_BUTTONS, sticky ? GLFW_TRUE : GLFW_FALSE));
     }
     
     // -------------------- Mouse Callbacks -------------------- //
@@ -1122,7 +1122,7 @@ public class IO
     {
         IO.LOGGER.trace("Setting property 'keyboardSticky':", sticky);
         
-        Engine.executor.submit(() -> glfwSetInputMode(IO.WINDOW_HANDLE, GLFW_STICKY_KEYS, sticky ? GLFW_TRUE : GLFW_FALSE));
+        Engine.executor.execute(() -> glfwSetInputMode(IO.WINDOW_HANDLE, GLFW_STICKY_KEYS, sticky ? GLFW_TRUE : GLFW_FALSE));
     }
     
     // -------------------- Keyboard Callbacks -------------------- //
@@ -1184,7 +1184,7 @@ public class IO
     {
         IO.LOGGER.trace("Setting property 'modifierLockMods':", sticky);
         
-        Engine.executor.submit(() -> glfwSetInputMode(IO.WINDOW_HANDLE, GLFW_LOCK_KEY_MODS, sticky ? GLFW_TRUE : GLFW_FALSE));
+        Engine.executor.execute(() -> glfwSetInputMode(IO.WINDOW_HANDLE, GLFW_LOCK_KEY_MODS, sticky ? GLFW_TRUE : GLFW_FALSE));
     }
     
     // -------------------- Modifier Callbacks -------------------- //
@@ -7,6 +7,9 @@ import engine.color.Colorc;
 import engine.gl.*;
 import engine.gl.buffer.Buffer;
 import engine.gl.buffer.BufferArray;
+import engine.gl.buffer.BufferFlag;
+import engine.gl.buffer.BufferPixelPack;
+import engine.gl.buffer.BufferUniform;
 import engine.gl.buffer.BufferUsage;
 import engine.gl.texture.Texture;
 import engine.gl.texture.Texture2D;
@@ -15,32 +18,56 @@ import engine.gl.vertex.DrawMode;
 import engine.gl.vertex.VertexArray;
 import engine.util.IOUtil;
 import engine.util.Logger;
+import engine.util.SortUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Range;
 import org.joml.*;
+import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL44;
 import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 public class Renderer
 {
     private static final Logger LOGGER = Logger.getLogger();
     
-    static void setup()
+    private static final Logger.Limiter OVERFLOW_LIMITER = Logger.Limiter.perSecond(1);
+    private static final Logger.Limiter TEXTURE_LIMITER  = Logger.Limiter.perSecond(1);
+    
+    /**
+     * Sets up the Renderer for the GL context that is current on this
+     * thread. Without one, batches are drawn by a {@link Rasterizer} of the
+     * given size instead.
+     */
+    static boolean isSetup; // Destroy does nothing if setup did not finish
+    
+    static void setup(int width, int height)
     {
         Renderer.LOGGER.debug("Setup");
+        
+        if (!hasContext())
+        {
+            setupRasterizer(width, height);
+            Renderer.isSetup = true;
+            return;
+        }
+        
         Renderer.LOGGER.debug("OpenGL Version:", GL44.glGetString(GL44.GL_VERSION));
         
         setupBinding();
         setupState();
         setupDefaults();
         setupDraw();
+        setupDrawInstanced();
+        setupRead();
         
         bind(Renderer.defaultProgram);
         bind(Renderer.defaultFramebuffer);
@@ -50,18 +77,86 @@ public class Renderer
         bind(Renderer.drawVertexArray);
         
         clearScreenBuffers();
+        
+        Renderer.isSetup = true;
     }
     
     static void destroy()
     {
         Renderer.LOGGER.debug("Destroy");
         
+        if (!Renderer.isSetup) return;
+        Renderer.isSetup = false;
+        
+        if (Renderer.drawRasterizer != null)
+        {
+            destroyRasterizer();
+            return;
+        }
+        
+        destroyRead();
+        destroyDrawInstanced();
         destroyDraw();
         destroyDefaults();
         destroyState();
         destroyBinding();
     }
     
+    /**
+     * @return {@code true} if a GL context is current on this thread. This
+     * is also false when the GL library cannot be loaded at all.
+     */
+    private static boolean hasContext()
+    {
+        try
+        {
+            GL.getCapabilities();
+            return true;
+        }
+        catch (IllegalStateException | LinkageError ignored)
+        {
+            return false;
+        }
+    }
+    
+    /**
+     * Only the batched draw functions, clears and reads are supported by the
+     * rasterizer. Texture2Ds keep their texels in memory without a context,
+     * which the batch samples with the default wrap and filter.
+     */
+    private static void setupRasterizer(int width, int height)
+    {
+        Renderer.LOGGER.warning("No OpenGL context, drawing to a %sx%s Rasterizer", width, height);
+        
+        Renderer.drawRasterizer = new Rasterizer(width, height);
+        Renderer.defaultTexture = Texture2D.NULL;
+        
+        setupState();
+        setupDraw();
+        
+        clearScreenBuffers();
+    }
+    
+    private static void destroyRasterizer()
+    {
+        destroyDraw();
+        destroyState();
+        
+        Renderer.defaultTexture = null;
+        
+        Renderer.drawRasterizer.delete();
+        Renderer.drawRasterizer = null;
+    }
+    
+    /**
+     * @return The rasterizer that draws the batches when there is no GL
+     * context, or {@code null} when drawing with GL.
+     */
+    public static @Nullable Rasterizer rasterizer()
+    {
+        return Renderer.drawRasterizer;
+    }
+    
     // -------------------- Binding State -------------------- //
     
     static int boundActiveTexture;
@@ -173,48 +268,48 @@ public class Renderer
     
     static int stateIndex;
     
-    static final boolean[] stateDepthClamp             = new boolean[Renderer.DRAW_CALLS_COUNT];
-    static final boolean[] stateLineSmooth             = new boolean[Renderer.DRAW_CALLS_COUNT];
-    static final boolean[] stateTextureCubeMapSeamless = new boolean[Renderer.DRAW_CALLS_COUNT];
+    static final boolean[] stateDepthClamp             = new boolean[Renderer.STACK_SIZE];
+    static final boolean[] stateLineSmooth             = new boolean[Renderer.STACK_SIZE];
+    static final boolean[] stateTextureCubeMapSeamless = new boolean[Renderer.STACK_SIZE];
     
-    static final boolean[] stateWireframe = new boolean[Renderer.DRAW_CALLS_COUNT];
+    static final boolean[] stateWireframe = new boolean[Renderer.STACK_SIZE];
     
-    static final BlendMode[]   stateBlendMode   = new BlendMode[Renderer.DRAW_CALLS_COUNT];
-    static final DepthMode[]   stateDepthMode   = new DepthMode[Renderer.DRAW_CALLS_COUNT];
-    static final StencilMode[] stateStencilMode = new StencilMode[Renderer.DRAW_CALLS_COUNT];
-    static final ScissorMode[] stateScissorMode = new ScissorMode[Renderer.DRAW_CALLS_COUNT];
+    static final BlendMode[]   stateBlendMode   = new BlendMode[Renderer.STACK_SIZE];
+    static final DepthMode[]   stateDepthMode   = new DepthMode[Renderer.STACK_SIZE];
+    static final StencilMode[] stateStencilMode = new StencilMode[Renderer.STACK_SIZE];
+    static final ScissorMode[] stateScissorMode = new ScissorMode[Renderer.STACK_SIZE];
     
-    static final boolean[][] stateColorMask   = new boolean[Renderer.DRAW_CALLS_COUNT][4];
-    static final boolean[]   stateDepthMask   = new boolean[Renderer.DRAW_CALLS_COUNT];
-    static final int[]       stateStencilMask = new int[Renderer.DRAW_CALLS_COUNT];
+    static final boolean[][] stateColorMask   = new boolean[Renderer.STACK_SIZE][4];
+    static final boolean[]   stateDepthMask   = new boolean[Renderer.STACK_SIZE];
+    static final int[]       stateStencilMask = new int[Renderer.STACK_SIZE];
     
-    static final double[][] stateClearColor   = new double[Renderer.DRAW_CALLS_COUNT][4];
-    static final double[]   stateClearDepth   = new double[Renderer.DRAW_CALLS_COUNT];
-    static final int[]      stateClearStencil = new int[Renderer.DRAW_CALLS_COUNT];
+    static final double[][] stateClearColor   = new double[Renderer.STACK_SIZE][4];
+    static final double[]   stateClearDepth   = new double[Renderer.STACK_SIZE];
+    static final int[]      stateClearStencil = new int[Renderer.STACK_SIZE];
     
-    static final CullFace[] stateCullFace = new CullFace[Renderer.DRAW_CALLS_COUNT];
-    static final Winding[]  stateWinding  = new Winding[Renderer.DRAW_CALLS_COUNT];
+    static final CullFace[] stateCullFace = new CullFace[Renderer.STACK_SIZE];
+    static final Winding[]  stateWinding  = new Winding[Renderer.STACK_SIZE];
     
-    static final Matrix4d[] stateProjection = new Matrix4d[Renderer.DRAW_CALLS_COUNT];
-    static final Matrix4d[] stateView       = new Matrix4d[Renderer.DRAW_CALLS_COUNT];
-    static final Matrix4d[] stateModel      = new Matrix4d[Renderer.DRAW_CALLS_COUNT];
-    static final Matrix4d[] stateNormal     = new Matrix4d[Renderer.DRAW_CALLS_COUNT];
+    static final Matrix4d[] stateProjection = new Matrix4d[Renderer.STACK_SIZE];
+    static final Matrix4d[] stateView       = new Matrix4d[Renderer.STACK_SIZE];
+    static final Matrix4d[] stateModel      = new Matrix4d[Renderer.STACK_SIZE];
+    static final Matrix4d[] stateNormal     = new Matrix4d[Renderer.STACK_SIZE];
     
-    static final Color[] stateDiffuse  = new Color[Renderer.DRAW_CALLS_COUNT];
-    static final Color[] stateSpecular = new Color[Renderer.DRAW_CALLS_COUNT];
-    static final Color[] stateAmbient  = new Color[Renderer.DRAW_CALLS_COUNT];
+    static final Color[] stateDiffuse  = new Color[Renderer.STACK_SIZE];
+    static final Color[] stateSpecular = new Color[Renderer.STACK_SIZE];
+    static final Color[] stateAmbient  = new Color[Renderer.STACK_SIZE];
     
     private static final ScissorMode scissorModeCustom = new ScissorMode(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
     
     private static void setupState()
     {
-        for (int i = 0; i < Renderer.DRAW_CALLS_COUNT; i++)
+        for (int i = 0; i < Renderer.STACK_SIZE; i++)
         {
             Renderer.stateDepthClamp[i]             = false;
             Renderer.stateLineSmooth[i]             = true;
             Renderer.stateTextureCubeMapSeamless[i] = false;
             
-            Renderer.stateWireframe[i] = GL44.glGetInteger(GL44.GL_FRONT_AND_BACK) == GL44.GL_FILL;
+            Renderer.stateWireframe[i] = Renderer.drawRasterizer == null && GL44.glGetInteger(GL44.GL_FRONT_AND_BACK) == GL44.GL_FILL;
             
             Renderer.stateBlendMode[i]   = null;
             Renderer.stateDepthMode[i]   = null;
@@ -378,6 +473,8 @@ public class Renderer
             
             Renderer.stateDepthClamp[Renderer.stateIndex] = depthClamp;
             
+            if (Renderer.drawRasterizer != null) return; // Read from the state stack when the batch is flushed
+            
             if (depthClamp)
             {
                 GL44.glEnable(GL44.GL_DEPTH_CLAMP);
@@ -397,6 +494,8 @@ public class Renderer
             
             Renderer.stateLineSmooth[Renderer.stateIndex] = lineSmooth;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             if (lineSmooth)
             {
                 GL44.glEnable(GL44.GL_LINE_SMOOTH);
@@ -416,6 +515,8 @@ public class Renderer
             
             Renderer.stateTextureCubeMapSeamless[Renderer.stateIndex] = textureCubeMapSeamless;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             if (textureCubeMapSeamless)
             {
                 GL44.glEnable(GL44.GL_TEXTURE_CUBE_MAP_SEAMLESS);
@@ -435,6 +536,8 @@ public class Renderer
             
             Renderer.stateWireframe[Renderer.stateIndex] = wireframe;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             GL44.glPolygonMode(GL44.GL_FRONT_AND_BACK, wireframe ? GL44.GL_LINE : GL44.GL_FILL);
         }
     }
@@ -449,6 +552,8 @@ public class Renderer
             
             Renderer.stateBlendMode[Renderer.stateIndex] = mode;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             if (mode == BlendMode.NONE)
             {
                 GL44.glDisable(GL44.GL_BLEND);
@@ -472,6 +577,8 @@ public class Renderer
             
             Renderer.stateDepthMode[Renderer.stateIndex] = mode;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             if (mode == DepthMode.NONE)
             {
                 GL44.glDisable(GL44.GL_DEPTH_TEST);
@@ -494,6 +601,8 @@ public class Renderer
             
             Renderer.stateStencilMode[Renderer.stateIndex] = mode;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             if (mode == StencilMode.NONE)
             {
                 GL44.glDisable(GL44.GL_STENCIL_TEST);
@@ -517,6 +626,8 @@ public class Renderer
             
             Renderer.stateScissorMode[Renderer.stateIndex] = mode;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             if (mode == ScissorMode.NONE)
             {
                 GL44.glDisable(GL44.GL_SCISSOR_TEST);
@@ -533,6 +644,12 @@ public class Renderer
     {
         Renderer.LOGGER.trace("Setting Custom Scissor: [%s, %s, %s, %s]", x, y, width, height);
         
+        if (Renderer.drawRasterizer != null)
+        {
+            Renderer.stateScissorMode[Renderer.stateIndex] = new ScissorMode(x, y, width, height);
+            return;
+        }
+        
         Renderer.stateScissorMode[Renderer.stateIndex] = Renderer.scissorModeCustom;
         
         GL44.glEnable(GL44.GL_SCISSOR_TEST);
@@ -551,6 +668,8 @@ public class Renderer
             colorMask[2] = b;
             colorMask[3] = a;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             GL44.glColorMask(r, g, b, a);
         }
     }
@@ -563,6 +682,8 @@ public class Renderer
             
             Renderer.stateDepthMask[Renderer.stateIndex] = flag;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             GL44.glDepthMask(flag);
         }
     }
@@ -575,6 +696,8 @@ public class Renderer
             
             Renderer.stateStencilMask[Renderer.stateIndex] = mask;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             GL44.glStencilMask(mask);
         }
     }
@@ -591,6 +714,8 @@ public class Renderer
             clearColor[2] = b;
             clearColor[3] = a;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             GL44.glClearColor((float) r, (float) g, (float) b, (float) a);
         }
     }
@@ -603,6 +728,8 @@ public class Renderer
             
             Renderer.stateClearDepth[Renderer.stateIndex] = depth;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             GL44.glClearDepth(depth);
         }
     }
@@ -615,6 +742,8 @@ public class Renderer
             
             Renderer.stateClearStencil[Renderer.stateIndex] = stencil;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             GL44.glClearStencil(stencil);
         }
     }
@@ -629,6 +758,8 @@ public class Renderer
             
             Renderer.stateCullFace[Renderer.stateIndex] = cullFace;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             if (cullFace == CullFace.NONE)
             {
                 GL44.glDisable(GL44.GL_CULL_FACE);
@@ -651,6 +782,8 @@ public class Renderer
             
             Renderer.stateWinding[Renderer.stateIndex] = winding;
             
+            if (Renderer.drawRasterizer != null) return;
+            
             GL44.glFrontFace(winding.ref);
         }
     }
@@ -715,7 +848,7 @@ public class Renderer
     
     public static void attributeFloat(@NotNull String name, double value)
     {
-        Renderer.LOGGER.trace("attributeFloat(%s, %s)", name, value);
+        Renderer.LOGGER.trace("attributeFloat(%s, %s)", name, (float) value);
         
         GL44.glVertexAttrib1f(Renderer.boundProgram.getUniform(name), (float) value);
     }
@@ -753,7 +886,7 @@ public class Renderer
     
     public static void attributeFloat2(@NotNull String name, double x, double y)
     {
-        Renderer.LOGGER.trace("attributeFloat2(%s, %s, %s)", name, x, y);
+        Renderer.LOGGER.trace("attributeFloat2(%s, %s, %s)", name, (float) x, (float) y);
         
         GL44.glVertexAttrib2f(Renderer.boundProgram.getUniform(name), (float) x, (float) y);
     }
@@ -796,7 +929,7 @@ public class Renderer
     
     public static void attributeFloat3(@NotNull String name, double x, double y, double z)
     {
-        Renderer.LOGGER.trace("attributeFloat3(%s, %s, %s, %s)", name, x, y, z);
+        Renderer.LOGGER.trace("attributeFloat3(%s, %s, %s, %s)", name, (float) x, (float) y, (float) z);
         
         GL44.glVertexAttrib3f(Renderer.boundProgram.getUniform(name), (float) x, (float) y, (float) z);
     }
@@ -839,7 +972,7 @@ public class Renderer
     
     public static void attributeFloat4(@NotNull String name, double x, double y, double z, double w)
     {
-        Renderer.LOGGER.trace("attributeFloat4(%s, %s, %s, %s, %s)", name, x, y, z, w);
+        Renderer.LOGGER.trace("attributeFloat4(%s, %s, %s, %s, %s)", name, (float) x, (float) y, (float) z, (float) w);
         
         GL44.glVertexAttrib4f(Renderer.boundProgram.getUniform(name), (float) x, (float) y, (float) z, (float) w);
     }
@@ -858,46 +991,78 @@ public class Renderer
     
     // -------------------- Uniform -------------------- //
     
+    // NOTE: Uploads are skipped when the values match the values last uploaded to the location of the bound program
+    
     public static void uniformBool(@NotNull String name, boolean value)
     {
-        Renderer.LOGGER.trace("uniformBool(%s, %s)", name, value);
+        uniformBool(Renderer.boundProgram.getUniform(name), value);
+    }
+    
+    public static void uniformBool(int location, boolean value)
+    {
+        Renderer.LOGGER.trace("uniformBool(%s, %s)", location, value);
         
-        GL44.glUniform1i(Renderer.boundProgram.getUniform(name), value ? 1 : 0);
+        if (Renderer.boundProgram.uniformChanged(location, value ? 1 : 0, 0, 0, 0)) GL44.glUniform1i(location, value ? 1 : 0);
     }
     
     public static void uniformInt(@NotNull String name, int value)
     {
-        Renderer.LOGGER.trace("uniformInt(%s, %s)", name, value);
+        uniformInt(Renderer.boundProgram.getUniform(name), value);
+    }
+    
+    public static void uniformInt(int location, int value)
+    {
+        Renderer.LOGGER.trace("uniformInt(%s, %s)", location, value);
         
-        GL44.glUniform1i(Renderer.boundProgram.getUniform(name), value);
+        if (Renderer.boundProgram.uniformChanged(location, value, 0, 0, 0)) GL44.glUniform1i(location, value);
     }
     
     public static void uniformUInt(@NotNull String name, long value)
     {
-        Renderer.LOGGER.trace("uniformUInt(%s, %s)", name, value);
+        uniformUInt(Renderer.boundProgram.getUniform(name), value);
+    }
+    
+    public static void uniformUInt(int location, long value)
+    {
+        Renderer.LOGGER.trace("uniformUInt(%s, %s)", location, value);
         
-        GL44.glUniform1ui(Renderer.boundProgram.getUniform(name), (int) (value & 0xFFFFFFFFL));
+        if (Renderer.boundProgram.uniformChanged(location, (int) value, 0, 0, 0)) GL44.glUniform1ui(location, (int) (value & 0xFFFFFFFFL));
     }
     
     public static void uniformFloat(@NotNull String name, double value)
     {
-        Renderer.LOGGER.trace("uniformFloat(%s, %s)", name, value);
+        uniformFloat(Renderer.boundProgram.getUniform(name), value);
+    }
+    
+    public static void uniformFloat(int location, double value)
+    {
+        Renderer.LOGGER.trace("uniformFloat(%s, %s)", location, (float) value);
         
-        GL44.glUniform1f(Renderer.boundProgram.getUniform(name), (float) value);
+        if (Renderer.boundProgram.uniformChanged(location, Float.floatToRawIntBits((float) value), 0, 0, 0)) GL44.glUniform1f(location, (float) value);
     }
     
     public static void uniformBool2(@NotNull String name, boolean x, boolean y)
     {
-        Renderer.LOGGER.trace("uniformBool2(%s, %s, %s)", name, x, y);
+        uniformBool2(Renderer.boundProgram.getUniform(name), x, y);
+    }
+    
+    public static void uniformBool2(int location, boolean x, boolean y)
+    {
+        Renderer.LOGGER.trace("uniformBool2(%s, %s, %s)", location, x, y);
         
-        GL44.glUniform2i(Renderer.boundProgram.getUniform(name), x ? 1 : 0, y ? 1 : 0);
+        if (Renderer.boundProgram.uniformChanged(location, x ? 1 : 0, y ? 1 : 0, 0, 0)) GL44.glUniform2i(location, x ? 1 : 0, y ? 1 : 0);
     }
     
     public static void uniformInt2(@NotNull String name, int x, int y)
     {
-        Renderer.LOGGER.trace("uniformInt2(%s, %s, %s)", name, x, y);
+        uniformInt2(Renderer.boundProgram.getUniform(name), x, y);
+    }
+    
+    public static void uniformInt2(int location, int x, int y)
+    {
+        Renderer.LOGGER.trace("uniformInt2(%s, %s, %s)", location, x, y);
         
-        GL44.glUniform2i(Renderer.boundProgram.getUniform(name), x, y);
+        if (Renderer.boundProgram.uniformChanged(location, x, y, 0, 0)) GL44.glUniform2i(location, x, y);
     }
     
     public static void uniformInt2(@NotNull String name, @NotNull Vector2ic vec)
@@ -905,11 +1070,21 @@ public class Renderer
         uniformInt2(name, vec.x(), vec.y());
     }
     
+    public static void uniformInt2(int location, @NotNull Vector2ic vec)
+    {
+        uniformInt2(location, vec.x(), vec.y());
+    }
+    
     public static void uniformUInt2(@NotNull String name, long x, long y)
     {
-        Renderer.LOGGER.trace("uniformUInt2(%s, %s, %s)", name, x, y);
+        uniformUInt2(Renderer.boundProgram.getUniform(name), x, y);
+    }
+    
+    public static void uniformUInt2(int location, long x, long y)
+    {
+        Renderer.LOGGER.trace("uniformUInt2(%s, %s, %s)", location, x, y);
         
-        GL44.glUniform2ui(Renderer.boundProgram.getUniform(name), (int) (x & 0xFFFFFFFFL), (int) (y & 0xFFFFFFFFL));
+        if (Renderer.boundProgram.uniformChanged(location, (int) x, (int) y, 0, 0)) GL44.glUniform2ui(location, (int) (x & 0xFFFFFFFFL), (int) (y & 0xFFFFFFFFL));
     }
     
     public static void uniformUInt2(@NotNull String name, @NotNull Vector2ic vec)
@@ -917,11 +1092,21 @@ public class Renderer
         uniformUInt2(name, vec.x(), vec.y());
     }
     
+    public static void uniformUInt2(int location, @NotNull Vector2ic vec)
+    {
+        uniformUInt2(location, vec.x(), vec.y());
+    }
+    
     public static void uniformFloat2(@NotNull String name, double x, double y)
     {
-        Renderer.LOGGER.trace("uniformFloat2(%s, %s, %s)", name, x, y);
+        uniformFloat2(Renderer.boundProgram.getUniform(name), x, y);
+    }
+    
+    public static void uniformFloat2(int location, double x, double y)
+    {
+        Renderer.LOGGER.trace("uniformFloat2(%s, %s, %s)", location, (float) x, (float) y);
         
-        GL44.glUniform2f(Renderer.boundProgram.getUniform(name), (float) x, (float) y);
+        if (Renderer.boundProgram.uniformChanged(location, Float.floatToRawIntBits((float) x), Float.floatToRawIntBits((float) y), 0, 0)) GL44.glUniform2f(location, (float) x, (float) y);
     }
     
     public static void uniformFloat2(@NotNull String name, @NotNull Vector2dc vec)
@@ -929,18 +1114,33 @@ public class Renderer
         uniformFloat2(name, vec.x(), vec.y());
     }
     
+    public static void uniformFloat2(int location, @NotNull Vector2dc vec)
+    {
+        uniformFloat2(location, vec.x(), vec.y());
+    }
+    
     public static void uniformBool3(@NotNull String name, boolean x, boolean y, boolean z)
     {
-        Renderer.LOGGER.trace("uniformBool3(%s, %s, %s, %s)", name, x, y, z);
+        uniformBool3(Renderer.boundProgram.getUniform(name), x, y, z);
+    }
+    
+    public static void uniformBool3(int location, boolean x, boolean y, boolean z)
+    {
+        Renderer.LOGGER.trace("uniformBool3(%s, %s, %s, %s)", location, x, y, z);
         
-        GL44.glUniform3i(Renderer.boundProgram.getUniform(name), x ? 1 : 0, y ? 1 : 0, z ? 1 : 0);
+        if (Renderer.boundProgram.uniformChanged(location, x ? 1 : 0, y ? 1 : 0, z ? 1 : 0, 0)) GL44.glUniform3i(location, x ? 1 : 0, y ? 1 : 0, z ? 1 : 0);
     }
     
     public static void uniformInt3(@NotNull String name, int x, int y, int z)
     {
-        Renderer.LOGGER.trace("uniformInt3(%s, %s, %s, %s)", name, x, y, z);
+        uniformInt3(Renderer.boundProgram.getUniform(name), x, y, z);
+    }
+    
+    public static void uniformInt3(int location, int x, int y, int z)
+    {
+        Renderer.LOGGER.trace("uniformInt3(%s, %s, %s, %s)", location, x, y, z);
         
-        GL44.glUniform3i(Renderer.boundProgram.getUniform(name), x, y, z);
+        if (Renderer.boundProgram.uniformChanged(location, x, y, z, 0)) GL44.glUniform3i(location, x, y, z);
     }
     
     public static void uniformInt3(@NotNull String name, @NotNull Vector3ic vec)
@@ -948,11 +1148,21 @@ public class Renderer
         uniformInt3(name, vec.x(), vec.y(), vec.z());
     }
     
+    public static void uniformInt3(int location, @NotNull Vector3ic vec)
+    {
+        uniformInt3(location, vec.x(), vec.y(), vec.z());
+    }
+    
     public static void uniformUInt3(@NotNull String name, long x, long y, long z)
     {
-        Renderer.LOGGER.trace("uniformUInt3(%s, %s, %s, %s)", name, x, y, z);
+        uniformUInt3(Renderer.boundProgram.getUniform(name), x, y, z);
+    }
+    
+    public static void uniformUInt3(int location, long x, long y, long z)
+    {
+        Renderer.LOGGER.trace("uniformUInt3(%s, %s, %s, %s)", location, x, y, z);
         
-        GL44.glUniform3ui(Renderer.boundProgram.getUniform(name), (int) (x & 0xFFFFFFFFL), (int) (y & 0xFFFFFFFFL), (int) (z & 0xFFFFFFFFL));
+        if (Renderer.boundProgram.uniformChanged(location, (int) x, (int) y, (int) z, 0)) GL44.glUniform3ui(location, (int) (x & 0xFFFFFFFFL), (int) (y & 0xFFFFFFFFL), (int) (z & 0xFFFFFFFFL));
     }
     
     public static void uniformUInt3(@NotNull String name, @NotNull Vector3ic vec)
@@ -960,11 +1170,21 @@ public class Renderer
         uniformUInt3(name, vec.x(), vec.y(), vec.z());
     }
     
+    public static void uniformUInt3(int location, @NotNull Vector3ic vec)
+    {
+        uniformUInt3(location, vec.x(), vec.y(), vec.z());
+    }
+    
     public static void uniformFloat3(@NotNull String name, double x, double y, double z)
     {
-        Renderer.LOGGER.trace("uniformFloat3(%s, %s, %s, %s)", name, x, y, z);
+        uniformFloat3(Renderer.boundProgram.getUniform(name), x, y, z);
+    }
+    
+    public static void uniformFloat3(int location, double x, double y, double z)
+    {
+        Renderer.LOGGER.trace("uniformFloat3(%s, %s, %s, %s)", location, (float) x, (float) y, (float) z);
         
-        GL44.glUniform3f(Renderer.boundProgram.getUniform(name), (float) x, (float) y, (float) z);
+        if (Renderer.boundProgram.uniformChanged(location, Float.floatToRawIntBits((float) x), Float.floatToRawIntBits((float) y), Float.floatToRawIntBits((float) z), 0)) GL44.glUniform3f(location, (float) x, (float) y, (float) z);
     }
     
     public static void uniformFloat3(@NotNull String name, @NotNull Vector3dc vec)
@@ -972,18 +1192,33 @@ public class Renderer
         uniformFloat3(name, vec.x(), vec.y(), vec.z());
     }
     
+    public static void uniformFloat3(int location, @NotNull Vector3dc vec)
+    {
+        uniformFloat3(location, vec.x(), vec.y(), vec.z());
+    }
+    
     public static void uniformBool4(@NotNull String name, boolean x, boolean y, boolean z, boolean w)
     {
-        Renderer.LOGGER.trace("uniformBool3(%s, %s, %s, %s, %s)", name, x, y, z, w);
+        uniformBool4(Renderer.boundProgram.getUniform(name), x, y, z, w);
+    }
+    
+    public static void uniformBool4(int location, boolean x, boolean y, boolean z, boolean w)
+    {
+        Renderer.LOGGER.trace("uniformBool4(%s, %s, %s, %s, %s)", location, x, y, z, w);
         
-        GL44.glUniform4i(Renderer.boundProgram.getUniform(name), x ? 1 : 0, y ? 1 : 0, z ? 1 : 0, w ? 1 : 0);
+        if (Renderer.boundProgram.uniformChanged(location, x ? 1 : 0, y ? 1 : 0, z ? 1 : 0, w ? 1 : 0)) GL44.glUniform4i(location, x ? 1 : 0, y ? 1 : 0, z ? 1 : 0, w ? 1 : 0);
     }
     
     public static void uniformInt4(@NotNull String name, int x, int y, int z, int w)
     {
-        Renderer.LOGGER.trace("uniformInt4(%s, %s, %s, %s, %s)", name, x, y, z, w);
+        uniformInt4(Renderer.boundProgram.getUniform(name), x, y, z, w);
+    }
+    
+    public static void uniformInt4(int location, int x, int y, int z, int w)
+    {
+        Renderer.LOGGER.trace("uniformInt4(%s, %s, %s, %s, %s)", location, x, y, z, w);
         
-        GL44.glUniform4i(Renderer.boundProgram.getUniform(name), x, y, z, w);
+        if (Renderer.boundProgram.uniformChanged(location, x, y, z, w)) GL44.glUniform4i(location, x, y, z, w);
     }
     
     public static void uniformInt4(@NotNull String name, @NotNull Vector4ic vec)
@@ -991,11 +1226,21 @@ public class Renderer
         uniformInt4(name, vec.x(), vec.y(), vec.z(), vec.w());
     }
     
+    public static void uniformInt4(int location, @NotNull Vector4ic vec)
+    {
+        uniformInt4(location, vec.x(), vec.y(), vec.z(), vec.w());
+    }
+    
     public static void uniformUInt4(@NotNull String name, long x, long y, long z, long w)
     {
-        Renderer.LOGGER.trace("uniformUInt4(%s, %s, %s, %s, %s)", name, x, y, z, w);
+        uniformUInt4(Renderer.boundProgram.getUniform(name), x, y, z, w);
+    }
+    
+    public static void uniformUInt4(int location, long x, long y, long z, long w)
+    {
+        Renderer.LOGGER.trace("uniformUInt4(%s, %s, %s, %s, %s)", location, x, y, z, w);
         
-        GL44.glUniform4ui(Renderer.boundProgram.getUniform(name), (int) (x & 0xFFFFFFFFL), (int) (y & 0xFFFFFFFFL), (int) (z & 0xFFFFFFFFL), (int) (w & 0xFFFFFFFFL));
+        if (Renderer.boundProgram.uniformChanged(location, (int) x, (int) y, (int) z, (int) w)) GL44.glUniform4ui(location, (int) (x & 0xFFFFFFFFL), (int) (y & 0xFFFFFFFFL), (int) (z & 0xFFFFFFFFL), (int) (w & 0xFFFFFFFFL));
     }
     
     public static void uniformUInt4(@NotNull String name, @NotNull Vector4ic vec)
@@ -1003,11 +1248,21 @@ public class Renderer
         uniformUInt4(name, vec.x(), vec.y(), vec.z(), vec.w());
     }
     
+    public static void uniformUInt4(int location, @NotNull Vector4ic vec)
+    {
+        uniformUInt4(location, vec.x(), vec.y(), vec.z(), vec.w());
+    }
+    
     public static void uniformFloat4(@NotNull String name, double x, double y, double z, double w)
     {
-        Renderer.LOGGER.trace("uniformFloat4(%s, %s, %s, %s, %s)", name, x, y, z, w);
+        uniformFloat4(Renderer.boundProgram.getUniform(name), x, y, z, w);
+    }
+    
+    public static void uniformFloat4(int location, double x, double y, double z, double w)
+    {
+        Renderer.LOGGER.trace("uniformFloat4(%s, %s, %s, %s, %s)", location, (float) x, (float) y, (float) z, (float) w);
         
-        GL44.glUniform4f(Renderer.boundProgram.getUniform(name), (float) x, (float) y, (float) z, (float) w);
+        if (Renderer.boundProgram.uniformChanged(location, Float.floatToRawIntBits((float) x), Float.floatToRawIntBits((float) y), Float.floatToRawIntBits((float) z), Float.floatToRawIntBits((float) w))) GL44.glUniform4f(location, (float) x, (float) y, (float) z, (float) w);
     }
     
     public static void uniformFloat4(@NotNull String name, @NotNull Vector4dc vec)
@@ -1015,42 +1270,78 @@ public class Renderer
         uniformFloat4(name, vec.x(), vec.y(), vec.z(), vec.w());
     }
     
+    public static void uniformFloat4(int location, @NotNull Vector4dc vec)
+    {
+        uniformFloat4(location, vec.x(), vec.y(), vec.z(), vec.w());
+    }
+    
     public static void uniformMatrix2(@NotNull String name, boolean transpose, @NotNull Matrix2dc mat)
     {
-        Renderer.LOGGER.trace("uniformMatrix2(%s, %s, %n%s)", name, transpose, mat);
+        uniformMatrix2(Renderer.boundProgram.getUniform(name), transpose, mat);
+    }
+    
+    public static void uniformMatrix2(int location, boolean transpose, @NotNull Matrix2dc mat)
+    {
+        Renderer.LOGGER.trace("uniformMatrix2(%s, %s, %n%s)", location, transpose, mat);
         
         try (MemoryStack stack = MemoryStack.stackPush())
         {
-            FloatBuffer buffer = stack.floats((float) mat.m00(), (float) mat.m01(), (float) mat.m10(), (float) mat.m11());
-            GL44.glUniformMatrix2fv(Renderer.boundProgram.getUniform(name), transpose, buffer);
+            // The values are always uploaded column-major, so the cache does not need to know about transpose
+            FloatBuffer buffer = transpose ?
+                                 stack.floats((float) mat.m00(), (float) mat.m10(), (float) mat.m01(), (float) mat.m11()) :
+                                 stack.floats((float) mat.m00(), (float) mat.m01(), (float) mat.m10(), (float) mat.m11());
+            if (Renderer.boundProgram.uniformChanged(location, buffer)) GL44.glUniformMatrix2fv(location, false, buffer);
         }
     }
     
     public static void uniformMatrix3(@NotNull String name, boolean transpose, @NotNull Matrix3dc mat)
     {
-        Renderer.LOGGER.trace("uniformMatrix3(%s, %s, %n%s)", name, transpose, mat);
+        uniformMatrix3(Renderer.boundProgram.getUniform(name), transpose, mat);
+    }
+    
+    public static void uniformMatrix3(int location, boolean transpose, @NotNull Matrix3dc mat)
+    {
+        Renderer.LOGGER.trace("uniformMatrix3(%s, %s, %n%s)", location, transpose, mat);
         
         try (MemoryStack stack = MemoryStack.stackPush())
         {
-            GL44.glUniformMatrix3fv(Renderer.boundProgram.getUniform(name), transpose, mat.get(stack.mallocFloat(9)));
+            // The values are always uploaded column-major, so the cache does not need to know about transpose
+            FloatBuffer buffer = transpose ? mat.getTransposed(stack.mallocFloat(9)) : mat.get(stack.mallocFloat(9));
+            if (Renderer.boundProgram.uniformChanged(location, buffer)) GL44.glUniformMatrix3fv(location, false, buffer);
         }
     }
     
     public static void uniformMatrix4(@NotNull String name, boolean transpose, @NotNull Matrix4dc mat)
     {
-        Renderer.LOGGER.trace("uniformMatrix4(%s, %s, %n%s)", name, transpose, mat);
+        uniformMatrix4(Renderer.boundProgram.getUniform(name), transpose, mat);
+    }
+    
+    public static void uniformMatrix4(int location, boolean transpose, @NotNull Matrix4dc mat)
+    {
+        Renderer.LOGGER.trace("uniformMatrix4(%s, %s, %n%s)", location, transpose, mat);
         
         try (MemoryStack stack = MemoryStack.stackPush())
         {
-            GL44.glUniformMatrix4fv(Renderer.boundProgram.getUniform(name), transpose, mat.get(stack.mallocFloat(16)));
+            // The values are always uploaded column-major, so the cache does not need to know about transpose
+            FloatBuffer buffer = transpose ? mat.getTransposed(stack.mallocFloat(16)) : mat.get(stack.mallocFloat(16));
+            if (Renderer.boundProgram.uniformChanged(location, buffer)) GL44.glUniformMatrix4fv(location, false, buffer);
         }
     }
     
     public static void uniformColor(@NotNull String name, @NotNull Colorc color)
     {
-        Renderer.LOGGER.trace("uniformColor(%s, %s", name, color);
+        uniformColor(Renderer.boundProgram.getUniform(name), color);
+    }
+    
+    public static void uniformColor(int location, @NotNull Colorc color)
+    {
+        Renderer.LOGGER.trace("uniformColor(%s, %s)", location, color);
         
-        GL44.glUniform4f(Renderer.boundProgram.getUniform(name), color.rf(), color.gf(), color.bf(), color.af());
+        float r = color.rf(), g = color.gf(), b = color.bf(), a = color.af();
+        if (Renderer.boundProgram.uniformChanged(location, Float.floatToRawIntBits(r), Float.floatToRawIntBits(g), Float.floatToRawIntBits(b), Float.floatToRawIntBits(a)))
+        {
+            GL44.glUniform4f(location, r, g, b, a);
+        }
     }
     
     // -------------------- Defaults -------------------- //
@@ -1061,10 +1352,18 @@ public class Renderer
     static Texture     defaultTexture;
     static Framebuffer defaultFramebuffer;
     
+    /**
+     * Defines passed to the default shaders.
+     */
+    static String[] defaultDefines()
+    {
+        return Renderer.DRAW_TEXTURE_SLOTS ? new String[] {"TEXTURE_SLOTS"} : new String[0];
+    }
+    
     private static void setupDefaults()
     {
-        Renderer.defaultVertexShader   = new Shader(Shader.Type.VERTEX, IOUtil.getPath("shader/default.vert"));
-        Renderer.defaultFragmentShader = new Shader(Shader.Type.FRAGMENT, IOUtil.getPath("shader/default.frag"));
+        Renderer.defaultVertexShader   = new Shader(Shader.Type.VERTEX, IOUtil.getPath("shader/default.vert"), defaultDefines());
+        Renderer.defaultFragmentShader = new Shader(Shader.Type.FRAGMENT, IOUtil.getPath("shader/default.frag"), defaultDefines());
         
         Renderer.defaultProgram = Program.builder().shader(Renderer.defaultVertexShader).shader(Renderer.defaultFragmentShader).build();
         
@@ -1096,30 +1395,188 @@ public class Renderer
     
     // -------------------- Draw -------------------- //
     
-    public static final int DRAW_ELEMENTS_COUNT = 8192;
-    public static final int DRAW_MAX_TEXTURES   = 16;
-    public static final int DRAW_CALLS_COUNT    = 32;
-    
-    static FloatBuffer drawVertexPos;    // (XYZ)  (shader-location = 0)
-    static FloatBuffer drawVertexTex1;   // (UVQ)  (shader-location = 1)
-    static FloatBuffer drawVertexNorm;   // (XYZ)  (shader-location = 2)
-    static FloatBuffer drawVertexTan;    // (XYZ)  (shader-location = 3)
-    static ByteBuffer  drawVertexColor;  // (RGBA) (shader-location = 4)
-    static FloatBuffer drawVertexTex2;   // (UVQ)  (shader-location = 5)
+    /**
+     * Number of quads the batch can hold when the engine is started. The
+     * batch grows geometrically up to {@link #DRAW_ELEMENTS_MAX} when a frame
+     * needs more, and flushes instead of dropping vertices once it can no
+     * longer grow.
+     * <p>
+     * Must be set before the engine is started. Use
+     * {@link #drawBatchCapacity(int)} to resize the batch at runtime.
+     */
+    public static int DRAW_ELEMENTS_COUNT = 8192;
+    
+    /**
+     * Number of quads the batch is allowed to grow to.
+     * <p>
+     * Must be set before the engine is started.
+     */
+    public static int DRAW_ELEMENTS_MAX = 8192 * 16;
+    
+    /**
+     * Number of DrawCalls that are batched before being flushed.
+     * <p>
+     * Must be set before the engine is started.
+     */
+    public static int DRAW_CALLS_COUNT = 32;
+    
+    public static final int DRAW_MAX_TEXTURES = 16;
+    
+    /**
+     * When enabled, DrawCalls are sorted by layer, texture, attributes and
+     * mode before being issued, and runs of DrawCalls that share all state
+     * are issued with a single multi-draw. Calls on the same layer may be
+     * reordered relative to each other, so use {@link #drawLayer(int)} to
+     * order blended geometry.
+     * <p>
+     * The DrawCall list grows instead of flushing when it is full, so
+     * {@link #DRAW_CALLS_COUNT} becomes the initial size.
+     */
+    public static boolean DRAW_DEFERRED = false;
+    
+    /**
+     * When enabled, up to {@link #DRAW_MAX_TEXTURES} textures are bound at
+     * once and each vertex stores the slot of the texture that was set when
+     * it was written, so changing textures no longer starts a new DrawCall.
+     * The batch is only flushed when a texture is set while every slot is
+     * taken.
+     * <p>
+     * Slot {@code i} is bound to texture unit {@code i} and the uniform
+     * {@code texture<i>}, which the default shader selects between. The slot
+     * selection is compiled out of the default shaders and each vertex is
+     * {@link #DRAW_VERTEX_SIZE} bytes instead of
+     * {@link #DRAW_VERTEX_SIZE_SLOTS} while this is disabled.
+     * <p>
+     * Must be set before the engine is started.
+     */
+    public static boolean DRAW_TEXTURE_SLOTS = false;
+    
+    static final String[] DRAW_TEXTURE_SLOT_UNIFORMS = new String[Renderer.DRAW_MAX_TEXTURES];
+    
+    static
+    {
+        for (int i = 0; i < Renderer.DRAW_MAX_TEXTURES; i++) Renderer.DRAW_TEXTURE_SLOT_UNIFORMS[i] = "texture" + i;
+    }
+    
+    /**
+     * When enabled, the batch vertex buffer is a persistently mapped ring of
+     * {@link #DRAW_STREAM_SEGMENTS} segments, one per frame in flight. Each
+     * flush copies the batch behind the previous one in the current frame's
+     * segment and a fence is placed once per frame, so the render thread only
+     * waits when it wraps into a segment the GPU may still be reading.
+     * <p>
+     * Must be set before the engine is started.
+     */
+    public static boolean DRAW_STREAMING = true;
+    
+    public static final int DRAW_STREAM_SEGMENTS = 3;
+    
+    /**
+     * The minimum number of vertices in each stream segment. A segment
+     * always holds at least one full batch.
+     * <p>
+     * Must be set before the engine is started.
+     */
+    public static int DRAW_STREAM_SEGMENT_VERTICES = 8192 * 4 * 2;
+    
+    // Interleaved vertex layout, one record per vertex
+    public static final int DRAW_VERTEX_POS_OFFSET   = 0;  // (XYZ)  (shader-location = 0)
+    public static final int DRAW_VERTEX_TEX1_OFFSET  = 12; // (UVQ)  (shader-location = 1)
+    public static final int DRAW_VERTEX_NORM_OFFSET  = 24; // (XYZ)  (shader-location = 2)
+    public static final int DRAW_VERTEX_TAN_OFFSET   = 36; // (XYZ)  (shader-location = 3)
+    public static final int DRAW_VERTEX_COLOR_OFFSET = 48; // (RGBA) (shader-location = 4)
+    public static final int DRAW_VERTEX_TEX2_OFFSET  = 52; // (UVQ)  (shader-location = 5)
+    public static final int DRAW_VERTEX_SLOT_OFFSET  = 64; // (S)    (shader-location = 6)
+    public static final int DRAW_VERTEX_SIZE         = 64; // Without the slot
+    public static final int DRAW_VERTEX_SIZE_SLOTS   = 68;
+    
+    // Attribute mask bits, bit index matches the shader-location
+    public static final int DRAW_ATTRIBUTE_POS   = 1;
+    public static final int DRAW_ATTRIBUTE_TEX1  = 1 << 1;
+    public static final int DRAW_ATTRIBUTE_NORM  = 1 << 2;
+    public static final int DRAW_ATTRIBUTE_TAN   = 1 << 3;
+    public static final int DRAW_ATTRIBUTE_COLOR = 1 << 4;
+    public static final int DRAW_ATTRIBUTE_TEX2  = 1 << 5;
+    public static final int DRAW_ATTRIBUTE_SLOT  = 1 << 6; // Written along with the position
+    public static final int DRAW_ATTRIBUTE_ALL   = (1 << 7) - 1;
+    
+    static ByteBuffer drawVertexData;
+    static int        drawVertexSize; // The slot is only stored when DRAW_TEXTURE_SLOTS is enabled
+    static int        drawVertexCapacity;
+    static int        drawVertexCapacityMax;
+    
+    static ByteBuffer drawVertexCarry; // Scratch for the unfinished primitive that is carried over a flush
+    
+    static BufferArray drawStreamBuffer;
+    static ByteBuffer  drawStreamMapped;
+    static int         drawStreamCapacity; // Vertices per segment
+    static int         drawStreamSegment;
+    static int         drawStreamOffset;   // Vertices written to the current segment this frame
+    static Fence[]     drawStreamFences;
+    
+    static int drawVertexCount; // Number of positions written, every other attribute is padded up to this.
+    static int drawVertexTex1Count;
+    static int drawVertexNormCount;
+    static int drawVertexTanCount;
+    static int drawVertexColorCount;
+    static int drawVertexTex2Count;
+    
+    static int drawVertexPrimitiveStart; // Value of drawVertexCount when the current primitive was begun
+    
+    static int drawVertexColorLast; // Packed RGBA (R in the low byte) of the last color written, used for padding
+    
+    static int drawAttributesEnabled; // Attribute arrays currently enabled on the VertexArray
     
     static VertexArray drawVertexArray;
+    static Rasterizer  drawRasterizer;        // Draws the batches instead of GL when there is no context
+    static Texture     drawRasterizerTexture; // Last texture passed to the rasterizer during the current flush
     
     static int       drawTextureIndex;
     static String[]  drawTextureNames;
     static Texture[] drawTextures;
     
+    static Texture[] drawTextureSlots;
+    static Texture[] drawTextureSlotsTmp;
+    static int[]     drawTextureSlotRemap;
+    static int       drawTextureSlotCount;
+    static int       drawTextureSlot; // Slot written with each vertex
+    
     static boolean drawVertexHasBegun;
     
     static int        drawCallIndex;
     static DrawCall[] drawCalls;
     
+    static int drawLayer;
+    
+    static long[]    drawSortKeys;
+    static long[]    drawSortKeysTmp;
+    static int[]     drawSortOrder;
+    static int[]     drawSortOrderTmp;
+    static int[]     drawSortOffsets;
+    static IntBuffer drawMultiOffsets;
+    static IntBuffer drawMultiCounts;
+    static IntBuffer drawMultiBaseVertices;
+    
     static double drawCurrentDepth;
     
+    // std140 layout of the default uniform block
+    public static final int DRAW_UNIFORM_MATRIX_MVP_OFFSET        = 0;   // mat4
+    public static final int DRAW_UNIFORM_MATRIX_PROJECTION_OFFSET = 64;  // mat4
+    public static final int DRAW_UNIFORM_MATRIX_VIEW_OFFSET       = 128; // mat4
+    public static final int DRAW_UNIFORM_MATRIX_MODEL_OFFSET      = 192; // mat4
+    public static final int DRAW_UNIFORM_MATRIX_NORMAL_OFFSET     = 256; // mat4
+    public static final int DRAW_UNIFORM_VECTOR_VIEW_X_OFFSET     = 320; // vec3 (padded to vec4)
+    public static final int DRAW_UNIFORM_VECTOR_VIEW_Y_OFFSET     = 336; // vec3 (padded to vec4)
+    public static final int DRAW_UNIFORM_VECTOR_VIEW_Z_OFFSET     = 352; // vec3 (padded to vec4)
+    public static final int DRAW_UNIFORM_COLOR_DIFFUSE_OFFSET     = 368; // vec4
+    public static final int DRAW_UNIFORM_COLOR_SPECULAR_OFFSET    = 384; // vec4
+    public static final int DRAW_UNIFORM_COLOR_AMBIENT_OFFSET     = 400; // vec4
+    public static final int DRAW_UNIFORM_SIZE                     = 416;
+    
+    static BufferUniform drawUniformBuffer;
+    static ByteBuffer    drawUniformData;
+    static ByteBuffer    drawUniformUploaded;
+    
     static final Matrix4d drawMVP = new Matrix4d();
     
     static final Vector3d drawViewX = new Vector3d();
@@ -1128,46 +1585,49 @@ public class Renderer
     
     private static void setupDraw()
     {
-        int vertexCount = Renderer.DRAW_ELEMENTS_COUNT * 4; // 4 vertices per quad
+        Renderer.drawVertexSize        = Renderer.DRAW_TEXTURE_SLOTS ? Renderer.DRAW_VERTEX_SIZE_SLOTS : Renderer.DRAW_VERTEX_SIZE;
+        Renderer.drawVertexCapacityMax = Integer.max(Renderer.DRAW_ELEMENTS_COUNT, Renderer.DRAW_ELEMENTS_MAX) * 4; // 4 vertices per quad
+        
+        drawCreateBuffers(Renderer.DRAW_ELEMENTS_COUNT * 4);
         
-        Renderer.drawVertexPos   = MemoryUtil.memCallocFloat(vertexCount * 3); // 3 floats per position
-        Renderer.drawVertexTex1  = MemoryUtil.memCallocFloat(vertexCount * 3); // 3 floats per texcoord
-        Renderer.drawVertexNorm  = MemoryUtil.memCallocFloat(vertexCount * 3); // 3 floats per normal
-        Renderer.drawVertexTan   = MemoryUtil.memCallocFloat(vertexCount * 3); // 3 floats per tangent
-        Renderer.drawVertexColor = MemoryUtil.memCalloc(vertexCount * 4);      // 4 bytes  per color
-        Renderer.drawVertexTex2  = MemoryUtil.memCallocFloat(vertexCount * 3); // 3 floats per texcoord2
+        drawVertexReset();
+        Renderer.drawVertexColorLast = 0xFFFFFFFF;
         
-        IntBuffer indices = MemoryUtil.memCallocInt(Renderer.DRAW_ELEMENTS_COUNT * 6); // 6 indices per quad
-        for (int i = 0; i < Renderer.DRAW_ELEMENTS_COUNT; ++i)
+        Renderer.drawUniformData     = MemoryUtil.memCalloc(Renderer.DRAW_UNIFORM_SIZE);
+        Renderer.drawUniformUploaded = MemoryUtil.memCalloc(Renderer.DRAW_UNIFORM_SIZE);
+        if (Renderer.drawRasterizer == null)
         {
-            indices.put(4 * i);
-            indices.put(4 * i + 1);
-            indices.put(4 * i + 2);
-            indices.put(4 * i);
-            indices.put(4 * i + 2);
-            indices.put(4 * i + 3);
+            Renderer.drawUniformBuffer = new BufferUniform(BufferUsage.DYNAMIC_DRAW, Renderer.DRAW_UNIFORM_SIZE);
+            Renderer.drawUniformBuffer.set(0, Renderer.drawUniformUploaded);
+            Renderer.drawUniformBuffer.base(Program.UNIFORM_BLOCK_DEFAULT_BINDING);
+            
+            // Constant values used when a DrawCall does not provide an attribute
+            GL44.glVertexAttrib3f(1, 0F, 0F, 1F);
+            GL44.glVertexAttrib3f(2, 0F, 0F, 1F);
+            GL44.glVertexAttrib3f(3, 1F, 0F, 0F);
+            GL44.glVertexAttrib4f(4, 1F, 1F, 1F, 1F);
+            GL44.glVertexAttrib3f(5, 0F, 0F, 1F);
+            if (Renderer.DRAW_TEXTURE_SLOTS) GL44.glVertexAttrib1f(6, 0F);
         }
         
-        Renderer.drawVertexArray = VertexArray.builder()
-                                              .buffer(BufferUsage.DYNAMIC_DRAW, vertexCount, new Attribute(GLType.FLOAT, 3, false))
-                                              .buffer(BufferUsage.DYNAMIC_DRAW, vertexCount, new Attribute(GLType.FLOAT, 3, false))
-                                              .buffer(BufferUsage.DYNAMIC_DRAW, vertexCount, new Attribute(GLType.FLOAT, 3, false))
-                                              .buffer(BufferUsage.DYNAMIC_DRAW, vertexCount, new Attribute(GLType.FLOAT, 3, false))
-                                              .buffer(BufferUsage.DYNAMIC_DRAW, vertexCount, new Attribute(GLType.UNSIGNED_BYTE, 4, true))
-                                              .buffer(BufferUsage.DYNAMIC_DRAW, vertexCount, new Attribute(GLType.FLOAT, 3, false))
-                                              .indexBuffer(BufferUsage.STATIC_DRAW, indices.clear())
-                                              .build();
-        MemoryUtil.memFree(indices);
-        
         Renderer.drawTextureIndex = 0;
         Renderer.drawTextureNames = new String[Renderer.DRAW_MAX_TEXTURES];
         Renderer.drawTextures     = new Texture[Renderer.DRAW_MAX_TEXTURES];
         
+        Renderer.drawTextureSlots     = new Texture[Renderer.DRAW_MAX_TEXTURES];
+        Renderer.drawTextureSlotsTmp  = new Texture[Renderer.DRAW_MAX_TEXTURES];
+        Renderer.drawTextureSlotRemap = new int[Renderer.DRAW_MAX_TEXTURES];
+        Renderer.drawTextureSlots[0]  = Renderer.defaultTexture;
+        Renderer.drawTextureSlotCount = 1;
+        Renderer.drawTextureSlot      = 0;
+        
         Renderer.drawVertexHasBegun = false;
         
+        Renderer.drawLayer = 0;
+        
         Renderer.drawCallIndex = 0;
-        Renderer.drawCalls     = new DrawCall[Renderer.DRAW_CALLS_COUNT];
-        for (int i = 0; i < Renderer.DRAW_CALLS_COUNT; i++) Renderer.drawCalls[i] = new DrawCall();
+        Renderer.drawCalls     = new DrawCall[0];
+        drawCallsResize(Renderer.DRAW_CALLS_COUNT);
         
         Renderer.drawCurrentDepth = 0.99995;
     }
@@ -1175,304 +1635,1543 @@ public class Renderer
     private static void destroyDraw()
     {
         Renderer.drawCallIndex = -1;
-        for (int i = 0; i < Renderer.DRAW_CALLS_COUNT; i++)
+        for (int i = 0; i < Renderer.drawCalls.length; i++)
         {
             Renderer.drawCalls[i].reset();
             Renderer.drawCalls[i] = null;
         }
         Renderer.drawCalls = null;
         
-        Renderer.drawVertexArray.delete();
-        Renderer.drawVertexArray = null;
+        Renderer.drawTextureSlots     = null;
+        Renderer.drawTextureSlotsTmp  = null;
+        Renderer.drawTextureSlotRemap = null;
         
-        // Free vertex arrays memory from CPU (RAM)
-        MemoryUtil.memFree(Renderer.drawVertexPos);
-        MemoryUtil.memFree(Renderer.drawVertexTex1);
-        MemoryUtil.memFree(Renderer.drawVertexNorm);
-        MemoryUtil.memFree(Renderer.drawVertexTan);
-        MemoryUtil.memFree(Renderer.drawVertexColor);
-        MemoryUtil.memFree(Renderer.drawVertexTex2);
-    }
-    
-    public static void drawSetTexture(@NotNull Texture texture)
-    {
-        Renderer.LOGGER.trace("drawSetTexture(%s)", texture);
+        Renderer.drawSortKeys     = null;
+        Renderer.drawSortKeysTmp  = null;
+        Renderer.drawSortOrder    = null;
+        Renderer.drawSortOrderTmp = null;
+        Renderer.drawSortOffsets  = null;
         
-        if (Renderer.drawCalls[Renderer.drawCallIndex].texture != texture)
-        {
-            Renderer.drawIncrementCall();
-            
-            Renderer.drawCalls[Renderer.drawCallIndex].texture = texture;
-        }
+        MemoryUtil.memFree(Renderer.drawMultiOffsets);
+        MemoryUtil.memFree(Renderer.drawMultiCounts);
+        MemoryUtil.memFree(Renderer.drawMultiBaseVertices);
+        Renderer.drawMultiOffsets      = null;
+        Renderer.drawMultiCounts       = null;
+        Renderer.drawMultiBaseVertices = null;
+        
+        if (Renderer.drawUniformBuffer != null) Renderer.drawUniformBuffer.delete();
+        Renderer.drawUniformBuffer = null;
+        MemoryUtil.memFree(Renderer.drawUniformData);
+        MemoryUtil.memFree(Renderer.drawUniformUploaded);
+        Renderer.drawUniformData     = null;
+        Renderer.drawUniformUploaded = null;
+        
+        drawDeleteBuffers();
+        
+        MemoryUtil.memFree(Renderer.drawVertexCarry);
+        Renderer.drawVertexCarry = null;
     }
     
-    public static void drawAddTexture(@NotNull Texture texture)
+    /**
+     * Resizes the DrawCall list and the scratch space used to issue it.
+     */
+    private static void drawCallsResize(int size)
     {
-        Renderer.LOGGER.trace("drawSetTexture(%s)", texture);
+        int oldSize = Renderer.drawCalls.length;
         
-        if (Renderer.drawCalls[Renderer.drawCallIndex].texture != texture)
-        {
-            Renderer.drawIncrementCall();
-            
-            Renderer.drawCalls[Renderer.drawCallIndex].texture = texture;
-        }
+        Renderer.drawCalls = Arrays.copyOf(Renderer.drawCalls, size);
+        for (int i = oldSize; i < size; i++) Renderer.drawCalls[i] = new DrawCall();
+        
+        Renderer.drawSortKeys     = new long[size];
+        Renderer.drawSortKeysTmp  = new long[size];
+        Renderer.drawSortOrder    = new int[size];
+        Renderer.drawSortOrderTmp = new int[size];
+        Renderer.drawSortOffsets  = new int[size];
+        
+        Renderer.drawMultiOffsets      = MemoryUtil.memRealloc(Renderer.drawMultiOffsets, size);
+        Renderer.drawMultiCounts       = MemoryUtil.memRealloc(Renderer.drawMultiCounts, size);
+        Renderer.drawMultiBaseVertices = MemoryUtil.memRealloc(Renderer.drawMultiBaseVertices, size);
     }
     
-    public static void drawVertexBegin(@NotNull DrawMode mode)
+    /**
+     * Creates the CPU and GPU buffers for a batch of {@code capacity}
+     * vertices and binds the new VertexArray. Only the CPU buffer is created
+     * when drawing with the rasterizer.
+     */
+    private static void drawCreateBuffers(int capacity)
     {
-        if (Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not ended");
-        Renderer.drawVertexHasBegun = true;
+        Renderer.drawVertexCapacity = capacity;
         
-        Renderer.LOGGER.trace("vertexBegin(%s)", mode);
+        long batchSize = (long) Renderer.drawVertexCapacity * Renderer.drawVertexSize;
         
-        if (Renderer.drawCalls[Renderer.drawCallIndex].mode != mode)
+        // Vertices are always assembled in CPU memory, the mapped ring is only ever written to
+        Renderer.drawVertexData = MemoryUtil.memCalloc((int) batchSize);
+        
+        Renderer.drawStreamBuffer = null;
+        Renderer.drawStreamMapped = null;
+        if (Renderer.DRAW_STREAMING && Renderer.drawRasterizer == null)
         {
-            Renderer.drawIncrementCall();
+            Renderer.drawStreamCapacity = Integer.max(capacity, Renderer.DRAW_STREAM_SEGMENT_VERTICES);
             
-            Renderer.drawCalls[Renderer.drawCallIndex].mode = mode;
+            long size = (long) Renderer.drawStreamCapacity * Renderer.drawVertexSize * Renderer.DRAW_STREAM_SEGMENTS;
+            
+            BufferFlag[] flags = {BufferFlag.MAP_WRITE, BufferFlag.MAP_PERSISTENT, BufferFlag.MAP_COHERENT};
+            
+            Renderer.drawStreamBuffer = new BufferArray(size, flags);
+            Renderer.drawStreamMapped = Renderer.drawStreamBuffer.mapRange(0, size, flags);
+            if (Renderer.drawStreamMapped == null)
+            {
+                Renderer.LOGGER.warning("Could not map stream buffer, falling back to sub-data uploads");
+                
+                Renderer.drawStreamBuffer.delete();
+                Renderer.drawStreamBuffer = null;
+            }
         }
-    }
-    
-    public static void drawVertexEnd()
-    {
-        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
-        Renderer.drawVertexHasBegun = false;
-        
-        Renderer.LOGGER.trace("drawEnd()");
         
-        int limit;
-        
-        // Make sure drawVertexTex1 count match vertex count
-        limit = Renderer.drawVertexPos.position() / 3 - Renderer.drawVertexTex1.position() / 3;
-        for (int i = 0; i < limit; i++) Renderer.drawVertexTex1.put(0F).put(0F).put(1F);
+        if (Renderer.drawStreamMapped != null)
+        {
+            Renderer.drawStreamSegment = 0;
+            Renderer.drawStreamOffset  = 0;
+            Renderer.drawStreamFences  = new Fence[Renderer.DRAW_STREAM_SEGMENTS];
+            for (int i = 0; i < Renderer.DRAW_STREAM_SEGMENTS; i++) Renderer.drawStreamFences[i] = new Fence();
+        }
         
-        // Make sure drawVertexNorm count match vertex count
-        limit = Renderer.drawVertexPos.position() / 3 - Renderer.drawVertexNorm.position() / 3;
-        for (int i = 0; i < limit; i++) Renderer.drawVertexNorm.put(0F).put(0F).put(1F);
+        // The rasterizer reads the vertices straight from memory
+        if (Renderer.drawRasterizer != null) return;
         
-        // Make sure drawVertexTan count match vertex count
-        limit = Renderer.drawVertexPos.position() / 3 - Renderer.drawVertexTan.position() / 3;
-        for (int i = 0; i < limit; i++) Renderer.drawVertexTan.put(1F).put(0F).put(0F);
+        int elements = capacity / 4;
         
-        // Make sure drawVertexColor count match vertex count
-        limit = Renderer.drawVertexPos.position() / 3 - Renderer.drawVertexColor.position() / 4;
-        for (int i = 0, index; i < limit; i++)
+        IntBuffer indices = MemoryUtil.memCallocInt(elements * 6); // 6 indices per quad
+        for (int i = 0; i < elements; ++i)
         {
-            index = Renderer.drawVertexColor.position() - 4;
-            Renderer.drawVertexColor.put(Renderer.drawVertexColor.get(index));
-            Renderer.drawVertexColor.put(Renderer.drawVertexColor.get(index + 1));
-            Renderer.drawVertexColor.put(Renderer.drawVertexColor.get(index + 2));
-            Renderer.drawVertexColor.put(Renderer.drawVertexColor.get(index + 3));
+            indices.put(4 * i);
+            indices.put(4 * i + 1);
+            indices.put(4 * i + 2);
+            indices.put(4 * i);
+            indices.put(4 * i + 2);
+            indices.put(4 * i + 3);
         }
         
-        // Make sure drawVertexTex2 count match vertex count
-        limit = Renderer.drawVertexPos.position() / 3 - Renderer.drawVertexTex2.position() / 3;
-        for (int i = 0; i < limit; i++) Renderer.drawVertexTex2.put(0F).put(0F).put(1F);
+        Attribute[] attributes = {
+                new Attribute(GLType.FLOAT, 3, false),
+                new Attribute(GLType.FLOAT, 3, false),
+                new Attribute(GLType.FLOAT, 3, false),
+                new Attribute(GLType.FLOAT, 3, false),
+                new Attribute(GLType.UNSIGNED_BYTE, 4, true),
+                new Attribute(GLType.FLOAT, 3, false),
+                new Attribute(GLType.FLOAT, 1, false)
+        };
+        if (!Renderer.DRAW_TEXTURE_SLOTS) attributes = Arrays.copyOf(attributes, attributes.length - 1);
+        
+        VertexArray.Builder builder = VertexArray.builder();
+        if (Renderer.drawStreamBuffer != null)
+        {
+            builder.buffer(Renderer.drawStreamBuffer, attributes);
+        }
+        else
+        {
+            builder.buffer(BufferUsage.DYNAMIC_DRAW, Renderer.drawVertexCapacity, attributes);
+        }
+        Renderer.drawVertexArray = builder.indexBuffer(BufferUsage.STATIC_DRAW, indices.clear()).build();
+        MemoryUtil.memFree(indices);
         
-        // Correct increment formula would be: depthInc = (zFar - zNear)/pow(2, bits)
-        Renderer.drawCurrentDepth -= 0.00005;
+        Renderer.drawAttributesEnabled = Renderer.DRAW_TEXTURE_SLOTS ? Renderer.DRAW_ATTRIBUTE_ALL : Renderer.DRAW_ATTRIBUTE_ALL & ~Renderer.DRAW_ATTRIBUTE_SLOT;
     }
     
-    public static void drawVertexPos(double x, double y, double z)
+    private static void drawDeleteBuffers()
     {
-        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
-        
-        // Verify that current vertex buffer elements limit has not been reached
-        if (Renderer.drawVertexPos.position() / 4 < Renderer.DRAW_ELEMENTS_COUNT * 4)
+        if (Renderer.drawStreamMapped != null)
         {
-            Renderer.LOGGER.trace("drawVertexPos(%s, %s, %s)", x, y, z);
-            
-            Renderer.drawVertexPos.put((float) x).put((float) y).put((float) z);
+            for (Fence fence : Renderer.drawStreamFences) fence.delete();
+            Renderer.drawStreamFences = null;
             
-            Renderer.drawCalls[Renderer.drawCallIndex].vertexCount++;
-        }
-        else
-        {
-            Renderer.LOGGER.severe("Vertex Buffer Overflow");
+            Renderer.drawStreamBuffer.unmap();
+            Renderer.drawStreamBuffer = null;
+            Renderer.drawStreamMapped = null;
         }
+        
+        // Free vertex array memory from CPU (RAM)
+        MemoryUtil.memFree(Renderer.drawVertexData);
+        Renderer.drawVertexData = null;
+        
+        if (Renderer.drawVertexArray != null) Renderer.drawVertexArray.delete();
+        Renderer.drawVertexArray = null;
     }
     
-    public static void drawVertexPos(double x, double y)
+    private static void drawVertexReset()
     {
-        drawVertexPos(x, y, Renderer.drawCurrentDepth);
+        Renderer.drawVertexCount      = 0;
+        Renderer.drawVertexTex1Count  = 0;
+        Renderer.drawVertexNormCount  = 0;
+        Renderer.drawVertexTanCount   = 0;
+        Renderer.drawVertexColorCount = 0;
+        Renderer.drawVertexTex2Count  = 0;
     }
     
-    public static void drawVertexTexCoord(double u, double v, double q)
+    private static void drawVertexPut3(int vertex, int offset, float x, float y, float z)
     {
-        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
-        
-        Renderer.LOGGER.trace("drawVertexTexCoord(%s, %s, %s)", u, v, q);
+        int index = vertex * Renderer.drawVertexSize + offset;
+        Renderer.drawVertexData.putFloat(index, x);
+        Renderer.drawVertexData.putFloat(index + 4, y);
+        Renderer.drawVertexData.putFloat(index + 8, z);
+    }
+    
+    private static void drawVertexPutSlot(int vertex, int count)
+    {
+        if (!Renderer.DRAW_TEXTURE_SLOTS) return;
         
-        Renderer.drawVertexTex1.put((float) u).put((float) v).put((float) q);
+        float slot = Renderer.drawTextureSlot;
+        for (int i = 0, index = vertex * Renderer.drawVertexSize + Renderer.DRAW_VERTEX_SLOT_OFFSET; i < count; i++, index += Renderer.drawVertexSize)
+        {
+            Renderer.drawVertexData.putFloat(index, slot);
+        }
     }
     
-    public static void drawVertexTexCoord(double u, double v)
+    private static void drawVertexPutColor(int vertex, int color)
     {
-        drawVertexTexCoord(u, v, 1.0);
+        if (Renderer.drawVertexData.order() != ByteOrder.LITTLE_ENDIAN) color = Integer.reverseBytes(color);
+        Renderer.drawVertexData.putInt(vertex * Renderer.drawVertexSize + Renderer.DRAW_VERTEX_COLOR_OFFSET, color);
     }
     
-    public static void drawVertexNormal(double x, double y, double z)
+    /**
+     * Pads every attribute used by the current DrawCall up to {@code count}
+     * vertices.
+     */
+    private static void drawVertexPad(int count)
     {
-        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        Renderer.drawVertexTex1Count = drawVertexFill3(Renderer.DRAW_ATTRIBUTE_TEX1, Renderer.DRAW_VERTEX_TEX1_OFFSET, Renderer.drawVertexTex1Count, count, 0F, 0F, 1F);
+        Renderer.drawVertexNormCount = drawVertexFill3(Renderer.DRAW_ATTRIBUTE_NORM, Renderer.DRAW_VERTEX_NORM_OFFSET, Renderer.drawVertexNormCount, count, 0F, 0F, 1F);
+        Renderer.drawVertexTanCount  = drawVertexFill3(Renderer.DRAW_ATTRIBUTE_TAN, Renderer.DRAW_VERTEX_TAN_OFFSET, Renderer.drawVertexTanCount, count, 1F, 0F, 0F);
+        Renderer.drawVertexTex2Count = drawVertexFill3(Renderer.DRAW_ATTRIBUTE_TEX2, Renderer.DRAW_VERTEX_TEX2_OFFSET, Renderer.drawVertexTex2Count, count, 0F, 0F, 1F);
+        
+        // Colors are padded by repeating the last color
+        DrawCall drawCall = Renderer.drawCalls[Renderer.drawCallIndex];
+        if (Renderer.drawVertexColorCount > Renderer.drawVertexPrimitiveStart)
+        {
+            if ((drawCall.attributes & Renderer.DRAW_ATTRIBUTE_COLOR) == 0)
+            {
+                int start = Renderer.drawVertexCount - drawCall.vertexCount;
+                for (int i = start; i < Renderer.drawVertexPrimitiveStart; i++) drawVertexPutColor(i, drawCall.color);
+                drawCall.attributes |= Renderer.DRAW_ATTRIBUTE_COLOR;
+            }
+        }
+        else if ((drawCall.attributes & Renderer.DRAW_ATTRIBUTE_COLOR) == 0)
+        {
+            drawCall.color = Renderer.drawVertexColorLast;
+            
+            Renderer.drawVertexColorCount = count;
+        }
+        for (; Renderer.drawVertexColorCount < count; Renderer.drawVertexColorCount++)
+        {
+            drawVertexPutColor(Renderer.drawVertexColorCount, Renderer.drawVertexColorLast);
+        }
+    }
+    
+    /**
+     * Pads an attribute up to {@code count} vertices, but only if the current
+     * DrawCall uses it. If this is the first primitive of the DrawCall to
+     * use the attribute, the skipped vertices from earlier primitives are
+     * back-filled.
+     *
+     * @return The new cursor for the attribute.
+     */
+    private static int drawVertexFill3(int attribute, int offset, int cursor, int count, float x, float y, float z)
+    {
+        DrawCall drawCall = Renderer.drawCalls[Renderer.drawCallIndex];
+        
+        int start = Renderer.drawVertexPrimitiveStart;
+        
+        if (cursor > start)
+        {
+            if ((drawCall.attributes & attribute) == 0)
+            {
+                for (int i = Renderer.drawVertexCount - drawCall.vertexCount; i < start; i++) drawVertexPut3(i, offset, x, y, z);
+                drawCall.attributes |= attribute;
+            }
+        }
+        else if ((drawCall.attributes & attribute) == 0)
+        {
+            return count; // A constant attribute is used when drawing
+        }
+        for (; cursor < count; cursor++) drawVertexPut3(cursor, offset, x, y, z);
+        return count;
+    }
+    
+    public static void drawSetTexture(@NotNull Texture texture)
+    {
+        Renderer.LOGGER.trace("drawSetTexture(%s)", texture);
+        
+        if (Renderer.DRAW_TEXTURE_SLOTS)
+        {
+            Renderer.drawTextureSlot = drawTextureSlot(texture);
+            return;
+        }
+        
+        if (Renderer.drawCalls[Renderer.drawCallIndex].texture != texture)
+        {
+            Renderer.drawIncrementCall();
+            
+            Renderer.drawCalls[Renderer.drawCallIndex].texture = texture;
+        }
+    }
+    
+    /**
+     * @return The slot that the texture is bound to when the batch is
+     * flushed. The texture is added to a free slot if needed.
+     */
+    private static int drawTextureSlot(@NotNull Texture texture)
+    {
+        for (int i = 0; i < Renderer.drawTextureSlotCount; i++)
+        {
+            if (Renderer.drawTextureSlots[i] == texture) return i;
+        }
+        
+        if (Renderer.drawTextureSlotCount == Renderer.DRAW_MAX_TEXTURES)
+        {
+            // Every slot is taken, so draw what was written with them
+            if (Renderer.drawVertexHasBegun)
+            {
+                drawVertexSplit(Renderer.drawVertexCount, false);
+            }
+            else
+            {
+                drawVertices();
+            }
+            drawTextureSlotsCompact();
+            
+            if (Renderer.drawTextureSlotCount == Renderer.DRAW_MAX_TEXTURES)
+            {
+                Renderer.LOGGER.log(Renderer.TEXTURE_LIMITER, Logger.Level.SEVERE, "Too many textures in a single primitive");
+                return Renderer.drawTextureSlot;
+            }
+        }
+        
+        Renderer.drawTextureSlots[Renderer.drawTextureSlotCount] = texture;
+        return Renderer.drawTextureSlotCount++;
+    }
+    
+    /**
+     * Removes every slot that is not used by the current texture or a
+     * vertex still in the batch, renumbering the vertices to match. The
+     * current texture ends up in slot 0.
+     */
+    private static void drawTextureSlotsCompact()
+    {
+        int[]     remap = Renderer.drawTextureSlotRemap;
+        Texture[] slots = Renderer.drawTextureSlotsTmp;
+        Arrays.fill(remap, -1);
+        
+        int count = 0;
+        
+        remap[Renderer.drawTextureSlot] = count;
+        slots[count++]                  = Renderer.drawTextureSlots[Renderer.drawTextureSlot];
+        for (int i = 0, index = Renderer.DRAW_VERTEX_SLOT_OFFSET; i < Renderer.drawVertexCount; i++, index += Renderer.drawVertexSize)
+        {
+            int slot = (int) Renderer.drawVertexData.getFloat(index);
+            if (remap[slot] < 0)
+            {
+                remap[slot]    = count;
+                slots[count++] = Renderer.drawTextureSlots[slot];
+            }
+            Renderer.drawVertexData.putFloat(index, remap[slot]);
+        }
+        
+        Arrays.fill(Renderer.drawTextureSlots, null);
+        System.arraycopy(slots, 0, Renderer.drawTextureSlots, 0, count);
+        Arrays.fill(slots, null);
+        
+        Renderer.drawTextureSlotCount = count;
+        Renderer.drawTextureSlot      = 0;
+    }
+    
+    public static void drawAddTexture(@NotNull Texture texture)
+    {
+        Renderer.LOGGER.trace("drawSetTexture(%s)", texture);
+        
+        if (Renderer.drawCalls[Renderer.drawCallIndex].texture != texture)
+        {
+            Renderer.drawIncrementCall();
+            
+            Renderer.drawCalls[Renderer.drawCallIndex].texture = texture;
+        }
+    }
+    
+    /**
+     * @return The layer that DrawCalls are currently recorded on.
+     */
+    public static int drawLayer()
+    {
+        return Renderer.drawLayer;
+    }
+    
+    /**
+     * Sets the layer that following DrawCalls are recorded on. When
+     * {@link #DRAW_DEFERRED} is enabled, lower layers are drawn first.
+     *
+     * @param layer The layer.
+     */
+    public static void drawLayer(int layer)
+    {
+        Renderer.LOGGER.trace("drawLayer(%s)", layer);
+        
+        Renderer.drawLayer = layer;
+        if (Renderer.drawCalls[Renderer.drawCallIndex].layer != layer)
+        {
+            Renderer.drawIncrementCall();
+            
+            Renderer.drawCalls[Renderer.drawCallIndex].layer = layer;
+        }
+    }
+    
+    public static void drawVertexBegin(@NotNull DrawMode mode)
+    {
+        if (Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not ended");
+        Renderer.drawVertexHasBegun = true;
+        
+        Renderer.LOGGER.trace("vertexBegin(%s)", mode);
+        
+        if (Renderer.drawCalls[Renderer.drawCallIndex].mode != mode)
+        {
+            Renderer.drawIncrementCall();
+            
+            Renderer.drawCalls[Renderer.drawCallIndex].mode = mode;
+        }
+        
+        Renderer.drawVertexPrimitiveStart = Renderer.drawVertexCount;
+    }
+    
+    public static void drawVertexEnd()
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        Renderer.drawVertexHasBegun = false;
+        
+        Renderer.LOGGER.trace("drawEnd()");
+        
+        // Make sure each attribute used by the DrawCall matches the vertex count
+        drawVertexPad(Renderer.drawVertexCount);
+        
+        // Correct increment formula would be: depthInc = (zFar - zNear)/pow(2, bits)
+        Renderer.drawCurrentDepth -= 0.00005;
+    }
+    
+    public static void drawVertexPos(double x, double y, double z)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        // Flush or grow the batch if the current vertex buffer elements limit has been reached
+        if (Renderer.drawVertexCount >= Renderer.drawVertexCapacity) drawVertexOverflow(Renderer.drawVertexCount + 1);
+        if (Renderer.drawVertexCount < Renderer.drawVertexCapacity)
+        {
+            Renderer.LOGGER.trace("drawVertexPos(%s, %s, %s)", x, y, z);
+            
+            drawVertexPut3(Renderer.drawVertexCount, Renderer.DRAW_VERTEX_POS_OFFSET, (float) x, (float) y, (float) z);
+            drawVertexPutSlot(Renderer.drawVertexCount++, 1);
+            
+            Renderer.drawCalls[Renderer.drawCallIndex].vertexCount++;
+        }
+        else
+        {
+            Renderer.LOGGER.log(Renderer.OVERFLOW_LIMITER, Logger.Level.SEVERE, "Vertex Buffer Overflow");
+        }
+    }
+    
+    public static void drawVertexPos(double x, double y)
+    {
+        drawVertexPos(x, y, Renderer.drawCurrentDepth);
+    }
+    
+    public static void drawVertexTexCoord(double u, double v, double q)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        Renderer.LOGGER.trace("drawVertexTexCoord(%s, %s, %s)", u, v, q);
+        
+        if (Renderer.drawVertexTex1Count >= Renderer.drawVertexCapacity) drawVertexOverflow(Renderer.drawVertexTex1Count + 1);
+        if (Renderer.drawVertexTex1Count < Renderer.drawVertexCapacity)
+        {
+            drawVertexPut3(Renderer.drawVertexTex1Count++, Renderer.DRAW_VERTEX_TEX1_OFFSET, (float) u, (float) v, (float) q);
+        }
+    }
+    
+    public static void drawVertexTexCoord(double u, double v)
+    {
+        drawVertexTexCoord(u, v, 1.0);
+    }
+    
+    public static void drawVertexNormal(double x, double y, double z)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
         
         Renderer.LOGGER.trace("drawVertexNormal(%s, %s, %s)", x, y, z);
         
-        Renderer.drawVertexNorm.put((float) x).put((float) y).put((float) z);
+        if (Renderer.drawVertexNormCount >= Renderer.drawVertexCapacity) drawVertexOverflow(Renderer.drawVertexNormCount + 1);
+        if (Renderer.drawVertexNormCount < Renderer.drawVertexCapacity)
+        {
+            drawVertexPut3(Renderer.drawVertexNormCount++, Renderer.DRAW_VERTEX_NORM_OFFSET, (float) x, (float) y, (float) z);
+        }
+    }
+    
+    public static void drawVertexTangent(double x, double y, double z)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        Renderer.LOGGER.trace("drawVertexTangent(%s, %s, %s)", x, y, z);
+        
+        if (Renderer.drawVertexTanCount >= Renderer.drawVertexCapacity) drawVertexOverflow(Renderer.drawVertexTanCount + 1);
+        if (Renderer.drawVertexTanCount < Renderer.drawVertexCapacity)
+        {
+            drawVertexPut3(Renderer.drawVertexTanCount++, Renderer.DRAW_VERTEX_TAN_OFFSET, (float) x, (float) y, (float) z);
+        }
+    }
+    
+    public static void drawVertexColor(int r, int g, int b, int a)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        Renderer.LOGGER.trace("drawVertexColor(%s, %s, %s, %s)", r, g, b, a);
+        
+        if (Renderer.drawVertexColorCount >= Renderer.drawVertexCapacity) drawVertexOverflow(Renderer.drawVertexColorCount + 1);
+        if (Renderer.drawVertexColorCount < Renderer.drawVertexCapacity)
+        {
+            int color = (r & 0xFF) | (g & 0xFF) << 8 | (b & 0xFF) << 16 | (a & 0xFF) << 24;
+            
+            drawVertexPutColor(Renderer.drawVertexColorCount++, color);
+            
+            Renderer.drawVertexColorLast = color;
+        }
+    }
+    
+    public static void drawVertexTexCoord2(double u, double v, double q)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        Renderer.LOGGER.trace("drawVertexTexCoord2(%s, %s, %s)", u, v, q);
+        
+        if (Renderer.drawVertexTex2Count >= Renderer.drawVertexCapacity) drawVertexOverflow(Renderer.drawVertexTex2Count + 1);
+        if (Renderer.drawVertexTex2Count < Renderer.drawVertexCapacity)
+        {
+            drawVertexPut3(Renderer.drawVertexTex2Count++, Renderer.DRAW_VERTEX_TEX2_OFFSET, (float) u, (float) v, (float) q);
+        }
+    }
+    
+    public static void drawVertexTexCoord2(double u, double v)
+    {
+        drawVertexTexCoord2(u, v, 1.0);
+    }
+    
+    // -------------------- Draw Bulk -------------------- //
+    
+    /**
+     * Adds positions for the remaining contents of the buffer, three floats
+     * (XYZ) per vertex. The buffer's position is not modified.
+     *
+     * @param positions The positions.
+     */
+    public static void drawVertexPos(@NotNull FloatBuffer positions)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexCount, positions.remaining() / 3);
+        
+        Renderer.LOGGER.trace("drawVertexPos(FloatBuffer[%s])", count);
+        
+        drawVertexCopy3(Renderer.drawVertexCount, Renderer.DRAW_VERTEX_POS_OFFSET, positions, count);
+        drawVertexPutSlot(Renderer.drawVertexCount, count);
+        
+        Renderer.drawVertexCount += count;
+        Renderer.drawCalls[Renderer.drawCallIndex].vertexCount += count;
+    }
+    
+    /**
+     * Adds positions from an array, three floats (XYZ) per vertex.
+     *
+     * @param positions The positions.
+     */
+    public static void drawVertexPos(float @NotNull [] positions)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexCount, positions.length / 3);
+        
+        Renderer.LOGGER.trace("drawVertexPos(float[%s])", count);
+        
+        drawVertexCopy3(Renderer.drawVertexCount, Renderer.DRAW_VERTEX_POS_OFFSET, positions, count);
+        drawVertexPutSlot(Renderer.drawVertexCount, count);
+        
+        Renderer.drawVertexCount += count;
+        Renderer.drawCalls[Renderer.drawCallIndex].vertexCount += count;
+    }
+    
+    /**
+     * Adds texture coordinates for the remaining contents of the buffer,
+     * three floats (UVQ) per vertex. The buffer's position is not modified.
+     *
+     * @param texCoords The texture coordinates.
+     */
+    public static void drawVertexTexCoord(@NotNull FloatBuffer texCoords)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexTex1Count, texCoords.remaining() / 3);
+        
+        Renderer.LOGGER.trace("drawVertexTexCoord(FloatBuffer[%s])", count);
+        
+        drawVertexCopy3(Renderer.drawVertexTex1Count, Renderer.DRAW_VERTEX_TEX1_OFFSET, texCoords, count);
+        
+        Renderer.drawVertexTex1Count += count;
+    }
+    
+    /**
+     * Adds texture coordinates from an array, three floats (UVQ) per vertex.
+     *
+     * @param texCoords The texture coordinates.
+     */
+    public static void drawVertexTexCoord(float @NotNull [] texCoords)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexTex1Count, texCoords.length / 3);
+        
+        Renderer.LOGGER.trace("drawVertexTexCoord(float[%s])", count);
+        
+        drawVertexCopy3(Renderer.drawVertexTex1Count, Renderer.DRAW_VERTEX_TEX1_OFFSET, texCoords, count);
+        
+        Renderer.drawVertexTex1Count += count;
+    }
+    
+    /**
+     * Adds normals for the remaining contents of the buffer, three floats
+     * (XYZ) per vertex. The buffer's position is not modified.
+     *
+     * @param normals The normals.
+     */
+    public static void drawVertexNormal(@NotNull FloatBuffer normals)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexNormCount, normals.remaining() / 3);
+        
+        Renderer.LOGGER.trace("drawVertexNormal(FloatBuffer[%s])", count);
+        
+        drawVertexCopy3(Renderer.drawVertexNormCount, Renderer.DRAW_VERTEX_NORM_OFFSET, normals, count);
+        
+        Renderer.drawVertexNormCount += count;
+    }
+    
+    /**
+     * Adds normals from an array, three floats (XYZ) per vertex.
+     *
+     * @param normals The normals.
+     */
+    public static void drawVertexNormal(float @NotNull [] normals)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexNormCount, normals.length / 3);
+        
+        Renderer.LOGGER.trace("drawVertexNormal(float[%s])", count);
+        
+        drawVertexCopy3(Renderer.drawVertexNormCount, Renderer.DRAW_VERTEX_NORM_OFFSET, normals, count);
+        
+        Renderer.drawVertexNormCount += count;
+    }
+    
+    /**
+     * Adds tangents for the remaining contents of the buffer, three floats
+     * (XYZ) per vertex. The buffer's position is not modified.
+     *
+     * @param tangents The tangents.
+     */
+    public static void drawVertexTangent(@NotNull FloatBuffer tangents)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexTanCount, tangents.remaining() / 3);
+        
+        Renderer.LOGGER.trace("drawVertexTangent(FloatBuffer[%s])", count);
+        
+        drawVertexCopy3(Renderer.drawVertexTanCount, Renderer.DRAW_VERTEX_TAN_OFFSET, tangents, count);
+        
+        Renderer.drawVertexTanCount += count;
+    }
+    
+    /**
+     * Adds tangents from an array, three floats (XYZ) per vertex.
+     *
+     * @param tangents The tangents.
+     */
+    public static void drawVertexTangent(float @NotNull [] tangents)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexTanCount, tangents.length / 3);
+        
+        Renderer.LOGGER.trace("drawVertexTangent(float[%s])", count);
+        
+        drawVertexCopy3(Renderer.drawVertexTanCount, Renderer.DRAW_VERTEX_TAN_OFFSET, tangents, count);
+        
+        Renderer.drawVertexTanCount += count;
+    }
+    
+    /**
+     * Adds colors for the remaining contents of the buffer, four bytes
+     * (RGBA) per vertex. The buffer's position is not modified.
+     *
+     * @param colors The colors.
+     */
+    public static void drawVertexColor(@NotNull ByteBuffer colors)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexColorCount, colors.remaining() >> 2);
+        
+        Renderer.LOGGER.trace("drawVertexColor(ByteBuffer[%s])", count);
+        
+        if (count > 0)
+        {
+            int src = colors.position();
+            int dst = Renderer.drawVertexColorCount * Renderer.drawVertexSize + Renderer.DRAW_VERTEX_COLOR_OFFSET;
+            
+            boolean swap = colors.order() != Renderer.drawVertexData.order();
+            for (int i = 0; i < count; i++, src += 4, dst += Renderer.drawVertexSize)
+            {
+                int color = colors.getInt(src);
+                Renderer.drawVertexData.putInt(dst, swap ? Integer.reverseBytes(color) : color);
+            }
+            
+            src -= 4;
+            Renderer.drawVertexColorLast = (colors.get(src) & 0xFF) | (colors.get(src + 1) & 0xFF) << 8 | (colors.get(src + 2) & 0xFF) << 16 | (colors.get(src + 3) & 0xFF) << 24;
+        }
+        
+        Renderer.drawVertexColorCount += count;
+    }
+    
+    /**
+     * Adds colors from an array, four bytes (RGBA) per vertex.
+     *
+     * @param colors The colors.
+     */
+    public static void drawVertexColor(byte @NotNull [] colors)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexColorCount, colors.length >> 2);
+        
+        Renderer.LOGGER.trace("drawVertexColor(byte[%s])", count);
+        
+        int color = Renderer.drawVertexColorLast;
+        for (int i = 0, src = 0; i < count; i++, src += 4)
+        {
+            color = (colors[src] & 0xFF) | (colors[src + 1] & 0xFF) << 8 | (colors[src + 2] & 0xFF) << 16 | (colors[src + 3] & 0xFF) << 24;
+            drawVertexPutColor(Renderer.drawVertexColorCount + i, color);
+        }
+        Renderer.drawVertexColorLast = color;
+        
+        Renderer.drawVertexColorCount += count;
+    }
+    
+    /**
+     * Adds secondary texture coordinates for the remaining contents of the
+     * buffer, three floats (UVQ) per vertex. The buffer's position is not
+     * modified.
+     *
+     * @param texCoords The texture coordinates.
+     */
+    public static void drawVertexTexCoord2(@NotNull FloatBuffer texCoords)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexTex2Count, texCoords.remaining() / 3);
+        
+        Renderer.LOGGER.trace("drawVertexTexCoord2(FloatBuffer[%s])", count);
+        
+        drawVertexCopy3(Renderer.drawVertexTex2Count, Renderer.DRAW_VERTEX_TEX2_OFFSET, texCoords, count);
+        
+        Renderer.drawVertexTex2Count += count;
+    }
+    
+    /**
+     * Adds secondary texture coordinates from an array, three floats (UVQ)
+     * per vertex.
+     *
+     * @param texCoords The texture coordinates.
+     */
+    public static void drawVertexTexCoord2(float @NotNull [] texCoords)
+    {
+        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        
+        int count = drawVertexSpan(Renderer.drawVertexTex2Count, texCoords.length / 3);
+        
+        Renderer.LOGGER.trace("drawVertexTexCoord2(float[%s])", count);
+        
+        drawVertexCopy3(Renderer.drawVertexTex2Count, Renderer.DRAW_VERTEX_TEX2_OFFSET, texCoords, count);
+        
+        Renderer.drawVertexTex2Count += count;
+    }
+    
+    /**
+     * Draws a list of vertices with optional colors and texture coordinates.
+     * The spans use the same layout as the per-attribute bulk functions.
+     * <p>
+     * Lists of independent primitives ({@link DrawMode#primitiveSize} &gt; 0)
+     * are split on primitive boundaries across as many batches as needed.
+     * Other modes must fit within a single batch.
+     *
+     * @param mode      The primitive type.
+     * @param positions The positions (XYZ).
+     * @param colors    The colors (RGBA) or null to use the last color.
+     * @param texCoords The texture coordinates (UVQ) or null.
+     */
+    public static void drawVertices(@NotNull DrawMode mode, @NotNull FloatBuffer positions, @Nullable ByteBuffer colors, @Nullable FloatBuffer texCoords)
+    {
+        int count = positions.remaining() / 3;
+        
+        int posStart   = positions.position();
+        int posLimit   = positions.limit();
+        int colorStart = colors != null ? colors.position() : 0;
+        int colorLimit = colors != null ? colors.limit() : 0;
+        int texStart   = texCoords != null ? texCoords.position() : 0;
+        int texLimit   = texCoords != null ? texCoords.limit() : 0;
+        try
+        {
+            for (int offset = 0, n; offset < count; offset += n)
+            {
+                n = drawVerticesChunk(mode, count - offset);
+                
+                positions.limit(posStart + (offset + n) * 3).position(posStart + offset * 3);
+                drawVertexPos(positions);
+                if (colors != null)
+                {
+                    colors.limit(Integer.min(colorLimit, colorStart + ((offset + n) << 2))).position(Integer.min(colorLimit, colorStart + (offset << 2)));
+                    drawVertexColor(colors);
+                }
+                if (texCoords != null)
+                {
+                    texCoords.limit(Integer.min(texLimit, texStart + (offset + n) * 3)).position(Integer.min(texLimit, texStart + offset * 3));
+                    drawVertexTexCoord(texCoords);
+                }
+                
+                drawVertexEnd();
+            }
+        }
+        finally
+        {
+            positions.limit(posLimit).position(posStart);
+            if (colors != null) colors.limit(colorLimit).position(colorStart);
+            if (texCoords != null) texCoords.limit(texLimit).position(texStart);
+        }
+    }
+    
+    /**
+     * Draws a list of vertices with optional colors and texture coordinates.
+     *
+     * @param mode      The primitive type.
+     * @param positions The positions (XYZ).
+     * @param colors    The colors (RGBA) or null to use the last color.
+     * @param texCoords The texture coordinates (UVQ) or null.
+     *
+     * @see #drawVertices(DrawMode, FloatBuffer, ByteBuffer, FloatBuffer)
+     */
+    public static void drawVertices(@NotNull DrawMode mode, float @NotNull [] positions, byte @Nullable [] colors, float @Nullable [] texCoords)
+    {
+        int count = positions.length / 3;
+        for (int offset = 0, n; offset < count; offset += n)
+        {
+            n = drawVerticesChunk(mode, count - offset);
+            
+            int posCount = drawVertexSpan(Renderer.drawVertexCount, n);
+            drawVertexCopy3(Renderer.drawVertexCount, Renderer.DRAW_VERTEX_POS_OFFSET, positions, offset * 3, posCount);
+            drawVertexPutSlot(Renderer.drawVertexCount, posCount);
+            Renderer.drawVertexCount += posCount;
+            Renderer.drawCalls[Renderer.drawCallIndex].vertexCount += posCount;
+            
+            if (colors != null)
+            {
+                int colorCount = Integer.min(posCount, Integer.max(0, (colors.length >> 2) - offset));
+                for (int i = 0, src = offset << 2, color; i < colorCount; i++, src += 4)
+                {
+                    color = (colors[src] & 0xFF) | (colors[src + 1] & 0xFF) << 8 | (colors[src + 2] & 0xFF) << 16 | (colors[src + 3] & 0xFF) << 24;
+                    drawVertexPutColor(Renderer.drawVertexColorCount++, color);
+                    Renderer.drawVertexColorLast = color;
+                }
+            }
+            if (texCoords != null)
+            {
+                int texCount = Integer.min(posCount, Integer.max(0, texCoords.length / 3 - offset));
+                drawVertexCopy3(Renderer.drawVertexTex1Count, Renderer.DRAW_VERTEX_TEX1_OFFSET, texCoords, offset * 3, texCount);
+                Renderer.drawVertexTex1Count += texCount;
+            }
+            
+            drawVertexEnd();
+        }
+    }
+    
+    /**
+     * Begins a primitive for the bulk draw functions and returns how many of
+     * the remaining vertices can be written into the current batch.
+     */
+    private static int drawVerticesChunk(@NotNull DrawMode mode, int remaining)
+    {
+        drawVertexBegin(mode);
+        
+        int step = mode.primitiveSize;
+        if (step <= 0) return remaining;
+        
+        if (Renderer.drawVertexCount + remaining > Renderer.drawVertexCapacity) drawVertexOverflow(Renderer.drawVertexCount + remaining);
+        
+        int available = Renderer.drawVertexCapacity - Renderer.drawVertexCount;
+        int count     = Integer.min(remaining, available / step * step);
+        return count > 0 ? count : Integer.min(remaining, step); // Overflow is reported when the primitive is written
+    }
+    
+    /**
+     * Makes room for {@code count} vertices at {@code cursor}, flushing or
+     * growing the batch if needed.
+     *
+     * @return The number of vertices that fit into the batch. The cursor
+     * must be re-read afterwards as the batch may have been flushed.
+     */
+    private static int drawVertexSpan(int cursor, int count)
+    {
+        int available = Renderer.drawVertexCapacity - cursor;
+        if (count <= available) return count;
+        
+        cursor -= drawVertexOverflow(cursor + count);
+        
+        available = Renderer.drawVertexCapacity - cursor;
+        if (count <= available) return count;
+        
+        Renderer.LOGGER.log(Renderer.OVERFLOW_LIMITER, Logger.Level.SEVERE, "Vertex Buffer Overflow");
+        return Integer.max(available, 0);
+    }
+    
+    /**
+     * Called when an attribute would be written past the end of the batch.
+     * <p>
+     * Every whole primitive written so far is flushed, and the vertices of
+     * the unfinished primitive are carried over to the start of the next
+     * batch along with the state of the current DrawCall. For lists of
+     * independent primitives only the trailing partial primitive is carried
+     * over. While the batch is below {@link #DRAW_ELEMENTS_MAX} it is also
+     * grown geometrically.
+     * <p>
+     * Attributes are only carried over for the unfinished primitive, so an
+     * attribute that lags behind the positions by more than that is lost.
+     *
+     * @param end The cursor that needs to fit into the batch.
+     *
+     * @return The number of vertices that were flushed, which every cursor
+     * was moved back by.
+     */
+    private static int drawVertexOverflow(int end)
+    {
+        return drawVertexSplit(end, true);
+    }
+    
+    /**
+     * Flushes every whole primitive in the batch and carries the unfinished
+     * one over to the next batch.
+     *
+     * @param end  The cursor that needs to fit into the batch.
+     * @param grow If the batch may grow to fit {@code end}.
+     *
+     * @return The number of vertices that were flushed.
+     *
+     * @see #drawVertexOverflow(int)
+     */
+    private static int drawVertexSplit(int end, boolean grow)
+    {
+        DrawCall drawCall = Renderer.drawCalls[Renderer.drawCallIndex];
+        
+        // Everything before the split is made up of whole primitives
+        int start = Renderer.drawVertexPrimitiveStart;
+        int step  = drawCall.mode.primitiveSize;
+        int split = step > 0 ? start + (Renderer.drawVertexCount - start) / step * step : start;
+        
+        int capacity = Renderer.drawVertexCapacity;
+        if (grow && capacity < Renderer.drawVertexCapacityMax)
+        {
+            int required = (end - split + 3) & ~3;
+            capacity = Integer.min(Renderer.drawVertexCapacityMax, Integer.max(capacity << 1, required));
+        }
+        if (split == 0 && capacity == Renderer.drawVertexCapacity) return 0; // Nothing to flush and can not grow
+        
+        int carryCount = Renderer.drawVertexCount - split;
+        int carryTex1  = Integer.max(Renderer.drawVertexTex1Count - split, 0);
+        int carryNorm  = Integer.max(Renderer.drawVertexNormCount - split, 0);
+        int carryTan   = Integer.max(Renderer.drawVertexTanCount - split, 0);
+        int carryColor = Integer.max(Renderer.drawVertexColorCount - split, 0);
+        int carryTex2  = Integer.max(Renderer.drawVertexTex2Count - split, 0);
+        
+        int carryEnd = Integer.max(Renderer.drawVertexCount, Integer.max(Integer.max(Renderer.drawVertexTex1Count, Renderer.drawVertexNormCount), Integer.max(Renderer.drawVertexTanCount, Integer.max(Renderer.drawVertexColorCount, Renderer.drawVertexTex2Count))));
+        int carrySize = (carryEnd - split) * Renderer.drawVertexSize;
+        
+        if (carrySize > 0)
+        {
+            if (Renderer.drawVertexCarry == null || Renderer.drawVertexCarry.capacity() < carrySize)
+            {
+                Renderer.drawVertexCarry = MemoryUtil.memRealloc(Renderer.drawVertexCarry, carrySize);
+            }
+            MemoryUtil.memCopy(MemoryUtil.memAddress(Renderer.drawVertexData, split * Renderer.drawVertexSize), MemoryUtil.memAddress(Renderer.drawVertexCarry), carrySize);
+        }
+        
+        if (split > 0) drawVertexPad(split);
+        
+        DrawMode mode       = drawCall.mode;
+        Texture  texture    = drawCall.texture;
+        int      attributes = drawCall.attributes;
+        int      color      = drawCall.color;
+        int      layer      = drawCall.layer;
+        
+        if (split > 0)
+        {
+            Renderer.LOGGER.trace("Flushing %s vertices mid-primitive", split);
+            
+            // The carried vertices still refer to the current texture slots
+            Texture[] slots     = Renderer.drawTextureSlots.clone();
+            int       slotCount = Renderer.drawTextureSlotCount;
+            int       slot      = Renderer.drawTextureSlot;
+            
+            drawCall.vertexCount -= carryCount;
+            Renderer.drawVertexCount = split;
+            drawVertices();
+            
+            Renderer.drawTextureSlots     = slots;
+            Renderer.drawTextureSlotCount = slotCount;
+            Renderer.drawTextureSlot      = slot;
+        }
+        
+        if (capacity != Renderer.drawVertexCapacity) drawResize(capacity);
+        
+        if (carrySize > 0)
+        {
+            MemoryUtil.memCopy(MemoryUtil.memAddress(Renderer.drawVertexCarry), MemoryUtil.memAddress(Renderer.drawVertexData), carrySize);
+        }
+        
+        Renderer.drawVertexCount      = carryCount;
+        Renderer.drawVertexTex1Count  = carryTex1;
+        Renderer.drawVertexNormCount  = carryNorm;
+        Renderer.drawVertexTanCount   = carryTan;
+        Renderer.drawVertexColorCount = carryColor;
+        Renderer.drawVertexTex2Count  = carryTex2;
+        
+        Renderer.drawVertexPrimitiveStart = 0;
+        
+        drawCall             = Renderer.drawCalls[Renderer.drawCallIndex];
+        drawCall.mode        = mode;
+        drawCall.texture     = texture;
+        drawCall.attributes  = attributes;
+        drawCall.color       = color;
+        drawCall.layer       = layer;
+        drawCall.vertexCount = carryCount;
+        
+        if (Renderer.DRAW_TEXTURE_SLOTS) drawTextureSlotsCompact();
+        
+        return split;
+    }
+    
+    /**
+     * Replaces the batch buffers with ones that hold {@code capacity}
+     * vertices. The batch must be empty.
+     */
+    private static void drawResize(int capacity)
+    {
+        Renderer.LOGGER.debug("Resizing draw batch from %s to %s vertices", Renderer.drawVertexCapacity, capacity);
+        
+        drawDeleteBuffers();
+        drawCreateBuffers(capacity);
+    }
+    
+    private static void drawVertexCopy3(int vertex, int offset, @NotNull FloatBuffer src, int count)
+    {
+        ByteBuffer data = Renderer.drawVertexData;
+        for (int i = 0, s = src.position(), d = vertex * Renderer.drawVertexSize + offset; i < count; i++, s += 3, d += Renderer.drawVertexSize)
+        {
+            data.putFloat(d, src.get(s));
+            data.putFloat(d + 4, src.get(s + 1));
+            data.putFloat(d + 8, src.get(s + 2));
+        }
+    }
+    
+    private static void drawVertexCopy3(int vertex, int offset, float @NotNull [] src, int count)
+    {
+        drawVertexCopy3(vertex, offset, src, 0, count);
+    }
+    
+    private static void drawVertexCopy3(int vertex, int offset, float @NotNull [] src, int srcIndex, int count)
+    {
+        ByteBuffer data = Renderer.drawVertexData;
+        for (int i = 0, s = srcIndex, d = vertex * Renderer.drawVertexSize + offset; i < count; i++, s += 3, d += Renderer.drawVertexSize)
+        {
+            data.putFloat(d, src[s]);
+            data.putFloat(d + 4, src[s + 1]);
+            data.putFloat(d + 8, src[s + 2]);
+        }
+    }
+    
+    public static void drawVertices()
+    {
+        // Check to see if the vertex array was updated.
+        if (Renderer.drawVertexCount > 0)
+        {
+            //Renderer.internalStats.vertices += Renderer.drawVertexCount; // TODO
+            
+            int baseVertex = 0;
+            if (Renderer.drawRasterizer == null)
+            {
+                baseVertex = drawBeginGL();
+            }
+            else
+            {
+                drawBeginRasterizer();
+            }
+            
+            int callCount = Renderer.drawCallIndex + 1;
+            for (int i = 0, offset = 0; i < callCount; i++)
+            {
+                DrawCall drawCall = Renderer.drawCalls[i];
+                
+                Renderer.drawSortKeys[i]    = drawSortKey(drawCall);
+                Renderer.drawSortOrder[i]   = i;
+                Renderer.drawSortOffsets[i] = offset;
+                
+                offset += drawCall.vertexCount + drawCall.alignment;
+            }
+            if (Renderer.DRAW_DEFERRED) SortUtil.radixSort(Renderer.drawSortKeys, Renderer.drawSortOrder, callCount, Renderer.drawSortKeysTmp, Renderer.drawSortOrderTmp);
+            
+            for (int i = 0, j; i < callCount; i = j)
+            {
+                DrawCall drawCall = Renderer.drawCalls[Renderer.drawSortOrder[i]];
+                
+                // Gather the run of DrawCalls that share all state, joining ranges that are contiguous
+                IntBuffer offsets = Renderer.drawMultiOffsets.clear();
+                IntBuffer counts  = Renderer.drawMultiCounts.clear();
+                for (j = i; j < callCount; j++)
+                {
+                    int      index = Renderer.drawSortOrder[j];
+                    DrawCall next  = Renderer.drawCalls[index];
+                    
+                    if (j > i && !drawCallCompatible(drawCall, next)) break;
+                    if (next.vertexCount == 0) continue;
+                    
+                    int offset = Renderer.drawSortOffsets[index];
+                    int last   = offsets.position() - 1;
+                    if (last >= 0 && drawCall.mode.primitiveSize > 0 && offsets.get(last) + counts.get(last) == offset)
+                    {
+                        counts.put(last, counts.get(last) + next.vertexCount);
+                    }
+                    else
+                    {
+                        offsets.put(offset);
+                        counts.put(next.vertexCount);
+                    }
+                }
+                offsets.flip();
+                counts.flip();
+                
+                int ranges = offsets.remaining();
+                if (ranges == 0) continue;
+                
+                //Renderer.internalStats.draws++; // TODO
+                
+                if (Renderer.drawRasterizer == null)
+                {
+                    drawIssueGL(drawCall, offsets, counts, ranges, baseVertex);
+                }
+                else
+                {
+                    drawIssueRasterizer(drawCall, offsets, counts, ranges);
+                }
+            }
+            
+            for (int i = 0; i < Renderer.drawTextureIndex; i++)
+            {
+                if (Renderer.drawRasterizer == null)
+                {
+                    activeTexture(i + 1);
+                    bind(Texture2D.NULL);
+                }
+                
+                Renderer.drawTextureNames[i] = null;
+                Renderer.drawTextures[i]     = null;
+            }
+            Renderer.drawTextureIndex = 0;
+            
+            // Reset Vertex Array and increment buffer objects (in case of multi-buffering)
+            drawVertexReset();
+            
+            // Reset Draw Calls
+            Renderer.drawCallIndex = 0;
+            // This doesn't need to happen because the draw call is reset when it is incremented.
+            // This happens to get rid of the reference to the Texture
+            for (DrawCall drawCall : Renderer.drawCalls) drawCall.reset();
+            
+            // Reset Depth
+            Renderer.drawCurrentDepth = 0.99995;
+            
+            if (Renderer.DRAW_TEXTURE_SLOTS) drawTextureSlotsCompact();
+        }
+    }
+    
+    /**
+     * Uploads the batch and binds the uniforms and textures shared by all
+     * of its DrawCalls.
+     *
+     * @return The index of the first vertex of the batch in the vertex
+     * buffer.
+     */
+    private static int drawBeginGL()
+    {
+        bind(Renderer.drawVertexArray);
+        
+        int baseVertex = 0;
+        if (Renderer.drawStreamMapped != null)
+        {
+            baseVertex = drawStreamWrite(Renderer.drawVertexCount);
+        }
+        else
+        {
+            // All attributes are interleaved in a single buffer, so one upload covers every stream
+            Renderer.drawVertexData.limit(Renderer.drawVertexCount * Renderer.drawVertexSize).position(0);
+            Renderer.drawVertexArray.buffers.get(0).set(0, Renderer.drawVertexData);
+            Renderer.drawVertexData.clear();
+        }
+        
+        drawUploadUniforms();
+        
+        // TODO - Is this needed?
+        for (int i = 0, n = Program.DEFAULT_MAPS.size(); i < n; i++)
+        {
+            uniformInt(Renderer.boundProgram.defaultUniform(Program.UNIFORM_INDEX_MAPS + i), i);
+        }
+        
+        for (int i = 0; i < Renderer.drawTextureIndex; i++)
+        {
+            activeTexture(i + 1);
+            bind(Renderer.drawTextures[i]);
+            uniformInt(Renderer.drawTextureNames[i], i + 1);
+        }
+        
+        if (Renderer.DRAW_TEXTURE_SLOTS)
+        {
+            for (int i = 0; i < Renderer.drawTextureSlotCount; i++)
+            {
+                activeTexture(i);
+                bind(Renderer.drawTextureSlots[i]);
+                uniformInt(Renderer.DRAW_TEXTURE_SLOT_UNIFORMS[i], i);
+            }
+        }
+        return baseVertex;
+    }
+    
+    /**
+     * Passes the state at the top of the stack to the rasterizer, the same
+     * state GL applies to the batch.
+     */
+    private static void drawBeginRasterizer()
+    {
+        Rasterizer rasterizer = Renderer.drawRasterizer;
+        
+        rasterizer.mvp(Renderer.drawMVP.set(stateProjection()).mul(stateView()).mul(stateModel()));
+        rasterizer.blendMode(Renderer.stateBlendMode[Renderer.stateIndex]);
+        rasterizer.depthMode(Renderer.stateDepthMode[Renderer.stateIndex]);
+        rasterizer.depthMask(Renderer.stateDepthMask[Renderer.stateIndex]);
+        rasterizer.scissorMode(Renderer.stateScissorMode[Renderer.stateIndex]);
+        rasterizer.cullFace(Renderer.stateCullFace[Renderer.stateIndex]);
+        rasterizer.winding(Renderer.stateWinding[Renderer.stateIndex]);
+        
+        // Textures may have been updated since the last flush
+        Renderer.drawRasterizerTexture = null;
     }
     
-    public static void drawVertexTangent(double x, double y, double z)
+    private static void drawIssueGL(@NotNull DrawCall drawCall, @NotNull IntBuffer offsets, @NotNull IntBuffer counts, int ranges, int baseVertex)
     {
-        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        if (!Renderer.DRAW_TEXTURE_SLOTS)
+        {
+            activeTexture(0);
+            bind(drawCall.texture);
+        }
         
-        Renderer.LOGGER.trace("drawVertexTangent(%s, %s, %s)", x, y, z);
+        drawSetAttributes(drawCall);
         
-        Renderer.drawVertexTan.put((float) x).put((float) y).put((float) z);
+        if (drawCall.mode == DrawMode.QUADS)
+        {
+            if (ranges == 1)
+            {
+                Renderer.drawVertexArray.drawElements(DrawMode.TRIANGLES, Integer.toUnsignedLong(offsets.get(0) / 4 * 6), counts.get(0) / 4 * 6, baseVertex);
+            }
+            else
+            {
+                IntBuffer baseVertices = Renderer.drawMultiBaseVertices.clear();
+                for (int k = 0; k < ranges; k++)
+                {
+                    offsets.put(k, offsets.get(k) / 4 * 6);
+                    counts.put(k, counts.get(k) / 4 * 6);
+                    baseVertices.put(k, baseVertex);
+                }
+                Renderer.drawVertexArray.drawElementsMulti(DrawMode.TRIANGLES, offsets, counts, baseVertices.limit(ranges));
+            }
+        }
+        else
+        {
+            if (ranges == 1)
+            {
+                Renderer.drawVertexArray.draw(drawCall.mode, baseVertex + offsets.get(0), counts.get(0));
+            }
+            else
+            {
+                for (int k = 0; k < ranges; k++) offsets.put(k, baseVertex + offsets.get(k));
+                Renderer.drawVertexArray.drawMulti(drawCall.mode, offsets, counts);
+            }
+        }
     }
     
-    public static void drawVertexColor(int r, int g, int b, int a)
+    private static void drawIssueRasterizer(@NotNull DrawCall drawCall, @NotNull IntBuffer offsets, @NotNull IntBuffer counts, int ranges)
     {
-        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
-        
-        Renderer.LOGGER.trace("drawVertexColor(%s, %s, %s, %s)", r, g, b, a);
+        Rasterizer rasterizer = Renderer.drawRasterizer;
         
-        Renderer.drawVertexColor.put((byte) (r & 0xFF)).put((byte) (g & 0xFF)).put((byte) (b & 0xFF)).put((byte) (a & 0xFF));
+        rasterizer.vertexColor(drawCall.color);
+        for (int k = 0; k < ranges; k++)
+        {
+            int first = offsets.get(k);
+            int end   = first + counts.get(k);
+            if (!Renderer.DRAW_TEXTURE_SLOTS)
+            {
+                drawRasterizerTexture(drawCall.texture);
+                rasterizer.draw(drawCall.mode, drawCall.attributes, Renderer.drawVertexData, Renderer.drawVertexSize, first, end - first);
+                continue;
+            }
+            
+            // The rasterizer samples one texture at a time, so each run of primitives that share a slot is drawn on its own
+            int step = drawCall.mode.primitiveSize > 0 ? drawCall.mode.primitiveSize : end - first;
+            for (int start = first; start < end; )
+            {
+                int slot = drawVertexSlot(start);
+                int next = start + step;
+                while (next < end && drawVertexSlot(next) == slot) next += step;
+                next = Integer.min(next, end);
+                
+                drawRasterizerTexture(Renderer.drawTextureSlots[slot]);
+                rasterizer.draw(drawCall.mode, drawCall.attributes, Renderer.drawVertexData, Renderer.drawVertexSize, start, next - start);
+                start = next;
+            }
+        }
     }
     
-    public static void drawVertexTexCoord2(double u, double v, double q)
+    private static int drawVertexSlot(int vertex)
     {
-        if (!Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not stared");
+        return (int) Renderer.drawVertexData.getFloat(vertex * Renderer.drawVertexSize + Renderer.DRAW_VERTEX_SLOT_OFFSET);
+    }
+    
+    /**
+     * Passes the texels of the texture to the rasterizer, unless it was the
+     * last one passed during this flush. Empty textures sample white.
+     */
+    private static void drawRasterizerTexture(@NotNull Texture texture)
+    {
+        if (texture == Renderer.drawRasterizerTexture) return;
+        Renderer.drawRasterizerTexture = texture;
         
-        Renderer.LOGGER.trace("drawVertexTexCoord2(%s, %s, %s)", u, v, q);
+        if (texture.width() * texture.height() == 0)
+        {
+            Renderer.drawRasterizer.texture(null, 0, 0);
+            return;
+        }
+        
+        ColorBuffer data = texture.getPixelData();
+        Renderer.drawRasterizer.texture(data, texture.width(), texture.height());
+        data.free();
+    }
+    
+    /**
+     * Uploads the matrices and colors at the top of the state stack to the
+     * default uniform block, and to the bound program if it declares them as
+     * loose uniforms. The block is only written when the state changed since
+     * the last upload.
+     */
+    private static void drawUploadUniforms()
+    {
+        // Get the values at the stack location
+        Matrix4d projection = stateProjection();
+        Matrix4d view       = stateView();
+        Matrix4d model      = stateModel();
+        Matrix4d normal     = stateNormal();
+        
+        Color diffuse  = stateDiffuse();
+        Color specular = stateSpecular();
+        Color ambient  = stateAmbient();
+        
+        // Create modelView-projection matrix
+        Renderer.drawMVP.set(projection);
+        Renderer.drawMVP.mul(view);
+        Renderer.drawMVP.mul(model);
+        
+        view.transformDirection(Renderer.drawViewX.set(1, 0, 0));
+        view.transformDirection(Renderer.drawViewY.set(0, 1, 0));
+        view.transformDirection(Renderer.drawViewZ.set(0, 0, 1));
+        
+        ByteBuffer data = Renderer.drawUniformData;
+        Renderer.drawMVP.getFloats(Renderer.DRAW_UNIFORM_MATRIX_MVP_OFFSET, data);
+        projection.getFloats(Renderer.DRAW_UNIFORM_MATRIX_PROJECTION_OFFSET, data);
+        view.getFloats(Renderer.DRAW_UNIFORM_MATRIX_VIEW_OFFSET, data);
+        model.getFloats(Renderer.DRAW_UNIFORM_MATRIX_MODEL_OFFSET, data);
+        normal.getFloats(Renderer.DRAW_UNIFORM_MATRIX_NORMAL_OFFSET, data);
+        drawUniformPut(data, Renderer.DRAW_UNIFORM_VECTOR_VIEW_X_OFFSET, Renderer.drawViewX.x, Renderer.drawViewX.y, Renderer.drawViewX.z, 0.0);
+        drawUniformPut(data, Renderer.DRAW_UNIFORM_VECTOR_VIEW_Y_OFFSET, Renderer.drawViewY.x, Renderer.drawViewY.y, Renderer.drawViewY.z, 0.0);
+        drawUniformPut(data, Renderer.DRAW_UNIFORM_VECTOR_VIEW_Z_OFFSET, Renderer.drawViewZ.x, Renderer.drawViewZ.y, Renderer.drawViewZ.z, 0.0);
+        drawUniformPut(data, Renderer.DRAW_UNIFORM_COLOR_DIFFUSE_OFFSET, diffuse.rf(), diffuse.gf(), diffuse.bf(), diffuse.af());
+        drawUniformPut(data, Renderer.DRAW_UNIFORM_COLOR_SPECULAR_OFFSET, specular.rf(), specular.gf(), specular.bf(), specular.af());
+        drawUniformPut(data, Renderer.DRAW_UNIFORM_COLOR_AMBIENT_OFFSET, ambient.rf(), ambient.gf(), ambient.bf(), ambient.af());
+        
+        // The block is shared by every program, so it only needs uploading when the state changed
+        if (!data.equals(Renderer.drawUniformUploaded))
+        {
+            Renderer.drawUniformBuffer.set(0, data);
+            Renderer.drawUniformUploaded.put(0, data, 0, Renderer.DRAW_UNIFORM_SIZE);
+        }
         
-        Renderer.drawVertexTex2.put((float) u).put((float) v).put((float) q);
+        // Upload loose uniforms, skipping the ones that did not change since the last flush or are in the block
+        Program program = Renderer.boundProgram;
+        uniformMatrix4(program.defaultUniform(Program.UNIFORM_INDEX_MATRIX_MVP), false, Renderer.drawMVP);
+        uniformMatrix4(program.defaultUniform(Program.UNIFORM_INDEX_MATRIX_PROJECTION), false, projection);
+        uniformMatrix4(program.defaultUniform(Program.UNIFORM_INDEX_MATRIX_VIEW), false, view);
+        uniformMatrix4(program.defaultUniform(Program.UNIFORM_INDEX_MATRIX_MODEL), false, model);
+        uniformMatrix4(program.defaultUniform(Program.UNIFORM_INDEX_MATRIX_NORMAL), false, normal);
+        uniformFloat3(program.defaultUniform(Program.UNIFORM_INDEX_VECTOR_VIEW_X), Renderer.drawViewX);
+        uniformFloat3(program.defaultUniform(Program.UNIFORM_INDEX_VECTOR_VIEW_Y), Renderer.drawViewY);
+        uniformFloat3(program.defaultUniform(Program.UNIFORM_INDEX_VECTOR_VIEW_Z), Renderer.drawViewZ);
+        uniformColor(program.defaultUniform(Program.UNIFORM_INDEX_COLOR_DIFFUSE), diffuse);
+        uniformColor(program.defaultUniform(Program.UNIFORM_INDEX_COLOR_SPECULAR), specular);
+        uniformColor(program.defaultUniform(Program.UNIFORM_INDEX_COLOR_AMBIENT), ambient);
     }
     
-    public static void drawVertexTexCoord2(double u, double v)
+    private static void drawUniformPut(@NotNull ByteBuffer data, int offset, double x, double y, double z, double w)
     {
-        drawVertexTexCoord2(u, v, 1.0);
+        data.putFloat(offset, (float) x);
+        data.putFloat(offset + 4, (float) y);
+        data.putFloat(offset + 8, (float) z);
+        data.putFloat(offset + 12, (float) w);
     }
     
-    public static void drawVertices()
+    /**
+     * Sort key of a DrawCall, ordered by layer, then texture, attributes and
+     * mode so that DrawCalls sharing state end up next to each other.
+     */
+    private static long drawSortKey(@NotNull DrawCall drawCall)
     {
-        // Check to see if the vertex array was updated.
-        if (Renderer.drawVertexPos.position() > 0)
-        {
-            //Renderer.internalStats.vertices += Renderer.drawVertexPos.position(); // TODO
-            
-            bind(Renderer.boundVertexArray);
-            
-            Renderer.boundVertexArray.buffers.get(Program.DEFAULT_ATTRIBUTES.indexOf(Program.ATTRIBUTE_POSITION)).set(0, Renderer.drawVertexPos.flip());
-            Renderer.boundVertexArray.buffers.get(Program.DEFAULT_ATTRIBUTES.indexOf(Program.ATTRIBUTE_TEXCOORD)).set(0, Renderer.drawVertexTex1.flip());
-            Renderer.boundVertexArray.buffers.get(Program.DEFAULT_ATTRIBUTES.indexOf(Program.ATTRIBUTE_NORMAL)).set(0, Renderer.drawVertexNorm.flip());
-            Renderer.boundVertexArray.buffers.get(Program.DEFAULT_ATTRIBUTES.indexOf(Program.ATTRIBUTE_TANGENT)).set(0, Renderer.drawVertexTan.flip());
-            Renderer.boundVertexArray.buffers.get(Program.DEFAULT_ATTRIBUTES.indexOf(Program.ATTRIBUTE_COLOR)).set(0, Renderer.drawVertexColor.flip());
-            Renderer.boundVertexArray.buffers.get(Program.DEFAULT_ATTRIBUTES.indexOf(Program.ATTRIBUTE_TEXCOORD2)).set(0, Renderer.drawVertexTex2.flip());
-            
-            // Get the values at the stack location
-            Matrix4d projection = stateProjection();
-            Matrix4d view       = stateView();
-            Matrix4d model      = stateModel();
-            Matrix4d normal     = stateNormal();
-            
-            Color diffuse  = stateDiffuse();
-            Color specular = stateSpecular();
-            Color ambient  = stateAmbient();
-            
-            // Create modelView-projection matrix
-            Renderer.drawMVP.set(projection);
-            Renderer.drawMVP.mul(view);
-            Renderer.drawMVP.mul(model);
-            
-            view.transformDirection(Renderer.drawViewX.set(1, 0, 0));
-            view.transformDirection(Renderer.drawViewY.set(0, 1, 0));
-            view.transformDirection(Renderer.drawViewZ.set(0, 0, 1));
-            
-            // Upload to Shader
-            uniformMatrix4(Program.UNIFORM_MATRIX_MVP, false, Renderer.drawMVP);
-            uniformMatrix4(Program.UNIFORM_MATRIX_PROJECTION, false, projection);
-            uniformMatrix4(Program.UNIFORM_MATRIX_VIEW, false, view);
-            uniformMatrix4(Program.UNIFORM_MATRIX_MODEL, false, model);
-            uniformMatrix4(Program.UNIFORM_MATRIX_NORMAL, false, normal);
-            uniformFloat3(Program.UNIFORM_VECTOR_VIEW_X, Renderer.drawViewX);
-            uniformFloat3(Program.UNIFORM_VECTOR_VIEW_Y, Renderer.drawViewY);
-            uniformFloat3(Program.UNIFORM_VECTOR_VIEW_Z, Renderer.drawViewZ);
-            uniformColor(Program.UNIFORM_COLOR_DIFFUSE, diffuse);
-            uniformColor(Program.UNIFORM_COLOR_SPECULAR, specular);
-            uniformColor(Program.UNIFORM_COLOR_AMBIENT, ambient);
-            
-            // TODO - Is this needed?
-            uniformInt(Program.MAP_DIFFUSE, 0);
-            uniformInt(Program.MAP_SPECULAR, 1);
-            uniformInt(Program.MAP_NORMAL, 2);
-            uniformInt(Program.MAP_ROUGHNESS, 3);
-            uniformInt(Program.MAP_OCCLUSION, 4);
-            uniformInt(Program.MAP_EMISSION, 5);
-            uniformInt(Program.MAP_HEIGHT, 6);
-            uniformInt(Program.MAP_CUBEMAP, 7);
-            uniformInt(Program.MAP_IRRADIANCE, 8);
-            uniformInt(Program.MAP_PREFILTER, 9);
-            uniformInt(Program.MAP_BRDF, 10);
-            
-            for (int i = 0; i < Renderer.drawTextureIndex; i++)
-            {
-                activeTexture(i + 1);
-                bind(Renderer.drawTextures[i]);
-                uniformInt(Renderer.drawTextureNames[i], i + 1);
-            }
-            
-            for (int i = 0, offset = 0; i <= Renderer.drawCallIndex; i++)
+        long layer = Integer.toUnsignedLong(drawCall.layer ^ Integer.MIN_VALUE); // Keeps negative layers first
+        return layer << 32 | (long) (drawCall.texture.id() & 0x7FFFF) << 13 | (long) drawCall.attributes << 6 | drawCall.mode.ordinal();
+    }
+    
+    /**
+     * @return If both DrawCalls can be issued without changing any state.
+     */
+    private static boolean drawCallCompatible(@NotNull DrawCall a, @NotNull DrawCall b)
+    {
+        if (a.mode != b.mode || a.texture != b.texture || a.attributes != b.attributes) return false;
+        return (a.attributes & Renderer.DRAW_ATTRIBUTE_COLOR) != 0 || a.color == b.color;
+    }
+    
+    private static void drawSetAttributes(@NotNull DrawCall drawCall)
+    {
+        int changed = Renderer.drawAttributesEnabled ^ drawCall.attributes;
+        for (int i = 1; i < Program.DEFAULT_ATTRIBUTES.size(); i++)
+        {
+            int attribute = 1 << i;
+            if ((changed & attribute) != 0)
             {
-                //Renderer.internalStats.draws++; // TODO
-                
-                DrawCall drawCall = Renderer.drawCalls[i];
-                
-                activeTexture(0);
-                bind(drawCall.texture);
-                
-                if (drawCall.mode == DrawMode.QUADS)
+                if ((drawCall.attributes & attribute) != 0)
                 {
-                    Renderer.boundVertexArray.drawElements(DrawMode.TRIANGLES, Integer.toUnsignedLong(offset / 4 * 6), drawCall.vertexCount / 4 * 6);
+                    Renderer.drawVertexArray.enableAttribute(i);
                 }
                 else
                 {
-                    Renderer.boundVertexArray.draw(drawCall.mode, offset, drawCall.vertexCount);
+                    Renderer.drawVertexArray.disableAttribute(i);
                 }
-                
-                offset += drawCall.vertexCount + drawCall.alignment;
-            }
-            
-            for (int i = 0; i < Renderer.drawTextureIndex; i++)
-            {
-                activeTexture(i + 1);
-                bind(Texture2D.NULL);
-                
-                Renderer.drawTextureNames[i] = null;
-                Renderer.drawTextures[i]     = null;
             }
-            Renderer.drawTextureIndex = 0;
-            
-            // Reset Vertex Array and increment buffer objects (in case of multi-buffering)
-            Renderer.drawVertexPos.clear();
-            Renderer.drawVertexTex1.clear();
-            Renderer.drawVertexNorm.clear();
-            Renderer.drawVertexTan.clear();
-            Renderer.drawVertexColor.clear();
-            Renderer.drawVertexTex2.clear();
-            
-            // Reset Draw Calls
-            Renderer.drawCallIndex = 0;
-            // This doesn't need to happen because the draw call is reset when it is incremented.
-            // This happens to get rid of the reference to the Texture
-            for (DrawCall drawCall : Renderer.drawCalls) drawCall.reset();
-            
-            // Reset Depth
-            Renderer.drawCurrentDepth = 0.99995;
         }
+        Renderer.drawAttributesEnabled = drawCall.attributes;
+        
+        if ((drawCall.attributes & Renderer.DRAW_ATTRIBUTE_COLOR) == 0)
+        {
+            int color = drawCall.color;
+            GL44.glVertexAttrib4Nub(4, (byte) color, (byte) (color >>> 8), (byte) (color >>> 16), (byte) (color >>> 24));
+        }
+    }
+    
+    /**
+     * Copies the first {@code count} vertices of the batch behind the ones
+     * already written to the current segment this frame, moving on to the
+     * next segment early if they do not fit.
+     *
+     * @return The index of the first copied vertex in the stream buffer.
+     */
+    private static int drawStreamWrite(int count)
+    {
+        if (Renderer.drawStreamOffset + count > Renderer.drawStreamCapacity) drawStreamAdvance();
+        
+        // Only blocks if the GPU is still reading what was written to this segment DRAW_STREAM_SEGMENTS frames ago
+        if (Renderer.drawStreamOffset == 0) Renderer.drawStreamFences[Renderer.drawStreamSegment].await();
+        
+        int  baseVertex = Renderer.drawStreamSegment * Renderer.drawStreamCapacity + Renderer.drawStreamOffset;
+        long address    = MemoryUtil.memAddress(Renderer.drawStreamMapped) + (long) baseVertex * Renderer.drawVertexSize;
+        MemoryUtil.memCopy(MemoryUtil.memAddress(Renderer.drawVertexData), address, (long) count * Renderer.drawVertexSize);
+        
+        Renderer.drawStreamOffset += count;
+        return baseVertex;
+    }
+    
+    private static void drawStreamAdvance()
+    {
+        // Fence everything that was drawn from the segment and move on to the oldest one.
+        Renderer.drawStreamFences[Renderer.drawStreamSegment].place();
+        
+        Renderer.drawStreamSegment = (Renderer.drawStreamSegment + 1) % Renderer.DRAW_STREAM_SEGMENTS;
+        Renderer.drawStreamOffset  = 0;
+    }
+    
+    /**
+     * Ends the frame for the batch, so the next frame writes to its own
+     * stream segment. Called by the engine once per frame before the
+     * buffers are swapped.
+     */
+    public static void drawEndFrame()
+    {
+        drawVertices();
+        
+        if (Renderer.drawStreamMapped != null && Renderer.drawStreamOffset > 0) drawStreamAdvance();
     }
     
     public static void drawIfOverflow(int count)
     {
-        if (Renderer.drawVertexPos.position() / 3 + count >= Renderer.DRAW_ELEMENTS_COUNT * 4) drawVertices();
+        if (Renderer.drawVertexCount + count >= Renderer.drawVertexCapacity) drawVertices();
+    }
+    
+    /**
+     * @return The number of quads the batch can currently hold.
+     */
+    public static int drawBatchCapacity()
+    {
+        return Renderer.drawVertexCapacity / 4;
+    }
+    
+    /**
+     * Flushes the batch and resizes it to hold {@code elements} quads. The
+     * growth ceiling is raised if needed.
+     * <p>
+     * Can be called from {@link Engine#setup()} to size the batch at start.
+     *
+     * @param elements The number of quads.
+     */
+    public static void drawBatchCapacity(int elements)
+    {
+        if (elements <= 0) throw new IllegalArgumentException("Batch capacity must be positive: " + elements);
+        if (Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not ended");
+        
+        drawVertices();
+        
+        Renderer.drawVertexCapacityMax = Integer.max(Renderer.drawVertexCapacityMax, elements * 4);
+        if (elements * 4 != Renderer.drawVertexCapacity) drawResize(elements * 4);
     }
     
     private static void drawIncrementCall()
@@ -1491,20 +3190,168 @@ public class Renderer
             int offset = drawCall.vertexCount % 4;
             drawCall.alignment = offset != 0 ? 4 - offset : 0;
             
+            boolean callsFull = Renderer.drawCallIndex + 1 >= Renderer.drawCalls.length;
+            if (callsFull && Renderer.DRAW_DEFERRED)
+            {
+                // Recorded DrawCalls are merged when flushed, so grow instead of flushing early
+                drawCallsResize(Renderer.drawCalls.length << 1);
+                callsFull = false;
+            }
+            
+            if (Renderer.drawVertexCount + drawCall.alignment >= Renderer.drawVertexCapacity || callsFull)
+            {
+                // Flushing leaves an empty DrawCall, so there is nothing to align
+                drawVertices();
+                return;
+            }
+            
             if (drawCall.alignment > 0)
             {
-                drawIfOverflow(drawCall.alignment);
+                Renderer.drawVertexCount += drawCall.alignment;
                 
-                Renderer.drawVertexPos.position(Renderer.drawVertexPos.position() + drawCall.alignment);
-                Renderer.drawVertexTex1.position(Renderer.drawVertexTex1.position() + drawCall.alignment);
-                Renderer.drawVertexNorm.position(Renderer.drawVertexNorm.position() + drawCall.alignment);
-                Renderer.drawVertexTan.position(Renderer.drawVertexTan.position() + drawCall.alignment);
-                Renderer.drawVertexColor.position(Renderer.drawVertexColor.position() + drawCall.alignment);
-                Renderer.drawVertexTex2.position(Renderer.drawVertexTex2.position() + drawCall.alignment);
+                Renderer.drawVertexTex1Count  = Renderer.drawVertexCount;
+                Renderer.drawVertexNormCount  = Renderer.drawVertexCount;
+                Renderer.drawVertexTanCount   = Renderer.drawVertexCount;
+                Renderer.drawVertexColorCount = Renderer.drawVertexCount;
+                Renderer.drawVertexTex2Count  = Renderer.drawVertexCount;
             }
             
-            if (++Renderer.drawCallIndex >= Renderer.drawCalls.length) drawVertices();
+            Renderer.drawCalls[++Renderer.drawCallIndex].layer = Renderer.drawLayer;
+        }
+    }
+    
+    // -------------------- Draw Instanced -------------------- //
+    
+    // Per instance layout of drawQuadsInstanced
+    public static final int DRAW_INSTANCE_RECT_OFFSET     = 0;  // (XYWH)      (shader-location = 1)
+    public static final int DRAW_INSTANCE_TEXCOORD_OFFSET = 16; // (U0V0U1V1)  (shader-location = 2)
+    public static final int DRAW_INSTANCE_COLOR_OFFSET    = 32; // (RGBA)      (shader-location = 3)
+    public static final int DRAW_INSTANCE_SIZE            = 36;
+    
+    static Shader      drawInstanceShader;
+    static Program     drawInstanceProgram;
+    static VertexArray drawInstanceArray;
+    static int         drawInstanceCapacity;
+    
+    private static void setupDrawInstanced()
+    {
+        Renderer.drawInstanceShader  = new Shader(Shader.Type.VERTEX, IOUtil.getPath("shader/instanced.vert"), defaultDefines());
+        Renderer.drawInstanceProgram = Program.builder().shader(Renderer.drawInstanceShader).shader(Renderer.defaultFragmentShader).build();
+        
+        drawInstanceResize(1024);
+    }
+    
+    private static void destroyDrawInstanced()
+    {
+        Renderer.drawInstanceArray.delete();
+        Renderer.drawInstanceArray = null;
+        
+        Renderer.drawInstanceProgram.delete();
+        Renderer.drawInstanceProgram = null;
+        Renderer.drawInstanceShader.delete();
+        Renderer.drawInstanceShader = null;
+    }
+    
+    private static void drawInstanceResize(int capacity)
+    {
+        Renderer.LOGGER.debug("Resizing instance buffer to %s instances", capacity);
+        
+        if (Renderer.drawInstanceArray != null) Renderer.drawInstanceArray.delete();
+        
+        try (MemoryStack stack = MemoryStack.stackPush())
+        {
+            FloatBuffer corners = stack.floats(0F, 0F, 1F, 0F, 1F, 1F, 0F, 1F);
+            IntBuffer   indices = stack.ints(0, 1, 2, 0, 2, 3);
+            
+            Renderer.drawInstanceArray = VertexArray.builder()
+                                                    .buffer(BufferUsage.STATIC_DRAW, corners, new Attribute(GLType.FLOAT, 2))
+                                                    .instanceBuffer(BufferUsage.STREAM_DRAW, capacity,
+                                                                    new Attribute(GLType.FLOAT, 4),
+                                                                    new Attribute(GLType.FLOAT, 4),
+                                                                    new Attribute(GLType.UNSIGNED_BYTE, 4, true))
+                                                    .indexBuffer(BufferUsage.STATIC_DRAW, indices)
+                                                    .build();
         }
+        Renderer.drawInstanceCapacity = capacity;
+    }
+    
+    /**
+     * Writes a quad instance into a buffer for
+     * {@link #drawQuadsInstanced(Texture, ByteBuffer)}.
+     *
+     * @param instances The buffer.
+     * @param index     The index of the instance in the buffer.
+     * @param x         The x coordinate of the top left corner.
+     * @param y         The y coordinate of the top left corner.
+     * @param width     The width of the quad.
+     * @param height    The height of the quad.
+     * @param u0        The u texture coordinate of the top left corner.
+     * @param v0        The v texture coordinate of the top left corner.
+     * @param u1        The u texture coordinate of the bottom right corner.
+     * @param v1        The v texture coordinate of the bottom right corner.
+     * @param color     The color.
+     */
+    public static void drawQuadInstance(@NotNull ByteBuffer instances, int index, double x, double y, double width, double height, double u0, double v0, double u1, double v1, @NotNull Colorc color)
+    {
+        int offset = index * Renderer.DRAW_INSTANCE_SIZE;
+        instances.putFloat(offset + Renderer.DRAW_INSTANCE_RECT_OFFSET, (float) x);
+        instances.putFloat(offset + Renderer.DRAW_INSTANCE_RECT_OFFSET + 4, (float) y);
+        instances.putFloat(offset + Renderer.DRAW_INSTANCE_RECT_OFFSET + 8, (float) width);
+        instances.putFloat(offset + Renderer.DRAW_INSTANCE_RECT_OFFSET + 12, (float) height);
+        instances.putFloat(offset + Renderer.DRAW_INSTANCE_TEXCOORD_OFFSET, (float) u0);
+        instances.putFloat(offset + Renderer.DRAW_INSTANCE_TEXCOORD_OFFSET + 4, (float) v0);
+        instances.putFloat(offset + Renderer.DRAW_INSTANCE_TEXCOORD_OFFSET + 8, (float) u1);
+        instances.putFloat(offset + Renderer.DRAW_INSTANCE_TEXCOORD_OFFSET + 12, (float) v1);
+        instances.put(offset + Renderer.DRAW_INSTANCE_COLOR_OFFSET, (byte) color.r());
+        instances.put(offset + Renderer.DRAW_INSTANCE_COLOR_OFFSET + 1, (byte) color.g());
+        instances.put(offset + Renderer.DRAW_INSTANCE_COLOR_OFFSET + 2, (byte) color.b());
+        instances.put(offset + Renderer.DRAW_INSTANCE_COLOR_OFFSET + 3, (byte) color.a());
+    }
+    
+    /**
+     * Draws textured quads with a single instanced draw call. The remaining
+     * contents of the buffer are read as {@link #DRAW_INSTANCE_SIZE} byte
+     * instances, see {@link #drawQuadInstance}. The buffer's position is not
+     * modified.
+     * <p>
+     * The current batch is flushed first so that the quads are drawn in
+     * submission order.
+     *
+     * @param texture   The texture.
+     * @param instances The instances.
+     */
+    public static void drawQuadsInstanced(@NotNull Texture texture, @NotNull ByteBuffer instances)
+    {
+        if (Renderer.drawVertexHasBegun) throw new IllegalStateException("Drawing was not ended");
+        
+        int count = instances.remaining() / Renderer.DRAW_INSTANCE_SIZE;
+        
+        Renderer.LOGGER.trace("drawQuadsInstanced(%s, %s)", texture, count);
+        
+        if (count == 0) return;
+        
+        drawVertices();
+        
+        if (count > Renderer.drawInstanceCapacity) drawInstanceResize(Integer.highestOneBit(count - 1) << 1);
+        
+        ByteBuffer data = instances.slice(instances.position(), count * Renderer.DRAW_INSTANCE_SIZE);
+        Renderer.drawInstanceArray.buffers.get(1).set(0, data);
+        
+        Program program = Renderer.boundProgram;
+        bind(Renderer.drawInstanceProgram);
+        
+        drawUploadUniforms();
+        uniformFloat("DEPTH", Renderer.drawCurrentDepth);
+        uniformInt(Renderer.drawInstanceProgram.defaultUniform(Program.UNIFORM_INDEX_MAPS), 0);
+        
+        activeTexture(0);
+        bind(texture);
+        
+        Renderer.drawInstanceArray.drawElementsInstanced(DrawMode.TRIANGLES, count);
+        
+        bind(program);
+        
+        Renderer.drawCurrentDepth -= 0.00005;
     }
     
     // -------------------- Functions -------------------- //
@@ -1513,6 +3360,12 @@ public class Renderer
     {
         Renderer.LOGGER.trace("Clearing All Buffers");
         
+        if (Renderer.drawRasterizer != null)
+        {
+            clearRasterizer(true, true);
+            return;
+        }
+        
         GL44.glClear(GL44.GL_COLOR_BUFFER_BIT | GL44.GL_DEPTH_BUFFER_BIT | GL44.GL_STENCIL_BUFFER_BIT);
     }
     
@@ -1522,30 +3375,82 @@ public class Renderer
         
         int mask = 0;
         for (ScreenBuffer buffer : buffers) mask |= buffer.ref;
+        
+        if (Renderer.drawRasterizer != null)
+        {
+            clearRasterizer((mask & ScreenBuffer.COLOR.ref) != 0, (mask & ScreenBuffer.DEPTH.ref) != 0);
+            return;
+        }
+        
         GL44.glClear(mask);
     }
     
+    /**
+     * The rasterizer has no stencil buffer, so only the color and depth
+     * targets are cleared.
+     */
+    private static void clearRasterizer(boolean color, boolean depth)
+    {
+        if (color)
+        {
+            double[] clearColor = Renderer.stateClearColor[Renderer.stateIndex];
+            Renderer.drawRasterizer.clearColor(new Color(clearColor[0], clearColor[1], clearColor[2], clearColor[3]));
+        }
+        if (depth) Renderer.drawRasterizer.clearDepth(Renderer.stateClearDepth[Renderer.stateIndex]);
+    }
+    
+    // -------------------- Read -------------------- //
+    
+    /**
+     * Number of pixel pack buffers that asynchronous reads rotate through. A
+     * new read waits for the oldest one when all of them are in flight.
+     */
+    public static final int READ_BUFFER_COUNT = 3;
+    
+    static final ReadRequest[] readRequests = new ReadRequest[Renderer.READ_BUFFER_COUNT];
+    static       int           readRequestIndex;
+    
+    private static void setupRead()
+    {
+        for (int i = 0; i < Renderer.READ_BUFFER_COUNT; i++) Renderer.readRequests[i] = new ReadRequest();
+        Renderer.readRequestIndex = 0;
+        
+        // Rows are read tightly packed, so RGB reads of any width line up with the ColorBuffer
+        GL44.glPixelStorei(GL44.GL_PACK_ALIGNMENT, 1);
+    }
+    
+    private static void destroyRead()
+    {
+        for (int i = 0; i < Renderer.READ_BUFFER_COUNT; i++)
+        {
+            ReadRequest request = Renderer.readRequests[i];
+            
+            // Pending reads are still delivered so nothing waits on them forever
+            if (request.future != null)
+            {
+                request.fence.await();
+                readComplete(request);
+            }
+            
+            if (request.buffer != null) request.buffer.delete();
+            request.fence.delete();
+            
+            Renderer.readRequests[i] = null;
+        }
+    }
+    
     private static @NotNull ColorBuffer readBuffer(int buffer, int x, int y, int width, int height, @NotNull ColorFormat format)
     {
-        ByteBuffer data = MemoryUtil.memAlloc(width * height * format.sizeof);
+        ColorBuffer data = ColorBuffer.malloc(format, width * height);
+        
+        if (Renderer.drawRasterizer != null) return readRasterizer(x, y, width, height, data);
         
         GL44.glReadBuffer(buffer);
-        GL44.glReadPixels(x, y, width, height, format.format, GL44.GL_UNSIGNED_BYTE, MemoryUtil.memAddress(data));
+        GL44.glReadPixels(x, y, width, height, format.format, GL44.GL_UNSIGNED_BYTE, data.address());
         
-        // Flip data vertically
-        int    s    = width * format.sizeof;
-        byte[] tmp1 = new byte[s], tmp2 = new byte[s];
-        for (int i = 0, n = height >> 1, col1, col2; i < n; i++)
-        {
-            col1 = i * s;
-            col2 = (height - i - 1) * s;
-            data.get(col1, tmp1);
-            data.get(col2, tmp2);
-            data.put(col1, tmp2);
-            data.put(col2, tmp1);
-        }
+        readFlip(data, width * format.sizeof, height);
         
-        return ColorBuffer.wrap(format, data);
+        return data;
     }
     
     public static @NotNull ColorBuffer readFrontBuffer(int x, int y, int width, int height, @NotNull ColorFormat format)
@@ -1558,8 +3463,192 @@ public class Renderer
         return readBuffer(GL44.GL_BACK, x, y, width, height, format);
     }
     
+    private static @NotNull CompletableFuture<ColorBuffer> readBufferAsync(int buffer, int x, int y, int width, int height, @NotNull ColorFormat format, @Nullable ColorBuffer data)
+    {
+        if (data != null && data.capacity() < width * height) throw new IllegalArgumentException("ColorBuffer is smaller than " + width + "x" + height);
+        
+        // The rasterizer's image is already in memory, so the read finishes right away
+        if (Renderer.drawRasterizer != null)
+        {
+            return CompletableFuture.completedFuture(readRasterizer(x, y, width, height, data != null ? data : ColorBuffer.malloc(format, width * height)));
+        }
+        
+        ReadRequest request = Renderer.readRequests[Renderer.readRequestIndex];
+        Renderer.readRequestIndex = (Renderer.readRequestIndex + 1) % Renderer.READ_BUFFER_COUNT;
+        
+        if (request.future != null)
+        {
+            // Every buffer is in flight, so the oldest one has to be finished first
+            Renderer.LOGGER.trace("Waiting on read:", request.fence);
+            
+            request.fence.await();
+            readComplete(request);
+        }
+        
+        long size = (long) width * height * format.sizeof;
+        if (request.buffer == null || request.buffer.size() < size)
+        {
+            if (request.buffer != null) request.buffer.delete();
+            request.buffer = new BufferPixelPack(BufferUsage.STREAM_READ, size);
+        }
+        
+        bind(request.buffer);
+        GL44.glReadBuffer(buffer);
+        GL44.nglReadPixels(x, y, width, height, format.format, GL44.GL_UNSIGNED_BYTE, 0L);
+        bind(BufferPixelPack.NULL);
+        
+        request.fence.place();
+        
+        request.width  = width;
+        request.height = height;
+        request.format = format;
+        request.data   = data;
+        request.future = new CompletableFuture<>();
+        return request.future;
+    }
+    
+    /**
+     * Reads the front buffer without waiting for the GPU. The read is copied
+     * out by {@link #readPoll()} once the GPU has finished it, usually a frame
+     * or two later, and flipped on a worker thread.
+     * <p>
+     * The ColorBuffer belongs to the caller, who must free it. Do not block on
+     * the future from the render thread, as it is completed by that thread.
+     */
+    public static @NotNull CompletableFuture<ColorBuffer> readFrontBufferAsync(int x, int y, int width, int height, @NotNull ColorFormat format)
+    {
+        return readBufferAsync(GL44.GL_FRONT, x, y, width, height, format, null);
+    }
+    
+    /**
+     * Reads the back buffer without waiting for the GPU. The read is copied
+     * out by {@link #readPoll()} once the GPU has finished it, usually a frame
+     * or two later, and flipped on a worker thread.
+     * <p>
+     * The ColorBuffer belongs to the caller, who must free it. Do not block on
+     * the future from the render thread, as it is completed by that thread.
+     */
+    public static @NotNull CompletableFuture<ColorBuffer> readBackBufferAsync(int x, int y, int width, int height, @NotNull ColorFormat format)
+    {
+        return readBufferAsync(GL44.GL_BACK, x, y, width, height, format, null);
+    }
+    
+    /**
+     * Reads the back buffer without waiting for the GPU into an existing
+     * ColorBuffer, which must not be touched until the future completes.
+     *
+     * @see #readBackBufferAsync(int, int, int, int, ColorFormat)
+     */
+    public static @NotNull CompletableFuture<ColorBuffer> readBackBufferAsync(int x, int y, int width, int height, @NotNull ColorBuffer data)
+    {
+        return readBufferAsync(GL44.GL_BACK, x, y, width, height, data.format, data);
+    }
+    
+    /**
+     * Copies out every asynchronous read that the GPU has finished, oldest
+     * first. Called by the engine once per frame.
+     */
+    public static void readPoll()
+    {
+        if (Renderer.drawRasterizer != null) return;
+        
+        for (int i = 0; i < Renderer.READ_BUFFER_COUNT; i++)
+        {
+            ReadRequest request = Renderer.readRequests[(Renderer.readRequestIndex + i) % Renderer.READ_BUFFER_COUNT];
+            if (request.future == null) continue;
+            if (!request.fence.signaled()) break; // Later reads cannot have finished before this one
+            
+            readComplete(request);
+        }
+    }
+    
+    private static void readComplete(@NotNull ReadRequest request)
+    {
+        ColorBuffer data = request.data != null ? request.data : ColorBuffer.malloc(request.format, request.width * request.height);
+        request.buffer.get(0, data.limit(request.width * request.height));
+        bind(BufferPixelPack.NULL);
+        
+        CompletableFuture<ColorBuffer> future = request.future;
+        request.future = null;
+        request.data   = null;
+        
+        int rowSize = request.width * request.format.sizeof;
+        int rows    = request.height;
+        future.completeAsync(() -> {
+            readFlip(data, rowSize, rows);
+            return data;
+        });
+    }
+    
+    /**
+     * Copies a rectangle in window coordinates out of the rasterizer's color
+     * target, top row first like a flipped GL read. There is only one color
+     * target, so the front and back buffers are the same.
+     */
+    private static @NotNull ColorBuffer readRasterizer(int x, int y, int width, int height, @NotNull ColorBuffer data)
+    {
+        Rasterizer rasterizer = Renderer.drawRasterizer;
+        if (x < 0 || y < 0 || x + width > rasterizer.width() || y + height > rasterizer.height())
+        {
+            throw new IllegalArgumentException("Read outside of the " + rasterizer.width() + "x" + rasterizer.height() + " rasterizer");
+        }
+        
+        ColorBuffer color = rasterizer.color();
+        Color       pixel = new Color();
+        for (int j = 0; j < height; j++)
+        {
+            int src = (rasterizer.height() - y - height + j) * rasterizer.width() + x;
+            int dst = j * width;
+            if (data.format == ColorFormat.RGBA)
+            {
+                MemoryUtil.memCopy(color.address() + src * 4L, data.address() + dst * 4L, width * 4L);
+            }
+            else
+            {
+                for (int i = 0; i < width; i++)
+                {
+                    color.get(src + i, pixel);
+                    data.put(dst + i, pixel);
+                }
+            }
+        }
+        return data;
+    }
+    
+    /**
+     * GL reads rows bottom to top, so swap them in place one row at a time.
+     */
+    private static void readFlip(@NotNull ColorBuffer data, int rowSize, int rows)
+    {
+        long address = data.address();
+        long tmp     = MemoryUtil.nmemAlloc(rowSize);
+        for (int i = 0, n = rows >> 1; i < n; i++)
+        {
+            long row1 = address + (long) i * rowSize;
+            long row2 = address + (long) (rows - i - 1) * rowSize;
+            MemoryUtil.memCopy(row1, tmp, rowSize);
+            MemoryUtil.memCopy(row2, row1, rowSize);
+            MemoryUtil.memCopy(tmp, row2, rowSize);
+        }
+        MemoryUtil.nmemFree(tmp);
+    }
+    
     // -------------------- Sub Classes -------------------- //
     
+    private static final class ReadRequest
+    {
+        private final Fence fence = new Fence();
+        
+        private BufferPixelPack buffer;
+        
+        private int         width;
+        private int         height;
+        private ColorFormat format;
+        private ColorBuffer data;
+        
+        private CompletableFuture<ColorBuffer> future;
+    }
+    
     private static final class DrawCall
     {
         private DrawMode mode;
@@ -1569,6 +3658,11 @@ public class Renderer
         
         private Texture texture;
         
+        private int attributes; // Bit mask of the attributes provided by the vertices
+        private int color;      // Constant color when DRAW_ATTRIBUTE_COLOR is not set
+        
+        private int layer;
+        
         private DrawCall()
         {
             reset();
@@ -1582,6 +3676,11 @@ public class Renderer
             this.alignment   = 0;
             
             this.texture = Renderer.defaultTexture;
+            
+            this.attributes = Renderer.DRAW_TEXTURE_SLOTS ? Renderer.DRAW_ATTRIBUTE_POS | Renderer.DRAW_ATTRIBUTE_SLOT : Renderer.DRAW_ATTRIBUTE_POS;
+            this.color      = 0xFFFFFFFF;
+            
+            this.layer = Renderer.drawLayer;
         }
     }
     
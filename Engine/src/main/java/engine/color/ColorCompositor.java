@@ -0,0 +1,293 @@
+package engine.color;
+
+import engine.gl.BlendFunc;
+import engine.gl.BlendMode;
+import engine.gl.ScissorMode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.Serial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Blends ColorBuffers on the CPU with the same equations the GPU applies for
+ * a {@link BlendMode}.
+ * <p>
+ * Pixels are handled as packed ints with red in the lowest byte, which is
+ * the memory order of an {@link ColorFormat#RGBA} buffer. Large blends are
+ * split into row bands that run on a {@link ForkJoinPool}.
+ */
+public final class ColorCompositor
+{
+    /**
+     * Number of pixels below which a band is blended on the calling thread
+     * instead of being split further.
+     */
+    private static final int BAND_PIXELS = 1 << 16;
+    
+    /**
+     * Blends the whole source onto the destination with its top-left corner
+     * at (x, y).
+     */
+    public static void blend(@NotNull ColorBuffer src, int srcWidth, int srcHeight,
+                             @NotNull ColorBuffer dst, int dstWidth, int dstHeight,
+                             int x, int y, @NotNull BlendMode mode)
+    {
+        blend(src, srcWidth, srcHeight, dst, dstWidth, dstHeight, x, y, 0, 0, dstWidth, dstHeight, null, mode, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Blends the source onto the destination with its top-left corner at
+     * (x, y). Only destination pixels inside the clip rectangle and the
+     * scissor are written. The clip rectangle uses destination pixel
+     * coordinates with row 0 at the top. The scissor is flipped against the
+     * destination height, the same as {@code glScissor} and the
+     * {@link engine.gl.Rasterizer}, so row 0 is at the bottom.
+     *
+     * @param scissor An additional clip, or {@code null} for none.
+     * @param pool    The pool that runs the row bands.
+     */
+    public static void blend(@NotNull ColorBuffer src, int srcWidth, int srcHeight,
+                             @NotNull ColorBuffer dst, int dstWidth, int dstHeight,
+                             int x, int y,
+                             int clipX, int clipY, int clipWidth, int clipHeight,
+                             @Nullable ScissorMode scissor, @NotNull BlendMode mode,
+                             @NotNull ForkJoinPool pool)
+    {
+        blend(src, srcWidth, srcHeight, dst, dstWidth, dstHeight, x, y, clipX, clipY, clipWidth, clipHeight, scissor, mode, pool, ColorCompositor.BAND_PIXELS);
+    }
+    
+    /**
+     * @param bandPixels The number of pixels below which a band is not
+     *                   split further.
+     */
+    static void blend(@NotNull ColorBuffer src, int srcWidth, int srcHeight,
+                      @NotNull ColorBuffer dst, int dstWidth, int dstHeight,
+                      int x, int y,
+                      int clipX, int clipY, int clipWidth, int clipHeight,
+                      @Nullable ScissorMode scissor, @NotNull BlendMode mode,
+                      @NotNull ForkJoinPool pool, int bandPixels)
+    {
+        if (src.capacity() < srcWidth * srcHeight) throw new IllegalArgumentException("Source is smaller than " + srcWidth + "x" + srcHeight);
+        if (dst.capacity() < dstWidth * dstHeight) throw new IllegalArgumentException("Destination is smaller than " + dstWidth + "x" + dstHeight);
+        
+        // Use longs so that rectangles such as ScissorMode.NONE cannot overflow
+        long x0 = Math.max(Math.max(0, x), clipX);
+        long y0 = Math.max(Math.max(0, y), clipY);
+        long x1 = Math.min(Math.min(dstWidth, (long) x + srcWidth), (long) clipX + clipWidth);
+        long y1 = Math.min(Math.min(dstHeight, (long) y + srcHeight), (long) clipY + clipHeight);
+        if (scissor != null && scissor != ScissorMode.NONE)
+        {
+            x0 = Math.max(x0, scissor.x());
+            y0 = Math.max(y0, (long) dstHeight - scissor.y() - scissor.height());
+            x1 = Math.min(x1, (long) scissor.x() + scissor.width());
+            y1 = Math.min(y1, (long) dstHeight - scissor.y());
+        }
+        if (x0 >= x1 || y0 >= y1) return;
+        
+        Band band = new Band(src, srcWidth, dst, dstWidth, x, y, mode, bandPixels, (int) x0, (int) x1, (int) y0, (int) y1);
+        if ((x1 - x0) * (y1 - y0) <= bandPixels)
+        {
+            band.compute();
+        }
+        else
+        {
+            pool.invoke(band);
+        }
+    }
+    
+    /**
+     * Blends two packed colors.
+     *
+     * @param mode The blend mode. {@link BlendMode#NONE} returns the source,
+     *             the same as disabling blending.
+     * @param src  The incoming color.
+     * @param dst  The color that is already there.
+     *
+     * @return The packed result.
+     */
+    public static int blend(@NotNull BlendMode mode, int src, int dst)
+    {
+        if (mode == BlendMode.NONE) return src;
+        if (mode == BlendMode.ALPHA)
+        {
+            // Fast path for the most common mode
+            int sa = src >>> 24, ia = 255 - sa;
+            return mul(src & 0xFF, sa) + mul(dst & 0xFF, ia) |
+                   mul(src >>> 8 & 0xFF, sa) + mul(dst >>> 8 & 0xFF, ia) << 8 |
+                   mul(src >>> 16 & 0xFF, sa) + mul(dst >>> 16 & 0xFF, ia) << 16 |
+                   mul(sa, sa) + mul(dst >>> 24, ia) << 24;
+        }
+        
+        int sa = src >>> 24, da = dst >>> 24;
+        return blend(mode, src & 0xFF, sa, dst & 0xFF, da) |
+               blend(mode, src >>> 8 & 0xFF, sa, dst >>> 8 & 0xFF, da) << 8 |
+               blend(mode, src >>> 16 & 0xFF, sa, dst >>> 16 & 0xFF, da) << 16 |
+               blend(mode, sa, sa, da, da) << 24;
+    }
+    
+    private static int blend(@NotNull BlendMode mode, int s, int sa, int d, int da)
+    {
+        int value = switch (mode.blendEqn())
+                {
+                    case ADD -> mul(s, factor(mode.srcFunc(), s, sa, d, da)) + mul(d, factor(mode.dstFunc(), s, sa, d, da));
+                    case SUBTRACT -> mul(s, factor(mode.srcFunc(), s, sa, d, da)) - mul(d, factor(mode.dstFunc(), s, sa, d, da));
+                    case REVERSE_SUBTRACT -> mul(d, factor(mode.dstFunc(), s, sa, d, da)) - mul(s, factor(mode.srcFunc(), s, sa, d, da));
+                    case MIN -> Math.min(s, d);
+                    case MAX -> Math.max(s, d);
+                };
+        return Color.toInt(value);
+    }
+    
+    private static int factor(@NotNull BlendFunc func, int s, int sa, int d, int da)
+    {
+        return switch (func)
+                {
+                    case ZERO -> 0;
+                    case ONE -> 255;
+                    case SRC_COLOR -> s;
+                    case ONE_MINUS_SRC_COLOR -> 255 - s;
+                    case SRC_ALPHA -> sa;
+                    case ONE_MINUS_SRC_ALPHA -> 255 - sa;
+                    case DST_COLOR -> d;
+                    case ONE_MINUS_DST_COLOR -> 255 - d;
+                    case DST_ALPHA -> da;
+                    case ONE_MINUS_DST_ALPHA -> 255 - da;
+                };
+    }
+    
+    /**
+     * @return {@code a * b / 255}, rounded.
+     */
+    private static int mul(int a, int b)
+    {
+        int x = a * b + 128;
+        return (x + (x >>> 8)) >>> 8;
+    }
+    
+    /**
+     * @return The pixel at the index as a packed color.
+     */
+    public static int get(@NotNull ColorBuffer buffer, int index)
+    {
+        long address = buffer.address() + (long) index * buffer.format.sizeof;
+        return switch (buffer.format)
+                {
+                    case RED ->
+                    {
+                        int gray = MemoryUtil.memGetByte(address) & 0xFF;
+                        yield gray | gray << 8 | gray << 16 | 0xFF000000;
+                    }
+                    case RED_ALPHA ->
+                    {
+                        int gray = MemoryUtil.memGetByte(address) & 0xFF;
+                        yield gray | gray << 8 | gray << 16 | (MemoryUtil.memGetByte(address + 1) & 0xFF) << 24;
+                    }
+                    case RGB -> (MemoryUtil.memGetByte(address) & 0xFF) |
+                                (MemoryUtil.memGetByte(address + 1) & 0xFF) << 8 |
+                                (MemoryUtil.memGetByte(address + 2) & 0xFF) << 16 |
+                                0xFF000000;
+                    case RGBA -> MemoryUtil.memGetInt(address);
+                    default -> throw new UnsupportedOperationException("invalid format: " + buffer.format);
+                };
+    }
+    
+    /**
+     * Sets the pixel at the index from a packed color.
+     */
+    public static void put(@NotNull ColorBuffer buffer, int index, int color)
+    {
+        long address = buffer.address() + (long) index * buffer.format.sizeof;
+        switch (buffer.format)
+        {
+            case RED -> MemoryUtil.memPutByte(address, (byte) Color.toGray(color & 0xFF, color >>> 8 & 0xFF, color >>> 16 & 0xFF));
+            case RED_ALPHA ->
+            {
+                MemoryUtil.memPutByte(address, (byte) Color.toGray(color & 0xFF, color >>> 8 & 0xFF, color >>> 16 & 0xFF));
+                MemoryUtil.memPutByte(address + 1, (byte) (color >>> 24));
+            }
+            case RGB ->
+            {
+                MemoryUtil.memPutByte(address, (byte) color);
+                MemoryUtil.memPutByte(address + 1, (byte) (color >>> 8));
+                MemoryUtil.memPutByte(address + 2, (byte) (color >>> 16));
+            }
+            case RGBA -> MemoryUtil.memPutInt(address, color);
+            default -> throw new UnsupportedOperationException("invalid format: " + buffer.format);
+        }
+    }
+    
+    private ColorCompositor() {}
+    
+    /**
+     * Destination rows [y0, y1), split in half until a band is small enough
+     * to blend directly.
+     */
+    private static final class Band extends RecursiveAction
+    {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        
+        private final ColorBuffer src;
+        private final int         srcWidth;
+        private final ColorBuffer dst;
+        private final int         dstWidth;
+        private final int         x, y;
+        private final BlendMode   mode;
+        private final int         bandPixels;
+        private final int         x0, x1;
+        private final int         y0, y1;
+        
+        private Band(ColorBuffer src, int srcWidth, ColorBuffer dst, int dstWidth, int x, int y, BlendMode mode, int bandPixels, int x0, int x1, int y0, int y1)
+        {
+            this.src        = src;
+            this.srcWidth   = srcWidth;
+            this.dst        = dst;
+            this.dstWidth   = dstWidth;
+            this.x          = x;
+            this.y          = y;
+            this.mode       = mode;
+            this.bandPixels = bandPixels;
+            this.x0         = x0;
+            this.x1         = x1;
+            this.y0         = y0;
+            this.y1         = y1;
+        }
+        
+        @Override
+        protected void compute()
+        {
+            int rows = this.y1 - this.y0;
+            if (rows > 1 && (long) rows * (this.x1 - this.x0) > this.bandPixels)
+            {
+                int mid = this.y0 + (rows >> 1);
+                invokeAll(new Band(this.src, this.srcWidth, this.dst, this.dstWidth, this.x, this.y, this.mode, this.bandPixels, this.x0, this.x1, this.y0, mid),
+                          new Band(this.src, this.srcWidth, this.dst, this.dstWidth, this.x, this.y, this.mode, this.bandPixels, this.x0, this.x1, mid, this.y1));
+                return;
+            }
+            
+            boolean packed = this.src.format == ColorFormat.RGBA && this.dst.format == ColorFormat.RGBA;
+            
+            long srcAddress = this.src.address(), dstAddress = this.dst.address();
+            for (int row = this.y0; row < this.y1; row++)
+            {
+                int srcIndex = (row - this.y) * this.srcWidth + (this.x0 - this.x);
+                int dstIndex = row * this.dstWidth + this.x0;
+                for (int col = this.x0; col < this.x1; col++, srcIndex++, dstIndex++)
+                {
+                    if (packed)
+                    {
+                        long address = dstAddress + dstIndex * 4L;
+                        MemoryUtil.memPutInt(address, ColorCompositor.blend(this.mode, MemoryUtil.memGetInt(srcAddress + srcIndex * 4L), MemoryUtil.memGetInt(address)));
+                    }
+                    else
+                    {
+                        ColorCompositor.put(this.dst, dstIndex, ColorCompositor.blend(this.mode, ColorCompositor.get(this.src, srcIndex), ColorCompositor.get(this.dst, dstIndex)));
+                    }
+                }
+            }
+        }
+    }
+}
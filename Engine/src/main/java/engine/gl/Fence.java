@@ -0,0 +1,81 @@
+package engine.gl;
+
+import engine.util.Logger;
+import org.lwjgl.opengl.GL44;
+
+/**
+ * A reusable GPU fence. Each call to {@link #place()} replaces the
+ * previous sync object, so a single instance can guard a region of memory
+ * that is reused every frame.
+ */
+public class Fence
+{
+    private static final Logger LOGGER = Logger.getLogger();
+    
+    private static final long WAIT_TIMEOUT = 1_000_000L; // 1ms
+    
+    // -------------------- Instance -------------------- //
+    
+    protected long sync = 0L;
+    
+    @Override
+    public String toString()
+    {
+        return "Fence{" + "sync=" + this.sync + '}';
+    }
+    
+    // -------------------- Properties -------------------- //
+    
+    /**
+     * @return If there are no pending GPU commands before this fence.
+     */
+    public boolean signaled()
+    {
+        if (this.sync == 0L) return true;
+        
+        int result = GL44.glClientWaitSync(this.sync, 0, 0L);
+        return result == GL44.GL_ALREADY_SIGNALED || result == GL44.GL_CONDITION_SATISFIED;
+    }
+    
+    // -------------------- Functions -------------------- //
+    
+    /**
+     * Inserts the fence after all currently issued GPU commands.
+     */
+    public void place()
+    {
+        if (this.sync != 0L) GL44.glDeleteSync(this.sync);
+        
+        this.sync = GL44.glFenceSync(GL44.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+    
+    /**
+     * Blocks the calling thread until the GPU has passed this fence. Returns
+     * immediately if the fence was never placed.
+     */
+    public void await()
+    {
+        if (this.sync == 0L) return;
+        
+        while (true)
+        {
+            int result = GL44.glClientWaitSync(this.sync, GL44.GL_SYNC_FLUSH_COMMANDS_BIT, Fence.WAIT_TIMEOUT);
+            if (result == GL44.GL_ALREADY_SIGNALED || result == GL44.GL_CONDITION_SATISFIED) break;
+            if (result == GL44.GL_WAIT_FAILED)
+            {
+                Fence.LOGGER.warning("Wait failed for", this);
+                break;
+            }
+        }
+        
+        GL44.glDeleteSync(this.sync);
+        this.sync = 0L;
+    }
+    
+    public void delete()
+    {
+        if (this.sync != 0L) GL44.glDeleteSync(this.sync);
+        
+        this.sync = 0L;
+    }
+}
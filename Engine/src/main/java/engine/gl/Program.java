@@ -6,6 +6,7 @@ import org.jetbrains.annotations.NotNull;
 import org.lwjgl.opengl.GL44;
 import org.lwjgl.system.MemoryStack;
 
+import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.file.Path;
 import java.util.*;
@@ -24,13 +25,15 @@ public class Program
     public static final String ATTRIBUTE_TANGENT   = "TANGENT";
     public static final String ATTRIBUTE_COLOR     = "COLOR";
     public static final String ATTRIBUTE_TEXCOORD2 = "TEXCOORD2";
+    public static final String ATTRIBUTE_TEXSLOT   = "TEXSLOT";
     
     public static final List<String> DEFAULT_ATTRIBUTES = List.of(ATTRIBUTE_POSITION,
                                                                   ATTRIBUTE_TEXCOORD,
                                                                   ATTRIBUTE_NORMAL,
                                                                   ATTRIBUTE_TANGENT,
                                                                   ATTRIBUTE_COLOR,
-                                                                  ATTRIBUTE_TEXCOORD2);
+                                                                  ATTRIBUTE_TEXCOORD2,
+                                                                  ATTRIBUTE_TEXSLOT);
     
     public static final String UNIFORM_MATRIX_MVP        = "MATRIX_MVP";
     public static final String UNIFORM_MATRIX_PROJECTION = "MATRIX_PROJECTION";
@@ -44,6 +47,27 @@ public class Program
     public static final String UNIFORM_COLOR_SPECULAR    = "COLOR_SPECULAR";
     public static final String UNIFORM_COLOR_AMBIENT     = "COLOR_AMBIENT";
     
+    /**
+     * Name of the std140 uniform block that holds the default uniforms. The
+     * Renderer writes the block once per state change and shares it with
+     * every program that declares it, so its members do not have to be
+     * uploaded per program.
+     */
+    public static final String UNIFORM_BLOCK_DEFAULT         = "DefaultUniforms";
+    public static final int    UNIFORM_BLOCK_DEFAULT_BINDING = 0;
+    
+    public static final int UNIFORM_INDEX_MATRIX_MVP        = 0;
+    public static final int UNIFORM_INDEX_MATRIX_PROJECTION = 1;
+    public static final int UNIFORM_INDEX_MATRIX_VIEW       = 2;
+    public static final int UNIFORM_INDEX_MATRIX_MODEL      = 3;
+    public static final int UNIFORM_INDEX_MATRIX_NORMAL     = 4;
+    public static final int UNIFORM_INDEX_VECTOR_VIEW_X     = 5;
+    public static final int UNIFORM_INDEX_VECTOR_VIEW_Y     = 6;
+    public static final int UNIFORM_INDEX_VECTOR_VIEW_Z     = 7;
+    public static final int UNIFORM_INDEX_COLOR_DIFFUSE     = 8;
+    public static final int UNIFORM_INDEX_COLOR_SPECULAR    = 9;
+    public static final int UNIFORM_INDEX_COLOR_AMBIENT     = 10;
+    
     public static final List<String> DEFAULT_UNIFORMS = List.of(UNIFORM_MATRIX_MVP,
                                                                 UNIFORM_MATRIX_PROJECTION,
                                                                 UNIFORM_MATRIX_VIEW,
@@ -83,6 +107,17 @@ public class Program
                                                             MAP_PREFILTER,
                                                             MAP_BRDF);
     
+    /**
+     * Index of the first default map in {@link #defaultUniform(int)}. Maps
+     * follow the default uniforms in the order of {@link #DEFAULT_MAPS}.
+     */
+    public static final int UNIFORM_INDEX_MAPS = DEFAULT_UNIFORMS.size();
+    
+    /**
+     * Number of values cached per uniform location. Enough for a 4x4 matrix.
+     */
+    private static final int UNIFORM_CACHE_STRIDE = 16;
+    
     private static final Builder BUILDER = new Builder();
     
     public static @NotNull Builder builder()
@@ -99,9 +134,16 @@ public class Program
     protected final Map<String, Integer> attributes = new HashMap<>();
     protected final Map<String, Integer> uniforms   = new HashMap<>();
     
+    protected final int[] defaultUniforms = new int[Program.DEFAULT_UNIFORMS.size() + Program.DEFAULT_MAPS.size()];
+    
+    protected int[]     uniformValues = new int[0];
+    protected boolean[] uniformCached = new boolean[0];
+    
     private Program()
     {
         this.id = 0;
+        
+        Arrays.fill(this.defaultUniforms, -1);
     }
     
     private Program(@NotNull List<Shader> shaders)
@@ -147,13 +189,40 @@ public class Program
                 assert attr == i;
             }
             
+            int locations = 0;
             for (int i = 0, uniform, n = GL44.glGetProgrami(this.id, GL44.GL_ACTIVE_UNIFORMS); i < n; i++)
             {
                 name = GL44.glGetActiveUniform(this.id, i, size, type);
                 
+                // Members of uniform blocks do not have a location
+                if (GL44.glGetActiveUniformsi(this.id, i, GL44.GL_UNIFORM_BLOCK_INDEX) != -1) continue;
+                
                 uniform = getUniform(name);
-                assert uniform == i;
+                
+                // Arrays take up one location per element
+                locations = Math.max(locations, uniform + size.get(0));
             }
+            
+            this.uniformValues = new int[locations * Program.UNIFORM_CACHE_STRIDE];
+            this.uniformCached = new boolean[locations];
+        }
+        
+        int block = GL44.glGetUniformBlockIndex(this.id, Program.UNIFORM_BLOCK_DEFAULT);
+        if (block != GL44.GL_INVALID_INDEX)
+        {
+            Program.LOGGER.trace("Binding Uniform Block (%s) at Binding (%s) for %s", Program.UNIFORM_BLOCK_DEFAULT, Program.UNIFORM_BLOCK_DEFAULT_BINDING, this);
+            
+            GL44.glUniformBlockBinding(this.id, block, Program.UNIFORM_BLOCK_DEFAULT_BINDING);
+        }
+        
+        // NOTE: Default uniforms are optional, so they are resolved without warning about the ones that are missing
+        for (int i = 0, n = Program.DEFAULT_UNIFORMS.size(); i < n; i++)
+        {
+            this.defaultUniforms[i] = GL44.glGetUniformLocation(this.id, Program.DEFAULT_UNIFORMS.get(i));
+        }
+        for (int i = 0, n = Program.DEFAULT_MAPS.size(); i < n; i++)
+        {
+            this.defaultUniforms[Program.UNIFORM_INDEX_MAPS + i] = GL44.glGetUniformLocation(this.id, Program.DEFAULT_MAPS.get(i));
         }
         
         Program.LOGGER.debug("Created", this);
@@ -205,6 +274,11 @@ public class Program
         
         this.uniforms.clear();
         this.attributes.clear();
+        
+        Arrays.fill(this.defaultUniforms, -1);
+        
+        this.uniformValues = new int[0];
+        this.uniformCached = new boolean[0];
     }
     
     private int _getAttribute(String attribute)
@@ -245,6 +319,79 @@ public class Program
         return this.uniforms.computeIfAbsent(uniform, this::_getUniform);
     }
     
+    /**
+     * Gets the location of a default uniform or map without a name lookup.
+     * The locations are resolved once when the program is linked.
+     *
+     * @param index One of the {@code UNIFORM_INDEX_*} constants, or
+     *              {@link #UNIFORM_INDEX_MAPS} plus the index of a map.
+     *
+     * @return The location, or -1 if the program does not use it.
+     */
+    public int defaultUniform(int index)
+    {
+        return this.defaultUniforms[index];
+    }
+    
+    /**
+     * Compares the values with the values that were last uploaded to a
+     * uniform location, and remembers them if they differ.
+     * <p>
+     * Floats are compared by their raw bits, so pass them through
+     * {@link Float#floatToRawIntBits(float)}.
+     *
+     * @return If the values must be uploaded.
+     */
+    public boolean uniformChanged(int location, int x, int y, int z, int w)
+    {
+        if (location < 0) return false;
+        if (location >= this.uniformCached.length) return true;
+        
+        int offset = location * Program.UNIFORM_CACHE_STRIDE;
+        if (this.uniformCached[location] &&
+            this.uniformValues[offset] == x &&
+            this.uniformValues[offset + 1] == y &&
+            this.uniformValues[offset + 2] == z &&
+            this.uniformValues[offset + 3] == w) return false;
+        
+        this.uniformCached[location] = true;
+        this.uniformValues[offset]     = x;
+        this.uniformValues[offset + 1] = y;
+        this.uniformValues[offset + 2] = z;
+        this.uniformValues[offset + 3] = w;
+        return true;
+    }
+    
+    /**
+     * Compares the remaining values in the buffer with the values that were
+     * last uploaded to a uniform location, and remembers them if they differ.
+     * At most 16 values are compared.
+     *
+     * @return If the values must be uploaded.
+     */
+    public boolean uniformChanged(int location, @NotNull FloatBuffer values)
+    {
+        if (location < 0) return false;
+        if (location >= this.uniformCached.length) return true;
+        
+        int offset = location * Program.UNIFORM_CACHE_STRIDE;
+        int count  = Math.min(values.remaining(), Program.UNIFORM_CACHE_STRIDE);
+        int start  = values.position();
+        
+        boolean changed = !this.uniformCached[location];
+        for (int i = 0, bits; i < count; i++)
+        {
+            bits = Float.floatToRawIntBits(values.get(start + i));
+            if (this.uniformValues[offset + i] != bits)
+            {
+                this.uniformValues[offset + i] = bits;
+                changed                        = true;
+            }
+        }
+        this.uniformCached[location] = true;
+        return changed;
+    }
+    
     // -------------------- Sub-Classes -------------------- //
     
     private static final class Null extends Program
@@ -273,6 +420,12 @@ public class Program
         {
             return -1;
         }
+        
+        @Override
+        public int defaultUniform(int index)
+        {
+            return -1;
+        }
     }
     
     public static final class Builder
@@ -0,0 +1,819 @@
+package engine.gl;
+
+import engine.Renderer;
+import engine.color.Color;
+import engine.color.ColorBuffer;
+import engine.color.ColorCompositor;
+import engine.color.ColorFormat;
+import engine.color.Colorc;
+import engine.gl.vertex.DrawMode;
+import engine.util.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4d;
+import org.joml.Matrix4dc;
+import org.joml.Vector4d;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Software backend that draws the Renderer's interleaved vertex batches into
+ * a {@link ColorBuffer} and a float depth buffer without a GL context. The
+ * Renderer flushes its batches to one when it is set up without a context.
+ * <p>
+ * Primitives are transformed and recorded when they are drawn, then binned
+ * into screen tiles and rasterized in parallel when the rasterizer is
+ * flushed. Each tile is processed in submission order, so blending and depth
+ * testing behave the same as they would on the GPU.
+ * <p>
+ * Primitives are clipped against the near plane before the perspective
+ * divide, so geometry that passes behind the eye is cut instead of dropped.
+ * <p>
+ * Row 0 of the color target is the top of the image.
+ */
+public class Rasterizer
+{
+    private static final Logger LOGGER = Logger.getLogger();
+    
+    // -------------------- Static -------------------- //
+    
+    public static final int TILE_SIZE = 64;
+    
+    // Screen space vertex record, attributes are premultiplied by 1/w for perspective correct interpolation.
+    // Clip space records of the draw being recorded use the same layout with w in place of 1/w.
+    private static final int VERTEX_X      = 0;
+    private static final int VERTEX_Y      = 1;
+    private static final int VERTEX_Z      = 2;
+    private static final int VERTEX_INV_W  = 3;
+    private static final int VERTEX_W      = 3;
+    private static final int VERTEX_U      = 4;
+    private static final int VERTEX_V      = 5;
+    private static final int VERTEX_R      = 6;
+    private static final int VERTEX_G      = 7;
+    private static final int VERTEX_B      = 8;
+    private static final int VERTEX_A      = 9;
+    private static final int VERTEX_FLOATS = 10;
+    
+    // Primitive record: type, three vertex indices and the state index
+    private static final int PRIMITIVE_POINT    = 1;
+    private static final int PRIMITIVE_LINE     = 2;
+    private static final int PRIMITIVE_TRIANGLE = 3;
+    private static final int PRIMITIVE_INTS     = 5;
+    
+    private static final int   SUBPIXEL_BITS  = 8;
+    private static final float MAX_COORDINATE = 1 << 20;
+    
+    // -------------------- Instance -------------------- //
+    
+    protected final int width;
+    protected final int height;
+    
+    protected ColorBuffer color;
+    protected float[]     depth;
+    
+    protected final int tilesX;
+    protected final int tilesY;
+    
+    protected final Matrix4d mvp = new Matrix4d();
+    
+    protected BlendMode   blendMode   = BlendMode.DEFAULT;
+    protected DepthMode   depthMode   = DepthMode.DEFAULT;
+    protected boolean     depthMask   = true;
+    protected ScissorMode scissorMode = ScissorMode.DEFAULT;
+    protected CullFace    cullFace    = CullFace.NONE;
+    protected Winding     winding     = Winding.DEFAULT;
+    
+    protected int[] texture;
+    protected int   textureWidth;
+    protected int   textureHeight;
+    
+    protected int vertexColor = 0xFFFFFFFF;
+    
+    protected final List<State> states = new ArrayList<>();
+    protected       boolean     stateChanged;
+    
+    protected float[] vertices   = new float[1024 * Rasterizer.VERTEX_FLOATS];
+    protected int     vertexCount;
+    protected int[]   primitives = new int[1024 * Rasterizer.PRIMITIVE_INTS];
+    protected int     primitiveCount;
+    
+    protected float[] clipped   = new float[256 * Rasterizer.VERTEX_FLOATS];
+    protected int[]   projected = new int[256]; // Screen vertex of each clip space vertex, or -1 if it was not projected yet
+    
+    protected final int[][] bins;
+    protected final int[]   binCounts;
+    
+    private final Vector4d transformed  = new Vector4d();
+    private final float[]  intersection = new float[Rasterizer.VERTEX_FLOATS];
+    
+    public Rasterizer(int width, int height)
+    {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Invalid size: " + width + "x" + height);
+        
+        this.width  = width;
+        this.height = height;
+        
+        this.color = ColorBuffer.calloc(ColorFormat.RGBA, width * height);
+        this.depth = new float[width * height];
+        Arrays.fill(this.depth, 1F);
+        
+        this.tilesX = (width + Rasterizer.TILE_SIZE - 1) / Rasterizer.TILE_SIZE;
+        this.tilesY = (height + Rasterizer.TILE_SIZE - 1) / Rasterizer.TILE_SIZE;
+        
+        this.bins      = new int[this.tilesX * this.tilesY][16];
+        this.binCounts = new int[this.tilesX * this.tilesY];
+        
+        this.stateChanged = true;
+        
+        Rasterizer.LOGGER.debug("Created", this);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "Rasterizer{" + "width=" + this.width + ", height=" + this.height + '}';
+    }
+    
+    // -------------------- Properties -------------------- //
+    
+    public int width()
+    {
+        return this.width;
+    }
+    
+    public int height()
+    {
+        return this.height;
+    }
+    
+    /**
+     * Flushes the pending primitives and returns the RGBA color target.
+     */
+    public @NotNull ColorBuffer color()
+    {
+        flush();
+        return this.color;
+    }
+    
+    /**
+     * Flushes the pending primitives and returns the depth at a pixel.
+     */
+    public float depth(int x, int y)
+    {
+        flush();
+        return this.depth[y * this.width + x];
+    }
+    
+    // -------------------- State -------------------- //
+    
+    public void mvp(@NotNull Matrix4dc mvp)
+    {
+        this.mvp.set(mvp);
+    }
+    
+    public void blendMode(@Nullable BlendMode mode)
+    {
+        this.blendMode    = mode != null ? mode : BlendMode.DEFAULT;
+        this.stateChanged = true;
+    }
+    
+    public void depthMode(@Nullable DepthMode mode)
+    {
+        this.depthMode    = mode != null ? mode : DepthMode.DEFAULT;
+        this.stateChanged = true;
+    }
+    
+    public void depthMask(boolean flag)
+    {
+        this.depthMask    = flag;
+        this.stateChanged = true;
+    }
+    
+    /**
+     * Scissor rectangles use window coordinates, the same as the Renderer,
+     * so y is measured from the bottom of the image.
+     */
+    public void scissorMode(@Nullable ScissorMode mode)
+    {
+        this.scissorMode  = mode != null ? mode : ScissorMode.DEFAULT;
+        this.stateChanged = true;
+    }
+    
+    /**
+     * Triangles of both windings are drawn until a face is culled, the same
+     * as a fresh GL context.
+     */
+    public void cullFace(@Nullable CullFace cullFace)
+    {
+        this.cullFace     = cullFace != null ? cullFace : CullFace.NONE;
+        this.stateChanged = true;
+    }
+    
+    public void winding(@Nullable Winding winding)
+    {
+        this.winding      = winding != null ? winding : Winding.DEFAULT;
+        this.stateChanged = true;
+    }
+    
+    /**
+     * Sets the texture that is sampled by the following primitives. The
+     * texels are copied, so the buffer can be freed afterwards.
+     *
+     * @param data The texels, or {@code null} to sample white.
+     */
+    public void texture(@Nullable ColorBuffer data, int width, int height)
+    {
+        if (data == null)
+        {
+            this.texture = null;
+        }
+        else
+        {
+            int[] texels = new int[width * height];
+            Color texel  = new Color();
+            for (int i = 0; i < texels.length; i++)
+            {
+                data.get(i, texel);
+                texels[i] = texel.r() | texel.g() << 8 | texel.b() << 16 | texel.a() << 24;
+            }
+            this.texture       = texels;
+            this.textureWidth  = width;
+            this.textureHeight = height;
+        }
+        this.stateChanged = true;
+    }
+    
+    /**
+     * Sets the color of vertices that are drawn without
+     * {@code Renderer.DRAW_ATTRIBUTE_COLOR}.
+     *
+     * @param color The color, packed with red in the low byte.
+     */
+    public void vertexColor(int color)
+    {
+        this.vertexColor = color;
+    }
+    
+    // -------------------- Functions -------------------- //
+    
+    /**
+     * Flushes the pending primitives, then clears the color and depth
+     * targets.
+     */
+    public void clear(@NotNull Colorc color, double depth)
+    {
+        clearColor(color);
+        clearDepth(depth);
+    }
+    
+    /**
+     * Flushes the pending primitives, then clears the color target.
+     */
+    public void clearColor(@NotNull Colorc color)
+    {
+        flush();
+        
+        int  packed  = color.r() | color.g() << 8 | color.b() << 16 | color.a() << 24;
+        long address = this.color.address();
+        for (int i = 0, n = this.width * this.height; i < n; i++) MemoryUtil.memPutInt(address + i * 4L, packed);
+    }
+    
+    /**
+     * Flushes the pending primitives, then clears the depth target.
+     */
+    public void clearDepth(double depth)
+    {
+        flush();
+        
+        Arrays.fill(this.depth, (float) depth);
+    }
+    
+    /**
+     * Records primitives from vertices in the Renderer's interleaved layout.
+     * Attributes that are not in the mask use the same constants as the
+     * Renderer, so texture coordinates default to (0, 0, 1) and colors to
+     * the {@link #vertexColor(int) vertex color}.
+     *
+     * @param mode       How the vertices are assembled into primitives.
+     * @param attributes Mask of {@code Renderer.DRAW_ATTRIBUTE_*} bits.
+     * @param data       The vertex data, indexed from zero.
+     * @param first      The first vertex to draw.
+     * @param count      The number of vertices to draw.
+     */
+    public void draw(@NotNull DrawMode mode, int attributes, @NotNull ByteBuffer data, int first, int count)
+    {
+        draw(mode, attributes, data, Renderer.DRAW_VERTEX_SIZE, first, count);
+    }
+    
+    /**
+     * Same as {@link #draw(DrawMode, int, ByteBuffer, int, int)} for
+     * vertices that are {@code stride} bytes apart, such as the Renderer's
+     * layout with texture slots.
+     */
+    public void draw(@NotNull DrawMode mode, int attributes, @NotNull ByteBuffer data, int stride, int first, int count)
+    {
+        if (count <= 0) return;
+        
+        if (this.stateChanged)
+        {
+            this.states.add(new State(this.blendMode, this.depthMode, this.depthMask, this.scissorMode, this.cullFace, this.winding, this.texture, this.textureWidth, this.textureHeight));
+            this.stateChanged = false;
+        }
+        int state = this.states.size() - 1;
+        
+        if (this.projected.length < count)
+        {
+            this.clipped   = new float[count * Rasterizer.VERTEX_FLOATS];
+            this.projected = new int[count];
+        }
+        for (int i = 0; i < count; i++) transformVertex(attributes, data, (first + i) * stride, i);
+        Arrays.fill(this.projected, 0, count, -1);
+        
+        switch (mode)
+        {
+            case POINTS ->
+            {
+                for (int i = 0; i < count; i++) addPrimitive(Rasterizer.PRIMITIVE_POINT, i, i, i, state);
+            }
+            case LINES ->
+            {
+                for (int i = 0; i + 1 < count; i += 2) addPrimitive(Rasterizer.PRIMITIVE_LINE, i, i + 1, i + 1, state);
+            }
+            case LINE_STRIP, LINE_LOOP ->
+            {
+                for (int i = 0; i + 1 < count; i++) addPrimitive(Rasterizer.PRIMITIVE_LINE, i, i + 1, i + 1, state);
+                if (mode == DrawMode.LINE_LOOP && count > 2) addPrimitive(Rasterizer.PRIMITIVE_LINE, count - 1, 0, 0, state);
+            }
+            case TRIANGLES ->
+            {
+                for (int i = 0; i + 2 < count; i += 3) addPrimitive(Rasterizer.PRIMITIVE_TRIANGLE, i, i + 1, i + 2, state);
+            }
+            case TRIANGLE_STRIP ->
+            {
+                for (int i = 2; i < count; i++)
+                {
+                    // Every other triangle is flipped to keep the winding consistent
+                    if ((i & 1) == 0)
+                    {
+                        addPrimitive(Rasterizer.PRIMITIVE_TRIANGLE, i - 2, i - 1, i, state);
+                    }
+                    else
+                    {
+                        addPrimitive(Rasterizer.PRIMITIVE_TRIANGLE, i - 1, i - 2, i, state);
+                    }
+                }
+            }
+            case TRIANGLE_FAN ->
+            {
+                for (int i = 2; i < count; i++) addPrimitive(Rasterizer.PRIMITIVE_TRIANGLE, 0, i - 1, i, state);
+            }
+            case QUADS ->
+            {
+                // Same index pattern as the Renderer's element buffer
+                for (int i = 0; i + 3 < count; i += 4)
+                {
+                    addPrimitive(Rasterizer.PRIMITIVE_TRIANGLE, i, i + 1, i + 2, state);
+                    addPrimitive(Rasterizer.PRIMITIVE_TRIANGLE, i, i + 2, i + 3, state);
+                }
+            }
+            default -> Rasterizer.LOGGER.warning("Cannot draw %s with %s", mode, this);
+        }
+    }
+    
+    /**
+     * Rasterizes all pending primitives, one screen tile per task.
+     */
+    public void flush()
+    {
+        if (this.primitiveCount == 0) return;
+        
+        Rasterizer.LOGGER.trace("Flushing %s primitives in %s", this.primitiveCount, this);
+        
+        Arrays.fill(this.binCounts, 0);
+        for (int i = 0; i < this.primitiveCount; i++) binPrimitive(i);
+        
+        IntStream.range(0, this.bins.length).parallel().forEach(this::rasterizeTile);
+        
+        this.vertexCount    = 0;
+        this.primitiveCount = 0;
+        
+        // Keep the current state as the only one, the others are not referenced anymore
+        this.states.clear();
+        this.stateChanged = true;
+    }
+    
+    public void delete()
+    {
+        Rasterizer.LOGGER.debug("Deleting", this);
+        
+        this.color.free();
+        this.color = null;
+        this.depth = null;
+    }
+    
+    // -------------------- Recording -------------------- //
+    
+    private void transformVertex(int attributes, @NotNull ByteBuffer data, int offset, int clip)
+    {
+        int pos = offset + Renderer.DRAW_VERTEX_POS_OFFSET;
+        this.mvp.transform(this.transformed.set(data.getFloat(pos), data.getFloat(pos + 4), data.getFloat(pos + 8), 1.0));
+        
+        float u = 0F, v = 0F;
+        if ((attributes & Renderer.DRAW_ATTRIBUTE_TEX1) != 0)
+        {
+            int   tex = offset + Renderer.DRAW_VERTEX_TEX1_OFFSET;
+            float q   = data.getFloat(tex + 8);
+            u = data.getFloat(tex) / q;
+            v = data.getFloat(tex + 4) / q;
+        }
+        
+        int color = this.vertexColor;
+        if ((attributes & Renderer.DRAW_ATTRIBUTE_COLOR) != 0)
+        {
+            int col = offset + Renderer.DRAW_VERTEX_COLOR_OFFSET;
+            color = data.get(col) & 0xFF | (data.get(col + 1) & 0xFF) << 8 | (data.get(col + 2) & 0xFF) << 16 | (data.get(col + 3) & 0xFF) << 24;
+        }
+        
+        int index = clip * Rasterizer.VERTEX_FLOATS;
+        
+        float[] out = this.clipped;
+        out[index + Rasterizer.VERTEX_X] = (float) this.transformed.x;
+        out[index + Rasterizer.VERTEX_Y] = (float) this.transformed.y;
+        out[index + Rasterizer.VERTEX_Z] = (float) this.transformed.z;
+        out[index + Rasterizer.VERTEX_W] = (float) this.transformed.w;
+        out[index + Rasterizer.VERTEX_U] = u;
+        out[index + Rasterizer.VERTEX_V] = v;
+        out[index + Rasterizer.VERTEX_R] = (color & 0xFF) / 255F;
+        out[index + Rasterizer.VERTEX_G] = (color >>> 8 & 0xFF) / 255F;
+        out[index + Rasterizer.VERTEX_B] = (color >>> 16 & 0xFF) / 255F;
+        out[index + Rasterizer.VERTEX_A] = (color >>> 24) / 255F;
+    }
+    
+    /**
+     * Adds a primitive made of clip space vertices of the current draw.
+     * Vertices in front of the near plane are projected once and shared,
+     * primitives that cross it are clipped (Sutherland-Hodgman) and points
+     * behind it are dropped.
+     */
+    private void addPrimitive(int type, int c0, int c1, int c2, int state)
+    {
+        boolean in0 = inside(c0), in1 = inside(c1), in2 = inside(c2);
+        if (in0 && in1 && in2)
+        {
+            pushPrimitive(type, project(c0), project(c1), project(c2), state);
+            return;
+        }
+        
+        switch (type)
+        {
+            case Rasterizer.PRIMITIVE_LINE ->
+            {
+                if (!in0 && !in1) return;
+                
+                int v0 = in0 ? project(c0) : intersect(c1, c0);
+                int v1 = in1 ? project(c1) : intersect(c0, c1);
+                pushPrimitive(type, v0, v1, v1, state);
+            }
+            case Rasterizer.PRIMITIVE_TRIANGLE ->
+            {
+                int[] corners = {c0, c1, c2};
+                int[] polygon = new int[4];
+                int   count   = 0;
+                for (int i = 0; i < 3; i++)
+                {
+                    int a = corners[i], b = corners[(i + 1) % 3];
+                    
+                    boolean insideA = inside(a);
+                    if (insideA) polygon[count++] = project(a);
+                    if (insideA != inside(b)) polygon[count++] = insideA ? intersect(a, b) : intersect(b, a);
+                }
+                for (int i = 2; i < count; i++) pushPrimitive(type, polygon[0], polygon[i - 1], polygon[i], state);
+            }
+        }
+    }
+    
+    /**
+     * The near plane is {@code z = -w} in clip space, which is {@code w = near}
+     * for a perspective projection.
+     */
+    private boolean inside(int clip)
+    {
+        int index = clip * Rasterizer.VERTEX_FLOATS;
+        return this.clipped[index + Rasterizer.VERTEX_Z] + this.clipped[index + Rasterizer.VERTEX_W] >= 0F;
+    }
+    
+    private int project(int clip)
+    {
+        int vertex = this.projected[clip];
+        if (vertex < 0) this.projected[clip] = vertex = projectVertex(this.clipped, clip * Rasterizer.VERTEX_FLOATS);
+        return vertex;
+    }
+    
+    /**
+     * Projects the point where the edge from an inside to an outside vertex
+     * crosses the near plane. Both triangles sharing the edge walk it in the
+     * same direction here, so they get exactly the same vertex.
+     */
+    private int intersect(int inside, int outside)
+    {
+        float[] c = this.clipped;
+        int     a = inside * Rasterizer.VERTEX_FLOATS;
+        int     b = outside * Rasterizer.VERTEX_FLOATS;
+        
+        float da = c[a + Rasterizer.VERTEX_Z] + c[a + Rasterizer.VERTEX_W];
+        float db = c[b + Rasterizer.VERTEX_Z] + c[b + Rasterizer.VERTEX_W];
+        float t  = da / (da - db);
+        for (int i = 0; i < Rasterizer.VERTEX_FLOATS; i++) this.intersection[i] = c[a + i] + (c[b + i] - c[a + i]) * t;
+        
+        return projectVertex(this.intersection, 0);
+    }
+    
+    private int projectVertex(float @NotNull [] clip, int index)
+    {
+        if (this.vertices.length < (this.vertexCount + 1) * Rasterizer.VERTEX_FLOATS)
+        {
+            this.vertices = Arrays.copyOf(this.vertices, this.vertices.length << 1);
+        }
+        
+        int vertex = this.vertexCount++;
+        
+        float invW = 1F / clip[index + Rasterizer.VERTEX_W];
+        
+        float[] out = this.vertices;
+        int     o   = vertex * Rasterizer.VERTEX_FLOATS;
+        out[o + Rasterizer.VERTEX_X]     = (clip[index + Rasterizer.VERTEX_X] * invW + 1F) * 0.5F * this.width;
+        out[o + Rasterizer.VERTEX_Y]     = (1F - clip[index + Rasterizer.VERTEX_Y] * invW) * 0.5F * this.height;
+        out[o + Rasterizer.VERTEX_Z]     = (clip[index + Rasterizer.VERTEX_Z] * invW + 1F) * 0.5F;
+        out[o + Rasterizer.VERTEX_INV_W] = invW;
+        for (int i = Rasterizer.VERTEX_U; i < Rasterizer.VERTEX_FLOATS; i++) out[o + i] = clip[index + i] * invW;
+        return vertex;
+    }
+    
+    private void pushPrimitive(int type, int v0, int v1, int v2, int state)
+    {
+        if (this.primitives.length < (this.primitiveCount + 1) * Rasterizer.PRIMITIVE_INTS)
+        {
+            this.primitives = Arrays.copyOf(this.primitives, this.primitives.length << 1);
+        }
+        
+        int index = this.primitiveCount++ * Rasterizer.PRIMITIVE_INTS;
+        this.primitives[index]     = type;
+        this.primitives[index + 1] = v0;
+        this.primitives[index + 2] = v1;
+        this.primitives[index + 3] = v2;
+        this.primitives[index + 4] = state;
+    }
+    
+    private void binPrimitive(int primitive)
+    {
+        int     index = primitive * Rasterizer.PRIMITIVE_INTS;
+        float[] v     = this.vertices;
+        
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 1; i <= 3; i++)
+        {
+            int vertex = this.primitives[index + i] * Rasterizer.VERTEX_FLOATS;
+            minX = Math.min(minX, v[vertex + Rasterizer.VERTEX_X]);
+            minY = Math.min(minY, v[vertex + Rasterizer.VERTEX_Y]);
+            maxX = Math.max(maxX, v[vertex + Rasterizer.VERTEX_X]);
+            maxY = Math.max(maxY, v[vertex + Rasterizer.VERTEX_Y]);
+        }
+        
+        int tx0 = Math.max((int) Math.floor(minX) / Rasterizer.TILE_SIZE, 0);
+        int ty0 = Math.max((int) Math.floor(minY) / Rasterizer.TILE_SIZE, 0);
+        int tx1 = Math.min((int) Math.floor(maxX) / Rasterizer.TILE_SIZE, this.tilesX - 1);
+        int ty1 = Math.min((int) Math.floor(maxY) / Rasterizer.TILE_SIZE, this.tilesY - 1);
+        
+        for (int ty = ty0; ty <= ty1; ty++)
+        {
+            for (int tx = tx0; tx <= tx1; tx++)
+            {
+                int tile  = ty * this.tilesX + tx;
+                int count = this.binCounts[tile];
+                if (count == this.bins[tile].length) this.bins[tile] = Arrays.copyOf(this.bins[tile], count << 1);
+                this.bins[tile][count] = primitive;
+                this.binCounts[tile]   = count + 1;
+            }
+        }
+    }
+    
+    // -------------------- Rasterization -------------------- //
+    
+    private void rasterizeTile(int tile)
+    {
+        int tx = tile % this.tilesX;
+        int ty = tile / this.tilesX;
+        
+        int x0 = tx * Rasterizer.TILE_SIZE, x1 = Math.min(x0 + Rasterizer.TILE_SIZE, this.width);
+        int y0 = ty * Rasterizer.TILE_SIZE, y1 = Math.min(y0 + Rasterizer.TILE_SIZE, this.height);
+        
+        int[] bin = this.bins[tile];
+        for (int i = 0, n = this.binCounts[tile]; i < n; i++)
+        {
+            int   index = bin[i] * Rasterizer.PRIMITIVE_INTS;
+            State state = this.states.get(this.primitives[index + 4]);
+            
+            int minX = x0, maxX = x1, minY = y0, maxY = y1;
+            if (state.scissorMode != ScissorMode.NONE)
+            {
+                ScissorMode scissor = state.scissorMode;
+                minX = Math.max(minX, scissor.x());
+                maxX = Math.min(maxX, scissor.x() + scissor.width());
+                minY = Math.max(minY, this.height - scissor.y() - scissor.height());
+                maxY = Math.min(maxY, this.height - scissor.y());
+                if (minX >= maxX || minY >= maxY) continue;
+            }
+            
+            int v0 = this.primitives[index + 1];
+            int v1 = this.primitives[index + 2];
+            int v2 = this.primitives[index + 3];
+            switch (this.primitives[index])
+            {
+                case Rasterizer.PRIMITIVE_POINT -> rasterizePoint(state, v0, minX, minY, maxX, maxY);
+                case Rasterizer.PRIMITIVE_LINE -> rasterizeLine(state, v0, v1, minX, minY, maxX, maxY);
+                case Rasterizer.PRIMITIVE_TRIANGLE -> rasterizeTriangle(state, v0, v1, v2, minX, minY, maxX, maxY);
+            }
+        }
+    }
+    
+    private void rasterizePoint(@NotNull State state, int v0, int minX, int minY, int maxX, int maxY)
+    {
+        float[] v = this.vertices;
+        int     a = v0 * Rasterizer.VERTEX_FLOATS;
+        
+        int x = (int) Math.floor(v[a + Rasterizer.VERTEX_X]);
+        int y = (int) Math.floor(v[a + Rasterizer.VERTEX_Y]);
+        if (x < minX || x >= maxX || y < minY || y >= maxY) return;
+        
+        float invW = v[a + Rasterizer.VERTEX_INV_W];
+        shade(state, x, y, v[a + Rasterizer.VERTEX_Z],
+              v[a + Rasterizer.VERTEX_U] / invW, v[a + Rasterizer.VERTEX_V] / invW,
+              v[a + Rasterizer.VERTEX_R] / invW, v[a + Rasterizer.VERTEX_G] / invW, v[a + Rasterizer.VERTEX_B] / invW, v[a + Rasterizer.VERTEX_A] / invW);
+    }
+    
+    private void rasterizeLine(@NotNull State state, int v0, int v1, int minX, int minY, int maxX, int maxY)
+    {
+        float[] v = this.vertices;
+        int     a = v0 * Rasterizer.VERTEX_FLOATS;
+        int     b = v1 * Rasterizer.VERTEX_FLOATS;
+        
+        float ax = v[a + Rasterizer.VERTEX_X], ay = v[a + Rasterizer.VERTEX_Y];
+        float dx = v[b + Rasterizer.VERTEX_X] - ax, dy = v[b + Rasterizer.VERTEX_Y] - ay;
+        
+        // The last pixel is left out, so connected lines do not draw their shared pixel twice
+        int steps = (int) Math.ceil(Math.max(Math.abs(dx), Math.abs(dy)));
+        for (int i = 0; i < steps; i++)
+        {
+            float t = (i + 0.5F) / steps;
+            int   x = (int) Math.floor(ax + dx * t);
+            int   y = (int) Math.floor(ay + dy * t);
+            if (x < minX || x >= maxX || y < minY || y >= maxY) continue;
+            
+            shadeInterpolated(state, x, y, a, b, b, 1F - t, t, 0F);
+        }
+    }
+    
+    private void rasterizeTriangle(@NotNull State state, int v0, int v1, int v2, int minX, int minY, int maxX, int maxY)
+    {
+        float[] v = this.vertices;
+        int     a = v0 * Rasterizer.VERTEX_FLOATS;
+        int     b = v1 * Rasterizer.VERTEX_FLOATS;
+        int     c = v2 * Rasterizer.VERTEX_FLOATS;
+        
+        // Edge functions are evaluated in fixed point, so the two triangles sharing an edge get exactly opposite values
+        long ax = fixed(v[a + Rasterizer.VERTEX_X]), ay = fixed(v[a + Rasterizer.VERTEX_Y]);
+        long bx = fixed(v[b + Rasterizer.VERTEX_X]), by = fixed(v[b + Rasterizer.VERTEX_Y]);
+        long cx = fixed(v[c + Rasterizer.VERTEX_X]), cy = fixed(v[c + Rasterizer.VERTEX_Y]);
+        
+        long area = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+        if (area == 0) return;
+        
+        // Window y points up, so counter-clockwise triangles have a negative area here
+        boolean front = area < 0 == (state.winding == Winding.CCW);
+        if (state.cullFace == CullFace.FRONT_AND_BACK || state.cullFace == (front ? CullFace.FRONT : CullFace.BACK)) return;
+        
+        if (area < 0)
+        {
+            // Flip the triangle to keep the edge functions positive inside
+            int  tmp  = b;
+            long tmpX = bx, tmpY = by;
+            b    = c;
+            bx   = cx;
+            by   = cy;
+            c    = tmp;
+            cx   = tmpX;
+            cy   = tmpY;
+            area = -area;
+        }
+        
+        int startX = Math.max(minX, (int) (Math.min(ax, Math.min(bx, cx)) >> Rasterizer.SUBPIXEL_BITS));
+        int startY = Math.max(minY, (int) (Math.min(ay, Math.min(by, cy)) >> Rasterizer.SUBPIXEL_BITS));
+        int endX   = Math.min(maxX, (int) (Math.max(ax, Math.max(bx, cx)) >> Rasterizer.SUBPIXEL_BITS) + 1);
+        int endY   = Math.min(maxY, (int) (Math.max(ay, Math.max(by, cy)) >> Rasterizer.SUBPIXEL_BITS) + 1);
+        if (startX >= endX || startY >= endY) return;
+        
+        // Pixels exactly on an edge belong to only one of the triangles sharing it
+        long biasA = owns(bx, by, cx, cy) ? 0 : -1; // Edge opposite of a
+        long biasB = owns(cx, cy, ax, ay) ? 0 : -1;
+        long biasC = owns(ax, ay, bx, by) ? 0 : -1;
+        
+        long one = 1L << Rasterizer.SUBPIXEL_BITS;
+        long px  = ((long) startX << Rasterizer.SUBPIXEL_BITS) + (one >> 1);
+        long py  = ((long) startY << Rasterizer.SUBPIXEL_BITS) + (one >> 1);
+        
+        long rowA = (cx - bx) * (py - by) - (cy - by) * (px - bx);
+        long rowB = (ax - cx) * (py - cy) - (ay - cy) * (px - cx);
+        long rowC = (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+        
+        long stepAX = -(cy - by) * one, stepAY = (cx - bx) * one;
+        long stepBX = -(ay - cy) * one, stepBY = (ax - cx) * one;
+        long stepCX = -(by - ay) * one, stepCY = (bx - ax) * one;
+        
+        float invArea = 1F / area;
+        for (int y = startY; y < endY; y++, rowA += stepAY, rowB += stepBY, rowC += stepCY)
+        {
+            long wa = rowA, wb = rowB, wc = rowC;
+            for (int x = startX; x < endX; x++, wa += stepAX, wb += stepBX, wc += stepCX)
+            {
+                if ((wa + biasA | wb + biasB | wc + biasC) < 0) continue;
+                
+                shadeInterpolated(state, x, y, a, b, c, wa * invArea, wb * invArea, wc * invArea);
+            }
+        }
+    }
+    
+    private static long fixed(float value)
+    {
+        // Clamped so the edge functions cannot overflow, only primitives far outside the screen are affected
+        return Math.round(Math.max(-Rasterizer.MAX_COORDINATE, Math.min(value, Rasterizer.MAX_COORDINATE)) * (1 << Rasterizer.SUBPIXEL_BITS));
+    }
+    
+    /**
+     * A shared edge is walked in opposite directions by its two triangles,
+     * so this is true for exactly one of them.
+     */
+    private static boolean owns(long ax, long ay, long bx, long by)
+    {
+        long dy = by - ay;
+        return dy > 0 || dy == 0 && bx - ax < 0;
+    }
+    
+    private void shadeInterpolated(@NotNull State state, int x, int y, int a, int b, int c, float la, float lb, float lc)
+    {
+        float[] v = this.vertices;
+        
+        float z    = la * v[a + Rasterizer.VERTEX_Z] + lb * v[b + Rasterizer.VERTEX_Z] + lc * v[c + Rasterizer.VERTEX_Z];
+        float invW = la * v[a + Rasterizer.VERTEX_INV_W] + lb * v[b + Rasterizer.VERTEX_INV_W] + lc * v[c + Rasterizer.VERTEX_INV_W];
+        float w    = 1F / invW;
+        
+        shade(state, x, y, z,
+              (la * v[a + Rasterizer.VERTEX_U] + lb * v[b + Rasterizer.VERTEX_U] + lc * v[c + Rasterizer.VERTEX_U]) * w,
+              (la * v[a + Rasterizer.VERTEX_V] + lb * v[b + Rasterizer.VERTEX_V] + lc * v[c + Rasterizer.VERTEX_V]) * w,
+              (la * v[a + Rasterizer.VERTEX_R] + lb * v[b + Rasterizer.VERTEX_R] + lc * v[c + Rasterizer.VERTEX_R]) * w,
+              (la * v[a + Rasterizer.VERTEX_G] + lb * v[b + Rasterizer.VERTEX_G] + lc * v[c + Rasterizer.VERTEX_G]) * w,
+              (la * v[a + Rasterizer.VERTEX_B] + lb * v[b + Rasterizer.VERTEX_B] + lc * v[c + Rasterizer.VERTEX_B]) * w,
+              (la * v[a + Rasterizer.VERTEX_A] + lb * v[b + Rasterizer.VERTEX_A] + lc * v[c + Rasterizer.VERTEX_A]) * w);
+    }
+    
+    private void shade(@NotNull State state, int x, int y, float z, float u, float v, float r, float g, float b, float a)
+    {
+        int index = y * this.width + x;
+        
+        // Same as GL, depth is only written when the depth test is enabled
+        if (state.depthMode != DepthMode.NONE)
+        {
+            if (!state.depthMode.test(z, this.depth[index])) return;
+            if (state.depthMask) this.depth[index] = z;
+        }
+        
+        if (state.texture != null)
+        {
+            int tx = Math.floorMod((int) Math.floor(u * state.textureWidth), state.textureWidth);
+            int ty = Math.floorMod((int) Math.floor(v * state.textureHeight), state.textureHeight);
+            
+            int texel = state.texture[ty * state.textureWidth + tx];
+            r *= (texel & 0xFF) / 255F;
+            g *= (texel >>> 8 & 0xFF) / 255F;
+            b *= (texel >>> 16 & 0xFF) / 255F;
+            a *= (texel >>> 24) / 255F;
+        }
+        
+        long address = this.color.address() + index * 4L;
+        MemoryUtil.memPutInt(address, ColorCompositor.blend(state.blendMode, pack(r) | pack(g) << 8 | pack(b) << 16 | pack(a) << 24, MemoryUtil.memGetInt(address)));
+    }
+    
+    private static int pack(float value)
+    {
+        return value <= 0F ? 0 : value >= 1F ? 255 : (int) (value * 255F + 0.5F);
+    }
+    
+    // -------------------- Sub-Classes -------------------- //
+    
+    protected record State(BlendMode blendMode, DepthMode depthMode, boolean depthMask, ScissorMode scissorMode, CullFace cullFace, Winding winding, int[] texture, int textureWidth, int textureHeight) {}
+}
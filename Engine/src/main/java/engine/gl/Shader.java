@@ -18,14 +18,18 @@ public class Shader
     protected    int  id;
     public final Type type;
     
-    public Shader(@NotNull Type type, @NotNull Path filePath)
+    /**
+     * @param defines Names that are defined for the preprocessor, so a
+     *                shader can leave out code that is not needed.
+     */
+    public Shader(@NotNull Type type, @NotNull Path filePath, @NotNull String... defines)
     {
         this.id   = GL44.glCreateShader(type.ref);
         this.type = type;
         try
         {
             String code = Files.readString(filePath);
-            compile(code);
+            compile(define(code, defines));
         }
         catch (IOException e)
         {
@@ -75,6 +79,22 @@ public class Shader
     
     // -------------------- Functions -------------------- //
     
+    /**
+     * Inserts the defines after the {@code #version} directive, which must
+     * stay the first line.
+     */
+    private static @NotNull String define(@NotNull String code, @NotNull String... defines)
+    {
+        if (defines.length == 0) return code;
+        
+        StringBuilder builder = new StringBuilder();
+        for (String define : defines) builder.append("#define ").append(define).append('\n');
+        
+        int line  = code.indexOf('\n');
+        int start = code.startsWith("#version") && line >= 0 ? line + 1 : 0;
+        return code.substring(0, start) + builder + code.substring(start);
+    }
+    
     private void compile(@NotNull String code)
     {
         Shader.LOGGER.trace("Compiling %s:%n%s", this, code);
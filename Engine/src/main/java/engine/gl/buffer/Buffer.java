@@ -51,6 +51,18 @@ public abstract class Buffer
         Buffer.LOGGER.debug("Created", this);
     }
     
+    protected Buffer(int type, long address, long size, @NotNull BufferFlag @NotNull ... flags)
+    {
+        this(GL44.glGenBuffers(), type, BufferUsage.STREAM_DRAW, size);
+        
+        bind(this);
+        
+        Buffer.LOGGER.trace("Allocated Immutable Storage with flags:", flags);
+        GL44.nglBufferStorage(this.type, this.size, address, BufferFlag.mask(flags));
+        
+        Buffer.LOGGER.debug("Created", this);
+    }
+    
     @Override
     public boolean equals(Object o)
     {
@@ -114,6 +126,28 @@ public abstract class Buffer
         return this.mapped = GL44.glMapBuffer(this.type, access.ref, this.size, this.mapped);
     }
     
+    /**
+     * Maps a range of the buffer into client memory.
+     * <p>
+     * Buffers created with {@link BufferFlag#MAP_PERSISTENT} can stay mapped
+     * while they are used for drawing. It is up to the caller to synchronize
+     * access with the GPU.
+     *
+     * @param offset The offset into the buffer in bytes.
+     * @param length The length of the range in bytes.
+     * @param flags  The access flags.
+     *
+     * @return The mapped memory or null if the range could not be mapped.
+     */
+    public @Nullable ByteBuffer mapRange(long offset, long length, @NotNull BufferFlag @NotNull ... flags)
+    {
+        bind(this);
+        
+        Buffer.LOGGER.trace("Mapping Range [%s, %s] of %s", offset, offset + length, this);
+        
+        return this.mapped = GL44.glMapBufferRange(this.type, offset, length, BufferFlag.mask(flags), this.mapped);
+    }
+    
     public void unmap()
     {
         bind(this);
@@ -41,6 +41,11 @@ public class BufferArray extends Buffer
         super(GL44.GL_ARRAY_BUFFER, usage, MemoryUtil.memAddress(data), Integer.toUnsignedLong(data.remaining() * data.sizeof()));
     }
     
+    public BufferArray(long size, @NotNull BufferFlag @NotNull ... flags)
+    {
+        super(GL44.GL_ARRAY_BUFFER, MemoryUtil.NULL, size, flags);
+    }
+    
     private static final class Null extends BufferArray
     {
         @Contract(pure = true)
@@ -63,6 +68,13 @@ public class BufferArray extends Buffer
             return null;
         }
         
+        @Override
+        public @Nullable ByteBuffer mapRange(long offset, long length, @NotNull BufferFlag @NotNull ... flags)
+        {
+            BufferArray.LOGGER.warning("Cannot call %s.mapRange", this);
+            return null;
+        }
+        
         @Override
         public void unmap()
         {
@@ -82,6 +82,13 @@ public class BufferElementArray extends Buffer
             return null;
         }
         
+        @Override
+        public @Nullable ByteBuffer mapRange(long offset, long length, @NotNull BufferFlag @NotNull ... flags)
+        {
+            BufferElementArray.LOGGER.warning("Cannot call %s.mapRange", this);
+            return null;
+        }
+        
         @Override
         public void unmap()
         {
@@ -0,0 +1,35 @@
+package engine.gl.buffer;
+
+import org.jetbrains.annotations.NotNull;
+import org.lwjgl.opengl.GL44;
+
+public enum BufferFlag
+{
+    DYNAMIC_STORAGE(GL44.GL_DYNAMIC_STORAGE_BIT),
+    CLIENT_STORAGE(GL44.GL_CLIENT_STORAGE_BIT),
+    
+    MAP_READ(GL44.GL_MAP_READ_BIT),
+    MAP_WRITE(GL44.GL_MAP_WRITE_BIT),
+    MAP_PERSISTENT(GL44.GL_MAP_PERSISTENT_BIT),
+    MAP_COHERENT(GL44.GL_MAP_COHERENT_BIT),
+    
+    MAP_INVALIDATE_RANGE(GL44.GL_MAP_INVALIDATE_RANGE_BIT),
+    MAP_INVALIDATE_BUFFER(GL44.GL_MAP_INVALIDATE_BUFFER_BIT),
+    MAP_FLUSH_EXPLICIT(GL44.GL_MAP_FLUSH_EXPLICIT_BIT),
+    MAP_UNSYNCHRONIZED(GL44.GL_MAP_UNSYNCHRONIZED_BIT),
+    ;
+    
+    public static int mask(@NotNull BufferFlag @NotNull ... flags)
+    {
+        int mask = 0;
+        for (BufferFlag flag : flags) mask |= flag.ref;
+        return mask;
+    }
+    
+    public final int ref;
+    
+    BufferFlag(int ref)
+    {
+        this.ref = ref;
+    }
+}
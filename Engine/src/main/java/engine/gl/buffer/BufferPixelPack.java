@@ -0,0 +1,111 @@
+package engine.gl.buffer;
+
+import engine.util.Logger;
+import engine.util.MemUtil;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GL44;
+import org.lwjgl.system.CustomBuffer;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Destination of pixel reads, so glReadPixels can return without waiting
+ * for the GPU to finish rendering the frame.
+ */
+public class BufferPixelPack extends Buffer
+{
+    private static final Logger LOGGER = Logger.getLogger();
+    
+    // -------------------- Static -------------------- //
+    
+    public static final BufferPixelPack NULL = new Null();
+    
+    // -------------------- Instance -------------------- //
+    
+    private BufferPixelPack()
+    {
+        super(0, GL44.GL_PIXEL_PACK_BUFFER, BufferUsage.STATIC_READ, 0);
+    }
+    
+    public BufferPixelPack(@NotNull BufferUsage usage, long size)
+    {
+        super(GL44.GL_PIXEL_PACK_BUFFER, usage, MemoryUtil.NULL, size);
+    }
+    
+    public BufferPixelPack(@NotNull BufferUsage usage, @NotNull java.nio.Buffer data)
+    {
+        super(GL44.GL_PIXEL_PACK_BUFFER, usage, MemoryUtil.memAddress(data), Integer.toUnsignedLong(data.remaining() * MemUtil.elementSize(data)));
+    }
+    
+    public BufferPixelPack(@NotNull BufferUsage usage, @NotNull CustomBuffer<?> data)
+    {
+        super(GL44.GL_PIXEL_PACK_BUFFER, usage, MemoryUtil.memAddress(data), Integer.toUnsignedLong(data.remaining() * data.sizeof()));
+    }
+    
+    private static final class Null extends BufferPixelPack
+    {
+        @Contract(pure = true)
+        @Override
+        public @NotNull String toString()
+        {
+            return "BufferPixelPack.NULL";
+        }
+        
+        @Override
+        public void delete()
+        {
+            BufferPixelPack.LOGGER.warning("Cannot call %s.delete", this);
+        }
+        
+        @Override
+        public @Nullable ByteBuffer map(@NotNull BufferAccess access)
+        {
+            BufferPixelPack.LOGGER.warning("Cannot call %s.map", this);
+            return null;
+        }
+        
+        @Override
+        public @Nullable ByteBuffer mapRange(long offset, long length, @NotNull BufferFlag @NotNull ... flags)
+        {
+            BufferPixelPack.LOGGER.warning("Cannot call %s.mapRange", this);
+            return null;
+        }
+        
+        @Override
+        public void unmap()
+        {
+            BufferPixelPack.LOGGER.warning("Cannot call %s.unmap", this);
+        }
+        
+        @Override
+        public Buffer get(long offset, @NotNull java.nio.Buffer buffer)
+        {
+            BufferPixelPack.LOGGER.warning("Cannot call %s.get", this);
+            return this;
+        }
+        
+        @Override
+        public Buffer get(long offset, @NotNull CustomBuffer<?> buffer)
+        {
+            BufferPixelPack.LOGGER.warning("Cannot call %s.get", this);
+            return this;
+        }
+        
+        @Override
+        public Buffer set(long offset, @NotNull java.nio.Buffer data)
+        {
+            BufferPixelPack.LOGGER.warning("Cannot call %s.set", this);
+            return this;
+        }
+        
+        @Override
+        public Buffer set(long offset, @NotNull CustomBuffer<?> data)
+        {
+            BufferPixelPack.LOGGER.warning("Cannot call %s.set", this);
+            return this;
+        }
+    }
+}
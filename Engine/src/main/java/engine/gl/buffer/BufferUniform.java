@@ -83,6 +83,13 @@ public class BufferUniform extends Buffer
             return null;
         }
         
+        @Override
+        public @Nullable ByteBuffer mapRange(long offset, long length, @NotNull BufferFlag @NotNull ... flags)
+        {
+            BufferUniform.LOGGER.warning("Cannot call %s.mapRange", this);
+            return null;
+        }
+        
         @Override
         public void unmap()
         {
@@ -1,5 +1,6 @@
 package engine.gl.texture;
 
+import engine.Renderer;
 import engine.color.ColorBuffer;
 import engine.color.ColorFormat;
 import engine.util.Logger;
@@ -14,6 +15,19 @@ public abstract class Texture
 {
     private static final Logger LOGGER = Logger.getLogger();
     
+    // -------------------- Static -------------------- //
+    
+    private static int softwareIds = 0;
+    
+    /**
+     * @return If textures are kept in memory for the Renderer's rasterizer
+     * because there is no GL context.
+     */
+    protected static boolean software()
+    {
+        return Renderer.rasterizer() != null;
+    }
+    
     // -------------------- Instance -------------------- //
     
     protected int id;
@@ -33,7 +47,7 @@ public abstract class Texture
     
     protected Texture(int type, @NotNull ColorFormat format)
     {
-        this(GL44.glGenTextures(), type, format);
+        this(Texture.software() ? ++Texture.softwareIds : GL44.glGenTextures(), type, format);
     }
     
     @Override
@@ -99,7 +113,7 @@ public abstract class Texture
     {
         Texture.LOGGER.debug("Deleting", this);
         
-        GL44.glDeleteTextures(this.id);
+        if (!Texture.software()) GL44.glDeleteTextures(this.id);
         
         this.id = 0;
     }
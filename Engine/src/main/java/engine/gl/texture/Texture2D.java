@@ -24,6 +24,8 @@ public class Texture2D extends Texture
     
     protected int width, height;
     
+    protected ColorBuffer pixels; // Texels kept in memory instead of on the GPU when there is no GL context
+    
     private Texture2D()
     {
         super(0, GL44.GL_TEXTURE_2D, ColorFormat.DEFAULT);
@@ -88,6 +90,16 @@ public class Texture2D extends Texture
     
     protected void load(long data)
     {
+        if (Texture.software())
+        {
+            // The rasterizer samples with the default wrap and filter, so there is nothing else to set
+            this.pixels = ColorBuffer.calloc(this.format, this.width * this.height);
+            if (data != MemoryUtil.NULL) MemoryUtil.memCopy(data, this.pixels.address(), (long) this.width * this.height * this.format.sizeof);
+            
+            Texture2D.LOGGER.debug("Created", this);
+            return;
+        }
+        
         bind(this);
         
         Texture2D.LOGGER.trace("Loading texture data");
@@ -113,9 +125,20 @@ public class Texture2D extends Texture
         Texture2D.LOGGER.debug("Created", this);
     }
     
+    @Override
+    public void delete()
+    {
+        super.delete();
+        
+        if (this.pixels != null) this.pixels.free();
+        this.pixels = null;
+    }
+    
     @Override
     public @NotNull ColorBuffer getPixelData()
     {
+        if (this.pixels != null) return this.pixels.copy();
+        
         bind(this);
         
         Texture2D.LOGGER.trace("Getting Pixel Data");
@@ -134,8 +157,6 @@ public class Texture2D extends Texture
      */
     public void update(@NotNull ColorBuffer data, int x, int y, int width, int height)
     {
-        bind(this);
-        
         if (this.format != data.format)
         {
             Texture2D.LOGGER.warning("Data format (%s) does not match texture (%s)", data.format, this);
@@ -146,6 +167,18 @@ public class Texture2D extends Texture
         
         long pixels = MemoryUtil.memAddressSafe(data);
         
+        if (this.pixels != null)
+        {
+            int sizeof = this.format.sizeof;
+            for (int j = 0; j < height; j++)
+            {
+                MemoryUtil.memCopy(pixels + (long) j * width * sizeof, this.pixels.address() + ((long) (y + j) * this.width + x) * sizeof, (long) width * sizeof);
+            }
+            return;
+        }
+        
+        bind(this);
+        
         GL44.glTexSubImage2D(this.type, 0, x, y, width, height, this.format.format, GL44.GL_UNSIGNED_BYTE, pixels);
     }
     
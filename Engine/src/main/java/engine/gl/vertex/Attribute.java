@@ -3,8 +3,22 @@ package engine.gl.vertex;
 import engine.gl.GLType;
 import org.jetbrains.annotations.NotNull;
 
-public record Attribute(@NotNull GLType type, int count, boolean normalized)
+/**
+ * A vertex attribute.
+ *
+ * @param type       The component type.
+ * @param count      The number of components.
+ * @param normalized If integer components are normalized to [0, 1] or [-1, 1].
+ * @param divisor    The number of instances drawn before advancing the
+ *                   attribute, or zero to advance it every vertex.
+ */
+public record Attribute(@NotNull GLType type, int count, boolean normalized, int divisor)
 {
+    public Attribute(@NotNull GLType type, int count, boolean normalized)
+    {
+        this(type, count, normalized, 0);
+    }
+    
     public Attribute(@NotNull GLType type, int count)
     {
         this(type, count, false);
@@ -23,11 +37,22 @@ public record Attribute(@NotNull GLType type, int count, boolean normalized)
     @Override
     public String toString()
     {
-        return this.type + "x" + this.count;
+        return this.divisor > 0 ? this.type + "x" + this.count + "/" + this.divisor : this.type + "x" + this.count;
     }
     
     public int size()
     {
         return this.type.bytes * this.count;
     }
+    
+    /**
+     * @param divisor The number of instances drawn before advancing the attribute.
+     *
+     * @return A copy of this attribute that advances per instance.
+     */
+    public @NotNull Attribute instanced(int divisor)
+    {
+        if (divisor <= 0) throw new IllegalArgumentException("Divisor must be positive: " + divisor);
+        return new Attribute(this.type, this.count, this.normalized, divisor);
+    }
 }
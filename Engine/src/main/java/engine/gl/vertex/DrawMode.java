@@ -4,27 +4,34 @@ import org.lwjgl.opengl.GL44;
 
 public enum DrawMode
 {
-    POINTS(GL44.GL_POINTS),
-    LINE_STRIP(GL44.GL_LINE_STRIP),
-    LINE_STRIP_ADJACENCY(GL44.GL_LINE_STRIP_ADJACENCY),
-    LINE_LOOP(GL44.GL_LINE_LOOP),
-    LINES(GL44.GL_LINES),
-    LINES_ADJACENCY(GL44.GL_LINES_ADJACENCY),
-    TRIANGLE_STRIP(GL44.GL_TRIANGLE_STRIP),
-    TRIANGLE_STRIP_ADJACENCY(GL44.GL_TRIANGLE_STRIP_ADJACENCY),
-    TRIANGLE_FAN(GL44.GL_TRIANGLE_FAN),
-    TRIANGLES(GL44.GL_TRIANGLES),
-    TRIANGLES_ADJACENCY(GL44.GL_TRIANGLES_ADJACENCY),
-    QUADS(GL44.GL_QUADS),
-    PATCHES(GL44.GL_PATCHES),
+    POINTS(GL44.GL_POINTS, 1),
+    LINE_STRIP(GL44.GL_LINE_STRIP, 0),
+    LINE_STRIP_ADJACENCY(GL44.GL_LINE_STRIP_ADJACENCY, 0),
+    LINE_LOOP(GL44.GL_LINE_LOOP, 0),
+    LINES(GL44.GL_LINES, 2),
+    LINES_ADJACENCY(GL44.GL_LINES_ADJACENCY, 4),
+    TRIANGLE_STRIP(GL44.GL_TRIANGLE_STRIP, 0),
+    TRIANGLE_STRIP_ADJACENCY(GL44.GL_TRIANGLE_STRIP_ADJACENCY, 0),
+    TRIANGLE_FAN(GL44.GL_TRIANGLE_FAN, 0),
+    TRIANGLES(GL44.GL_TRIANGLES, 3),
+    TRIANGLES_ADJACENCY(GL44.GL_TRIANGLES_ADJACENCY, 6),
+    QUADS(GL44.GL_QUADS, 4),
+    PATCHES(GL44.GL_PATCHES, 0),
     ;
     
     public static final DrawMode DEFAULT = TRIANGLES;
     
     public final int ref;
     
-    DrawMode(int ref)
+    /**
+     * The number of vertices in each independent primitive, or zero if
+     * primitives share vertices (strips, fans, loops and patches).
+     */
+    public final int primitiveSize;
+    
+    DrawMode(int ref, int primitiveSize)
     {
-        this.ref = ref;
+        this.ref           = ref;
+        this.primitiveSize = primitiveSize;
     }
 }
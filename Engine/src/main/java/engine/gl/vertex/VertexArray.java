@@ -5,12 +5,15 @@ import engine.gl.buffer.Buffer;
 import engine.gl.buffer.BufferUsage;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.lwjgl.PointerBuffer;
 import org.lwjgl.opengl.GL44;
 import org.lwjgl.system.CustomBuffer;
+import org.lwjgl.system.MemoryStack;
 import engine.gl.buffer.BufferArray;
 import engine.gl.buffer.BufferElementArray;
 import engine.util.Logger;
 
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -48,6 +51,7 @@ public class VertexArray
     public final    List<Attribute> attributes  = Collections.unmodifiableList(this._attributes);
     
     protected int vertexCount;
+    protected int instanceCount;
     
     private VertexArray()
     {
@@ -70,15 +74,26 @@ public class VertexArray
             BufferArray buffer     = buffers.get(i);
             Attribute[] attributes = vertexAttributes.get(i);
             
-            int stride = 0;
+            int stride  = 0;
+            int divisor = Integer.MAX_VALUE;
             for (Attribute attribute : attributes)
             {
                 stride += attribute.size();
+                divisor = Math.min(divisor, attribute.divisor());
             }
             
             VertexArray.LOGGER.trace("Adding VBO %s of structure %s to", buffer, attributes, this);
             
-            this.vertexCount = Math.min(this.vertexCount > 0 ? this.vertexCount : Integer.MAX_VALUE, (int) (buffer.size() / stride));
+            if (divisor > 0)
+            {
+                // Every attribute in the buffer is per instance
+                long instances = buffer.size() / stride * divisor;
+                this.instanceCount = (int) Math.min(this.instanceCount > 0 ? this.instanceCount : Integer.MAX_VALUE, Math.min(instances, Integer.MAX_VALUE));
+            }
+            else
+            {
+                this.vertexCount = Math.min(this.vertexCount > 0 ? this.vertexCount : Integer.MAX_VALUE, (int) (buffer.size() / stride));
+            }
             
             bind(buffer);
             this._buffers.add(buffer);
@@ -87,6 +102,7 @@ public class VertexArray
                 Attribute attribute = attributes[j];
                 
                 GL44.glVertexAttribPointer(attributeCount, attribute.count(), attribute.type().ref, attribute.normalized(), stride, offset);
+                if (attribute.divisor() > 0) GL44.glVertexAttribDivisor(attributeCount, attribute.divisor());
                 GL44.glEnableVertexAttribArray(attributeCount++);
                 offset += attribute.size();
                 
@@ -137,12 +153,12 @@ public class VertexArray
     }
     
     /**
-     * @return The size in bytes of a vertex.
+     * @return The size in bytes of a vertex, not counting per instance attributes.
      */
     public int vertexSize()
     {
         int size = 0;
-        for (Attribute attribute : this._attributes) size += attribute.size();
+        for (Attribute attribute : this._attributes) if (attribute.divisor() == 0) size += attribute.size();
         return size;
     }
     
@@ -154,6 +170,15 @@ public class VertexArray
         return this.vertexCount;
     }
     
+    /**
+     * @return The number of instances the per instance buffers hold, or
+     * zero if there are none.
+     */
+    public int instanceCount()
+    {
+        return this.instanceCount;
+    }
+    
     /**
      * @return The number of indices in the vertex array.
      */
@@ -184,13 +209,52 @@ public class VertexArray
         if (this.indexBuffer != null) this.indexBuffer.delete();
         
         this._attributes.clear();
-        this.vertexCount = 0;
+        this.vertexCount   = 0;
+        this.instanceCount = 0;
         
         GL44.glDeleteVertexArrays(this.id);
         
         this.id = 0;
     }
     
+    /**
+     * Enables the attribute array at the index. When enabled, the attribute
+     * is fetched from its buffer for each vertex.
+     *
+     * @param index The attribute index.
+     *
+     * @return This instance for call chaining.
+     */
+    public VertexArray enableAttribute(int index)
+    {
+        bind(this);
+        
+        VertexArray.LOGGER.trace("Enabling Attribute %s of %s", index, this);
+        
+        GL44.glEnableVertexAttribArray(index);
+        
+        return this;
+    }
+    
+    /**
+     * Disables the attribute array at the index. When disabled, the current
+     * constant value set by {@code glVertexAttrib*} is used for every vertex.
+     *
+     * @param index The attribute index.
+     *
+     * @return This instance for call chaining.
+     */
+    public VertexArray disableAttribute(int index)
+    {
+        bind(this);
+        
+        VertexArray.LOGGER.trace("Disabling Attribute %s of %s", index, this);
+        
+        GL44.glDisableVertexAttribArray(index);
+        
+        return this;
+    }
+    
     // -------------------- Draw Functions -------------------- //
     
     /**
@@ -209,7 +273,6 @@ public class VertexArray
         VertexArray.LOGGER.trace("Drawing Arrays size=%s from %s", count, this);
         
         GL44.glDrawArrays(mode.ref, offset, count);
-        // glDrawArraysInstanced(int mode, int first, int count, int primcount) // TODO
         
         return this;
     }
@@ -249,6 +312,22 @@ public class VertexArray
      * @return This instance for call chaining.
      */
     public VertexArray drawElements(@NotNull DrawMode mode, long offset, int count)
+    {
+        return drawElements(mode, offset, count, 0);
+    }
+    
+    /**
+     * Draws the array with elements in the specified mode. Each index is
+     * offset by {@code baseVertex} before fetching the vertex.
+     *
+     * @param mode       The primitive type.
+     * @param offset     The offset into the index array.
+     * @param count      the number of vertices to draw.
+     * @param baseVertex The constant added to each index.
+     *
+     * @return This instance for call chaining.
+     */
+    public VertexArray drawElements(@NotNull DrawMode mode, long offset, int count, int baseVertex)
     {
         bind(this);
         
@@ -258,12 +337,174 @@ public class VertexArray
         
         GLType indexType = this.indexBuffer.indexType;
         
-        GL44.glDrawElements(mode.ref, count, indexType.ref, offset * indexType.bytes);
-        // GL44.glDrawElementsInstanced(int mode, int count, int type, long indices, int primcount); // TODO
+        if (baseVertex == 0)
+        {
+            GL44.glDrawElements(mode.ref, count, indexType.ref, offset * indexType.bytes);
+        }
+        else
+        {
+            GL44.glDrawElementsBaseVertex(mode.ref, count, indexType.ref, offset * indexType.bytes, baseVertex);
+        }
+        
+        return this;
+    }
+    
+    /**
+     * Draws the array in the specified mode once for each instance.
+     * Attributes with a divisor advance every {@code divisor} instances.
+     *
+     * @param mode      The primitive type.
+     * @param offset    The offset into the array.
+     * @param count     the number of vertices to draw.
+     * @param instances The number of instances to draw.
+     *
+     * @return This instance for call chaining.
+     */
+    public VertexArray drawInstanced(@NotNull DrawMode mode, int offset, int count, int instances)
+    {
+        bind(this);
+        
+        VertexArray.LOGGER.trace("Drawing Arrays size=%s instances=%s from %s", count, instances, this);
+        
+        GL44.glDrawArraysInstanced(mode.ref, offset, count, instances);
+        
+        return this;
+    }
+    
+    /**
+     * Draws the array in the specified mode once for each instance.
+     *
+     * @param mode      The primitive type.
+     * @param instances The number of instances to draw.
+     *
+     * @return This instance for call chaining.
+     */
+    public VertexArray drawInstanced(@NotNull DrawMode mode, int instances)
+    {
+        return drawInstanced(mode, 0, this.vertexCount, instances);
+    }
+    
+    /**
+     * Draws several ranges of the array in the specified mode with a single
+     * call. Each range is drawn as if by {@link #draw(DrawMode, int, int)}.
+     *
+     * @param mode    The primitive type.
+     * @param offsets The offset into the array of each range.
+     * @param counts  The number of vertices of each range.
+     *
+     * @return This instance for call chaining.
+     */
+    public VertexArray drawMulti(@NotNull DrawMode mode, @NotNull IntBuffer offsets, @NotNull IntBuffer counts)
+    {
+        bind(this);
+        
+        VertexArray.LOGGER.trace("Drawing %s Arrays from %s", counts.remaining(), this);
+        
+        GL44.glMultiDrawArrays(mode.ref, offsets, counts);
         
         return this;
     }
     
+    /**
+     * Draws several ranges of the array with elements in the specified mode
+     * with a single call. Each range is drawn as if by
+     * {@link #drawElements(DrawMode, long, int, int)}.
+     *
+     * @param mode         The primitive type.
+     * @param offsets      The offset into the index array of each range.
+     * @param counts       The number of indices of each range.
+     * @param baseVertices The constant added to each index of each range.
+     *
+     * @return This instance for call chaining.
+     */
+    public VertexArray drawElementsMulti(@NotNull DrawMode mode, @NotNull IntBuffer offsets, @NotNull IntBuffer counts, @NotNull IntBuffer baseVertices)
+    {
+        bind(this);
+        
+        if (this.indexBuffer == null) throw new IllegalStateException("Cannot draw elements when non are provided.");
+        
+        VertexArray.LOGGER.trace("Drawing %s Elements from %s", counts.remaining(), this);
+        
+        GLType indexType = this.indexBuffer.indexType;
+        
+        try (MemoryStack stack = MemoryStack.stackPush())
+        {
+            PointerBuffer indices = stack.mallocPointer(offsets.remaining());
+            for (int i = 0, n = offsets.remaining(); i < n; i++)
+            {
+                indices.put(i, Integer.toUnsignedLong(offsets.get(offsets.position() + i)) * indexType.bytes);
+            }
+            GL44.glMultiDrawElementsBaseVertex(mode.ref, counts, indexType.ref, indices, baseVertices);
+        }
+        
+        return this;
+    }
+    
+    /**
+     * Draws the array with elements in the specified mode once for each
+     * instance. Each index is offset by {@code baseVertex} before fetching
+     * the vertex.
+     *
+     * @param mode       The primitive type.
+     * @param offset     The offset into the index array.
+     * @param count      the number of vertices to draw.
+     * @param instances  The number of instances to draw.
+     * @param baseVertex The constant added to each index.
+     *
+     * @return This instance for call chaining.
+     */
+    public VertexArray drawElementsInstanced(@NotNull DrawMode mode, long offset, int count, int instances, int baseVertex)
+    {
+        bind(this);
+        
+        if (this.indexBuffer == null) throw new IllegalStateException("Cannot draw elements when non are provided.");
+        
+        VertexArray.LOGGER.trace("Drawing Elements size=%s instances=%s from %s", count, instances, this);
+        
+        GLType indexType = this.indexBuffer.indexType;
+        
+        if (baseVertex == 0)
+        {
+            GL44.glDrawElementsInstanced(mode.ref, count, indexType.ref, offset * indexType.bytes, instances);
+        }
+        else
+        {
+            GL44.glDrawElementsInstancedBaseVertex(mode.ref, count, indexType.ref, offset * indexType.bytes, instances, baseVertex);
+        }
+        
+        return this;
+    }
+    
+    /**
+     * Draws the array with elements in the specified mode once for each
+     * instance.
+     *
+     * @param mode      The primitive type.
+     * @param offset    The offset into the index array.
+     * @param count     the number of vertices to draw.
+     * @param instances The number of instances to draw.
+     *
+     * @return This instance for call chaining.
+     */
+    public VertexArray drawElementsInstanced(@NotNull DrawMode mode, long offset, int count, int instances)
+    {
+        return drawElementsInstanced(mode, offset, count, instances, 0);
+    }
+    
+    /**
+     * Draws the array with elements in the specified mode once for each
+     * instance.
+     *
+     * @param mode      The primitive type.
+     * @param instances The number of instances to draw.
+     *
+     * @return This instance for call chaining.
+     */
+    public VertexArray drawElementsInstanced(@NotNull DrawMode mode, int instances)
+    {
+        return drawElementsInstanced(mode, 0L, indexCount(), instances, 0);
+    }
+    
     /**
      * Draws the array with elements in the specified mode.
      *
@@ -336,6 +577,43 @@ public class VertexArray
             return this;
         }
         
+        /**
+         * Adds a buffer whose attributes advance once per instance. Attributes
+         * that already have a divisor keep it.
+         */
+        public Builder instanceBuffer(@NotNull BufferArray buffer, Attribute @NotNull ... attributes)
+        {
+            return buffer(buffer, Builder.instanced(attributes));
+        }
+        
+        /**
+         * Adds a buffer for {@code count} instances whose attributes advance
+         * once per instance. Attributes that already have a divisor keep it.
+         */
+        public Builder instanceBuffer(@NotNull BufferUsage usage, int count, Attribute @NotNull ... attributes)
+        {
+            return buffer(usage, count, Builder.instanced(attributes));
+        }
+        
+        /**
+         * Adds a buffer whose attributes advance once per instance. Attributes
+         * that already have a divisor keep it.
+         */
+        public Builder instanceBuffer(@NotNull BufferUsage usage, @NotNull java.nio.Buffer data, Attribute @NotNull ... attributes)
+        {
+            return buffer(usage, data, Builder.instanced(attributes));
+        }
+        
+        private static Attribute @NotNull [] instanced(Attribute @NotNull [] attributes)
+        {
+            Attribute[] instanced = new Attribute[attributes.length];
+            for (int i = 0; i < attributes.length; i++)
+            {
+                instanced[i] = attributes[i].divisor() > 0 ? attributes[i] : attributes[i].instanced(1);
+            }
+            return instanced;
+        }
+        
         public Builder indexBuffer(@NotNull BufferUsage usage, int indexCount, @NotNull GLType indexType)
         {
             this.indexBuffer = new BufferElementArray(usage, indexCount, indexType);
@@ -393,6 +671,20 @@ public class VertexArray
             VertexArray.LOGGER.warning("Cannot call %s.delete", this);
         }
         
+        @Override
+        public VertexArray enableAttribute(int index)
+        {
+            VertexArray.LOGGER.warning("Cannot call %s.enableAttribute", this);
+            return this;
+        }
+        
+        @Override
+        public VertexArray disableAttribute(int index)
+        {
+            VertexArray.LOGGER.warning("Cannot call %s.disableAttribute", this);
+            return this;
+        }
+        
         @Override
         public VertexArray draw(@NotNull DrawMode mode, int offset, int count)
         {
@@ -401,10 +693,38 @@ public class VertexArray
         }
         
         @Override
-        public VertexArray drawElements(@NotNull DrawMode mode, long offset, int count)
+        public VertexArray drawElements(@NotNull DrawMode mode, long offset, int count, int baseVertex)
         {
             VertexArray.LOGGER.warning("Cannot call %s.drawElements", this);
             return this;
         }
+        
+        @Override
+        public VertexArray drawInstanced(@NotNull DrawMode mode, int offset, int count, int instances)
+        {
+            VertexArray.LOGGER.warning("Cannot call %s.drawInstanced", this);
+            return this;
+        }
+        
+        @Override
+        public VertexArray drawElementsInstanced(@NotNull DrawMode mode, long offset, int count, int instances, int baseVertex)
+        {
+            VertexArray.LOGGER.warning("Cannot call %s.drawElementsInstanced", this);
+            return this;
+        }
+        
+        @Override
+        public VertexArray drawMulti(@NotNull DrawMode mode, @NotNull IntBuffer offsets, @NotNull IntBuffer counts)
+        {
+            VertexArray.LOGGER.warning("Cannot call %s.drawMulti", this);
+            return this;
+        }
+        
+        @Override
+        public VertexArray drawElementsMulti(@NotNull DrawMode mode, @NotNull IntBuffer offsets, @NotNull IntBuffer counts, @NotNull IntBuffer baseVertices)
+        {
+            VertexArray.LOGGER.warning("Cannot call %s.drawElementsMulti", this);
+            return this;
+        }
     }
 }
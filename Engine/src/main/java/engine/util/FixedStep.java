@@ -0,0 +1,105 @@
+package engine.util;
+
+/**
+ * Turns variable frame times into a whole number of fixed-length steps.
+ * <p>
+ * Elapsed time is added to an accumulator and consumed one step at a time,
+ * so the simulation always advances by the same amount no matter how long
+ * a frame took. The leftover time is exposed as an interpolation factor
+ * for drawing between the last two steps.
+ * <p>
+ * No more than {@link #maxSteps()} steps run per frame. When that is not
+ * enough to catch up, the remaining whole steps are dropped so a slow
+ * frame cannot cause more and more steps in the frames after it.
+ */
+public class FixedStep
+{
+    private long step        = 0L;
+    private int  maxSteps    = 5;
+    private long accumulator = 0L;
+    private long dropped     = 0L;
+    
+    private boolean primed = true;
+    
+    @Override
+    public String toString()
+    {
+        return "FixedStep{" + "step=" + this.step + ", maxSteps=" + this.maxSteps + ", dropped=" + this.dropped + '}';
+    }
+    
+    /**
+     * @return The maximum number of steps run in a single frame.
+     */
+    public int maxSteps()
+    {
+        return this.maxSteps;
+    }
+    
+    public void maxSteps(int maxSteps)
+    {
+        if (maxSteps <= 0) throw new IllegalArgumentException("Invalid step count: " + maxSteps);
+        
+        this.maxSteps = maxSteps;
+    }
+    
+    /**
+     * @return The number of whole steps that were dropped because a frame
+     * fell too far behind.
+     */
+    public long dropped()
+    {
+        return this.dropped;
+    }
+    
+    /**
+     * Clears the accumulator. The next call to {@link #advance} runs one
+     * step even if no time has passed, so there is always a step before
+     * the first draw.
+     */
+    public void reset()
+    {
+        this.accumulator = 0L;
+        this.dropped     = 0L;
+        this.primed      = true;
+    }
+    
+    /**
+     * Adds the elapsed time to the accumulator.
+     *
+     * @param delta The time since the previous call.
+     * @param step  The length of a step.
+     * @return The number of steps to run.
+     */
+    public int advance(long delta, long step)
+    {
+        if (step <= 0L) throw new IllegalArgumentException("Invalid step: " + step);
+        
+        this.step = step;
+        this.accumulator += Math.max(0L, delta);
+        if (this.primed)
+        {
+            this.primed = false;
+            this.accumulator = Math.max(this.accumulator, step);
+        }
+        
+        int steps = (int) Math.min(this.accumulator / step, this.maxSteps);
+        this.accumulator -= steps * step;
+        if (this.accumulator >= step)
+        {
+            this.dropped += this.accumulator / step;
+            this.accumulator %= step;
+        }
+        return steps;
+    }
+    
+    /**
+     * @param elapsed The time since the last call to {@link #advance}.
+     * @return How far the current time is between the last step and the
+     * next, from {@code 0.0} to {@code 1.0}.
+     */
+    public double alpha(long elapsed)
+    {
+        if (this.step <= 0L) return 1.0;
+        return Math.max(0.0, Math.min((double) (this.accumulator + elapsed) / (double) this.step, 1.0));
+    }
+}
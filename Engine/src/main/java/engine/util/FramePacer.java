@@ -0,0 +1,198 @@
+package engine.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps track of when the next frame of a fixed frequency is due and waits
+ * for it without burning a whole core.
+ * <p>
+ * Deadlines advance by exactly one period so the average frequency does not
+ * drift. When a frame starts more than a whole period late, the next
+ * deadline is set one period from now. The skipped frames are counted as
+ * missed and are not caught up.
+ */
+public class FramePacer
+{
+    /**
+     * How the thread waits for the next deadline.
+     */
+    public enum Policy
+    {
+        /**
+         * Yields until the deadline. Most precise, but keeps a core busy.
+         */
+        SPIN,
+        
+        /**
+         * Parks until shortly before the deadline, then yields for the rest.
+         * The spin margin adapts to how late the OS wakes the thread.
+         */
+        HYBRID,
+        
+        /**
+         * Only parks. Uses the least CPU, but frames may start late by the
+         * scheduler's wake-up latency.
+         */
+        SLEEP,
+    }
+    
+    /**
+     * The smallest and largest spin margin used by {@link Policy#HYBRID}.
+     */
+    public static long MIN_SPIN_MARGIN = 50_000L;
+    public static long MAX_SPIN_MARGIN = 4_000_000L;
+    
+    private volatile int    frequency = 0;
+    private volatile long   period    = 0L;
+    private volatile Policy policy    = Policy.HYBRID;
+    
+    private long deadline = 0L;
+    private long last     = 0L;
+    private long missed   = 0L;
+    
+    private long margin = 1_000_000L;
+    
+    @Override
+    public String toString()
+    {
+        return "FramePacer{" + "frequency=" + this.frequency + ", policy=" + this.policy + ", missed=" + this.missed + '}';
+    }
+    
+    /**
+     * @return The target frequency in frames per second, or {@code 0} if
+     * frames run as often as possible.
+     */
+    public int frequency()
+    {
+        return this.frequency;
+    }
+    
+    public void frequency(int frequency)
+    {
+        this.frequency = Math.max(0, frequency);
+        this.period    = frequency > 0 ? 1_000_000_000L / (long) frequency : 0L;
+    }
+    
+    /**
+     * @return The time between frames in nanoseconds.
+     */
+    public long period()
+    {
+        return this.period;
+    }
+    
+    public @NotNull Policy policy()
+    {
+        return this.policy;
+    }
+    
+    public void policy(@NotNull Policy policy)
+    {
+        this.policy = policy;
+    }
+    
+    /**
+     * @return The time at which the next frame is due.
+     */
+    public long deadline()
+    {
+        return this.deadline;
+    }
+    
+    /**
+     * @return The number of frames that were skipped because a frame
+     * started more than a whole period late.
+     */
+    public long missed()
+    {
+        return this.missed;
+    }
+    
+    /**
+     * Starts pacing from the given time, making the first frame due
+     * immediately.
+     */
+    public void reset(long time)
+    {
+        this.deadline = time;
+        this.last     = time;
+        this.missed   = 0L;
+    }
+    
+    /**
+     * @return {@code true} if the next frame is due at the given time.
+     */
+    public boolean due(long time)
+    {
+        return time >= this.deadline;
+    }
+    
+    /**
+     * Marks the start of a frame and schedules the next one.
+     *
+     * @return The time since the previous frame started.
+     */
+    public long advance(long time)
+    {
+        long delta = time - this.last;
+        this.last = time;
+        
+        long period = this.period;
+        if (period <= 0L)
+        {
+            this.deadline = time;
+        }
+        else if (time - this.deadline >= period)
+        {
+            this.missed += (time - this.deadline) / period;
+            this.deadline = time + period;
+        }
+        else
+        {
+            this.deadline += period;
+        }
+        return delta;
+    }
+    
+    /**
+     * Waits for the given number of nanoseconds using the current
+     * {@link Policy}.
+     */
+    public void sleep(long nanos)
+    {
+        if (nanos <= 0L) return;
+        
+        long end = System.nanoTime() + nanos;
+        switch (this.policy)
+        {
+            case SPIN -> spin(end);
+            case HYBRID ->
+            {
+                long park = nanos - this.margin;
+                if (park > 0L)
+                {
+                    long start = System.nanoTime();
+                    LockSupport.parkNanos(park);
+                    long late = System.nanoTime() - start - park;
+                    
+                    // Jump up to a late wake-up straight away, but only creep back down
+                    long margin = Math.max(late + (late >> 2), this.margin - (this.margin >> 6));
+                    this.margin = Math.max(FramePacer.MIN_SPIN_MARGIN, Math.min(margin, FramePacer.MAX_SPIN_MARGIN));
+                }
+                spin(end);
+            }
+            case SLEEP ->
+            {
+                long remaining;
+                while ((remaining = end - System.nanoTime()) > 0L) LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+    
+    private static void spin(long end)
+    {
+        while (end - System.nanoTime() > 0L) Thread.yield();
+    }
+}
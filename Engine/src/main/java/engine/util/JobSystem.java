@@ -0,0 +1,528 @@
+package engine.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs small jobs on a fixed set of worker threads.
+ * <p>
+ * Each thread that uses the system has its own deque. It pushes and pops
+ * jobs at one end, and idle workers steal from the other end of any
+ * thread's deque. A job can depend on other jobs and only starts once they
+ * are finished. It can also have children, and is only finished once they
+ * are. {@link #waitFor(Job)} runs other jobs while it waits, so waiting
+ * never leaves a core idle and never deadlocks on a job in the waiting
+ * thread's own deque.
+ * <p>
+ * Job handles come from a pool owned by the thread that created them, or
+ * by the job that was running when they were created. {@link #endFrame()}
+ * waits for the thread's jobs and then reuses every handle in its pool,
+ * so handles must not be kept past the end of the frame they were created
+ * in.
+ */
+public class JobSystem
+{
+    private static final Logger LOGGER = Logger.getLogger();
+    
+    private static final Logger.Limiter JOB_LIMITER = Logger.Limiter.perSecond(5);
+    
+    /**
+     * The number of handles each thread can create per frame before new
+     * ones are allocated on the heap.
+     */
+    public static int POOL_SIZE = 4096;
+    
+    /**
+     * The number of jobs each thread's deque can hold. Jobs pushed to a
+     * full deque run immediately on the pushing thread.
+     */
+    public static int DEQUE_SIZE = 4096;
+    
+    /**
+     * The number of times an idle worker looks for work before parking.
+     */
+    public static int IDLE_SPINS = 64;
+    
+    private final Thread[]      workers;
+    private final Context[]     workerContexts;
+    private final AtomicInteger sleeping = new AtomicInteger();
+    
+    private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(this::register);
+    
+    private volatile Deque[] deques  = new Deque[0];
+    private volatile boolean running = true;
+    
+    /**
+     * Starts the given number of worker threads.
+     */
+    public JobSystem(int workers)
+    {
+        if (workers <= 0) throw new IllegalArgumentException("Invalid worker count: " + workers);
+        
+        this.workers        = new Thread[workers];
+        this.workerContexts = new Context[workers];
+        for (int i = 0; i < workers; i++)
+        {
+            int index = i;
+            this.workers[i] = new Thread(() -> workerThread(index), "job-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "JobSystem{" + "workers=" + this.workers.length + ", running=" + this.running + '}';
+    }
+    
+    /**
+     * @return The number of worker threads.
+     */
+    public int workers()
+    {
+        return this.workers.length;
+    }
+    
+    /**
+     * Stops the workers once their current jobs are done. Jobs still
+     * waiting in a deque are not run.
+     */
+    public void shutdown() throws InterruptedException
+    {
+        this.running = false;
+        for (Thread worker : this.workers) LockSupport.unpark(worker);
+        for (Thread worker : this.workers) worker.join();
+    }
+    
+    // -------------------- Jobs -------------------- //
+    
+    /**
+     * Creates a job without scheduling it, so that dependencies can be
+     * added with {@link Job#after(Job)} first.
+     */
+    public @NotNull Job create(@NotNull Runnable task)
+    {
+        return create(task, null, 0, 0, null);
+    }
+    
+    /**
+     * Creates a job without scheduling it. The parent is not finished until
+     * this job is, and must not be finished yet.
+     */
+    public @NotNull Job create(@NotNull Runnable task, @Nullable Job parent)
+    {
+        return create(task, null, 0, 0, parent);
+    }
+    
+    /**
+     * Creates and schedules a job.
+     */
+    public @NotNull Job run(@NotNull Runnable task)
+    {
+        Job job = create(task, null, 0, 0, null);
+        schedule(job);
+        return job;
+    }
+    
+    /**
+     * Calls the body for every index from {@code 0} to {@code count - 1},
+     * split into jobs of at most {@code batch} indices.
+     *
+     * @return The scheduled job that finishes once every index is done.
+     */
+    public @NotNull Job forEach(int count, int batch, @NotNull IntConsumer body)
+    {
+        if (batch <= 0) throw new IllegalArgumentException("Invalid batch size: " + batch);
+        
+        Job root = create(null, null, 0, 0, null);
+        for (int from = 0; from < count; from += batch)
+        {
+            schedule(create(null, body, from, Math.min(from + batch, count), root));
+        }
+        schedule(root);
+        return root;
+    }
+    
+    /**
+     * Makes the job available to the workers once all of its dependencies
+     * are finished. Must be called exactly once for every created job.
+     */
+    public void schedule(@NotNull Job job)
+    {
+        if (job.scheduled) throw new IllegalStateException("Job was already scheduled: " + job);
+        job.scheduled = true;
+        
+        job.pool.outstanding.incrementAndGet();
+        release(job);
+    }
+    
+    /**
+     * Runs other jobs until the given one is finished.
+     */
+    public void waitFor(@NotNull Job job)
+    {
+        Context context = this.contexts.get();
+        while (!job.done())
+        {
+            if (!help(context)) Thread.yield();
+        }
+    }
+    
+    /**
+     * Waits for every job created by the calling thread this frame, then
+     * makes their handles available again. The engine calls this after
+     * every update and draw.
+     */
+    public void endFrame()
+    {
+        Context context = this.contexts.get();
+        while (context.pool.outstanding.get() > 0)
+        {
+            if (!help(context)) Thread.yield();
+        }
+        context.pool.next.set(0);
+    }
+    
+    private @NotNull Job create(Runnable task, IntConsumer body, int from, int to, Job parent)
+    {
+        // Children belong to the same frame as the job creating them
+        Context context = this.contexts.get();
+        Pool    pool    = context.current != null ? context.current.pool : context.pool;
+        
+        Job job = pool.next();
+        job.task   = task;
+        job.body   = body;
+        job.from   = from;
+        job.to     = to;
+        job.parent = parent;
+        if (parent != null) parent.unfinished.incrementAndGet();
+        return job;
+    }
+    
+    private void release(@NotNull Job job)
+    {
+        if (job.dependencies.decrementAndGet() != 0) return;
+        
+        Context context = this.contexts.get();
+        if (!context.deque.push(job))
+        {
+            execute(context, job);
+            return;
+        }
+        if (this.sleeping.get() > 0)
+        {
+            for (Context worker : this.workerContexts)
+            {
+                if (worker != null && worker.parked)
+                {
+                    LockSupport.unpark(worker.thread);
+                    break;
+                }
+            }
+        }
+    }
+    
+    private void execute(@NotNull Context context, @NotNull Job job)
+    {
+        Job previous = context.current;
+        context.current = job;
+        try
+        {
+            if (job.task != null) job.task.run();
+            if (job.body != null) for (int i = job.from; i < job.to; i++) job.body.accept(i);
+        }
+        catch (Throwable e)
+        {
+            JobSystem.LOGGER.log(JobSystem.JOB_LIMITER, Logger.Level.SEVERE, "An exception occurred while running a job.", e);
+        }
+        finally
+        {
+            context.current = previous;
+        }
+        finish(job);
+    }
+    
+    private void finish(@NotNull Job job)
+    {
+        while (job != null && job.unfinished.decrementAndGet() == 0)
+        {
+            int count = job.count.getAndSet(Job.CLOSED);
+            for (int i = 0; i < count; i++)
+            {
+                Job next;
+                while ((next = job.continuations.get(i)) == null) Thread.onSpinWait();
+                job.continuations.set(i, null);
+                release(next);
+            }
+            
+            Job parent = job.parent;
+            job.pool.outstanding.decrementAndGet();
+            job = parent;
+        }
+    }
+    
+    /**
+     * Runs one job from the thread's own deque, or one stolen from another.
+     *
+     * @return {@code false} if there was nothing to run.
+     */
+    private boolean help(@NotNull Context context)
+    {
+        Job job = context.deque.pop();
+        if (job == null)
+        {
+            Deque[] deques = this.deques;
+            
+            int seed = context.seed;
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            context.seed = seed;
+            
+            for (int i = 0, n = deques.length, start = (seed & 0x7FFFFFFF) % Math.max(n, 1); i < n && job == null; i++)
+            {
+                Deque deque = deques[(start + i) % n];
+                if (deque != context.deque) job = deque.steal();
+            }
+        }
+        if (job == null) return false;
+        
+        execute(context, job);
+        return true;
+    }
+    
+    private void workerThread(int index)
+    {
+        Context context = this.contexts.get();
+        this.workerContexts[index] = context;
+        
+        int idle = 0;
+        while (this.running)
+        {
+            if (help(context))
+            {
+                idle = 0;
+            }
+            else if (++idle < JobSystem.IDLE_SPINS)
+            {
+                Thread.onSpinWait();
+            }
+            else
+            {
+                context.parked = true;
+                this.sleeping.incrementAndGet();
+                
+                // Look once more after announcing, so a job pushed in between is not missed
+                if (!help(context)) LockSupport.park(this);
+                
+                this.sleeping.decrementAndGet();
+                context.parked = false;
+                idle = 0;
+            }
+        }
+    }
+    
+    private synchronized @NotNull Context register()
+    {
+        Context context = new Context();
+        
+        Deque[] deques = Arrays.copyOf(this.deques, this.deques.length + 1);
+        deques[deques.length - 1] = context.deque;
+        this.deques = deques;
+        
+        return context;
+    }
+    
+    // -------------------- Sub-Classes -------------------- //
+    
+    /**
+     * A handle to a unit of work. Only valid until the end of the frame it
+     * was created in.
+     */
+    public static final class Job
+    {
+        private static final int CLOSED        = -1;
+        private static final int CONTINUATIONS = 16;
+        
+        private final Pool pool;
+        
+        private Runnable    task;
+        private IntConsumer body;
+        private int         from, to;
+        private Job         parent;
+        private boolean     scheduled;
+        
+        private final AtomicInteger unfinished   = new AtomicInteger();
+        private final AtomicInteger dependencies = new AtomicInteger();
+        private final AtomicInteger count        = new AtomicInteger();
+        
+        private final AtomicReferenceArray<Job> continuations = new AtomicReferenceArray<>(Job.CONTINUATIONS);
+        
+        private Job(@NotNull Pool pool)
+        {
+            this.pool = pool;
+        }
+        
+        @Override
+        public String toString()
+        {
+            return "Job{" + "done=" + done() + ", dependencies=" + this.dependencies.get() + '}';
+        }
+        
+        private void reset()
+        {
+            this.task      = null;
+            this.body      = null;
+            this.parent    = null;
+            this.scheduled = false;
+            
+            // Both start at one, released when finished or scheduled
+            this.unfinished.set(1);
+            this.dependencies.set(1);
+            
+            for (int i = 0, n = Math.max(this.count.get(), 0); i < n; i++) this.continuations.set(i, null);
+            this.count.set(0);
+        }
+        
+        /**
+         * @return {@code true} once the job and all of its children have run.
+         */
+        public boolean done()
+        {
+            return this.unfinished.get() == 0;
+        }
+        
+        /**
+         * Makes this job wait for another one. Must be called before this
+         * job is scheduled.
+         *
+         * @return This job.
+         */
+        public @NotNull Job after(@NotNull Job dependency)
+        {
+            if (this.scheduled) throw new IllegalStateException("Job was already scheduled: " + this);
+            
+            this.dependencies.incrementAndGet();
+            while (true)
+            {
+                int count = dependency.count.get();
+                if (count == Job.CLOSED)
+                {
+                    // Already finished
+                    this.dependencies.decrementAndGet();
+                    return this;
+                }
+                if (count >= Job.CONTINUATIONS) throw new IllegalStateException("Too many jobs depend on " + dependency);
+                if (dependency.count.compareAndSet(count, count + 1))
+                {
+                    dependency.continuations.set(count, this);
+                    return this;
+                }
+            }
+        }
+    }
+    
+    private static final class Pool
+    {
+        private final Job[] jobs = new Job[JobSystem.POOL_SIZE];
+        
+        private final AtomicInteger next        = new AtomicInteger();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        
+        private Pool()
+        {
+            for (int i = 0; i < this.jobs.length; i++) this.jobs[i] = new Job(this);
+        }
+        
+        private @NotNull Job next()
+        {
+            int index = this.next.getAndIncrement();
+            
+            Job job = index < this.jobs.length ? this.jobs[index] : new Job(this);
+            job.reset();
+            return job;
+        }
+    }
+    
+    private static final class Context
+    {
+        private final Deque deque = new Deque(JobSystem.DEQUE_SIZE);
+        private final Pool  pool  = new Pool();
+        
+        private final Thread thread = Thread.currentThread();
+        
+        private          Job     current;
+        private          int     seed   = (int) System.nanoTime() | 1;
+        private volatile boolean parked = false;
+    }
+    
+    /**
+     * A Chase-Lev deque. The owning thread pushes and pops at the bottom,
+     * any other thread steals from the top.
+     */
+    private static final class Deque
+    {
+        private final AtomicReferenceArray<Job> jobs;
+        private final int                       mask;
+        
+        private final    AtomicLong top    = new AtomicLong();
+        private volatile long       bottom = 0L;
+        
+        private Deque(int capacity)
+        {
+            int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+            
+            this.jobs = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+        
+        private boolean push(@NotNull Job job)
+        {
+            long bottom = this.bottom;
+            if (bottom - this.top.get() > this.mask) return false;
+            
+            this.jobs.set((int) bottom & this.mask, job);
+            this.bottom = bottom + 1;
+            return true;
+        }
+        
+        private @Nullable Job pop()
+        {
+            long bottom = this.bottom - 1;
+            this.bottom = bottom;
+            
+            long top = this.top.get();
+            if (top > bottom)
+            {
+                this.bottom = bottom + 1;
+                return null;
+            }
+            
+            Job job = this.jobs.get((int) bottom & this.mask);
+            if (top == bottom)
+            {
+                // Last job, race the thieves for it
+                if (!this.top.compareAndSet(top, top + 1)) job = null;
+                this.bottom = bottom + 1;
+            }
+            return job;
+        }
+        
+        private @Nullable Job steal()
+        {
+            long top = this.top.get();
+            if (top >= this.bottom) return null;
+            
+            Job job = this.jobs.get((int) top & this.mask);
+            return this.top.compareAndSet(top, top + 1) ? job : null;
+        }
+    }
+}
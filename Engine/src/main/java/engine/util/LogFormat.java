@@ -0,0 +1,252 @@
+package engine.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.List;
+import java.util.MissingFormatArgumentException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link java.util.Formatter} string that has been split into segments
+ * once so that it can be applied many times without parsing it again.
+ * <p>
+ * Plain {@code %s}, {@code %n}, {@code %%} and the numeric date and time
+ * conversions used by {@link Logger#PREFIX_FORMAT} are appended directly.
+ * Every other specifier is handed to {@link String#format} on its own, so
+ * the output is always the same as formatting the whole string.
+ */
+final class LogFormat
+{
+    private static final Pattern PATTERN = Pattern.compile("%(\\d+\\$|<)?([-#+ 0,(]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])"); // Taken from java.lang.Formatter
+    
+    /**
+     * The number of format strings that are remembered. Messages built at
+     * runtime could otherwise grow the cache forever.
+     */
+    private static final int CACHE_SIZE = 1024;
+    
+    private static final ConcurrentHashMap<String, LogFormat> CACHE = new ConcurrentHashMap<>();
+    
+    private static final int LITERAL = 0;
+    private static final int STRING  = 1;
+    private static final int TIME    = 2;
+    private static final int OTHER   = 3;
+    
+    /**
+     * @return The compiled format, from the cache if it was seen before.
+     */
+    static @NotNull LogFormat get(@NotNull String format)
+    {
+        LogFormat compiled = LogFormat.CACHE.get(format);
+        if (compiled != null) return compiled;
+        
+        compiled = new LogFormat(format);
+        if (LogFormat.CACHE.size() < LogFormat.CACHE_SIZE) LogFormat.CACHE.putIfAbsent(format, compiled);
+        return compiled;
+    }
+    
+    // -------------------- Instance -------------------- //
+    
+    final String format;
+    
+    /**
+     * {@code true} if the string contains any format specifiers.
+     */
+    final boolean specifiers;
+    
+    private final int[]    kinds;
+    private final int[]    args;
+    private final String[] texts;
+    
+    private LogFormat(@NotNull String format)
+    {
+        this.format = format;
+        
+        List<Integer> kinds = new ArrayList<>();
+        List<Integer> args  = new ArrayList<>();
+        List<String>  texts = new ArrayList<>();
+        
+        boolean specifiers = false;
+        
+        Matcher matcher = LogFormat.PATTERN.matcher(format);
+        int     last    = 0, ordinary = 0, previous = -1;
+        while (matcher.find())
+        {
+            specifiers = true;
+            if (matcher.start() > last)
+            {
+                kinds.add(LogFormat.LITERAL);
+                args.add(-1);
+                texts.add(format.substring(last, matcher.start()));
+            }
+            last = matcher.end();
+            
+            String index     = matcher.group(1);
+            String flags     = matcher.group(2);
+            String width     = matcher.group(3);
+            String precision = matcher.group(4);
+            String time      = matcher.group(5);
+            char   conv      = matcher.group(6).charAt(0);
+            
+            if (conv == '%' || conv == 'n')
+            {
+                kinds.add(LogFormat.LITERAL);
+                args.add(-1);
+                texts.add(conv == '%' ? "%" : System.lineSeparator());
+                continue;
+            }
+            
+            int arg;
+            if (index == null)
+            {
+                arg = ordinary++;
+            }
+            else if (index.equals("<"))
+            {
+                arg = previous;
+            }
+            else
+            {
+                arg = Integer.parseInt(index.substring(0, index.length() - 1)) - 1;
+            }
+            previous = arg;
+            
+            boolean plain = (flags == null || flags.isEmpty()) && width == null && precision == null;
+            if (plain && time == null && conv == 's')
+            {
+                kinds.add(LogFormat.STRING);
+                texts.add(null);
+            }
+            else if (plain && time != null && time.equals("t") && "YmdHMSL".indexOf(conv) >= 0)
+            {
+                kinds.add(LogFormat.TIME);
+                texts.add(String.valueOf(conv));
+            }
+            else
+            {
+                // Keep everything but the argument index, the argument is passed on its own
+                kinds.add(LogFormat.OTHER);
+                texts.add('%' + (flags != null ? flags : "") + (width != null ? width : "") + (precision != null ? precision : "") + (time != null ? time : "") + conv);
+            }
+            args.add(arg);
+        }
+        if (last < format.length())
+        {
+            kinds.add(LogFormat.LITERAL);
+            args.add(-1);
+            texts.add(format.substring(last));
+        }
+        
+        this.kinds = kinds.stream().mapToInt(Integer::intValue).toArray();
+        this.args  = args.stream().mapToInt(Integer::intValue).toArray();
+        this.texts = texts.toArray(String[]::new);
+        
+        this.specifiers = specifiers;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "LogFormat{" + this.format + '}';
+    }
+    
+    /**
+     * Appends the format applied to the arguments.
+     */
+    void format(@NotNull StringBuilder builder, Object @NotNull ... args)
+    {
+        format(builder, args, args.length, null, null, null, null);
+    }
+    
+    /**
+     * Appends the format applied to up to four arguments without creating
+     * an array.
+     */
+    void format(@NotNull StringBuilder builder, int count, Object arg0, Object arg1, Object arg2, Object arg3)
+    {
+        format(builder, null, count, arg0, arg1, arg2, arg3);
+    }
+    
+    private void format(StringBuilder builder, Object[] array, int count, Object arg0, Object arg1, Object arg2, Object arg3)
+    {
+        for (int i = 0, n = this.kinds.length; i < n; i++)
+        {
+            int kind = this.kinds[i];
+            if (kind == LogFormat.LITERAL)
+            {
+                builder.append(this.texts[i]);
+                continue;
+            }
+            
+            int index = this.args[i];
+            if (index < 0 || index >= count) throw new MissingFormatArgumentException(this.texts[i] != null ? this.texts[i] : "%s");
+            
+            Object arg = array != null ? array[index] : switch (index)
+                    {
+                        case 0 -> arg0;
+                        case 1 -> arg1;
+                        case 2 -> arg2;
+                        default -> arg3;
+                    };
+            switch (kind)
+            {
+                case LogFormat.STRING ->
+                {
+                    if (arg instanceof Formattable)
+                    {
+                        builder.append(String.format("%s", arg));
+                    }
+                    else
+                    {
+                        builder.append(arg);
+                    }
+                }
+                case LogFormat.TIME ->
+                {
+                    if (arg instanceof ZonedDateTime time)
+                    {
+                        time(builder, time, this.texts[i].charAt(0));
+                    }
+                    else
+                    {
+                        builder.append(String.format("%t" + this.texts[i], arg));
+                    }
+                }
+                default -> builder.append(String.format(this.texts[i], arg));
+            }
+        }
+    }
+    
+    private static void time(@NotNull StringBuilder builder, @NotNull ZonedDateTime time, char conv)
+    {
+        switch (conv)
+        {
+            case 'Y' -> pad(builder, time.getYear(), 4);
+            case 'm' -> pad(builder, time.getMonthValue(), 2);
+            case 'd' -> pad(builder, time.getDayOfMonth(), 2);
+            case 'H' -> pad(builder, time.getHour(), 2);
+            case 'M' -> pad(builder, time.getMinute(), 2);
+            case 'S' -> pad(builder, time.getSecond(), 2);
+            case 'L' -> pad(builder, time.getNano() / 1_000_000, 3);
+        }
+    }
+    
+    private static void pad(@NotNull StringBuilder builder, int value, int digits)
+    {
+        if (value < 0)
+        {
+            builder.append(value);
+            return;
+        }
+        for (int limit = 10, i = 1; i < digits; i++, limit *= 10)
+        {
+            if (value < limit) builder.append('0');
+        }
+        builder.append(value);
+    }
+}
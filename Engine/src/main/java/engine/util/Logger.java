@@ -3,51 +3,306 @@ package engine.util;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
-import java.util.regex.Pattern;
 
 public class Logger
 {
-    private static final Map<String, Logger> LOGGER_MAP = new HashMap<>();
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    
+    private static final Map<String, Logger> LOGGER_MAP = new ConcurrentHashMap<>();
+    
+    /**
+     * Levels set by name. Guards every change to a logger's threshold.
+     */
+    private static final Map<String, Level> LEVELS = new ConcurrentHashMap<>();
     
-    public static @NotNull  Level  LEVEL          = Level.INFO;
     public static @Nullable Filter FILTER         = null;
     public static @NotNull  String PREFIX_FORMAT  = "[%1$tY-%1$tm-%1$td %1$tH:%1$tM:%1$tS.%1$tL] [%2$s/%3$s] [%4$s]";
     public static @NotNull  String MESSAGE_FORMAT = "%s: %s%n";
     
-    private static final Pattern LINE_SPLIT = Pattern.compile("(\\n|\\n\\r|\\r\\n)");
+    private static final Writer CONSOLE_WRITER = new OutputStreamWriter(System.out);
+    
+    /**
+     * Writes colored text to {@link System#out}.
+     */
+    public static final Sink CONSOLE = new ConsoleSink();
+    
+    /**
+     * Where records are written, unless a logger has its own
+     * {@link #sinks}.
+     */
+    public static final List<Sink> SINKS = new CopyOnWriteArrayList<>(List.of(Logger.CONSOLE));
+    
+    /**
+     * Held while writing to sinks, so sinks do not need to be thread safe.
+     */
+    private static final Object    LOCK  = new Object();
+    private static final Set<Sink> DIRTY = Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    private static final ThreadLocal<Cache> CACHE = ThreadLocal.withInitial(Cache::new);
+    
+    /**
+     * Limiters that have suppressed records since they last let one through.
+     */
+    private static final Set<Limiter> LIMITERS = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * How often records written by the async writer are flushed, in
+     * milliseconds.
+     */
+    public static long ASYNC_FLUSH_INTERVAL = 100;
+    
+    /**
+     * With {@link Overflow#SAMPLE}, one in this many records below
+     * {@link Level#WARNING} is kept once the ring is half full.
+     */
+    public static int ASYNC_SAMPLE_RATE = 16;
+    
+    private static @NotNull Level globalLevel = Level.INFO;
     
-    private static final Writer CONSOLE = new OutputStreamWriter(System.out);
+    private static volatile @Nullable Async async = null;
     
+    private static boolean asyncHook = false;
+    
+    private static final Logger LOGGER = Logger.getLogger();
+    
+    /**
+     * @return The logger named after the class that called this method.
+     */
     public static Logger getLogger()
     {
-        StackTraceElement[] elements = Thread.currentThread().getStackTrace();
+        return getLogger(Logger.STACK_WALKER.getCallerClass().getName());
+    }
+    
+    /**
+     * @return The logger named after the class.
+     */
+    public static Logger getLogger(@NotNull Class<?> clazz)
+    {
+        return getLogger(clazz.getName());
+    }
+    
+    /**
+     * @return The logger with the name, which is created the first time it
+     * is asked for. Safe to call from any thread.
+     */
+    public static Logger getLogger(@NotNull String name)
+    {
+        Logger logger = Logger.LOGGER_MAP.get(name);
+        if (logger != null) return logger;
+        
+        // Creation takes the same lock as level changes so a new logger cannot miss one
+        synchronized (Logger.LEVELS)
+        {
+            return Logger.LOGGER_MAP.computeIfAbsent(name, Logger::new);
+        }
+    }
+    
+    /**
+     * @return The level used by loggers that have no level of their own and
+     * no parent with one.
+     */
+    public static @NotNull Level globalLevel()
+    {
+        return Logger.globalLevel;
+    }
+    
+    /**
+     * Sets the level used by loggers that have no level of their own and no
+     * parent with one.
+     */
+    public static void globalLevel(@NotNull Level level)
+    {
+        synchronized (Logger.LEVELS)
+        {
+            Logger.globalLevel = level;
+            for (Logger logger : Logger.LOGGER_MAP.values()) logger.updateThreshold();
+        }
+    }
+    
+    /**
+     * @return The level set for the name, or {@code null} if there is none.
+     */
+    public static @Nullable Level packageLevel(@NotNull String name)
+    {
+        return Logger.LEVELS.get(name);
+    }
+    
+    /**
+     * Sets the level of every logger whose name is the given name or starts
+     * with it followed by {@code .} or {@code $}, such as every class in a
+     * package, unless a closer name or the logger itself has a level. Names
+     * that have no logger yet are remembered for when they are created.
+     *
+     * @param name  The package, class or logger name.
+     * @param level The level, or {@code null} to remove it.
+     */
+    public static void packageLevel(@NotNull String name, @Nullable Level level)
+    {
+        synchronized (Logger.LEVELS)
+        {
+            if (level != null)
+            {
+                Logger.LEVELS.put(name, level);
+            }
+            else
+            {
+                Logger.LEVELS.remove(name);
+            }
+            for (Logger logger : Logger.LOGGER_MAP.values())
+            {
+                if (logger.name.startsWith(name)) logger.updateThreshold();
+            }
+        }
+    }
+    
+    /**
+     * Sets levels from a comma separated list of {@code name=LEVEL} pairs,
+     * such as {@code "engine.gl=DEBUG,engine.util.Logger=TRACE"}. The name
+     * {@code *} sets the global level and {@code name=} removes the level
+     * of a name. Meant for changing levels from a console or a system
+     * property while running.
+     *
+     * @throws IllegalArgumentException if a pair or level is not valid.
+     */
+    public static void packageLevels(@NotNull String levels)
+    {
+        for (String pair : levels.split(","))
+        {
+            pair = pair.strip();
+            if (pair.isEmpty()) continue;
+            
+            int index = pair.indexOf('=');
+            if (index < 0) throw new IllegalArgumentException("Expected name=LEVEL: " + pair);
+            
+            String name  = pair.substring(0, index).strip();
+            String value = pair.substring(index + 1).strip();
+            Level  level = value.isEmpty() ? null : Level.valueOf(value.toUpperCase(Locale.ROOT));
+            if (name.equals("*"))
+            {
+                if (level == null) throw new IllegalArgumentException("The global level cannot be removed");
+                globalLevel(level);
+            }
+            else
+            {
+                packageLevel(name, level);
+            }
+        }
+    }
+    
+    /**
+     * Moves formatting and writing off the calling thread. Records are
+     * placed into a ring of the given capacity and written in batches by a
+     * background thread, which flushes every {@link #ASYNC_FLUSH_INTERVAL}
+     * milliseconds or when it runs out of records.
+     * <p>
+     * The format string and arguments are queued as they are and formatted
+     * by the background thread when every argument is a string, boxed
+     * primitive, enum or throwable. Any other argument could change after
+     * the call, so those records are formatted by the caller.
+     *
+     * @param capacity The number of records that can be waiting.
+     * @param overflow What to do with records when the ring is full.
+     */
+    public static synchronized void startAsync(int capacity, @NotNull Overflow overflow)
+    {
+        stopAsync();
+        
+        Async async = new Async(capacity, overflow);
+        async.thread.start();
+        Logger.async = async;
         
-        String name = elements.length > 2 ? elements[2].getClassName() : "";
+        if (!Logger.asyncHook)
+        {
+            Logger.asyncHook = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(Logger::stopAsync, "Logger-Shutdown"));
+        }
+    }
+    
+    /**
+     * Writes all waiting records and returns to writing on the calling
+     * thread.
+     */
+    public static synchronized void stopAsync()
+    {
+        reportSuppressed();
+        
+        Async async = Logger.async;
+        if (async == null) return;
         
-        return Logger.LOGGER_MAP.computeIfAbsent(name, Logger::new);
+        Logger.async = null;
+        async.stop();
+    }
+    
+    /**
+     * Logs how many records each {@link Limiter} has suppressed since it
+     * last let one through, so a burst that ends in silence is still
+     * counted. Called by {@link #stopAsync()}, and worth calling before the
+     * program exits.
+     */
+    public static void reportSuppressed()
+    {
+        for (Iterator<Limiter> iterator = Logger.LIMITERS.iterator(); iterator.hasNext(); )
+        {
+            Limiter limiter = iterator.next();
+            iterator.remove();
+            
+            long suppressed = limiter.suppressed.getAndSet(0);
+            if (suppressed <= 0) continue;
+            
+            Logger logger  = limiter.logger;
+            String message = suppressed + (suppressed == 1 ? " similar message suppressed" : " similar messages suppressed");
+            if (limiter.message != null) message += ": " + limiter.message;
+            logger.logImpl(new Record(logger, limiter.level, message));
+        }
+    }
+    
+    /**
+     * @return The number of records the async writer has dropped since it
+     * was started.
+     */
+    public static long droppedRecords()
+    {
+        Async async = Logger.async;
+        return async != null ? async.dropped.get() : 0;
     }
     
     // -------------------- Instance -------------------- //
     
     public final String name;
     
-    public @Nullable Level  level         = null;
-    public @Nullable Filter filter        = null;
-    public @Nullable String prefixFormat  = null;
-    public @Nullable String messageFormat = null;
+    private @Nullable Level level = null;
+    
+    /**
+     * The lowest {@link Level#value} that is logged, cached so that checking
+     * a disabled level is a single comparison.
+     */
+    private volatile int threshold;
+    
+    public @Nullable Filter     filter        = null;
+    public @Nullable List<Sink> sinks         = null;
+    public @Nullable String     prefixFormat  = null;
+    public @Nullable String     messageFormat = null;
     
     private Logger(String name)
     {
         this.name = name;
+        
+        updateThreshold();
     }
     
     @Override
@@ -56,12 +311,60 @@ public class Logger
         return "Logger{" + this.name + '}';
     }
     
+    /**
+     * @return The level set on this logger, or {@code null} if it inherits
+     * one.
+     */
+    public @Nullable Level level()
+    {
+        return this.level;
+    }
+    
+    /**
+     * @return The level this logger logs at or above. This is its own
+     * level, else the level of the closest parent name, else the global
+     * level.
+     */
+    public @NotNull Level effectiveLevel()
+    {
+        if (this.level != null) return this.level;
+        
+        String name = this.name;
+        while (true)
+        {
+            Level level = Logger.LEVELS.get(name);
+            if (level != null) return level;
+            
+            int index = Math.max(name.lastIndexOf('.'), name.lastIndexOf('$'));
+            if (index < 0) return Logger.globalLevel;
+            name = name.substring(0, index);
+        }
+    }
+    
+    /**
+     * Sets the level of this logger, which takes precedence over the
+     * levels of its parents and the global level.
+     *
+     * @param level The level, or {@code null} to inherit one.
+     */
+    public void level(@Nullable Level level)
+    {
+        synchronized (Logger.LEVELS)
+        {
+            this.level = level;
+            updateThreshold();
+        }
+    }
+    
+    private void updateThreshold()
+    {
+        this.threshold = effectiveLevel().value;
+    }
+    
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     public boolean isLoggable(@NotNull Level level)
     {
-        int logLevel = Logger.LEVEL.value;
-        if (this.level != null) logLevel = Math.max(logLevel, this.level.value);
-        return level.value >= logLevel;
+        return level.value >= this.threshold;
     }
     
     private void logImpl(@NotNull Record record)
@@ -69,46 +372,101 @@ public class Logger
         if (this.filter != null && !this.filter.isLoggable(record)) return;
         if (Logger.FILTER != null && !Logger.FILTER.isLoggable(record)) return;
         
-        try
+        Async async = Logger.async;
+        if (async != null && async.offer(record)) return;
+        
+        synchronized (Logger.LOCK)
         {
-            ZonedDateTime zdt    = ZonedDateTime.ofInstant(record.instant, ZoneId.systemDefault());
-            String        thread = record.thread;
-            Level         level  = record.level;
-            String        name   = record.logger;
-            
-            String prefixFmt  = this.prefixFormat != null ? this.prefixFormat : Logger.PREFIX_FORMAT;
-            String messageFmt = this.messageFormat != null ? this.messageFormat : Logger.MESSAGE_FORMAT;
-            
-            String messagePrefix = String.format(prefixFmt, zdt, thread, level, name);
-            
-            List<String> lines = new ArrayList<>();
-            for (String line : Logger.LINE_SPLIT.split(record.message))
+            write(record);
+            flush();
+        }
+    }
+    
+    /**
+     * Writes the record to its sinks without flushing.
+     */
+    private static void write(@NotNull Record record)
+    {
+        List<Sink> sinks = record.source.sinks != null ? record.source.sinks : Logger.SINKS;
+        for (Sink sink : sinks)
+        {
+            try
             {
-                lines.add(String.format(messageFmt, messagePrefix, line));
+                sink.write(record);
             }
-            
-            String linePrefix = null;
-            String lineSuffix = null;
-            if (record.level.value >= Level.SEVERE.value)
+            catch (Exception ignored) {}
+            Logger.DIRTY.add(sink);
+        }
+    }
+    
+    /**
+     * Flushes every sink that was written to since the last flush.
+     */
+    private static void flush()
+    {
+        for (Sink sink : Logger.DIRTY)
+        {
+            try
             {
-                linePrefix = Logger.RED;
-                lineSuffix = Logger.RESET;
+                sink.flush();
             }
-            else if (record.level.value >= Level.WARNING.value)
+            catch (Exception ignored) {}
+        }
+        Logger.DIRTY.clear();
+    }
+    
+    /**
+     * Appends the record as text, one line per line of the message, using
+     * the prefix and message formats of the logger that created it.
+     *
+     * @param linePrefix Text written before every line, or {@code null}.
+     * @param lineSuffix Text written after every line, or {@code null}.
+     */
+    public static void format(@NotNull Record record, @NotNull StringBuilder builder, @Nullable String linePrefix, @Nullable String lineSuffix)
+    {
+        Logger    source        = record.source;
+        LogFormat prefixFormat  = LogFormat.get(source.prefixFormat != null ? source.prefixFormat : Logger.PREFIX_FORMAT);
+        LogFormat messageFormat = LogFormat.get(source.messageFormat != null ? source.messageFormat : Logger.MESSAGE_FORMAT);
+        
+        String prefix = Logger.CACHE.get().prefix(record, prefixFormat);
+        
+        // Same lines as splitting on \n and \r\n, which drops trailing empty lines
+        String message = record.message();
+        int    length  = message.length();
+        int    limit   = length;
+        while (limit > 0 && message.charAt(limit - 1) == '\n')
+        {
+            limit--;
+            if (limit > 0 && message.charAt(limit - 1) == '\r') limit--;
+        }
+        if (length > 0 && limit == 0) return;
+        
+        for (int start = 0, i = 0; i <= limit; i++)
+        {
+            int separator = 0;
+            if (i == limit)
             {
-                linePrefix = Logger.YELLOW;
-                lineSuffix = Logger.RESET;
+                separator = 1;
+            }
+            else if (message.charAt(i) == '\n')
+            {
+                separator = 1;
             }
-            for (String line : lines)
+            else if (message.charAt(i) == '\r' && i + 1 < limit && message.charAt(i + 1) == '\n')
             {
-                if (linePrefix != null) Logger.CONSOLE.write(linePrefix);
-                Logger.CONSOLE.write(line);
-                if (lineSuffix != null) Logger.CONSOLE.write(lineSuffix);
+                separator = 2;
             }
+            if (separator == 0) continue;
+            
+            String line = start == 0 && i == length ? message : message.substring(start, i);
             
-            Logger.CONSOLE.flush();
+            if (linePrefix != null) builder.append(linePrefix);
+            messageFormat.format(builder, 2, prefix, line, null, null);
+            if (lineSuffix != null) builder.append(lineSuffix);
+            
+            i += separator - 1;
+            start = i + 1;
         }
-        catch (Exception ignored) {}
     }
     
     /**
@@ -129,7 +487,7 @@ public class Logger
     public void log(@NotNull Level level, Object object)
     {
         if (!isLoggable(level)) return;
-        Record record = new Record(this.name, level, toString(object));
+        Record record = new Record(this, level, toString(object));
         logImpl(record);
     }
     
@@ -151,94 +509,570 @@ public class Logger
     public void log(@NotNull Level level, Object... objects)
     {
         if (!isLoggable(level)) return;
-        int n = objects.length;
-        if (n == 0) return;
-        StringBuilder message = new StringBuilder();
-        if (objects[0] instanceof String format)
-        {
-            if (isFormatterString(format))
-            {
-                Object[] transformed = new Object[n - 1];
-                for (int i = 1; i < n; i++) transformed[i - 1] = transformObject(objects[i]);
-                message.append(String.format(format, transformed));
-            }
-            else
-            {
-                message.append(toString(format));
-                for (int i = 1; i < n; i++) message.append(' ').append(toString(objects[i]));
-            }
-        }
-        else
-        {
-            message.append(toString(objects[0]));
-            for (int i = 1; i < n; i++) message.append(' ').append(toString(objects[i]));
-        }
-        Record record = new Record(this.name, level, message.toString());
-        logImpl(record);
+        logObjects(level, objects);
     }
     
     /**
-     * Logs the object at {@link Level#SEVERE}.
-     * <p>
-     * The objects will be printed with {@link #toString(Object)} to
-     * expand arrays and print the stacktrace for
-     * {@link Throwable Throwable's}.
-     * <p>
-     * If the first object is a string that contains
-     * {@link java.util.Formatter} codes, then it will be used to format the
-     * objects. Arrays will be converted to strings with
-     * {@link #toString(Object)} before being formatted.
+     * Logs the message from the supplier at the level specified. The
+     * supplier is only called if the level is enabled.
      *
-     * @param object The object to log.
+     * @param level   The level to log at.
+     * @param message The supplier of the object to log.
      */
-    public void severe(Object object)
+    public void log(@NotNull Level level, @NotNull Supplier<?> message)
     {
-        log(Level.SEVERE, object);
+        if (!isLoggable(level)) return;
+        Record record = new Record(this, level, toString(message.get()));
+        logImpl(record);
     }
     
     /**
-     * Logs the objects separated by spaces at {@link Level#SEVERE}.
-     * <p>
-     * The objects will be printed with {@link #toString(Object)} to
-     * expand arrays and print the stacktrace for
-     * {@link Throwable Throwable's}.
-     * <p>
-     * If the first object is a string that contains
-     * {@link java.util.Formatter} codes, then it will be used to format the
-     * objects. Arrays will be converted to strings with
-     * {@link #toString(Object)} before being formatted.
+     * Logs the objects separated by spaces at the level specified, without
+     * creating an array when the level is disabled.
      *
-     * @param objects The objects to log.
+     * @see #log(Level, Object...)
      */
-    public void severe(Object... objects)
+    public void log(@NotNull Level level, Object object, Object arg0)
     {
-        log(Level.SEVERE, objects);
+        if (!isLoggable(level)) return;
+        logObjects(level, new Object[] {object, arg0});
     }
     
     /**
-     * Logs the object at {@link Level#WARNING}.
-     * <p>
-     * The objects will be printed with {@link #toString(Object)} to
-     * expand arrays and print the stacktrace for
-     * {@link Throwable Throwable's}.
-     * <p>
-     * If the first object is a string that contains
-     * {@link java.util.Formatter} codes, then it will be used to format the
-     * objects. Arrays will be converted to strings with
-     * {@link #toString(Object)} before being formatted.
+     * Logs the objects separated by spaces at the level specified, without
+     * creating an array when the level is disabled.
      *
-     * @param object The object to log.
+     * @see #log(Level, Object...)
      */
-    public void warning(Object object)
+    public void log(@NotNull Level level, Object object, Object arg0, Object arg1)
     {
-        log(Level.WARNING, object);
+        if (!isLoggable(level)) return;
+        logObjects(level, new Object[] {object, arg0, arg1});
     }
     
     /**
-     * Logs the objects separated by spaces at {@link Level#WARNING}.
-     * <p>
-     * The objects will be printed with {@link #toString(Object)} to
-     * expand arrays and print the stacktrace for
+     * Logs the objects separated by spaces at the level specified, without
+     * creating an array when the level is disabled.
+     *
+     * @see #log(Level, Object...)
+     */
+    public void log(@NotNull Level level, Object object, Object arg0, Object arg1, Object arg2)
+    {
+        if (!isLoggable(level)) return;
+        logObjects(level, new Object[] {object, arg0, arg1, arg2});
+    }
+    
+    /**
+     * Logs the objects separated by spaces at the level specified, without
+     * creating an array when the level is disabled.
+     *
+     * @see #log(Level, Object...)
+     */
+    public void log(@NotNull Level level, Object object, Object arg0, Object arg1, Object arg2, Object arg3)
+    {
+        if (!isLoggable(level)) return;
+        logObjects(level, new Object[] {object, arg0, arg1, arg2, arg3});
+    }
+    
+    /**
+     * Logs the objects separated by spaces at the level specified, without
+     * creating an array when the level is disabled.
+     *
+     * @see #log(Level, Object...)
+     */
+    public void log(@NotNull Level level, Object object, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4)
+    {
+        if (!isLoggable(level)) return;
+        logObjects(level, new Object[] {object, arg0, arg1, arg2, arg3, arg4});
+    }
+    
+    /**
+     * Logs the objects at the level specified unless the limiter has
+     * already let through as many records as it allows in the current
+     * period. The next record that is logged says how many were
+     * suppressed.
+     *
+     * @param limiter The limiter, usually one per call site.
+     * @param level   The level to log at.
+     * @param objects The objects to log.
+     *
+     * @see #log(Level, Object...)
+     */
+    public void log(@NotNull Limiter limiter, @NotNull Level level, Object... objects)
+    {
+        if (!isLoggable(level)) return;
+        long suppressed = limiter.acquire(this, level, objects.length > 0 ? objects[0] : null);
+        if (suppressed < 0) return;
+        logObjects(level, objects, suppressed);
+    }
+    
+    /**
+     * @see #log(Limiter, Level, Object...)
+     */
+    public void log(@NotNull Limiter limiter, @NotNull Level level, Object object)
+    {
+        if (!isLoggable(level)) return;
+        long suppressed = limiter.acquire(this, level, object);
+        if (suppressed < 0) return;
+        logObjects(level, new Object[] {object}, suppressed);
+    }
+    
+    private void logObjects(@NotNull Level level, Object @NotNull [] objects)
+    {
+        logObjects(level, objects, 0);
+    }
+    
+    private void logObjects(@NotNull Level level, Object @NotNull [] objects, long suppressed)
+    {
+        if (objects.length == 0) return;
+        
+        Record record;
+        if (Logger.async != null && immutable(objects))
+        {
+            record = new Record(this, level, objects.clone(), suppressed);
+        }
+        else
+        {
+            record = new Record(this, level, message(objects, suppressed));
+        }
+        logImpl(record);
+    }
+    
+    /**
+     * Formats the objects the same way on whichever thread calls it.
+     */
+    private static @NotNull String message(Object @NotNull [] objects, long suppressed)
+    {
+        int n = objects.length;
+        
+        Cache         cache   = Logger.CACHE.get();
+        StringBuilder message = cache.busy ? new StringBuilder() : cache.message;
+        message.setLength(0);
+        
+        // An argument's toString may log, which must not reuse the builder
+        boolean owner = message == cache.message;
+        cache.busy = true;
+        try
+        {
+            LogFormat format;
+            if (objects[0] instanceof String string && string.indexOf('%') >= 0 && (format = LogFormat.get(string)).specifiers)
+            {
+                Object[] transformed = new Object[n - 1];
+                for (int i = 1; i < n; i++) transformed[i - 1] = transformObject(objects[i]);
+                format.format(message, transformed);
+            }
+            else
+            {
+                message.append(toString(objects[0]));
+                for (int i = 1; i < n; i++) message.append(' ').append(toString(objects[i]));
+            }
+            if (suppressed > 0) message.append(" (").append(suppressed).append(suppressed == 1 ? " similar message suppressed)" : " similar messages suppressed)");
+        }
+        finally
+        {
+            if (owner) cache.busy = false;
+        }
+        return message.toString();
+    }
+    
+    /**
+     * @return {@code true} if the objects print the same on another thread
+     * later on.
+     */
+    private static boolean immutable(Object @NotNull [] objects)
+    {
+        for (Object object : objects)
+        {
+            if (object == null || object instanceof String || object instanceof Enum<?> || object instanceof Throwable) continue;
+            
+            Class<?> type = object.getClass();
+            if (type == Integer.class || type == Long.class || type == Double.class || type == Float.class) continue;
+            if (type == Short.class || type == Byte.class || type == Boolean.class || type == Character.class) continue;
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Logs the object at {@link Level#SEVERE}.
+     * <p>
+     * The objects will be printed with {@link #toString(Object)} to
+     * expand arrays and print the stacktrace for
+     * {@link Throwable Throwable's}.
+     * <p>
+     * If the first object is a string that contains
+     * {@link java.util.Formatter} codes, then it will be used to format the
+     * objects. Arrays will be converted to strings with
+     * {@link #toString(Object)} before being formatted.
+     *
+     * @param object The object to log.
+     */
+    public void severe(Object object)
+    {
+        log(Level.SEVERE, object);
+    }
+    
+    /**
+     * Logs the objects separated by spaces at {@link Level#SEVERE}.
+     * <p>
+     * The objects will be printed with {@link #toString(Object)} to
+     * expand arrays and print the stacktrace for
+     * {@link Throwable Throwable's}.
+     * <p>
+     * If the first object is a string that contains
+     * {@link java.util.Formatter} codes, then it will be used to format the
+     * objects. Arrays will be converted to strings with
+     * {@link #toString(Object)} before being formatted.
+     *
+     * @param objects The objects to log.
+     */
+    public void severe(Object... objects)
+    {
+        log(Level.SEVERE, objects);
+    }
+    
+    /**
+     * Logs the message from the supplier at {@link Level#SEVERE}. The supplier
+     * is only called if the level is enabled.
+     *
+     * @param message The supplier of the object to log.
+     */
+    public void severe(@NotNull Supplier<?> message)
+    {
+        log(Level.SEVERE, message);
+    }
+    
+    /**
+     * @see #severe(Object...)
+     */
+    public void severe(Object object, Object arg0)
+    {
+        log(Level.SEVERE, object, arg0);
+    }
+    
+    /**
+     * @see #severe(Object...)
+     */
+    public void severe(Object object, Object arg0, Object arg1)
+    {
+        log(Level.SEVERE, object, arg0, arg1);
+    }
+    
+    /**
+     * @see #severe(Object...)
+     */
+    public void severe(Object object, Object arg0, Object arg1, Object arg2)
+    {
+        log(Level.SEVERE, object, arg0, arg1, arg2);
+    }
+    
+    /**
+     * @see #severe(Object...)
+     */
+    public void severe(Object object, Object arg0, Object arg1, Object arg2, Object arg3)
+    {
+        log(Level.SEVERE, object, arg0, arg1, arg2, arg3);
+    }
+    
+    /**
+     * @see #severe(Object...)
+     */
+    public void severe(Object object, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4)
+    {
+        log(Level.SEVERE, object, arg0, arg1, arg2, arg3, arg4);
+    }
+    
+    /**
+     * Logs the object at {@link Level#WARNING}.
+     * <p>
+     * The objects will be printed with {@link #toString(Object)} to
+     * expand arrays and print the stacktrace for
+     * {@link Throwable Throwable's}.
+     * <p>
+     * If the first object is a string that contains
+     * {@link java.util.Formatter} codes, then it will be used to format the
+     * objects. Arrays will be converted to strings with
+     * {@link #toString(Object)} before being formatted.
+     *
+     * @param object The object to log.
+     */
+    public void warning(Object object)
+    {
+        log(Level.WARNING, object);
+    }
+    
+    /**
+     * Logs the objects separated by spaces at {@link Level#WARNING}.
+     * <p>
+     * The objects will be printed with {@link #toString(Object)} to
+     * expand arrays and print the stacktrace for
+     * {@link Throwable Throwable's}.
+     * <p>
+     * If the first object is a string that contains
+     * {@link java.util.Formatter} codes, then it will be used to format the
+     * objects. Arrays will be converted to strings with
+     * {@link #toString(Object)} before being formatted.
+     *
+     * @param objects The objects to log.
+     */
+    public void warning(Object... objects)
+    {
+        log(Level.WARNING, objects);
+    }
+    
+    /**
+     * Logs the message from the supplier at {@link Level#WARNING}. The supplier
+     * is only called if the level is enabled.
+     *
+     * @param message The supplier of the object to log.
+     */
+    public void warning(@NotNull Supplier<?> message)
+    {
+        log(Level.WARNING, message);
+    }
+    
+    /**
+     * @see #warning(Object...)
+     */
+    public void warning(Object object, Object arg0)
+    {
+        log(Level.WARNING, object, arg0);
+    }
+    
+    /**
+     * @see #warning(Object...)
+     */
+    public void warning(Object object, Object arg0, Object arg1)
+    {
+        log(Level.WARNING, object, arg0, arg1);
+    }
+    
+    /**
+     * @see #warning(Object...)
+     */
+    public void warning(Object object, Object arg0, Object arg1, Object arg2)
+    {
+        log(Level.WARNING, object, arg0, arg1, arg2);
+    }
+    
+    /**
+     * @see #warning(Object...)
+     */
+    public void warning(Object object, Object arg0, Object arg1, Object arg2, Object arg3)
+    {
+        log(Level.WARNING, object, arg0, arg1, arg2, arg3);
+    }
+    
+    /**
+     * @see #warning(Object...)
+     */
+    public void warning(Object object, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4)
+    {
+        log(Level.WARNING, object, arg0, arg1, arg2, arg3, arg4);
+    }
+    
+    /**
+     * Logs the object at {@link Level#INFO}.
+     * <p>
+     * The objects will be printed with {@link #toString(Object)} to
+     * expand arrays and print the stacktrace for
+     * {@link Throwable Throwable's}.
+     * <p>
+     * If the first object is a string that contains
+     * {@link java.util.Formatter} codes, then it will be used to format the
+     * objects. Arrays will be converted to strings with
+     * {@link #toString(Object)} before being formatted.
+     *
+     * @param object The object to log.
+     */
+    public void info(Object object)
+    {
+        log(Level.INFO, object);
+    }
+    
+    /**
+     * Logs the objects separated by spaces at {@link Level#INFO}.
+     * <p>
+     * The objects will be printed with {@link #toString(Object)} to
+     * expand arrays and print the stacktrace for
+     * {@link Throwable Throwable's}.
+     * <p>
+     * If the first object is a string that contains
+     * {@link java.util.Formatter} codes, then it will be used to format the
+     * objects. Arrays will be converted to strings with
+     * {@link #toString(Object)} before being formatted.
+     *
+     * @param objects The objects to log.
+     */
+    public void info(Object... objects)
+    {
+        log(Level.INFO, objects);
+    }
+    
+    /**
+     * Logs the message from the supplier at {@link Level#INFO}. The supplier
+     * is only called if the level is enabled.
+     *
+     * @param message The supplier of the object to log.
+     */
+    public void info(@NotNull Supplier<?> message)
+    {
+        log(Level.INFO, message);
+    }
+    
+    /**
+     * @see #info(Object...)
+     */
+    public void info(Object object, Object arg0)
+    {
+        log(Level.INFO, object, arg0);
+    }
+    
+    /**
+     * @see #info(Object...)
+     */
+    public void info(Object object, Object arg0, Object arg1)
+    {
+        log(Level.INFO, object, arg0, arg1);
+    }
+    
+    /**
+     * @see #info(Object...)
+     */
+    public void info(Object object, Object arg0, Object arg1, Object arg2)
+    {
+        log(Level.INFO, object, arg0, arg1, arg2);
+    }
+    
+    /**
+     * @see #info(Object...)
+     */
+    public void info(Object object, Object arg0, Object arg1, Object arg2, Object arg3)
+    {
+        log(Level.INFO, object, arg0, arg1, arg2, arg3);
+    }
+    
+    /**
+     * @see #info(Object...)
+     */
+    public void info(Object object, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4)
+    {
+        log(Level.INFO, object, arg0, arg1, arg2, arg3, arg4);
+    }
+    
+    /**
+     * Logs the object at {@link Level#DEBUG}.
+     * <p>
+     * The objects will be printed with {@link #toString(Object)} to
+     * expand arrays and print the stacktrace for
+     * {@link Throwable Throwable's}.
+     * <p>
+     * If the first object is a string that contains
+     * {@link java.util.Formatter} codes, then it will be used to format the
+     * objects. Arrays will be converted to strings with
+     * {@link #toString(Object)} before being formatted.
+     *
+     * @param object The object to log.
+     */
+    public void debug(Object object)
+    {
+        log(Level.DEBUG, object);
+    }
+    
+    /**
+     * Logs the objects separated by spaces at {@link Level#DEBUG}.
+     * <p>
+     * The objects will be printed with {@link #toString(Object)} to
+     * expand arrays and print the stacktrace for
+     * {@link Throwable Throwable's}.
+     * <p>
+     * If the first object is a string that contains
+     * {@link java.util.Formatter} codes, then it will be used to format the
+     * objects. Arrays will be converted to strings with
+     * {@link #toString(Object)} before being formatted.
+     *
+     * @param objects The objects to log.
+     */
+    public void debug(Object... objects)
+    {
+        log(Level.DEBUG, objects);
+    }
+    
+    /**
+     * Logs the message from the supplier at {@link Level#DEBUG}. The supplier
+     * is only called if the level is enabled.
+     *
+     * @param message The supplier of the object to log.
+     */
+    public void debug(@NotNull Supplier<?> message)
+    {
+        log(Level.DEBUG, message);
+    }
+    
+    /**
+     * @see #debug(Object...)
+     */
+    public void debug(Object object, Object arg0)
+    {
+        log(Level.DEBUG, object, arg0);
+    }
+    
+    /**
+     * @see #debug(Object...)
+     */
+    public void debug(Object object, Object arg0, Object arg1)
+    {
+        log(Level.DEBUG, object, arg0, arg1);
+    }
+    
+    /**
+     * @see #debug(Object...)
+     */
+    public void debug(Object object, Object arg0, Object arg1, Object arg2)
+    {
+        log(Level.DEBUG, object, arg0, arg1, arg2);
+    }
+    
+    /**
+     * @see #debug(Object...)
+     */
+    public void debug(Object object, Object arg0, Object arg1, Object arg2, Object arg3)
+    {
+        log(Level.DEBUG, object, arg0, arg1, arg2, arg3);
+    }
+    
+    /**
+     * @see #debug(Object...)
+     */
+    public void debug(Object object, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4)
+    {
+        log(Level.DEBUG, object, arg0, arg1, arg2, arg3, arg4);
+    }
+    
+    /**
+     * Logs the object at {@link Level#TRACE}.
+     * <p>
+     * The objects will be printed with {@link #toString(Object)} to
+     * expand arrays and print the stacktrace for
+     * {@link Throwable Throwable's}.
+     * <p>
+     * If the first object is a string that contains
+     * {@link java.util.Formatter} codes, then it will be used to format the
+     * objects. Arrays will be converted to strings with
+     * {@link #toString(Object)} before being formatted.
+     *
+     * @param object The object to log.
+     */
+    public void trace(Object object)
+    {
+        log(Level.TRACE, object);
+    }
+    
+    /**
+     * Logs the objects separated by spaces at {@link Level#TRACE}.
+     * <p>
+     * The objects will be printed with {@link #toString(Object)} to
+     * expand arrays and print the stacktrace for
      * {@link Throwable Throwable's}.
      * <p>
      * If the first object is a string that contains
@@ -248,134 +1082,367 @@ public class Logger
      *
      * @param objects The objects to log.
      */
-    public void warning(Object... objects)
+    public void trace(Object... objects)
+    {
+        log(Level.TRACE, objects);
+    }
+    
+    /**
+     * Logs the message from the supplier at {@link Level#TRACE}. The supplier
+     * is only called if the level is enabled.
+     *
+     * @param message The supplier of the object to log.
+     */
+    public void trace(@NotNull Supplier<?> message)
+    {
+        log(Level.TRACE, message);
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(Object object, Object arg0)
+    {
+        log(Level.TRACE, object, arg0);
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(Object object, Object arg0, Object arg1)
+    {
+        log(Level.TRACE, object, arg0, arg1);
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(Object object, Object arg0, Object arg1, Object arg2)
+    {
+        log(Level.TRACE, object, arg0, arg1, arg2);
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(Object object, Object arg0, Object arg1, Object arg2, Object arg3)
+    {
+        log(Level.TRACE, object, arg0, arg1, arg2, arg3);
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(Object object, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4)
+    {
+        log(Level.TRACE, object, arg0, arg1, arg2, arg3, arg4);
+    }
+    
+    // Primitive overloads so that hot paths do not box their arguments when
+    // tracing is disabled. Integer arguments match the long overloads. Float
+    // arguments have their own overloads so that they are not widened and
+    // print the same as before, 0.1F as 0.1. The ones with a leading Object
+    // cover calls like attributeFloat(name, x).
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, long arg1)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, long arg1, long arg2)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, long arg1, long arg2, long arg3)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, long arg1, long arg2, long arg3, long arg4)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3, arg4});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, float arg0)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, float arg0, float arg1)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, float arg0, float arg1, float arg2)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, float arg0, float arg1, float arg2, float arg3)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, double arg0)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, double arg0, double arg1)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, double arg0, double arg1, double arg2)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, double arg0, double arg1, double arg2, double arg3)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, float arg1)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, float arg1, float arg2)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, float arg1, float arg2, float arg3)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, float arg1, float arg2, float arg3, float arg4)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3, arg4});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, double arg1)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, double arg1, double arg2)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, double arg1, double arg2, double arg3)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, long arg0, double arg1, double arg2, double arg3, double arg4)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3, arg4});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, Object arg0, long arg1)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, Object arg0, long arg1, long arg2)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2});
+    }
+    
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, Object arg0, long arg1, long arg2, long arg3)
     {
-        log(Level.WARNING, objects);
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3});
     }
     
     /**
-     * Logs the object at {@link Level#INFO}.
-     * <p>
-     * The objects will be printed with {@link #toString(Object)} to
-     * expand arrays and print the stacktrace for
-     * {@link Throwable Throwable's}.
-     * <p>
-     * If the first object is a string that contains
-     * {@link java.util.Formatter} codes, then it will be used to format the
-     * objects. Arrays will be converted to strings with
-     * {@link #toString(Object)} before being formatted.
-     *
-     * @param object The object to log.
+     * @see #trace(Object...)
      */
-    public void info(Object object)
+    public void trace(String format, Object arg0, long arg1, long arg2, long arg3, long arg4)
     {
-        log(Level.INFO, object);
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3, arg4});
     }
     
     /**
-     * Logs the objects separated by spaces at {@link Level#INFO}.
-     * <p>
-     * The objects will be printed with {@link #toString(Object)} to
-     * expand arrays and print the stacktrace for
-     * {@link Throwable Throwable's}.
-     * <p>
-     * If the first object is a string that contains
-     * {@link java.util.Formatter} codes, then it will be used to format the
-     * objects. Arrays will be converted to strings with
-     * {@link #toString(Object)} before being formatted.
-     *
-     * @param objects The objects to log.
+     * @see #trace(Object...)
      */
-    public void info(Object... objects)
+    public void trace(String format, Object arg0, float arg1)
     {
-        log(Level.INFO, objects);
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1});
     }
     
     /**
-     * Logs the object at {@link Level#DEBUG}.
-     * <p>
-     * The objects will be printed with {@link #toString(Object)} to
-     * expand arrays and print the stacktrace for
-     * {@link Throwable Throwable's}.
-     * <p>
-     * If the first object is a string that contains
-     * {@link java.util.Formatter} codes, then it will be used to format the
-     * objects. Arrays will be converted to strings with
-     * {@link #toString(Object)} before being formatted.
-     *
-     * @param object The object to log.
+     * @see #trace(Object...)
      */
-    public void debug(Object object)
+    public void trace(String format, Object arg0, float arg1, float arg2)
     {
-        log(Level.DEBUG, object);
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2});
     }
     
     /**
-     * Logs the objects separated by spaces at {@link Level#DEBUG}.
-     * <p>
-     * The objects will be printed with {@link #toString(Object)} to
-     * expand arrays and print the stacktrace for
-     * {@link Throwable Throwable's}.
-     * <p>
-     * If the first object is a string that contains
-     * {@link java.util.Formatter} codes, then it will be used to format the
-     * objects. Arrays will be converted to strings with
-     * {@link #toString(Object)} before being formatted.
-     *
-     * @param objects The objects to log.
+     * @see #trace(Object...)
      */
-    public void debug(Object... objects)
+    public void trace(String format, Object arg0, float arg1, float arg2, float arg3)
     {
-        log(Level.DEBUG, objects);
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3});
     }
     
     /**
-     * Logs the object at {@link Level#TRACE}.
-     * <p>
-     * The objects will be printed with {@link #toString(Object)} to
-     * expand arrays and print the stacktrace for
-     * {@link Throwable Throwable's}.
-     * <p>
-     * If the first object is a string that contains
-     * {@link java.util.Formatter} codes, then it will be used to format the
-     * objects. Arrays will be converted to strings with
-     * {@link #toString(Object)} before being formatted.
-     *
-     * @param object The object to log.
+     * @see #trace(Object...)
      */
-    public void trace(Object object)
+    public void trace(String format, Object arg0, float arg1, float arg2, float arg3, float arg4)
     {
-        log(Level.TRACE, object);
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3, arg4});
     }
     
     /**
-     * Logs the objects separated by spaces at {@link Level#TRACE}.
-     * <p>
-     * The objects will be printed with {@link #toString(Object)} to
-     * expand arrays and print the stacktrace for
-     * {@link Throwable Throwable's}.
-     * <p>
-     * If the first object is a string that contains
-     * {@link java.util.Formatter} codes, then it will be used to format the
-     * objects. Arrays will be converted to strings with
-     * {@link #toString(Object)} before being formatted.
-     *
-     * @param objects The objects to log.
+     * @see #trace(Object...)
      */
-    public void trace(Object... objects)
+    public void trace(String format, Object arg0, double arg1)
     {
-        log(Level.TRACE, objects);
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1});
     }
     
-    // -------------------- Utility Methods -------------------- //
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, Object arg0, double arg1, double arg2)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2});
+    }
     
-    private static final Pattern PATTERN = Pattern.compile("%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])"); // Taken from java.lang.Formatter
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, Object arg0, double arg1, double arg2, double arg3)
+    {
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3});
+    }
     
-    private static boolean isFormatterString(CharSequence input)
+    /**
+     * @see #trace(Object...)
+     */
+    public void trace(String format, Object arg0, double arg1, double arg2, double arg3, double arg4)
     {
-        return Logger.PATTERN.matcher(input).find();
+        if (!isLoggable(Level.TRACE)) return;
+        logObjects(Level.TRACE, new Object[] {format, arg0, arg1, arg2, arg3, arg4});
     }
     
+    // -------------------- Utility Methods -------------------- //
+    
     private static @NotNull String toString(@Nullable Object obj)
     {
         if (obj == null) return "null";
@@ -497,21 +1564,471 @@ public class Logger
     
     // -------------------- Sub-Classes -------------------- //
     
-    private static final class Record
+    /**
+     * Text for every record written to {@link System#out}, in red for
+     * {@link Level#SEVERE} and yellow for {@link Level#WARNING}.
+     */
+    private static final class ConsoleSink implements Sink
+    {
+        private final StringBuilder builder = new StringBuilder();
+        private       char[]        chars   = new char[256];
+        
+        @Override
+        public void write(@NotNull Record record) throws IOException
+        {
+            String linePrefix = null;
+            String lineSuffix = null;
+            if (record.level.value >= Level.SEVERE.value)
+            {
+                linePrefix = Logger.RED;
+                lineSuffix = Logger.RESET;
+            }
+            else if (record.level.value >= Level.WARNING.value)
+            {
+                linePrefix = Logger.YELLOW;
+                lineSuffix = Logger.RESET;
+            }
+            
+            this.builder.setLength(0);
+            format(record, this.builder, linePrefix, lineSuffix);
+            
+            int length = this.builder.length();
+            if (this.chars.length < length) this.chars = new char[Math.max(length, this.chars.length << 1)];
+            this.builder.getChars(0, length, this.chars, 0);
+            Logger.CONSOLE_WRITER.write(this.chars, 0, length);
+        }
+        
+        @Override
+        public void flush() throws IOException
+        {
+            Logger.CONSOLE_WRITER.flush();
+        }
+        
+        @Override
+        public String toString()
+        {
+            return "ConsoleSink{}";
+        }
+    }
+    
+    public static final class Record
     {
         private final String  logger;
         private final Level   level;
-        private final String  message;
+        private       String  message;
         private final Instant instant;
         private final String  thread;
         
-        private Record(@NotNull String logger, @NotNull Level level, String message)
+        private final Logger  source;
+        
+        // Left for the async writer to format
+        private Object[] objects;
+        private long     suppressed;
+        
+        private Record(@NotNull Logger source, @NotNull Level level, String message)
         {
-            this.logger  = logger;
+            this.logger  = source.name;
             this.level   = level;
             this.message = message;
             this.instant = Instant.now();
             this.thread  = Thread.currentThread().getName();
+            this.source  = source;
+        }
+        
+        private Record(@NotNull Logger source, @NotNull Level level, Object @NotNull [] objects, long suppressed)
+        {
+            this(source, level, null);
+            this.objects    = objects;
+            this.suppressed = suppressed;
+        }
+        
+        public @NotNull String logger()
+        {
+            return this.logger;
+        }
+        
+        public @NotNull Level level()
+        {
+            return this.level;
+        }
+        
+        /**
+         * @return The formatted message. Records from the async writer are
+         * formatted the first time this is called.
+         */
+        public @NotNull String message()
+        {
+            if (this.message == null)
+            {
+                this.message = Logger.message(this.objects, this.suppressed);
+                this.objects = null;
+            }
+            return this.message;
+        }
+        
+        public @NotNull Instant instant()
+        {
+            return this.instant;
+        }
+        
+        public @NotNull String thread()
+        {
+            return this.thread;
+        }
+    }
+    
+    private static final class Async implements Runnable
+    {
+        private static final int  BATCH       = 64;
+        private static final long MAX_BACKOFF = 1_000_000L;
+        
+        private final RingBuffer<Record> ring;
+        private final Overflow           overflow;
+        private final Thread             thread;
+        
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong sampled = new AtomicLong();
+        private       long       reported;
+        
+        private volatile boolean running = true;
+        private volatile boolean waiting = false;
+        
+        // Set under Logger.LOCK once the thread has finished and stop() has taken over the ring
+        private boolean drained = false;
+        
+        private Async(int capacity, @NotNull Overflow overflow)
+        {
+            this.ring     = new RingBuffer<>(capacity);
+            this.overflow = overflow;
+            this.thread   = new Thread(this, "Logger-Async");
+            this.thread.setDaemon(true);
+        }
+        
+        /**
+         * @return {@code false} if the writer has stopped and the caller
+         * has to write the record itself.
+         */
+        private boolean offer(@NotNull Record record)
+        {
+            // A record logged while the writer formats would wait on itself
+            if (!this.running || Thread.currentThread() == this.thread) return false;
+            
+            switch (this.overflow)
+            {
+                case BLOCK ->
+                {
+                    long backoff = 1_000L;
+                    while (!this.ring.offer(record))
+                    {
+                        if (!this.running) return false;
+                        LockSupport.unpark(this.thread);
+                        LockSupport.parkNanos(backoff);
+                        backoff = Math.min(backoff << 1, Async.MAX_BACKOFF);
+                    }
+                }
+                case DROP ->
+                {
+                    if (!this.ring.offer(record)) this.dropped.incrementAndGet();
+                }
+                case SAMPLE ->
+                {
+                    boolean keep = record.level.value >= Level.WARNING.value ||
+                                   this.ring.size() < this.ring.capacity() >> 1 ||
+                                   this.sampled.getAndIncrement() % Logger.ASYNC_SAMPLE_RATE == 0;
+                    if (!keep || !this.ring.offer(record)) this.dropped.incrementAndGet();
+                }
+            }
+            if (this.waiting) LockSupport.unpark(this.thread);
+            
+            // The writer may have stopped while the record went in, after its last drain
+            if (!this.running)
+            {
+                synchronized (Logger.LOCK)
+                {
+                    if (this.drained) drain();
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public void run()
+        {
+            Record[] batch     = new Record[Async.BATCH];
+            long     lastFlush = System.nanoTime();
+            while (this.running || !this.ring.isEmpty())
+            {
+                // Format outside the lock so callers writing synchronously do not wait on it
+                int    count = 0;
+                Record record;
+                while (count < batch.length && (record = this.ring.poll()) != null)
+                {
+                    record.message();
+                    batch[count++] = record;
+                }
+                
+                synchronized (Logger.LOCK)
+                {
+                    for (int i = 0; i < count; i++)
+                    {
+                        write(batch[i]);
+                        batch[i] = null;
+                    }
+                    report();
+                    
+                    long now = System.nanoTime();
+                    if (!Logger.DIRTY.isEmpty() && (this.ring.isEmpty() || now - lastFlush >= Logger.ASYNC_FLUSH_INTERVAL * 1_000_000L))
+                    {
+                        flush();
+                        lastFlush = now;
+                    }
+                }
+                if (count == batch.length) continue;
+                
+                // Publish that we are waiting before checking the ring so a producer cannot miss us
+                this.waiting = true;
+                if (this.running && this.ring.isEmpty()) LockSupport.parkNanos(Logger.ASYNC_FLUSH_INTERVAL * 1_000_000L);
+                this.waiting = false;
+            }
+            synchronized (Logger.LOCK)
+            {
+                report();
+                flush();
+            }
+        }
+        
+        private void report()
+        {
+            long dropped = this.dropped.get();
+            if (dropped == this.reported) return;
+            
+            write(new Record(Logger.LOGGER, Level.WARNING, String.format("Dropped %s log records", dropped - this.reported)));
+            this.reported = dropped;
+        }
+        
+        /**
+         * Writes what is left in the ring. Only called with
+         * {@link Logger#LOCK} held once the thread has finished.
+         */
+        private void drain()
+        {
+            while (!this.ring.isEmpty())
+            {
+                Record record = this.ring.poll();
+                if (record != null)
+                {
+                    write(record);
+                }
+                else
+                {
+                    // A producer has claimed a slot but not filled it yet
+                    Thread.onSpinWait();
+                }
+            }
+            report();
+            flush();
+        }
+        
+        private void stop()
+        {
+            this.running = false;
+            LockSupport.unpark(this.thread);
+            try
+            {
+                this.thread.join();
+            }
+            catch (InterruptedException ignored)
+            {
+                Thread.currentThread().interrupt();
+            }
+            
+            // Records that were offered while the thread was stopping
+            synchronized (Logger.LOCK)
+            {
+                this.drained = true;
+                drain();
+            }
+        }
+    }
+    
+    /**
+     * What the async writer does with a record when its ring is full.
+     */
+    public enum Overflow
+    {
+        /**
+         * The logging thread waits for space.
+         */
+        BLOCK,
+        /**
+         * The record is dropped and counted.
+         */
+        DROP,
+        /**
+         * Once the ring is half full, only one in
+         * {@link #ASYNC_SAMPLE_RATE} records below {@link Level#WARNING} is
+         * kept. Records are dropped and counted when it is full.
+         */
+        SAMPLE,
+    }
+    
+    /**
+     * Lets through at most a fixed number of records per period and counts
+     * the rest. Keep one in a static field per call site that can fire
+     * many times a frame, and pass it to
+     * {@link #log(Limiter, Level, Object...)}.
+     * <p>
+     * Periods are counted from when the limiter is created. Records that
+     * are still suppressed when the program stops are reported by
+     * {@link #reportSuppressed()}.
+     */
+    public static final class Limiter
+    {
+        public final int  permits;
+        public final long period;
+        
+        private final long origin;
+        
+        // The current period in the high half and the records it let through in the low half, so both change together
+        private final AtomicLong window     = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+        
+        // What to report if nothing is let through after a suppressed record
+        private volatile Logger logger;
+        private volatile Level  level;
+        private volatile String message;
+        
+        /**
+         * @param permits The number of records let through per period.
+         * @param period  The length of a period.
+         */
+        public Limiter(int permits, @NotNull Duration period)
+        {
+            if (permits <= 0) throw new IllegalArgumentException("Invalid permits: " + permits);
+            if (period.isNegative() || period.isZero()) throw new IllegalArgumentException("Invalid period: " + period);
+            
+            this.permits = permits;
+            this.period  = period.toNanos();
+            this.origin  = System.nanoTime();
+        }
+        
+        /**
+         * @return A limiter that lets through the number of records every
+         * second.
+         */
+        public static @NotNull Limiter perSecond(int permits)
+        {
+            return new Limiter(permits, Duration.ofSeconds(1));
+        }
+        
+        @Override
+        public String toString()
+        {
+            return "Limiter{" + "permits=" + this.permits + ", period=" + this.period + "ns, suppressed=" + this.suppressed.get() + '}';
+        }
+        
+        /**
+         * @return The number of records suppressed since the last one that
+         * was let through.
+         */
+        public long suppressed()
+        {
+            return this.suppressed.get();
+        }
+        
+        /**
+         * @return The number of records that were suppressed before this
+         * one, or -1 if this one is suppressed.
+         */
+        private long acquire(@NotNull Logger logger, @NotNull Level level, @Nullable Object message)
+        {
+            long index = (System.nanoTime() - this.origin) / this.period & 0xFFFFFFFFL;
+            while (true)
+            {
+                long window  = this.window.get();
+                long current = window >>> 32;
+                
+                // A thread that read the clock earlier must not move the window back
+                if ((int) (index - current) < 0) index = current;
+                
+                long count = index == current ? window & 0xFFFFFFFFL : 0L;
+                if (count >= this.permits) break;
+                if (this.window.compareAndSet(window, index << 32 | count + 1)) return this.suppressed.getAndSet(0);
+            }
+            
+            if (this.suppressed.getAndIncrement() == 0)
+            {
+                this.logger  = logger;
+                this.level   = level;
+                this.message = message instanceof String string ? string : null;
+                Logger.LIMITERS.add(this);
+            }
+            return -1;
+        }
+    }
+    
+    /**
+     * Per thread state that lets formatting reuse its work. The prefix only
+     * changes when the millisecond, thread, level or logger does.
+     */
+    private static final class Cache
+    {
+        private final StringBuilder message = new StringBuilder();
+        private       boolean       busy;
+        
+        private final StringBuilder builder = new StringBuilder();
+        private       LogFormat     format;
+        private       long          millis  = Long.MIN_VALUE;
+        private       ZonedDateTime time;
+        private       String        thread;
+        private       Level         level;
+        private       String        logger;
+        private       String        prefix;
+        
+        private @NotNull String prefix(@NotNull Record record, @NotNull LogFormat format)
+        {
+            long millis = record.instant.toEpochMilli();
+            if (this.format == format && this.millis == millis && this.level == record.level &&
+                record.thread.equals(this.thread) && record.logger.equals(this.logger))
+            {
+                return this.prefix;
+            }
+            
+            if (this.millis != millis)
+            {
+                this.millis = millis;
+                this.time   = ZonedDateTime.ofInstant(record.instant, ZoneId.systemDefault());
+            }
+            this.format = format;
+            this.thread = record.thread;
+            this.level  = record.level;
+            this.logger = record.logger;
+            
+            this.builder.setLength(0);
+            format.format(this.builder, 4, this.time, this.thread, this.level, this.logger);
+            return this.prefix = this.builder.toString();
+        }
+    }
+    
+    /**
+     * A destination for records. Sinks are only ever called by one thread
+     * at a time.
+     */
+    public interface Sink
+    {
+        /**
+         * Writes the record. It may be buffered until {@link #flush()}.
+         */
+        void write(@NotNull Record record) throws IOException;
+        
+        void flush() throws IOException;
+        
+        /**
+         * Flushes and releases the sink. It is not used afterwards.
+         */
+        default void close() throws IOException
+        {
+            flush();
         }
     }
     
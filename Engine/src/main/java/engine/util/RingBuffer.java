@@ -0,0 +1,130 @@
+package engine.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free queue with any number of producers and a single
+ * consumer.
+ * <p>
+ * Every slot is allocated up front and carries a sequence number that tells
+ * producers and the consumer whose turn it is, so neither side ever blocks
+ * or allocates. {@link #offer(Object)} fails instead of waiting when the
+ * ring is full, leaving it to the caller to decide what to do.
+ *
+ * @param <T> The element type.
+ */
+public class RingBuffer<T>
+{
+    private final Object[]        elements;
+    private final AtomicLongArray sequences;
+    private final int             mask;
+    
+    private final    AtomicLong tail = new AtomicLong();
+    private volatile long       head = 0;
+    
+    /**
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    public RingBuffer(int capacity)
+    {
+        if (capacity <= 0) throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        
+        this.elements  = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask      = size - 1;
+        
+        for (int i = 0; i < size; i++) this.sequences.set(i, i);
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "RingBuffer{" + "size=" + size() + ", capacity=" + capacity() + '}';
+    }
+    
+    /**
+     * @return The number of slots.
+     */
+    public int capacity()
+    {
+        return this.elements.length;
+    }
+    
+    /**
+     * @return The number of elements waiting to be polled. Only exact when
+     * no other thread is using the ring.
+     */
+    public int size()
+    {
+        long size = this.tail.get() - this.head;
+        return (int) Math.max(0, Math.min(size, this.elements.length));
+    }
+    
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+    
+    /**
+     * Adds the element to the ring. Safe to call from any thread.
+     *
+     * @return {@code false} if the ring is full.
+     */
+    public boolean offer(@NotNull T element)
+    {
+        long tail = this.tail.get();
+        while (true)
+        {
+            int  index = (int) tail & this.mask;
+            long diff  = this.sequences.get(index) - tail;
+            if (diff == 0)
+            {
+                if (this.tail.compareAndSet(tail, tail + 1))
+                {
+                    this.elements[index] = element;
+                    this.sequences.lazySet(index, tail + 1);
+                    return true;
+                }
+                tail = this.tail.get();
+            }
+            else if (diff < 0)
+            {
+                // The consumer has not freed this slot yet
+                return false;
+            }
+            else
+            {
+                // Another producer claimed the slot first
+                tail = this.tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Removes the oldest element. Must only be called by one thread at a
+     * time.
+     *
+     * @return The element, or {@code null} if the ring is empty or the next
+     * element has been claimed but not yet written.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T poll()
+    {
+        long head  = this.head;
+        int  index = (int) head & this.mask;
+        if (this.sequences.get(index) != head + 1) return null;
+        
+        T element = (T) this.elements[index];
+        this.elements[index] = null;
+        this.sequences.lazySet(index, head + this.elements.length);
+        this.head = head + 1;
+        return element;
+    }
+}
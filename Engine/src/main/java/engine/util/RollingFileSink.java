@@ -0,0 +1,299 @@
+package engine.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Writes records to a file, starting a new one when it grows too large or
+ * too old.
+ * <p>
+ * Records are encoded straight into a reusable direct buffer that is only
+ * handed to the {@link FileChannel} when it fills up or the sink is flushed.
+ * When the file rolls over, {@code name.log} is renamed to
+ * {@code name.1.log}, older files move up by one, and files beyond
+ * {@code maxFiles} are deleted.
+ */
+public class RollingFileSink implements Logger.Sink
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+    
+    // -------------------- Creation -------------------- //
+    
+    private static final Builder BUILDER = new Builder();
+    
+    public static Builder builder(@NotNull Path file)
+    {
+        return RollingFileSink.BUILDER.reset(file);
+    }
+    
+    // -------------------- Instance -------------------- //
+    
+    public final Path    file;
+    public final long    maxSize;
+    public final long    maxAge;
+    public final int     maxFiles;
+    public final boolean json;
+    
+    private final String baseName;
+    private final String extension;
+    
+    private FileChannel channel;
+    private long        size;
+    private long        opened;
+    
+    private final ByteBuffer     buffer  = ByteBuffer.allocateDirect(RollingFileSink.BUFFER_SIZE);
+    private final StringBuilder  builder = new StringBuilder();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                                                                 .onMalformedInput(CodingErrorAction.REPLACE)
+                                                                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    
+    private RollingFileSink(Path file, long maxSize, long maxAge, int maxFiles, boolean json) throws IOException
+    {
+        this.file     = file;
+        this.maxSize  = maxSize;
+        this.maxAge   = maxAge;
+        this.maxFiles = maxFiles;
+        this.json     = json;
+        
+        String name = file.getFileName().toString();
+        int    dot  = name.lastIndexOf('.');
+        this.baseName  = dot > 0 ? name.substring(0, dot) : name;
+        this.extension = dot > 0 ? name.substring(dot) : "";
+        
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        open();
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "RollingFileSink{" + this.file + '}';
+    }
+    
+    @Override
+    public void write(@NotNull Logger.Record record) throws IOException
+    {
+        if (this.channel == null) throw new IOException("Sink is closed: " + this);
+        
+        if (this.size >= this.maxSize || System.currentTimeMillis() - this.opened >= this.maxAge) roll();
+        
+        this.builder.setLength(0);
+        if (this.json)
+        {
+            json(record, this.builder);
+        }
+        else
+        {
+            Logger.format(record, this.builder, null, null);
+        }
+        
+        CharBuffer chars = CharBuffer.wrap(this.builder);
+        while (true)
+        {
+            CoderResult result = this.encoder.encode(chars, this.buffer, true);
+            if (result.isUnderflow()) break;
+            if (result.isOverflow())
+            {
+                drain();
+            }
+            else
+            {
+                result.throwException();
+            }
+        }
+        this.encoder.reset();
+    }
+    
+    @Override
+    public void flush() throws IOException
+    {
+        if (this.channel != null) drain();
+    }
+    
+    @Override
+    public void close() throws IOException
+    {
+        if (this.channel == null) return;
+        
+        drain();
+        this.channel.close();
+        this.channel = null;
+    }
+    
+    private void open() throws IOException
+    {
+        this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.size    = this.channel.size();
+        this.opened  = System.currentTimeMillis();
+    }
+    
+    private void drain() throws IOException
+    {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) this.size += this.channel.write(this.buffer);
+        this.buffer.clear();
+    }
+    
+    private void roll() throws IOException
+    {
+        drain();
+        this.channel.close();
+        this.channel = null;
+        
+        Files.deleteIfExists(rolled(this.maxFiles));
+        for (int i = this.maxFiles - 1; i > 0; i--)
+        {
+            Path path = rolled(i);
+            if (Files.exists(path)) Files.move(path, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (this.maxFiles > 0)
+        {
+            Files.move(this.file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        else
+        {
+            Files.deleteIfExists(this.file);
+        }
+        
+        open();
+    }
+    
+    private @NotNull Path rolled(int index)
+    {
+        return this.file.resolveSibling(this.baseName + '.' + index + this.extension);
+    }
+    
+    /**
+     * Appends the record as a single line of JSON.
+     */
+    static void json(@NotNull Logger.Record record, @NotNull StringBuilder builder)
+    {
+        builder.append("{\"time\":\"").append(record.instant());
+        builder.append("\",\"level\":\"").append(record.level());
+        builder.append("\",\"thread\":");
+        jsonString(record.thread(), builder);
+        builder.append(",\"logger\":");
+        jsonString(record.logger(), builder);
+        builder.append(",\"message\":");
+        jsonString(record.message(), builder);
+        builder.append("}\n");
+    }
+    
+    private static void jsonString(@NotNull String string, @NotNull StringBuilder builder)
+    {
+        builder.append('"');
+        for (int i = 0, n = string.length(); i < n; i++)
+        {
+            char c = string.charAt(i);
+            switch (c)
+            {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default ->
+                {
+                    if (c < 0x20)
+                    {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        builder.append('"');
+    }
+    
+    // -------------------- Sub-Classes -------------------- //
+    
+    public static final class Builder
+    {
+        private Path    file;
+        private long    maxSize;
+        private long    maxAge;
+        private int     maxFiles;
+        private boolean json;
+        
+        private Builder reset(@NotNull Path file)
+        {
+            this.file     = file;
+            this.maxSize  = 10L << 20;
+            this.maxAge   = Long.MAX_VALUE;
+            this.maxFiles = 5;
+            this.json     = false;
+            
+            return this;
+        }
+        
+        /**
+         * @throws IOException if the file could not be opened.
+         */
+        public @NotNull RollingFileSink build() throws IOException
+        {
+            return new RollingFileSink(this.file, this.maxSize, this.maxAge, this.maxFiles, this.json);
+        }
+        
+        /**
+         * The size in bytes after which a new file is started.
+         */
+        public @NotNull Builder maxSize(long maxSize)
+        {
+            if (maxSize <= 0) throw new IllegalArgumentException("Invalid size: " + maxSize);
+            
+            this.maxSize = maxSize;
+            
+            return this;
+        }
+        
+        /**
+         * The time after which a new file is started.
+         */
+        public @NotNull Builder maxAge(@NotNull Duration maxAge)
+        {
+            if (maxAge.isNegative() || maxAge.isZero()) throw new IllegalArgumentException("Invalid age: " + maxAge);
+            
+            this.maxAge = maxAge.toMillis();
+            
+            return this;
+        }
+        
+        /**
+         * The number of old files that are kept.
+         */
+        public @NotNull Builder maxFiles(int maxFiles)
+        {
+            if (maxFiles < 0) throw new IllegalArgumentException("Invalid file count: " + maxFiles);
+            
+            this.maxFiles = maxFiles;
+            
+            return this;
+        }
+        
+        /**
+         * Writes one JSON object per line instead of formatted text.
+         */
+        public @NotNull Builder json(boolean json)
+        {
+            this.json = json;
+            
+            return this;
+        }
+    }
+}
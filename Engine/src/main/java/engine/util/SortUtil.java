@@ -0,0 +1,89 @@
+package engine.util;
+
+import java.util.Arrays;
+
+public class SortUtil
+{
+    /**
+     * Sorts the first {@code count} keys as unsigned 64-bit values, moving
+     * each value along with its key. The sort is a stable LSD radix sort,
+     * so values with equal keys keep their relative order.
+     *
+     * @param keys   The keys.
+     * @param values The values.
+     * @param count  The number of keys to sort.
+     */
+    public static void radixSort(long[] keys, int[] values, int count)
+    {
+        if (count < 0) throw new IndexOutOfBoundsException("count cannot be negative");
+        
+        radixSort(keys, values, count, new long[count], new int[count]);
+    }
+    
+    /**
+     * Sorts the first {@code count} keys as unsigned 64-bit values, moving
+     * each value along with its key. The sort is a stable LSD radix sort,
+     * so values with equal keys keep their relative order.
+     * <p>
+     * Passes over bytes that are the same for every key are skipped, so
+     * keys that only use their lower bytes are cheap to sort.
+     *
+     * @param keys       The keys.
+     * @param values     The values.
+     * @param count      The number of keys to sort.
+     * @param keysTmp    Scratch space of at least {@code count} keys.
+     * @param valuesTmp  Scratch space of at least {@code count} values.
+     *
+     * @throws IndexOutOfBoundsException if any array is shorter than
+     *                                   {@code count}.
+     */
+    public static void radixSort(long[] keys, int[] values, int count, long[] keysTmp, int[] valuesTmp)
+    {
+        if (count < 0) throw new IndexOutOfBoundsException("count cannot be negative");
+        if (keys.length < count || values.length < count) throw new IndexOutOfBoundsException("count exceeded array size");
+        if (keysTmp.length < count || valuesTmp.length < count) throw new IndexOutOfBoundsException("count exceeded scratch size");
+        if (count < 2) return;
+        
+        long[] srcKeys   = keys, dstKeys = keysTmp;
+        int[]  srcValues = values, dstValues = valuesTmp;
+        
+        int[] histogram = new int[256];
+        for (int shift = 0; shift < Long.SIZE; shift += 8)
+        {
+            Arrays.fill(histogram, 0);
+            for (int i = 0; i < count; i++) histogram[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+            
+            // Every key has the same byte, so this pass would not move anything
+            if (histogram[(int) (srcKeys[0] >>> shift) & 0xFF] == count) continue;
+            
+            for (int i = 0, sum = 0, n; i < 256; i++)
+            {
+                n            = histogram[i];
+                histogram[i] = sum;
+                sum += n;
+            }
+            
+            for (int i = 0, j; i < count; i++)
+            {
+                j = histogram[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+                
+                dstKeys[j]   = srcKeys[i];
+                dstValues[j] = srcValues[i];
+            }
+            
+            long[] tmpKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tmpKeys;
+            
+            int[] tmpValues = srcValues;
+            srcValues = dstValues;
+            dstValues = tmpValues;
+        }
+        
+        if (srcKeys != keys)
+        {
+            System.arraycopy(srcKeys, 0, keys, 0, count);
+            System.arraycopy(srcValues, 0, values, 0, count);
+        }
+    }
+}
@@ -2,25 +2,57 @@ package engine.util;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Queue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 
+/**
+ * Runs tasks on a specific thread, for example the main thread that GLFW
+ * calls must be made from.
+ * <p>
+ * Tasks from other threads are placed in a bounded {@link RingBuffer}, so
+ * queueing a task does not allocate, and {@link #execute(Runnable)} does
+ * not wrap it in a {@link Future} either. When the ring is full, the
+ * calling thread waits for the owning thread to make room.
+ * {@link #processQueue()} only runs up to {@link #maxTasks} tasks or for
+ * {@link #maxNanos} nanoseconds per call, so a flood of tasks cannot starve
+ * the owning thread.
+ */
 public class ThreadExecutor
 {
     private static final Logger LOGGER = Logger.getLogger();
     
+    private static final Logger.Limiter TASK_LIMITER = Logger.Limiter.perSecond(5);
+    
     private final Thread thread;
     
-    private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<>();
+    private final RingBuffer<Runnable> taskQueue;
     
     public Runnable onTaskReceived = null;
     
+    /**
+     * The most tasks run by a single call to {@link #processQueue()}.
+     */
+    public int maxTasks = Integer.MAX_VALUE;
+    
+    /**
+     * The longest time in nanoseconds a single call to
+     * {@link #processQueue()} keeps starting new tasks.
+     */
+    public long maxNanos = Long.MAX_VALUE;
+    
     public ThreadExecutor(@NotNull Thread thread)
     {
-        this.thread = thread;
+        this(thread, 1024);
+    }
+    
+    /**
+     * @param capacity The number of tasks that can wait at once.
+     */
+    public ThreadExecutor(@NotNull Thread thread, int capacity)
+    {
+        this.thread    = thread;
+        this.taskQueue = new RingBuffer<>(capacity);
     }
     
     @Override
@@ -29,22 +61,68 @@ public class ThreadExecutor
         return "ThreadExecutor{" + "thread=" + this.thread + ", tasks=" + this.taskQueue.size() + '}';
     }
     
-    public void processQueue()
+    /**
+     * @return {@code true} if tasks are waiting to be processed.
+     */
+    public boolean hasTasks()
+    {
+        return !this.taskQueue.isEmpty();
+    }
+    
+    /**
+     * Runs waiting tasks within the {@link #maxTasks} and {@link #maxNanos}
+     * budget.
+     *
+     * @return The number of tasks run.
+     */
+    public int processQueue()
+    {
+        return processQueue(this.maxTasks, this.maxNanos);
+    }
+    
+    /**
+     * Runs waiting tasks until there are none left, {@code maxTasks} have
+     * run, or {@code maxNanos} have passed. Tasks that are still waiting
+     * are run by the next call.
+     *
+     * @return The number of tasks run.
+     */
+    public int processQueue(int maxTasks, long maxNanos)
     {
         if (Thread.currentThread() != this.thread)
         {
             ThreadExecutor.LOGGER.warning("Attempted to process ThreadExecutor from another thread. '%s' != '%s'", Thread.currentThread(), this.thread);
-            return;
+            return 0;
         }
+        long start = System.nanoTime();
+        
+        int      count = 0;
         Runnable task;
-        while ((task = this.taskQueue.poll()) != null) runTask(task);
+        while (count < maxTasks && (task = this.taskQueue.poll()) != null)
+        {
+            runTask(task);
+            count++;
+            
+            if (System.nanoTime() - start >= maxNanos) break;
+        }
+        return count;
     }
     
     @NotNull
     private <T extends Runnable> T addTask(@NotNull T task)
     {
         if (Thread.currentThread() == this.thread) return runTask(task);
-        this.taskQueue.offer(task);
+        while (!this.taskQueue.offer(task))
+        {
+            if (!this.thread.isAlive())
+            {
+                ThreadExecutor.LOGGER.warning("Dropped task for finished thread '%s'", this.thread);
+                return task;
+            }
+            // Full, make sure the owning thread is awake to drain it
+            if (this.onTaskReceived != null) this.onTaskReceived.run();
+            Thread.yield();
+        }
         if (this.onTaskReceived != null) this.onTaskReceived.run();
         return task;
     }
@@ -58,12 +136,20 @@ public class ThreadExecutor
         }
         catch (Exception e)
         {
-            ThreadExecutor.LOGGER.severe("An exception occurred while trying to run task.");
-            ThreadExecutor.LOGGER.severe(e);
+            ThreadExecutor.LOGGER.log(ThreadExecutor.TASK_LIMITER, Logger.Level.SEVERE, "An exception occurred while trying to run task.", e);
         }
         return task;
     }
     
+    /**
+     * Runs the task on the executor's thread without a way to wait for it
+     * or get its result. Runs it immediately when called from that thread.
+     */
+    public void execute(@NotNull Runnable task)
+    {
+        addTask(task);
+    }
+    
     @NotNull
     public Future<?> submit(@NotNull Runnable task)
     {
@@ -0,0 +1,131 @@
+package engine.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Hands the latest copy of some state from one producer thread to one
+ * consumer thread without locks.
+ * <p>
+ * There are three copies: the producer writes into the back one, the
+ * consumer reads the front one, and the third holds the newest finished
+ * copy between them. Publishing and acquiring each swap with that middle
+ * copy in a single atomic operation, so neither side ever waits for the
+ * other. If the producer publishes more than once before the consumer
+ * acquires, only the newest copy is seen. A consumer with nothing to do can
+ * {@link #await(long)} the next publish instead of polling.
+ * <p>
+ * The back copy handed out after a publish holds older state, so the
+ * producer has to write all of it every time.
+ *
+ * @param <T> The state type.
+ */
+public class TripleBuffer<T>
+{
+    /**
+     * The state packs the index of the middle copy into the low two bits
+     * and sets this bit when it holds a copy the consumer has not seen.
+     */
+    private static final int FRESH = 4;
+    
+    private final Object[] copies;
+    
+    private final AtomicInteger middle = new AtomicInteger(1);
+    
+    private int back  = 0;
+    private int front = 2;
+    
+    private volatile Thread waiter = null;
+    
+    public TripleBuffer(@NotNull Supplier<T> factory)
+    {
+        this.copies = new Object[] {factory.get(), factory.get(), factory.get()};
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "TripleBuffer{" + "fresh=" + fresh() + '}';
+    }
+    
+    /**
+     * @return The copy the producer writes into.
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull T back()
+    {
+        return (T) this.copies[this.back];
+    }
+    
+    /**
+     * Makes the back copy available to the consumer and hands the producer
+     * a new one to write into. Must only be called by the producer.
+     */
+    public void publish()
+    {
+        this.back = this.middle.getAndSet(this.back | TripleBuffer.FRESH) & 3;
+        
+        Thread waiter = this.waiter;
+        if (waiter != null) LockSupport.unpark(waiter);
+    }
+    
+    /**
+     * @return {@code true} if a copy was published that the consumer has
+     * not acquired yet.
+     */
+    public boolean fresh()
+    {
+        return (this.middle.get() & TripleBuffer.FRESH) != 0;
+    }
+    
+    /**
+     * Parks the consumer until a copy is published or the time runs out.
+     * Must only be called by the consumer.
+     *
+     * @return {@code true} if a copy is ready to be acquired.
+     */
+    public boolean await(long nanos)
+    {
+        if (fresh()) return true;
+        
+        long end = System.nanoTime() + nanos;
+        this.waiter = Thread.currentThread();
+        try
+        {
+            long remaining;
+            while (!fresh() && (remaining = end - System.nanoTime()) > 0L) LockSupport.parkNanos(this, remaining);
+        }
+        finally
+        {
+            this.waiter = null;
+        }
+        return fresh();
+    }
+    
+    /**
+     * Swaps the newest published copy to the front. Must only be called by
+     * the consumer.
+     *
+     * @return {@code false} if nothing was published since the last call,
+     * in which case the front copy stays the same.
+     */
+    public boolean acquire()
+    {
+        if (!fresh()) return false;
+        
+        this.front = this.middle.getAndSet(this.front) & 3;
+        return true;
+    }
+    
+    /**
+     * @return The copy the consumer reads from.
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull T front()
+    {
+        return (T) this.copies[this.front];
+    }
+}
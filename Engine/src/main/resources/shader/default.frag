@@ -1,16 +1,71 @@
 #version 330
 
+// TEXTURE_SLOTS is defined by the Renderer when Renderer.DRAW_TEXTURE_SLOTS is enabled
+
 in vec3 fragTexCoord;
 in vec4 fragColor;
+#ifdef TEXTURE_SLOTS
+flat in int fragTexSlot;
+#endif
 
 out vec4 finalColor;
 
 uniform sampler2D texture0;
 
+#ifdef TEXTURE_SLOTS
+uniform sampler2D texture1;
+uniform sampler2D texture2;
+uniform sampler2D texture3;
+uniform sampler2D texture4;
+uniform sampler2D texture5;
+uniform sampler2D texture6;
+uniform sampler2D texture7;
+uniform sampler2D texture8;
+uniform sampler2D texture9;
+uniform sampler2D texture10;
+uniform sampler2D texture11;
+uniform sampler2D texture12;
+uniform sampler2D texture13;
+uniform sampler2D texture14;
+uniform sampler2D texture15;
+
+// Samplers can only be indexed by constants in GLSL 330, so each texture slot is selected explicitly.
+// Derivatives are taken up front as they are undefined inside non-uniform control flow.
+vec4 textureSlot(vec3 texCoord)
+{
+    vec2 dx = dFdx(texCoord.xy / texCoord.z);
+    vec2 dy = dFdy(texCoord.xy / texCoord.z);
+    switch (fragTexSlot)
+    {
+        case 1: return textureProjGrad(texture1, texCoord, dx, dy);
+        case 2: return textureProjGrad(texture2, texCoord, dx, dy);
+        case 3: return textureProjGrad(texture3, texCoord, dx, dy);
+        case 4: return textureProjGrad(texture4, texCoord, dx, dy);
+        case 5: return textureProjGrad(texture5, texCoord, dx, dy);
+        case 6: return textureProjGrad(texture6, texCoord, dx, dy);
+        case 7: return textureProjGrad(texture7, texCoord, dx, dy);
+        case 8: return textureProjGrad(texture8, texCoord, dx, dy);
+        case 9: return textureProjGrad(texture9, texCoord, dx, dy);
+        case 10: return textureProjGrad(texture10, texCoord, dx, dy);
+        case 11: return textureProjGrad(texture11, texCoord, dx, dy);
+        case 12: return textureProjGrad(texture12, texCoord, dx, dy);
+        case 13: return textureProjGrad(texture13, texCoord, dx, dy);
+        case 14: return textureProjGrad(texture14, texCoord, dx, dy);
+        case 15: return textureProjGrad(texture15, texCoord, dx, dy);
+        default: return textureProjGrad(texture0, texCoord, dx, dy);
+    }
+}
+#else
+vec4 textureSlot(vec3 texCoord)
+{
+    return textureProj(texture0, texCoord);
+}
+#endif
+
 void main()
 {
     // TODO - http://www.reedbeta.com/blog/quadrilateral-interpolation-part-1/
     // TODO - http://www.reedbeta.com/blog/quadrilateral-interpolation-part-2/
-    vec4 texelColor = textureProj(texture0, fragTexCoord);
+    vec4 texelColor = textureSlot(fragTexCoord);
     finalColor = texelColor * fragColor;
 }
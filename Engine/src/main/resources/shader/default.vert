@@ -3,15 +3,37 @@
 in vec3 POSITION;
 in vec3 TEXCOORD;
 in vec4 COLOR;
+#ifdef TEXTURE_SLOTS
+in float TEXSLOT;
+#endif
 
 out vec3 fragTexCoord;
 out vec4 fragColor;
+#ifdef TEXTURE_SLOTS
+flat out int fragTexSlot;
+#endif
 
-uniform mat4 MATRIX_MVP;
+layout(std140) uniform DefaultUniforms
+{
+    mat4 MATRIX_MVP;
+    mat4 MATRIX_PROJECTION;
+    mat4 MATRIX_VIEW;
+    mat4 MATRIX_MODEL;
+    mat4 MATRIX_NORMAL;
+    vec3 VECTOR_VIEW_X;
+    vec3 VECTOR_VIEW_Y;
+    vec3 VECTOR_VIEW_Z;
+    vec4 COLOR_DIFFUSE;
+    vec4 COLOR_SPECULAR;
+    vec4 COLOR_AMBIENT;
+};
 
 void main()
 {
     gl_Position = MATRIX_MVP * vec4(POSITION, 1.0);
     fragTexCoord = TEXCOORD;
     fragColor = COLOR;
+#ifdef TEXTURE_SLOTS
+    fragTexSlot = int(TEXSLOT);
+#endif
 }
@@ -0,0 +1,39 @@
+#version 330
+
+layout(location = 0) in vec2 CORNER;
+layout(location = 1) in vec4 INSTANCE_RECT;
+layout(location = 2) in vec4 INSTANCE_TEXCOORD;
+layout(location = 3) in vec4 INSTANCE_COLOR;
+
+out vec3 fragTexCoord;
+out vec4 fragColor;
+#ifdef TEXTURE_SLOTS
+flat out int fragTexSlot;
+#endif
+
+layout(std140) uniform DefaultUniforms
+{
+    mat4 MATRIX_MVP;
+    mat4 MATRIX_PROJECTION;
+    mat4 MATRIX_VIEW;
+    mat4 MATRIX_MODEL;
+    mat4 MATRIX_NORMAL;
+    vec3 VECTOR_VIEW_X;
+    vec3 VECTOR_VIEW_Y;
+    vec3 VECTOR_VIEW_Z;
+    vec4 COLOR_DIFFUSE;
+    vec4 COLOR_SPECULAR;
+    vec4 COLOR_AMBIENT;
+};
+uniform float DEPTH;
+
+void main()
+{
+    vec2 position = INSTANCE_RECT.xy + CORNER * INSTANCE_RECT.zw;
+    gl_Position = MATRIX_MVP * vec4(position, DEPTH, 1.0);
+    fragTexCoord = vec3(mix(INSTANCE_TEXCOORD.xy, INSTANCE_TEXCOORD.zw, CORNER), 1.0);
+    fragColor = INSTANCE_COLOR;
+#ifdef TEXTURE_SLOTS
+    fragTexSlot = 0;
+#endif
+}
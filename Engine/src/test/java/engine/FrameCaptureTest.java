@@ -0,0 +1,133 @@
+package engine;
+
+import engine.color.ColorBuffer;
+import engine.util.IOUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class FrameCaptureTest
+{
+    static Path outputDir;
+    
+    @BeforeAll
+    static void beforeAll() throws IOException
+    {
+        FrameCaptureTest.outputDir = IOUtil.getPath("out/FrameCapture").toAbsolutePath();
+        try
+        {
+            Files.createDirectories(FrameCaptureTest.outputDir);
+        }
+        catch (FileAlreadyExistsException ignored) {}
+    }
+    
+    /**
+     * Fills every pixel with the value and returns a read that finishes
+     * when the test completes it.
+     */
+    static CompletableFuture<?> fill(ColorBuffer buffer, int value, List<CompletableFuture<?>> reads)
+    {
+        for (int i = 0, n = buffer.capacity(); i < n; i++) buffer.put(i, value, value, value, 255);
+        
+        CompletableFuture<?> read = new CompletableFuture<>();
+        reads.add(read);
+        return read;
+    }
+    
+    @Test
+    void outOfOrder() throws Exception
+    {
+        Path         path    = FrameCaptureTest.outputDir.resolve("outOfOrder.rgba");
+        FrameCapture capture = FrameCapture.builder(2, 2).output(FrameCapture.Format.RGBA, path).encoders(2).poolSize(8).build();
+        
+        List<CompletableFuture<?>> reads = new ArrayList<>();
+        for (int i = 0; i < 6; i++)
+        {
+            int value = i + 1;
+            Assertions.assertTrue(capture.capture(buffer -> fill(buffer, value, reads)));
+        }
+        
+        // Later frames reach the encoders first
+        for (int i = reads.size() - 1; i >= 0; i--) reads.get(i).complete(null);
+        capture.stop().get(10, TimeUnit.SECONDS);
+        
+        Assertions.assertEquals(6, capture.captured());
+        Assertions.assertEquals(6, capture.written());
+        Assertions.assertEquals(0, capture.failed());
+        
+        byte[] bytes = Files.readAllBytes(path);
+        Assertions.assertEquals(6 * 4 * 4, bytes.length);
+        for (int frame = 0; frame < 6; frame++)
+        {
+            for (int pixel = 0; pixel < 4; pixel++)
+            {
+                int offset = (frame * 4 + pixel) * 4;
+                byte value = (byte) (frame + 1);
+                Assertions.assertArrayEquals(new byte[] {value, value, value, (byte) 255}, Arrays.copyOfRange(bytes, offset, offset + 4), "frame " + frame);
+            }
+        }
+    }
+    
+    @Test
+    void y4m() throws Exception
+    {
+        Path         path    = FrameCaptureTest.outputDir.resolve("y4m.y4m");
+        FrameCapture capture = FrameCapture.builder(2, 1).output(FrameCapture.Format.Y4M, path).frameRate(30).encoders(1).build();
+        
+        Assertions.assertTrue(capture.capture(buffer -> {
+            buffer.put(0, 255, 0, 0, 255);
+            buffer.put(1, 255, 255, 255, 255);
+            return CompletableFuture.completedFuture(null);
+        }));
+        capture.stop().get(10, TimeUnit.SECONDS);
+        
+        byte[] bytes  = Files.readAllBytes(path);
+        byte[] header = "YUV4MPEG2 W2 H1 F30:1 Ip A1:1 C444\nFRAME\n".getBytes(StandardCharsets.US_ASCII);
+        Assertions.assertArrayEquals(header, Arrays.copyOf(bytes, header.length));
+        
+        // Y, U and V planes for a red and a white pixel
+        byte[] planes = {(byte) 82, (byte) 235, (byte) 90, (byte) 128, (byte) 240, (byte) 128};
+        Assertions.assertArrayEquals(planes, Arrays.copyOfRange(bytes, header.length, bytes.length));
+    }
+    
+    @Test
+    void pool() throws Exception
+    {
+        Path         path    = FrameCaptureTest.outputDir.resolve("pool.rgba");
+        FrameCapture capture = FrameCapture.builder(1, 1).output(FrameCapture.Format.RGBA, path).encoders(1).poolSize(2).build();
+        
+        List<CompletableFuture<?>> reads = new ArrayList<>();
+        Assertions.assertTrue(capture.capture(buffer -> fill(buffer, 1, reads)));
+        Assertions.assertTrue(capture.capture(buffer -> fill(buffer, 2, reads)));
+        
+        // Both buffers are still being read
+        Assertions.assertFalse(capture.capture(buffer -> fill(buffer, 3, reads)));
+        Assertions.assertEquals(2, reads.size());
+        Assertions.assertEquals(1, capture.dropped());
+        Assertions.assertEquals(2, capture.backlog());
+        
+        // A failed read leaves the frame out of the stream
+        reads.get(0).completeExceptionally(new IOException("Lost"));
+        reads.get(1).complete(null);
+        capture.stop().get(10, TimeUnit.SECONDS);
+        
+        Assertions.assertFalse(capture.capture(buffer -> fill(buffer, 4, reads)));
+        Assertions.assertEquals(2, capture.captured());
+        Assertions.assertEquals(1, capture.dropped());
+        Assertions.assertEquals(1, capture.written());
+        Assertions.assertEquals(1, capture.failed());
+        Assertions.assertEquals(0, capture.backlog());
+        Assertions.assertArrayEquals(new byte[] {2, 2, 2, (byte) 255}, Files.readAllBytes(path));
+    }
+}
@@ -0,0 +1,159 @@
+package engine;
+
+import engine.color.Color;
+import engine.color.ColorBuffer;
+import engine.color.ColorFormat;
+import engine.gl.Rasterizer;
+import engine.gl.texture.Texture2D;
+import engine.gl.vertex.DrawMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.concurrent.CompletableFuture;
+
+class RendererTest
+{
+    static final int SIZE = 8;
+    
+    @BeforeAll
+    static void beforeAll()
+    {
+        // There is no GL context on this thread, so the batch is drawn by the rasterizer
+        Renderer.setup(RendererTest.SIZE, RendererTest.SIZE);
+    }
+    
+    @AfterAll
+    static void afterAll()
+    {
+        Renderer.destroy();
+    }
+    
+    static int pixel(int x, int y)
+    {
+        Rasterizer rasterizer = Renderer.rasterizer();
+        Assertions.assertNotNull(rasterizer);
+        return MemoryUtil.memGetInt(rasterizer.color().address() + (y * (long) RendererTest.SIZE + x) * 4L);
+    }
+    
+    static void quad(double x0, double y0, double x1, double y1, int r, int g, int b)
+    {
+        // Counter-clockwise once y points up, so back faces are culled the same as with GL
+        Renderer.drawVertexBegin(DrawMode.QUADS);
+        Renderer.drawVertexPos(x0, y0);
+        Renderer.drawVertexPos(x0, y1);
+        Renderer.drawVertexPos(x1, y1);
+        Renderer.drawVertexPos(x1, y0);
+        for (int i = 0; i < 4; i++) Renderer.drawVertexColor(r, g, b, 255);
+        Renderer.drawVertexEnd();
+    }
+    
+    @Test
+    void rasterizerBackend()
+    {
+        Renderer.stateClearColor(0.0, 0.0, 1.0, 1.0);
+        Renderer.clearScreenBuffers();
+        
+        Renderer.stateProjection().setOrtho(0, RendererTest.SIZE, RendererTest.SIZE, 0, -1, 1);
+        quad(2, 2, 6, 6, 255, 0, 0);
+        Renderer.drawVertices();
+        
+        // Custom scissor rectangles are kept in window coordinates, so this is the bottom row
+        Renderer.statePush();
+        Renderer.stateScissorMode(0, 0, RendererTest.SIZE, 1);
+        quad(0, 0, RendererTest.SIZE, RendererTest.SIZE, 0, 255, 0);
+        Renderer.drawVertices();
+        Renderer.statePop();
+        
+        for (int y = 0; y < RendererTest.SIZE; y++)
+        {
+            for (int x = 0; x < RendererTest.SIZE; x++)
+            {
+                int expected = 0xFFFF0000; // Blue
+                if (2 <= x && x < 6 && 2 <= y && y < 6) expected = 0xFF0000FF; // Red
+                if (y == RendererTest.SIZE - 1) expected = 0xFF00FF00; // Green
+                Assertions.assertEquals(expected, pixel(x, y), "(" + x + ", " + y + ")");
+            }
+        }
+    }
+    
+    @Test
+    void texture()
+    {
+        ColorBuffer texels = ColorBuffer.calloc(ColorFormat.RGBA, 4);
+        texels.put(0, 255, 0, 0, 255);
+        texels.put(1, 0, 255, 0, 255);
+        texels.put(2, 0, 0, 255, 255);
+        texels.put(3, 255, 255, 255, 255);
+        Texture2D texture = new Texture2D(texels, 2, 2);
+        texels.free();
+        
+        try
+        {
+            Renderer.stateClearColor(0.0, 0.0, 0.0, 1.0);
+            Renderer.clearScreenBuffers();
+            
+            Renderer.stateProjection().setOrtho(0, RendererTest.SIZE, RendererTest.SIZE, 0, -1, 1);
+            Renderer.drawSetTexture(texture);
+            Renderer.drawVertexBegin(DrawMode.QUADS);
+            Renderer.drawVertexPos(0, 0);
+            Renderer.drawVertexTexCoord(0, 0);
+            Renderer.drawVertexPos(0, RendererTest.SIZE);
+            Renderer.drawVertexTexCoord(0, 1);
+            Renderer.drawVertexPos(RendererTest.SIZE, RendererTest.SIZE);
+            Renderer.drawVertexTexCoord(1, 1);
+            Renderer.drawVertexPos(RendererTest.SIZE, 0);
+            Renderer.drawVertexTexCoord(1, 0);
+            Renderer.drawVertexEnd();
+            Renderer.drawVertices();
+            
+            int half = RendererTest.SIZE / 2;
+            for (int y = 0; y < RendererTest.SIZE; y++)
+            {
+                for (int x = 0; x < RendererTest.SIZE; x++)
+                {
+                    int expected = y < half ? (x < half ? 0xFF0000FF : 0xFF00FF00) : (x < half ? 0xFFFF0000 : 0xFFFFFFFF); // One texel per quarter
+                    Assertions.assertEquals(expected, pixel(x, y), "(" + x + ", " + y + ")");
+                }
+            }
+        }
+        finally
+        {
+            texture.delete();
+        }
+    }
+    
+    @Test
+    void readAsync() throws Exception
+    {
+        Renderer.stateClearColor(0.0, 0.0, 1.0, 1.0);
+        Renderer.clearScreenBuffers();
+        
+        Renderer.stateProjection().setOrtho(0, RendererTest.SIZE, RendererTest.SIZE, 0, -1, 1);
+        quad(0, 0, RendererTest.SIZE, 2, 0, 255, 0);
+        Renderer.drawVertices();
+        
+        // Window coordinates, so this is the top three rows
+        CompletableFuture<ColorBuffer> future = Renderer.readBackBufferAsync(0, RendererTest.SIZE - 3, RendererTest.SIZE, 3, ColorFormat.RGB);
+        Assertions.assertTrue(future.isDone());
+        
+        ColorBuffer data = future.get();
+        try
+        {
+            for (int y = 0; y < 3; y++)
+            {
+                for (int x = 0; x < RendererTest.SIZE; x++)
+                {
+                    Color expected = y < 2 ? new Color(0, 255, 0) : new Color(0, 0, 255); // Green, then blue
+                    Assertions.assertEquals(expected, data.get(y * RendererTest.SIZE + x), "(" + x + ", " + y + ")");
+                }
+            }
+        }
+        finally
+        {
+            data.free();
+        }
+    }
+}
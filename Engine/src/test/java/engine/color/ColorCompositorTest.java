@@ -0,0 +1,157 @@
+package engine.color;
+
+import engine.gl.BlendFunc;
+import engine.gl.BlendMode;
+import engine.gl.ScissorMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class ColorCompositorTest
+{
+    static final BlendMode[] MODES = {
+            BlendMode.NONE,
+            BlendMode.ALPHA,
+            BlendMode.ADDITIVE,
+            BlendMode.MULTIPLICATIVE,
+            BlendMode.STENCIL,
+            BlendMode.ADD_COLORS,
+            BlendMode.SUB_COLORS,
+            BlendMode.ILLUMINATE
+    };
+    
+    static double factor(BlendFunc func, double s, double sa, double d, double da)
+    {
+        return switch (func)
+                {
+                    case ZERO -> 0;
+                    case ONE -> 1;
+                    case SRC_COLOR -> s;
+                    case ONE_MINUS_SRC_COLOR -> 1 - s;
+                    case SRC_ALPHA -> sa;
+                    case ONE_MINUS_SRC_ALPHA -> 1 - sa;
+                    case DST_COLOR -> d;
+                    case ONE_MINUS_DST_COLOR -> 1 - d;
+                    case DST_ALPHA -> da;
+                    case ONE_MINUS_DST_ALPHA -> 1 - da;
+                };
+    }
+    
+    static int reference(BlendMode mode, int s, int sa, int d, int da)
+    {
+        if (mode == BlendMode.NONE) return s;
+        
+        double fs = factor(mode.srcFunc(), s / 255.0, sa / 255.0, d / 255.0, da / 255.0);
+        double fd = factor(mode.dstFunc(), s / 255.0, sa / 255.0, d / 255.0, da / 255.0);
+        double value = switch (mode.blendEqn())
+                {
+                    case ADD -> s * fs + d * fd;
+                    case SUBTRACT -> s * fs - d * fd;
+                    case REVERSE_SUBTRACT -> d * fd - s * fs;
+                    case MIN -> Math.min(s, d);
+                    case MAX -> Math.max(s, d);
+                };
+        return (int) Math.max(0, Math.min(255, Math.round(value)));
+    }
+    
+    @Test
+    void blendPacked()
+    {
+        Random random = new Random(1337);
+        
+        for (BlendMode mode : ColorCompositorTest.MODES)
+        {
+            for (int i = 0; i < 1000; i++)
+            {
+                int src = random.nextInt();
+                int dst = random.nextInt();
+                
+                int result = ColorCompositor.blend(mode, src, dst);
+                
+                for (int shift = 0; shift < 32; shift += 8)
+                {
+                    int expected = reference(mode, src >>> shift & 0xFF, src >>> 24, dst >>> shift & 0xFF, dst >>> 24);
+                    Assertions.assertEquals(expected, result >>> shift & 0xFF, 2, mode + " channel " + (shift >> 3));
+                }
+            }
+        }
+    }
+    
+    @Test
+    void blendOffsetAndClip()
+    {
+        ColorBuffer src = ColorBuffer.calloc(ColorFormat.RGBA, 2 * 2);
+        ColorBuffer dst = ColorBuffer.calloc(ColorFormat.RGBA, 4 * 4);
+        
+        for (int i = 0; i < 4; i++) src.put(i, 255, 0, 0, 255);
+        
+        // Only the bottom right pixel of the source lands on the destination
+        ColorCompositor.blend(src, 2, 2, dst, 4, 4, -1, -1, BlendMode.ALPHA);
+        Assertions.assertEquals(new Color(255, 0, 0, 255), dst.get(0));
+        Assertions.assertEquals(new Color(0, 0, 0, 0), dst.get(1));
+        Assertions.assertEquals(new Color(0, 0, 0, 0), dst.get(4));
+        
+        // The clip rectangle keeps the right column of the source out
+        ColorCompositor.blend(src, 2, 2, dst, 4, 4, 2, 2, 0, 0, 3, 4, null, BlendMode.ALPHA, ForkJoinPool.commonPool());
+        Assertions.assertEquals(new Color(255, 0, 0, 255), dst.get(2 * 4 + 2));
+        Assertions.assertEquals(new Color(255, 0, 0, 255), dst.get(3 * 4 + 2));
+        Assertions.assertEquals(new Color(0, 0, 0, 0), dst.get(2 * 4 + 3));
+        
+        // The scissor starts at the bottom like glScissor, so y = 1 keeps the bottom row of the source out
+        ColorCompositor.blend(src, 2, 2, dst, 4, 4, 0, 2, 0, 0, 4, 4, new ScissorMode(0, 1, 4, 3), BlendMode.ALPHA, ForkJoinPool.commonPool());
+        Assertions.assertEquals(new Color(255, 0, 0, 255), dst.get(2 * 4));
+        Assertions.assertEquals(new Color(0, 0, 0, 0), dst.get(3 * 4));
+        
+        // Scissor rows count up from the bottom, so the top row only covers destination row 0
+        ColorCompositor.blend(src, 2, 2, dst, 4, 4, 2, 0, 0, 0, 4, 4, new ScissorMode(0, 3, 4, 1), BlendMode.ALPHA, ForkJoinPool.commonPool());
+        Assertions.assertEquals(new Color(255, 0, 0, 255), dst.get(2));
+        Assertions.assertEquals(new Color(0, 0, 0, 0), dst.get(4 + 2));
+        
+        // NONE clips nothing
+        ColorCompositor.blend(src, 2, 2, dst, 4, 4, 1, 1, 0, 0, 4, 4, ScissorMode.NONE, BlendMode.ALPHA, ForkJoinPool.commonPool());
+        Assertions.assertEquals(new Color(255, 0, 0, 255), dst.get(4 + 1));
+        Assertions.assertEquals(new Color(255, 0, 0, 255), dst.get(2 * 4 + 2));
+        
+        src.free();
+        dst.free();
+    }
+    
+    @Test
+    void blendBands()
+    {
+        int width  = 300;
+        int height = 200;
+        
+        Random random = new Random(1337);
+        
+        ColorBuffer src      = ColorBuffer.malloc(ColorFormat.RGBA, width * height);
+        ColorBuffer dst      = ColorBuffer.malloc(ColorFormat.RGBA, width * height);
+        ColorBuffer dstRGB   = ColorBuffer.malloc(ColorFormat.RGB, width * height);
+        int[]       expected = new int[width * height];
+        int[]       original = new int[width * height];
+        for (int i = 0; i < width * height; i++)
+        {
+            ColorCompositor.put(src, i, random.nextInt());
+            ColorCompositor.put(dst, i, original[i] = random.nextInt());
+            ColorCompositor.put(dstRGB, i, original[i]);
+            expected[i] = ColorCompositor.blend(BlendMode.ALPHA, ColorCompositor.get(src, i), original[i]);
+        }
+        
+        ColorCompositor.blend(src, width, height, dst, width, height, 0, 0, 0, 0, width, height, null, BlendMode.ALPHA, ForkJoinPool.commonPool(), 1000);
+        ColorCompositor.blend(src, width, height, dstRGB, width, height, 0, 0, 0, 0, width, height, null, BlendMode.ALPHA, ForkJoinPool.commonPool(), 1000);
+        
+        for (int i = 0; i < width * height; i++)
+        {
+            Assertions.assertEquals(expected[i], ColorCompositor.get(dst, i));
+            
+            int rgb = ColorCompositor.blend(BlendMode.ALPHA, ColorCompositor.get(src, i), original[i] | 0xFF000000);
+            Assertions.assertEquals(rgb | 0xFF000000, ColorCompositor.get(dstRGB, i));
+        }
+        
+        src.free();
+        dst.free();
+        dstRGB.free();
+    }
+}
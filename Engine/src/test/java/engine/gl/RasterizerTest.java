@@ -0,0 +1,291 @@
+package engine.gl;
+
+import engine.Renderer;
+import engine.color.Color;
+import engine.color.ColorCompositor;
+import engine.gl.vertex.DrawMode;
+import org.joml.Matrix4d;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+class RasterizerTest
+{
+    static final int SIZE = 8;
+    
+    static final int ATTRIBUTES = Renderer.DRAW_ATTRIBUTE_POS | Renderer.DRAW_ATTRIBUTE_COLOR;
+    
+    static final BlendMode[] MODES = {
+            BlendMode.NONE,
+            BlendMode.ALPHA,
+            BlendMode.ADDITIVE,
+            BlendMode.MULTIPLICATIVE,
+            BlendMode.STENCIL,
+            BlendMode.ADD_COLORS,
+            BlendMode.SUB_COLORS,
+            BlendMode.ILLUMINATE
+    };
+    
+    Rasterizer rasterizer;
+    ByteBuffer data;
+    int        count;
+    
+    @BeforeEach
+    void setUp()
+    {
+        this.rasterizer = new Rasterizer(RasterizerTest.SIZE, RasterizerTest.SIZE);
+        this.data       = MemoryUtil.memCalloc(64 * Renderer.DRAW_VERTEX_SIZE);
+        
+        // Pixel coordinates with row 0 at the top, larger z is closer
+        this.rasterizer.mvp(new Matrix4d().setOrtho(0, RasterizerTest.SIZE, RasterizerTest.SIZE, 0, -1, 1));
+    }
+    
+    @AfterEach
+    void tearDown()
+    {
+        this.rasterizer.delete();
+        MemoryUtil.memFree(this.data);
+    }
+    
+    static int rgba(int r, int g, int b, int a)
+    {
+        return r | g << 8 | b << 16 | a << 24;
+    }
+    
+    void vertex(double x, double y, double z, int color)
+    {
+        int offset = this.count++ * Renderer.DRAW_VERTEX_SIZE;
+        this.data.putFloat(offset + Renderer.DRAW_VERTEX_POS_OFFSET, (float) x);
+        this.data.putFloat(offset + Renderer.DRAW_VERTEX_POS_OFFSET + 4, (float) y);
+        this.data.putFloat(offset + Renderer.DRAW_VERTEX_POS_OFFSET + 8, (float) z);
+        this.data.putInt(offset + Renderer.DRAW_VERTEX_COLOR_OFFSET, color);
+    }
+    
+    void rect(double x0, double y0, double x1, double y1, double z, int color)
+    {
+        vertex(x0, y0, z, color);
+        vertex(x1, y0, z, color);
+        vertex(x1, y1, z, color);
+        vertex(x0, y1, z, color);
+    }
+    
+    void draw(DrawMode mode)
+    {
+        this.rasterizer.draw(mode, RasterizerTest.ATTRIBUTES, this.data, 0, this.count);
+        this.count = 0;
+    }
+    
+    int pixel(int x, int y)
+    {
+        return MemoryUtil.memGetInt(this.rasterizer.color().address() + (y * (long) RasterizerTest.SIZE + x) * 4L);
+    }
+    
+    @Test
+    void sharedEdges()
+    {
+        this.rasterizer.blendMode(BlendMode.ADD_COLORS);
+        this.rasterizer.depthMode(DepthMode.NONE);
+        
+        // Quads are split along their diagonal, which passes through pixel centers
+        rect(0, 0, RasterizerTest.SIZE, RasterizerTest.SIZE, 0, rgba(10, 0, 0, 255));
+        draw(DrawMode.QUADS);
+        
+        // Edges of the fan run along pixel centers in every direction
+        vertex(4.5, 4.5, 0, rgba(0, 10, 0, 0));
+        vertex(0, 0, 0, rgba(0, 10, 0, 0));
+        vertex(4.5, 0, 0, rgba(0, 10, 0, 0));
+        vertex(8, 0, 0, rgba(0, 10, 0, 0));
+        vertex(8, 8, 0, rgba(0, 10, 0, 0));
+        vertex(0, 8, 0, rgba(0, 10, 0, 0));
+        vertex(0, 4.5, 0, rgba(0, 10, 0, 0));
+        vertex(0, 0, 0, rgba(0, 10, 0, 0));
+        draw(DrawMode.TRIANGLE_FAN);
+        
+        for (int y = 0; y < RasterizerTest.SIZE; y++)
+        {
+            for (int x = 0; x < RasterizerTest.SIZE; x++)
+            {
+                Assertions.assertEquals(rgba(10, 10, 0, 255), pixel(x, y), "(" + x + ", " + y + ")");
+            }
+        }
+    }
+    
+    @Test
+    void depth()
+    {
+        this.rasterizer.blendMode(BlendMode.NONE);
+        
+        rect(0, 0, RasterizerTest.SIZE, RasterizerTest.SIZE, 0.5, rgba(255, 0, 0, 255));
+        draw(DrawMode.QUADS);
+        
+        // Behind the first quad
+        rect(0, 0, RasterizerTest.SIZE, RasterizerTest.SIZE, 0.0, rgba(0, 255, 0, 255));
+        draw(DrawMode.QUADS);
+        
+        Assertions.assertEquals(rgba(255, 0, 0, 255), pixel(3, 3));
+        Assertions.assertEquals(0.25F, this.rasterizer.depth(3, 3), 1e-6F);
+        
+        // Passes the test without writing depth
+        this.rasterizer.depthMask(false);
+        rect(0, 0, RasterizerTest.SIZE, RasterizerTest.SIZE, 1.0, rgba(0, 0, 255, 255));
+        draw(DrawMode.QUADS);
+        
+        Assertions.assertEquals(rgba(0, 0, 255, 255), pixel(3, 3));
+        Assertions.assertEquals(0.25F, this.rasterizer.depth(3, 3), 1e-6F);
+        
+        // Depth is not written while the test is disabled, even with the mask set
+        this.rasterizer.depthMask(true);
+        this.rasterizer.depthMode(DepthMode.NONE);
+        rect(0, 0, RasterizerTest.SIZE, RasterizerTest.SIZE, -1.0, rgba(255, 255, 255, 255));
+        draw(DrawMode.QUADS);
+        
+        Assertions.assertEquals(rgba(255, 255, 255, 255), pixel(3, 3));
+        Assertions.assertEquals(0.25F, this.rasterizer.depth(3, 3), 1e-6F);
+    }
+    
+    @Test
+    void blendModes()
+    {
+        int src = rgba(200, 100, 50, 128);
+        int dst = rgba(20, 60, 240, 255);
+        
+        this.rasterizer.clear(new Color(20, 60, 240, 255), 1.0);
+        
+        // One column per mode, all rasterized in the same flush
+        for (int i = 0; i < RasterizerTest.MODES.length; i++)
+        {
+            this.rasterizer.blendMode(RasterizerTest.MODES[i]);
+            rect(i, 0, i + 1, RasterizerTest.SIZE, 0, src);
+            draw(DrawMode.QUADS);
+        }
+        
+        for (int i = 0; i < RasterizerTest.MODES.length; i++)
+        {
+            int expected = ColorCompositor.blend(RasterizerTest.MODES[i], src, dst);
+            for (int y = 0; y < RasterizerTest.SIZE; y++) Assertions.assertEquals(expected, pixel(i, y), RasterizerTest.MODES[i].toString());
+        }
+    }
+    
+    @Test
+    void scissor()
+    {
+        this.rasterizer.blendMode(BlendMode.NONE);
+        
+        // Window coordinates, so this is the bottom three rows
+        this.rasterizer.scissorMode(new ScissorMode(2, 0, 4, 3));
+        rect(0, 0, RasterizerTest.SIZE, RasterizerTest.SIZE, 0, rgba(255, 255, 255, 255));
+        draw(DrawMode.QUADS);
+        
+        for (int y = 0; y < RasterizerTest.SIZE; y++)
+        {
+            for (int x = 0; x < RasterizerTest.SIZE; x++)
+            {
+                boolean inside = 2 <= x && x < 6 && y >= 5;
+                Assertions.assertEquals(inside ? rgba(255, 255, 255, 255) : 0, pixel(x, y), "(" + x + ", " + y + ")");
+            }
+        }
+    }
+    
+    @Test
+    void cullFace()
+    {
+        this.rasterizer.mvp(new Matrix4d());
+        this.rasterizer.blendMode(BlendMode.NONE);
+        this.rasterizer.depthMode(DepthMode.NONE);
+        this.rasterizer.cullFace(CullFace.BACK);
+        
+        // Counter-clockwise in window coordinates, so it faces the viewer
+        vertex(-1, -1, 0, rgba(255, 0, 0, 255));
+        vertex(1, -1, 0, rgba(255, 0, 0, 255));
+        vertex(0, 1, 0, rgba(255, 0, 0, 255));
+        draw(DrawMode.TRIANGLES);
+        
+        vertex(-1, -1, 0, rgba(0, 255, 0, 255));
+        vertex(0, 1, 0, rgba(0, 255, 0, 255));
+        vertex(1, -1, 0, rgba(0, 255, 0, 255));
+        draw(DrawMode.TRIANGLES);
+        
+        Assertions.assertEquals(rgba(255, 0, 0, 255), pixel(4, 4));
+        
+        this.rasterizer.winding(Winding.CW);
+        vertex(-1, -1, 0, rgba(0, 0, 255, 255));
+        vertex(0, 1, 0, rgba(0, 0, 255, 255));
+        vertex(1, -1, 0, rgba(0, 0, 255, 255));
+        draw(DrawMode.TRIANGLES);
+        
+        Assertions.assertEquals(rgba(0, 0, 255, 255), pixel(4, 4));
+    }
+    
+    @Test
+    void nearPlane()
+    {
+        this.rasterizer.mvp(new Matrix4d().setPerspective(Math.toRadians(90), 1, 0.1, 100));
+        this.rasterizer.blendMode(BlendMode.NONE);
+        
+        // A floor that runs from in front of the eye to behind it
+        vertex(-1, -1, -2, rgba(255, 0, 0, 255));
+        vertex(1, -1, -2, rgba(255, 0, 0, 255));
+        vertex(0, -1, 5, rgba(255, 0, 0, 255));
+        draw(DrawMode.TRIANGLES);
+        
+        // Entirely behind the eye
+        vertex(-1, 1, 2, rgba(0, 255, 0, 255));
+        vertex(1, 1, 2, rgba(0, 255, 0, 255));
+        vertex(0, -1, 5, rgba(0, 255, 0, 255));
+        draw(DrawMode.TRIANGLES);
+        
+        for (int y = 0; y < RasterizerTest.SIZE; y++)
+        {
+            for (int x = 0; x < RasterizerTest.SIZE; x++)
+            {
+                // The clipped floor widens towards the bottom of the image
+                boolean floor = y == 6 && 2 <= x && x < 6 || y == 7 && 1 <= x && x < 7;
+                Assertions.assertEquals(floor ? rgba(255, 0, 0, 255) : 0, pixel(x, y), "(" + x + ", " + y + ")");
+            }
+        }
+        
+        float depth = this.rasterizer.depth(4, 7);
+        Assertions.assertTrue(0F <= depth && depth < 1F, "depth " + depth);
+    }
+    
+    @Test
+    void golden()
+    {
+        String[] golden = {
+                "........",
+                ".RRR....",
+                ".RRRRRRR",
+                ".RRRGGG.",
+                "..RRGGG.",
+                "..RRGGG.",
+                "..RRGGG.",
+                "........",
+        };
+        
+        this.rasterizer.blendMode(BlendMode.NONE);
+        
+        vertex(0.5, 0.5, 0, rgba(255, 0, 0, 255));
+        vertex(7.5, 2.5, 0, rgba(255, 0, 0, 255));
+        vertex(2.5, 7.5, 0, rgba(255, 0, 0, 255));
+        draw(DrawMode.TRIANGLES);
+        
+        rect(4, 3, 7, 7, 0.5, rgba(0, 255, 0, 255));
+        draw(DrawMode.QUADS);
+        
+        StringBuilder image = new StringBuilder();
+        for (int y = 0; y < RasterizerTest.SIZE; y++)
+        {
+            for (int x = 0; x < RasterizerTest.SIZE; x++)
+            {
+                int pixel = pixel(x, y);
+                image.append(pixel == rgba(255, 0, 0, 255) ? 'R' : pixel == rgba(0, 255, 0, 255) ? 'G' : pixel == 0 ? '.' : '?');
+            }
+            image.append('\n');
+        }
+        Assertions.assertEquals(String.join("\n", golden) + '\n', image.toString());
+    }
+}
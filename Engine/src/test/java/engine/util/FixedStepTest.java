@@ -0,0 +1,43 @@
+package engine.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FixedStepTest
+{
+    @Test
+    void advance()
+    {
+        FixedStep fixed = new FixedStep();
+        
+        // The first frame always gets a step
+        Assertions.assertEquals(1, fixed.advance(0L, 10L));
+        Assertions.assertEquals(0.0, fixed.alpha(0L));
+        
+        Assertions.assertEquals(0, fixed.advance(4L, 10L));
+        Assertions.assertEquals(0.5, fixed.alpha(1L));
+        
+        Assertions.assertEquals(2, fixed.advance(21L, 10L));
+        Assertions.assertEquals(0.5, fixed.alpha(0L));
+        Assertions.assertEquals(1.0, fixed.alpha(100L));
+        Assertions.assertEquals(0L, fixed.dropped());
+    }
+    
+    @Test
+    void maxSteps()
+    {
+        FixedStep fixed = new FixedStep();
+        fixed.maxSteps(3);
+        fixed.advance(0L, 10L);
+        
+        Assertions.assertEquals(3, fixed.advance(87L, 10L));
+        Assertions.assertEquals(5L, fixed.dropped());
+        Assertions.assertEquals(0.7, fixed.alpha(0L), 1e-9);
+        
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fixed.maxSteps(0));
+        
+        fixed.reset();
+        Assertions.assertEquals(0L, fixed.dropped());
+        Assertions.assertEquals(1, fixed.advance(0L, 10L));
+    }
+}
@@ -0,0 +1,59 @@
+package engine.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FramePacerTest
+{
+    @Test
+    void advance()
+    {
+        FramePacer pacer = new FramePacer();
+        pacer.frequency(100);
+        pacer.reset(0L);
+        
+        Assertions.assertEquals(10_000_000L, pacer.period());
+        Assertions.assertTrue(pacer.due(0L));
+        
+        Assertions.assertEquals(0L, pacer.advance(0L));
+        Assertions.assertEquals(10_000_000L, pacer.deadline());
+        Assertions.assertFalse(pacer.due(9_999_999L));
+        
+        // Starting a little late does not push later deadlines back
+        Assertions.assertEquals(12_000_000L, pacer.advance(12_000_000L));
+        Assertions.assertEquals(20_000_000L, pacer.deadline());
+        Assertions.assertEquals(0L, pacer.missed());
+        
+        // Falling more than a period behind skips frames instead of catching up
+        pacer.advance(55_000_000L);
+        Assertions.assertEquals(3L, pacer.missed());
+        Assertions.assertEquals(65_000_000L, pacer.deadline());
+    }
+    
+    @Test
+    void unlimited()
+    {
+        FramePacer pacer = new FramePacer();
+        pacer.reset(0L);
+        
+        pacer.advance(5L);
+        Assertions.assertTrue(pacer.due(5L));
+        Assertions.assertEquals(0L, pacer.missed());
+    }
+    
+    @Test
+    void sleep()
+    {
+        FramePacer pacer = new FramePacer();
+        for (FramePacer.Policy policy : FramePacer.Policy.values())
+        {
+            pacer.policy(policy);
+            for (int i = 0; i < 3; i++)
+            {
+                long start = System.nanoTime();
+                pacer.sleep(2_000_000L);
+                Assertions.assertTrue(System.nanoTime() - start >= 2_000_000L, policy.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package engine.util;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+class JobSystemTest
+{
+    static JobSystem jobs;
+    
+    @BeforeAll
+    static void setup()
+    {
+        JobSystemTest.jobs = new JobSystem(3);
+    }
+    
+    @AfterAll
+    static void destroy() throws InterruptedException
+    {
+        JobSystemTest.jobs.shutdown();
+    }
+    
+    @Test
+    void forEach()
+    {
+        int[] values = new int[10_000];
+        
+        JobSystem.Job job = JobSystemTest.jobs.forEach(values.length, 64, i -> values[i] = i * 2);
+        JobSystemTest.jobs.waitFor(job);
+        
+        Assertions.assertTrue(job.done());
+        for (int i = 0; i < values.length; i++) Assertions.assertEquals(i * 2, values[i]);
+        
+        JobSystemTest.jobs.endFrame();
+    }
+    
+    @Test
+    void dependencies()
+    {
+        StringBuffer order = new StringBuffer();
+        
+        JobSystem.Job a = JobSystemTest.jobs.create(() -> order.append('a'));
+        JobSystem.Job b = JobSystemTest.jobs.create(() -> order.append('b')).after(a);
+        JobSystem.Job c = JobSystemTest.jobs.create(() -> order.append('c')).after(b).after(a);
+        
+        // Scheduled in reverse, still run in dependency order
+        JobSystemTest.jobs.schedule(c);
+        JobSystemTest.jobs.schedule(b);
+        JobSystemTest.jobs.schedule(a);
+        JobSystemTest.jobs.waitFor(c);
+        
+        Assertions.assertEquals("abc", order.toString());
+        Assertions.assertThrows(IllegalStateException.class, () -> JobSystemTest.jobs.schedule(a));
+        
+        // Depending on a finished job does not block
+        JobSystem.Job d = JobSystemTest.jobs.create(() -> order.append('d')).after(c);
+        JobSystemTest.jobs.schedule(d);
+        JobSystemTest.jobs.waitFor(d);
+        Assertions.assertEquals("abcd", order.toString());
+        
+        JobSystemTest.jobs.endFrame();
+    }
+    
+    @Test
+    void children()
+    {
+        AtomicInteger count = new AtomicInteger();
+        AtomicInteger seen  = new AtomicInteger(-1);
+        AtomicBoolean early = new AtomicBoolean(true);
+        
+        JobSystem.Job[] parent = new JobSystem.Job[1];
+        parent[0] = JobSystemTest.jobs.create(() -> {
+            // Spawned from inside a job, the parent waits for all of them
+            for (int i = 0; i < 100; i++)
+            {
+                JobSystem.Job child = JobSystemTest.jobs.create(() -> {
+                    LockSupport.parkNanos(50_000L);
+                    count.incrementAndGet();
+                }, parent[0]);
+                JobSystemTest.jobs.schedule(child);
+            }
+            early.set(parent[0].done());
+        });
+        
+        // Runs once the parent is finished, which is only after every child
+        JobSystem.Job after = JobSystemTest.jobs.create(() -> seen.set(count.get())).after(parent[0]);
+        JobSystemTest.jobs.schedule(after);
+        JobSystemTest.jobs.schedule(parent[0]);
+        
+        JobSystemTest.jobs.waitFor(parent[0]);
+        Assertions.assertFalse(early.get());
+        Assertions.assertEquals(100, count.get());
+        
+        JobSystemTest.jobs.waitFor(after);
+        Assertions.assertEquals(100, seen.get());
+        
+        // Children created outside of a job
+        JobSystem.Job root = JobSystemTest.jobs.create(() -> {});
+        for (int i = 0; i < 50; i++) JobSystemTest.jobs.schedule(JobSystemTest.jobs.create(count::incrementAndGet, root));
+        JobSystemTest.jobs.schedule(root);
+        
+        JobSystemTest.jobs.waitFor(root);
+        Assertions.assertEquals(150, count.get());
+        
+        JobSystemTest.jobs.endFrame();
+    }
+    
+    @Test
+    void frames()
+    {
+        AtomicLong sum = new AtomicLong();
+        for (int frame = 0; frame < 20; frame++)
+        {
+            // More handles than fit in the pool, so some come from the heap
+            for (int i = 0; i < JobSystem.POOL_SIZE + 100; i++)
+            {
+                long value = i;
+                JobSystemTest.jobs.run(() -> sum.addAndGet(value));
+            }
+            JobSystemTest.jobs.endFrame();
+        }
+        long n = JobSystem.POOL_SIZE + 100;
+        Assertions.assertEquals(20 * n * (n - 1) / 2, sum.get());
+    }
+}
@@ -0,0 +1,66 @@
+package engine.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.MissingFormatArgumentException;
+
+class LogFormatTest
+{
+    static String format(String format, Object... args)
+    {
+        StringBuilder builder = new StringBuilder();
+        LogFormat.get(format).format(builder, args);
+        return builder.toString();
+    }
+    
+    @Test
+    void sameAsStringFormat()
+    {
+        ZonedDateTime time = ZonedDateTime.ofInstant(Instant.ofEpochMilli(1_000_000_007L), ZoneId.of("UTC"));
+        
+        String[] formats = {
+                Logger.PREFIX_FORMAT,
+                Logger.MESSAGE_FORMAT,
+                "No specifiers",
+                "100%% of %s",
+                "%2$s %1$s %<s %s",
+                "data@%08X for %s",
+                "%.3f|%-6s|%5d",
+                "%1$tB %1$tY",
+        };
+        Object[][] args = {
+                {time, "main", Logger.Level.INFO, "engine.Renderer"},
+                {"prefix", "line"},
+                {},
+                {"tests"},
+                {"a", "b"},
+                {0xBEEF, "Texture"},
+                {Math.PI, "ab", 42},
+                {time},
+        };
+        for (int i = 0; i < formats.length; i++)
+        {
+            Assertions.assertEquals(String.format(formats[i], args[i]), format(formats[i], args[i]), formats[i]);
+        }
+    }
+    
+    @Test
+    void specifiers()
+    {
+        Assertions.assertFalse(LogFormat.get("Created").specifiers);
+        Assertions.assertFalse(LogFormat.get("50%").specifiers);
+        Assertions.assertTrue(LogFormat.get("%s").specifiers);
+        Assertions.assertTrue(LogFormat.get("100%%").specifiers);
+        Assertions.assertSame(LogFormat.get("%s|%s"), LogFormat.get("%s|%s"));
+    }
+    
+    @Test
+    void missingArgument()
+    {
+        Assertions.assertThrows(MissingFormatArgumentException.class, () -> format("%s %s", "one"));
+    }
+}
@@ -1,8 +1,16 @@
 package engine.util;
 
+import com.sun.management.ThreadMXBean;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 class LoggerTest
 {
     static final Logger LOGGER = Logger.getLogger();
@@ -55,6 +63,381 @@ class LoggerTest
         LoggerTest.LOGGER.trace("%s|%s|%s", "Object 1", "Object 2", "Object 3");
     }
     
+    @Test
+    void levels()
+    {
+        Logger.Level global = Logger.globalLevel();
+        try
+        {
+            Logger.globalLevel(Logger.Level.INFO);
+            Assertions.assertTrue(LoggerTest.LOGGER.isLoggable(Logger.Level.INFO));
+            Assertions.assertFalse(LoggerTest.LOGGER.isLoggable(Logger.Level.DEBUG));
+            
+            LoggerTest.LOGGER.level(Logger.Level.WARNING);
+            Assertions.assertFalse(LoggerTest.LOGGER.isLoggable(Logger.Level.INFO));
+            Assertions.assertTrue(LoggerTest.LOGGER.isLoggable(Logger.Level.WARNING));
+            
+            // The logger's own level takes precedence over the global level
+            Logger.globalLevel(Logger.Level.SEVERE);
+            Assertions.assertTrue(LoggerTest.LOGGER.isLoggable(Logger.Level.WARNING));
+            
+            LoggerTest.LOGGER.level(null);
+            Logger.globalLevel(Logger.Level.TRACE);
+            Assertions.assertTrue(LoggerTest.LOGGER.isLoggable(Logger.Level.TRACE));
+        }
+        finally
+        {
+            LoggerTest.LOGGER.level(null);
+            Logger.globalLevel(global);
+        }
+    }
+    
+    @Test
+    void packageLevels()
+    {
+        Logger.Level global = Logger.globalLevel();
+        Logger       nested = Logger.getLogger("engine.util.LoggerTest$Nested");
+        Logger       other  = Logger.getLogger("engine.other.Class");
+        try
+        {
+            Logger.globalLevel(Logger.Level.INFO);
+            Logger.packageLevel("engine.util", Logger.Level.DEBUG);
+            Assertions.assertEquals(Logger.Level.DEBUG, LoggerTest.LOGGER.effectiveLevel());
+            Assertions.assertEquals(Logger.Level.DEBUG, nested.effectiveLevel());
+            Assertions.assertEquals(Logger.Level.INFO, other.effectiveLevel());
+            
+            // The closest name wins
+            Logger.packageLevel("engine.util.LoggerTest", Logger.Level.WARNING);
+            Assertions.assertFalse(LoggerTest.LOGGER.isLoggable(Logger.Level.INFO));
+            Assertions.assertFalse(nested.isLoggable(Logger.Level.INFO));
+            
+            // Loggers created later pick up existing levels
+            Assertions.assertEquals(Logger.Level.DEBUG, Logger.getLogger("engine.util.Created").effectiveLevel());
+            
+            Logger.packageLevel("engine.util.LoggerTest", null);
+            Logger.packageLevel("engine.util", null);
+            Assertions.assertEquals(Logger.Level.INFO, nested.effectiveLevel());
+        }
+        finally
+        {
+            Logger.packageLevel("engine.util.LoggerTest", null);
+            Logger.packageLevel("engine.util", null);
+            Logger.globalLevel(global);
+        }
+    }
+    
+    @Test
+    void getLoggerConcurrently() throws InterruptedException
+    {
+        Logger[] loggers = new Logger[8];
+        Thread[] threads = new Thread[loggers.length];
+        for (int i = 0; i < threads.length; i++)
+        {
+            int index = i;
+            threads[i] = new Thread(() -> loggers[index] = Logger.getLogger("engine.util.Concurrent"));
+            threads[i].start();
+        }
+        for (Thread thread : threads) thread.join();
+        
+        for (Logger logger : loggers) Assertions.assertSame(loggers[0], logger);
+        Assertions.assertSame(LoggerTest.LOGGER, Logger.getLogger(LoggerTest.class));
+    }
+    
+    @Test
+    void limiter()
+    {
+        Logger.Limiter limiter = new Logger.Limiter(2, Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) LoggerTest.LOGGER.log(limiter, Logger.Level.INFO, "Limited %s", i);
+        Assertions.assertEquals(8, limiter.suppressed());
+        
+        // Disabled levels do not use up permits
+        Logger.Limiter disabled = new Logger.Limiter(1, Duration.ofHours(1));
+        LoggerTest.LOGGER.log(disabled, Logger.Level.TRACE, "Disabled");
+        LoggerTest.LOGGER.log(disabled, Logger.Level.INFO, "Enabled");
+        Assertions.assertEquals(0, disabled.suppressed());
+    }
+    
+    @Test
+    void limiterSummary() throws InterruptedException
+    {
+        Logger.Limiter limiter = new Logger.Limiter(1, Duration.ofMillis(200));
+        for (int i = 0; i < 5; i++) LoggerTest.LOGGER.log(limiter, Logger.Level.INFO, "Burst %s", i);
+        Assertions.assertEquals(4, limiter.suppressed());
+        
+        Thread.sleep(250);
+        LoggerTest.LOGGER.log(limiter, Logger.Level.INFO, "After the burst");
+        Assertions.assertEquals(0, limiter.suppressed());
+    }
+    
+    @Test
+    void limiterReportsSuppressed()
+    {
+        Capture capture = new Capture();
+        LoggerTest.LOGGER.sinks = List.of(capture);
+        try
+        {
+            Logger.Limiter limiter = new Logger.Limiter(1, Duration.ofHours(1));
+            for (int i = 0; i < 5; i++) LoggerTest.LOGGER.log(limiter, Logger.Level.INFO, "Burst %s", i);
+            
+            Logger.reportSuppressed();
+            Assertions.assertEquals(List.of("Burst 0", "4 similar messages suppressed: Burst %s"), capture.messages);
+            Assertions.assertEquals(0, limiter.suppressed());
+            
+            // Nothing is left to report
+            Logger.reportSuppressed();
+            Assertions.assertEquals(2, capture.messages.size());
+        }
+        finally
+        {
+            LoggerTest.LOGGER.sinks = null;
+        }
+    }
+    
+    @Test
+    void limiterConcurrent() throws InterruptedException
+    {
+        Capture capture = new Capture();
+        LoggerTest.LOGGER.sinks = List.of(capture);
+        try
+        {
+            Logger.Limiter limiter = new Logger.Limiter(3, Duration.ofMillis(5));
+            
+            long     start   = System.nanoTime();
+            Thread[] threads = new Thread[4];
+            for (int i = 0; i < threads.length; i++)
+            {
+                threads[i] = new Thread(() -> {
+                    for (int j = 0; j < 2_000; j++) LoggerTest.LOGGER.log(limiter, Logger.Level.INFO, "Concurrent");
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) thread.join();
+            long periods = (System.nanoTime() - start) / limiter.period + 2;
+            
+            int passed = capture.messages.size();
+            Assertions.assertTrue(passed >= limiter.permits);
+            Assertions.assertTrue(passed <= periods * limiter.permits, passed + " records in " + periods + " periods");
+        }
+        finally
+        {
+            LoggerTest.LOGGER.sinks = null;
+            Logger.reportSuppressed();
+        }
+    }
+    
+    @Test
+    void packageLevelsSpec()
+    {
+        Logger.Level global = Logger.globalLevel();
+        try
+        {
+            Logger.packageLevels("engine.util=debug, engine.util.LoggerTest=WARNING,*=SEVERE");
+            Assertions.assertEquals(Logger.Level.SEVERE, Logger.globalLevel());
+            Assertions.assertEquals(Logger.Level.DEBUG, Logger.packageLevel("engine.util"));
+            Assertions.assertEquals(Logger.Level.WARNING, LoggerTest.LOGGER.effectiveLevel());
+            
+            Logger.packageLevels("engine.util.LoggerTest=");
+            Assertions.assertEquals(Logger.Level.DEBUG, LoggerTest.LOGGER.effectiveLevel());
+            
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Logger.packageLevels("engine.util"));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Logger.packageLevels("engine.util=LOUD"));
+        }
+        finally
+        {
+            Logger.packageLevel("engine.util.LoggerTest", null);
+            Logger.packageLevel("engine.util", null);
+            Logger.globalLevel(global);
+        }
+    }
+    
+    @Test
+    void lazy()
+    {
+        Logger.Level global = Logger.globalLevel();
+        try
+        {
+            int[] calls = new int[1];
+            
+            Logger.globalLevel(Logger.Level.INFO);
+            LoggerTest.LOGGER.trace(() -> calls[0]++);
+            Assertions.assertEquals(0, calls[0]);
+            
+            LoggerTest.LOGGER.info(() -> calls[0]++);
+            Assertions.assertEquals(1, calls[0]);
+        }
+        finally
+        {
+            Logger.globalLevel(global);
+        }
+    }
+    
+    @Test
+    void async()
+    {
+        for (Logger.Overflow overflow : Logger.Overflow.values())
+        {
+            Logger.startAsync(16, overflow);
+            try
+            {
+                for (int i = 0; i < 100; i++) LoggerTest.LOGGER.info("Async %s %s", overflow, i);
+                Assertions.assertTrue(Logger.droppedRecords() >= 0);
+                if (overflow == Logger.Overflow.BLOCK) Assertions.assertEquals(0, Logger.droppedRecords());
+            }
+            finally
+            {
+                Logger.stopAsync();
+            }
+        }
+        LoggerTest.LOGGER.info("Sync");
+    }
+    
+    @Test
+    void asyncFormatting()
+    {
+        Capture capture = new Capture();
+        LoggerTest.LOGGER.sinks = List.of(capture);
+        Logger.startAsync(16, Logger.Overflow.BLOCK);
+        try
+        {
+            // Printed by whichever thread formats the record
+            Throwable thread = new Throwable()
+            {
+                @Override
+                public String toString()
+                {
+                    return Thread.currentThread().getName();
+                }
+            };
+            StringBuilder mutable = new StringBuilder("before");
+            
+            LoggerTest.LOGGER.info("%s", thread);
+            LoggerTest.LOGGER.info("%s", mutable);
+            mutable.setLength(0);
+            mutable.append("after");
+        }
+        finally
+        {
+            Logger.stopAsync();
+            LoggerTest.LOGGER.sinks = null;
+        }
+        Assertions.assertEquals(2, capture.messages.size());
+        Assertions.assertTrue(capture.messages.get(0).startsWith("Logger-Async"), capture.messages.get(0));
+        Assertions.assertEquals("before", capture.messages.get(1));
+    }
+    
+    @Test
+    void asyncFlushWhenIdle() throws InterruptedException
+    {
+        long interval = Logger.ASYNC_FLUSH_INTERVAL;
+        
+        Capture capture = new Capture();
+        LoggerTest.LOGGER.sinks = List.of(capture);
+        Logger.ASYNC_FLUSH_INTERVAL = 60_000;
+        Logger.startAsync(16, Logger.Overflow.DROP);
+        try
+        {
+            LoggerTest.LOGGER.info("Idle");
+            
+            long end = System.nanoTime() + 5_000_000_000L;
+            while (capture.flushes() == 0 && System.nanoTime() < end) Thread.sleep(1);
+            Assertions.assertTrue(capture.flushes() > 0);
+        }
+        finally
+        {
+            Logger.stopAsync();
+            Logger.ASYNC_FLUSH_INTERVAL = interval;
+            LoggerTest.LOGGER.sinks = null;
+        }
+    }
+    
+    @Test
+    void primitives()
+    {
+        Capture capture = new Capture();
+        LoggerTest.LOGGER.sinks = List.of(capture);
+        LoggerTest.LOGGER.level(Logger.Level.TRACE);
+        try
+        {
+            LoggerTest.LOGGER.trace("long(%s)", 1);
+            LoggerTest.LOGGER.trace("long(%s, %s, %s, %s, %s)", 1, 2, 3, 4L, 5);
+            LoggerTest.LOGGER.trace("double(%s, %s, %s, %s)", 1.0, 2.0, 3.0, 4.0);
+            LoggerTest.LOGGER.trace("mixed(%s, %s, %s)", 1, 2.0, 3.0);
+            LoggerTest.LOGGER.trace("attributeInt(%s, %s, %s)", "name", 1, 2);
+            LoggerTest.LOGGER.trace("attributeFloat(%s, %s, %s, %s, %s)", "name", 1.0F, 2.0, 3.0, 4.0);
+            
+            Assertions.assertEquals(List.of("long(1)",
+                                            "long(1, 2, 3, 4, 5)",
+                                            "double(1.0, 2.0, 3.0, 4.0)",
+                                            "mixed(1, 2.0, 3.0)",
+                                            "attributeInt(name, 1, 2)",
+                                            "attributeFloat(name, 1.0, 2.0, 3.0, 4.0)"), capture.messages);
+        }
+        finally
+        {
+            LoggerTest.LOGGER.level(null);
+            LoggerTest.LOGGER.sinks = null;
+        }
+    }
+    
+    @Test
+    void primitivesFloat()
+    {
+        Capture capture = new Capture();
+        LoggerTest.LOGGER.sinks = List.of(capture);
+        LoggerTest.LOGGER.level(Logger.Level.TRACE);
+        try
+        {
+            // Floats must not be widened to double, which would print 0.10000000149011612
+            LoggerTest.LOGGER.trace("float(%s, %s)", 0.1F, 0.2F);
+            LoggerTest.LOGGER.trace("uniformFloat(%s, %s)", 3, 0.1F);
+            LoggerTest.LOGGER.trace("attributeFloat3(%s, %s, %s, %s)", "name", 0.1F, 0.2F, 0.3F);
+            LoggerTest.LOGGER.trace("attributeFloat(%s, %s)", "name", 0.1F);
+            
+            Assertions.assertEquals(List.of("float(0.1, 0.2)",
+                                            "uniformFloat(3, 0.1)",
+                                            "attributeFloat3(name, 0.1, 0.2, 0.3)",
+                                            "attributeFloat(name, 0.1)"), capture.messages);
+        }
+        finally
+        {
+            LoggerTest.LOGGER.level(null);
+            LoggerTest.LOGGER.sinks = null;
+        }
+    }
+    
+    @Test
+    void primitivesDisabled()
+    {
+        ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+        
+        LoggerTest.LOGGER.level(Logger.Level.INFO);
+        try
+        {
+            long thread = Thread.currentThread().getId();
+            for (int i = 0; i < 10_000; i++) tracePrimitives(i);
+            
+            long before = bean.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 10_000; i++) tracePrimitives(i);
+            long allocated = bean.getThreadAllocatedBytes(thread) - before;
+            
+            // Boxing would cost at least 16 bytes per argument per call
+            Assertions.assertTrue(allocated < 16_384L, "Allocated " + allocated + " bytes");
+        }
+        finally
+        {
+            LoggerTest.LOGGER.level(null);
+        }
+    }
+    
+    private static void tracePrimitives(int i)
+    {
+        LoggerTest.LOGGER.trace("long(%s, %s)", i, i + 1);
+        LoggerTest.LOGGER.trace("double(%s, %s)", i * 0.5, i * 2.5);
+        LoggerTest.LOGGER.trace("attributeFloat(%s, %s, %s)", "name", i * 0.5F, i * 2.5F);
+        LoggerTest.LOGGER.trace("attributeInt(%s, %s, %s)", "name", i, i + 1);
+    }
+    
     @Test
     void colorCodes()
     {
@@ -121,4 +504,28 @@ class LoggerTest
         LoggerTest.LOGGER.info("%s%s", Logger.CYAN_BACKGROUND_BRIGHT, "CYAN_BACKGROUND_BRIGHT");
         LoggerTest.LOGGER.info("%s%s", Logger.WHITE_BACKGROUND_BRIGHT, "WHITE_BACKGROUND_BRIGHT");
     }
-}
\ No newline at end of file
+    
+    static class Capture implements Logger.Sink
+    {
+        final List<String> messages = new ArrayList<>();
+        
+        private int flushes;
+        
+        @Override
+        public synchronized void write(@NotNull Logger.Record record)
+        {
+            this.messages.add(record.message());
+        }
+        
+        @Override
+        public synchronized void flush()
+        {
+            this.flushes++;
+        }
+        
+        synchronized int flushes()
+        {
+            return this.flushes;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package engine.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RingBufferTest
+{
+    @Test
+    void offerAndPoll()
+    {
+        RingBuffer<Integer> ring = new RingBuffer<>(3);
+        Assertions.assertEquals(4, ring.capacity());
+        Assertions.assertNull(ring.poll());
+        
+        for (int i = 0; i < 4; i++) Assertions.assertTrue(ring.offer(i));
+        Assertions.assertFalse(ring.offer(4));
+        Assertions.assertEquals(4, ring.size());
+        
+        Assertions.assertEquals(0, ring.poll());
+        Assertions.assertTrue(ring.offer(4));
+        
+        for (int i = 1; i <= 4; i++) Assertions.assertEquals(i, ring.poll());
+        Assertions.assertNull(ring.poll());
+        Assertions.assertTrue(ring.isEmpty());
+    }
+    
+    @Test
+    void multipleProducers() throws InterruptedException
+    {
+        int producers = 4;
+        int count     = 20_000;
+        
+        RingBuffer<long[]> ring = new RingBuffer<>(64);
+        
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++)
+        {
+            int producer = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < count; i++)
+                {
+                    long[] element = {producer, i};
+                    while (!ring.offer(element)) Thread.yield();
+                }
+            });
+            threads[p].start();
+        }
+        
+        // Each producer's elements must arrive in the order they were offered
+        int[] next = new int[producers];
+        for (int received = 0; received < producers * count; )
+        {
+            long[] element = ring.poll();
+            if (element == null)
+            {
+                Thread.yield();
+                continue;
+            }
+            Assertions.assertEquals(next[(int) element[0]]++, element[1]);
+            received++;
+        }
+        for (Thread thread : threads) thread.join();
+        
+        Assertions.assertNull(ring.poll());
+        for (int p = 0; p < producers; p++) Assertions.assertEquals(count, next[p]);
+    }
+}
@@ -0,0 +1,65 @@
+package engine.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class RollingFileSinkTest
+{
+    static final Logger LOGGER = Logger.getLogger();
+    
+    @Test
+    void rollOver(@TempDir Path dir) throws IOException
+    {
+        Path            file = dir.resolve("engine.log");
+        RollingFileSink sink = RollingFileSink.builder(file).maxSize(256).maxFiles(2).build();
+        
+        RollingFileSinkTest.LOGGER.sinks = List.of(sink);
+        try
+        {
+            for (int i = 0; i < 20; i++) RollingFileSinkTest.LOGGER.info("Record number %s of the roll over test", i);
+        }
+        finally
+        {
+            RollingFileSinkTest.LOGGER.sinks = null;
+            sink.close();
+        }
+        
+        Assertions.assertTrue(Files.exists(file));
+        Assertions.assertTrue(Files.exists(dir.resolve("engine.1.log")));
+        Assertions.assertTrue(Files.exists(dir.resolve("engine.2.log")));
+        Assertions.assertFalse(Files.exists(dir.resolve("engine.3.log")));
+        
+        Assertions.assertTrue(Files.readString(file).endsWith("Record number 19 of the roll over test" + System.lineSeparator()));
+    }
+    
+    @Test
+    void json(@TempDir Path dir) throws IOException
+    {
+        Path            file = dir.resolve("engine.jsonl");
+        RollingFileSink sink = RollingFileSink.builder(file).json(true).build();
+        
+        RollingFileSinkTest.LOGGER.sinks = List.of(sink);
+        try
+        {
+            RollingFileSinkTest.LOGGER.info("Quote \" and\nnew line");
+        }
+        finally
+        {
+            RollingFileSinkTest.LOGGER.sinks = null;
+            sink.close();
+        }
+        
+        List<String> lines = Files.readAllLines(file);
+        Assertions.assertEquals(1, lines.size());
+        Assertions.assertTrue(lines.get(0).startsWith("{\"time\":\""));
+        Assertions.assertTrue(lines.get(0).contains("\"level\":\"INFO\""));
+        Assertions.assertTrue(lines.get(0).contains("\"logger\":\"engine.util.RollingFileSinkTest\""));
+        Assertions.assertTrue(lines.get(0).endsWith("\"message\":\"Quote \\\" and\\nnew line\"}"));
+    }
+}
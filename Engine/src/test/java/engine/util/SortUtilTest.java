@@ -0,0 +1,82 @@
+package engine.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+class SortUtilTest
+{
+    @Test
+    void radixSort()
+    {
+        Random random = new Random(1337);
+        
+        int    count  = 1000;
+        long[] keys   = new long[count];
+        int[]  values = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            keys[i]   = random.nextLong();
+            values[i] = i;
+        }
+        
+        Integer[] expected = new Integer[count];
+        for (int i = 0; i < count; i++) expected[i] = i;
+        long[] original = keys.clone();
+        Arrays.sort(expected, (a, b) -> Long.compareUnsigned(original[a], original[b]));
+        
+        SortUtil.radixSort(keys, values, count);
+        
+        for (int i = 0; i < count; i++)
+        {
+            Assertions.assertEquals((int) expected[i], values[i]);
+            Assertions.assertEquals(original[values[i]], keys[i]);
+        }
+    }
+    
+    @Test
+    void radixSortStable()
+    {
+        Random random = new Random(1337);
+        
+        int    count  = 500;
+        long[] keys   = new long[count];
+        int[]  values = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            keys[i]   = (long) random.nextInt(8) << 40 | random.nextInt(4);
+            values[i] = i;
+        }
+        
+        Integer[] expected = new Integer[count];
+        for (int i = 0; i < count; i++) expected[i] = i;
+        long[] original = keys.clone();
+        Arrays.sort(expected, Comparator.comparingLong(a -> original[a])); // Arrays.sort on objects is stable
+        
+        SortUtil.radixSort(keys, values, count);
+        
+        for (int i = 0; i < count; i++) Assertions.assertEquals((int) expected[i], values[i]);
+    }
+    
+    @Test
+    void radixSortPartial()
+    {
+        long[] keys   = {3, 1, 2, 0};
+        int[]  values = {0, 1, 2, 3};
+        
+        SortUtil.radixSort(keys, values, 3);
+        
+        Assertions.assertArrayEquals(new long[] {1, 2, 3, 0}, keys);
+        Assertions.assertArrayEquals(new int[] {1, 2, 0, 3}, values);
+        
+        SortUtil.radixSort(keys, values, 0);
+        SortUtil.radixSort(keys, values, 1);
+        
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> SortUtil.radixSort(keys, values, 5));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> SortUtil.radixSort(keys, values, -1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> SortUtil.radixSort(keys, values, 4, new long[2], new int[4]));
+    }
+}
@@ -0,0 +1,80 @@
+package engine.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ThreadExecutorTest
+{
+    @Test
+    void sameThread() throws ExecutionException, InterruptedException
+    {
+        ThreadExecutor executor = new ThreadExecutor(Thread.currentThread());
+        
+        AtomicInteger count = new AtomicInteger();
+        executor.execute(count::incrementAndGet);
+        Assertions.assertEquals(1, count.get());
+        
+        Future<Integer> future = executor.submit(count::incrementAndGet);
+        Assertions.assertTrue(future.isDone());
+        Assertions.assertEquals(2, future.get());
+        Assertions.assertFalse(executor.hasTasks());
+    }
+    
+    @Test
+    void budget() throws InterruptedException
+    {
+        ThreadExecutor executor = new ThreadExecutor(Thread.currentThread(), 16);
+        
+        AtomicInteger count    = new AtomicInteger();
+        AtomicInteger received = new AtomicInteger();
+        executor.onTaskReceived = received::incrementAndGet;
+        
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) executor.execute(count::incrementAndGet);
+        });
+        producer.start();
+        producer.join();
+        
+        Assertions.assertEquals(10, received.get());
+        Assertions.assertEquals(0, count.get());
+        Assertions.assertTrue(executor.hasTasks());
+        
+        Assertions.assertEquals(4, executor.processQueue(4, Long.MAX_VALUE));
+        Assertions.assertEquals(4, count.get());
+        Assertions.assertEquals(1, executor.processQueue(10, 0L));
+        Assertions.assertEquals(5, executor.processQueue());
+        Assertions.assertEquals(10, count.get());
+        Assertions.assertFalse(executor.hasTasks());
+    }
+    
+    @Test
+    void full() throws InterruptedException, ExecutionException
+    {
+        ThreadExecutor executor = new ThreadExecutor(Thread.currentThread(), 4);
+        
+        AtomicInteger count = new AtomicInteger();
+        
+        // More tasks than fit, the producer waits for room
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) executor.execute(count::incrementAndGet);
+        });
+        producer.start();
+        while (producer.isAlive() || executor.hasTasks())
+        {
+            if (executor.processQueue() == 0) Thread.yield();
+        }
+        Assertions.assertEquals(1000, count.get());
+        
+        Future<?>[] future = new Future<?>[1];
+        Thread submitter = new Thread(() -> future[0] = executor.submit(count::incrementAndGet));
+        submitter.start();
+        submitter.join();
+        Assertions.assertFalse(future[0].isDone());
+        executor.processQueue();
+        Assertions.assertEquals(1001, future[0].get());
+    }
+}
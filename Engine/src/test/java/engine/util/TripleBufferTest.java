@@ -0,0 +1,100 @@
+package engine.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TripleBufferTest
+{
+    @Test
+    void publishAndAcquire()
+    {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+        Assertions.assertFalse(buffer.acquire());
+        
+        buffer.back()[0] = 1;
+        buffer.publish();
+        Assertions.assertTrue(buffer.fresh());
+        Assertions.assertNotEquals(1, buffer.back()[0]);
+        
+        Assertions.assertTrue(buffer.acquire());
+        Assertions.assertEquals(1, buffer.front()[0]);
+        Assertions.assertFalse(buffer.acquire());
+        Assertions.assertEquals(1, buffer.front()[0]);
+        
+        // Only the newest copy is seen
+        buffer.back()[0] = 2;
+        buffer.publish();
+        buffer.back()[0] = 3;
+        buffer.publish();
+        Assertions.assertTrue(buffer.acquire());
+        Assertions.assertEquals(3, buffer.front()[0]);
+        Assertions.assertNotSame(buffer.front(), buffer.back());
+    }
+    
+    @Test
+    void await() throws InterruptedException
+    {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+        
+        long start = System.nanoTime();
+        Assertions.assertFalse(buffer.await(5_000_000L));
+        Assertions.assertTrue(System.nanoTime() - start >= 5_000_000L);
+        
+        Thread producer = new Thread(() -> {
+            try
+            {
+                Thread.sleep(20);
+            }
+            catch (InterruptedException ignored)
+            {
+            }
+            buffer.back()[0] = 7;
+            buffer.publish();
+        });
+        producer.start();
+        
+        // Woken by the publish long before the time runs out
+        start = System.nanoTime();
+        Assertions.assertTrue(buffer.await(10_000_000_000L));
+        Assertions.assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        Assertions.assertTrue(buffer.acquire());
+        Assertions.assertEquals(7, buffer.front()[0]);
+        producer.join();
+    }
+    
+    @Test
+    void concurrent() throws InterruptedException
+    {
+        int count = 20_000;
+        
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[2]);
+        
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= count; i++)
+            {
+                int[] state = buffer.back();
+                state[0] = i;
+                state[1] = -i;
+                buffer.publish();
+                if ((i & 15) == 0) Thread.yield();
+            }
+        });
+        producer.start();
+        
+        // Copies are never torn and never go back in time
+        int last = 0;
+        while (last < count)
+        {
+            if (!buffer.acquire())
+            {
+                Thread.yield();
+                continue;
+            }
+            int[] state = buffer.front();
+            Assertions.assertEquals(state[0], -state[1]);
+            Assertions.assertTrue(state[0] > last);
+            last = state[0];
+        }
+        producer.join();
+    }
+}